@@ -5,8 +5,8 @@
 package ca.qc.collegeahuntsic.bibliotheque.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 import ca.qc.collegeahuntsic.bibliotheque.exception.ConnexionException;
 
 /**
@@ -18,7 +18,10 @@ import ca.qc.collegeahuntsic.bibliotheque.exception.ConnexionException;
  *     Le driver JDBC approprié doit être accessible.<br />
  *
  * Post-condition :
- *     La connexion est créée en mode autocommit false.
+ *     La connexion est créée en mode autocommit false.<br /><br />
+ *
+ * La connexion est empruntée à un pool ({@link PoolConnexions} par défaut, ou toute {@link DataSource}) et lui est rendue à la
+ * fermeture : le driver n'est chargé et la connexion physique n'est ouverte qu'au premier emprunt.
  *
  * @author Gilles Benichou
  */
@@ -52,7 +55,7 @@ public class Connexion implements AutoCloseable {
     private Connection connection;
 
     /**
-     * Crée une connexion en mode autocommit false.
+     * Crée une connexion en mode autocommit false, empruntée au pool partagé du serveur, du schéma et de l'utilisateur.
      *
      * @param typeServeur Type de serveur SQL de la BD
      * @param schema Nom du schéma de la base de données
@@ -65,48 +68,34 @@ public class Connexion implements AutoCloseable {
         String schema,
         String nomUtilisateur,
         String motPasse) throws ConnexionException {
-        String urlBD = null;
+        this(Connexion.getPool(typeServeur,
+            schema,
+            nomUtilisateur,
+            motPasse));
+    }
 
+    /**
+     * Crée une connexion en mode autocommit false, empruntée à une source de données. La fermeture de la connexion la rend à la source
+     * de données.
+     *
+     * @param dataSource La source de données, en général un pool de connexions
+     * @throws ConnexionException S'il y a une erreur avec la base de données
+     */
+    public Connexion(DataSource dataSource) throws ConnexionException {
         try {
-            if(typeServeur.equals(Connexion.TYPE_SERVEUR_LOCAL)) {
-                Class.forName(Connexion.SERVEUR_LOCAL_CLASS);
-                urlBD = Connexion.SERVEUR_LOCAL_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_DISTANT)) {
-                Class.forName(Connexion.SERVEUR_DISTANT_CLASS);
-                urlBD = Connexion.SERVEUR_DISTANT_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_POSTGRES)) {
-                Class.forName(Connexion.SERVEUR_POSTGRES_CLASS);
-                urlBD = Connexion.SERVEUR_POSTGRES_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_ACCESS)) {
-                Class.forName(Connexion.SERVEUR_ACCESS_CLASS);
-                urlBD = Connexion.SERVEUR_ACCESS_URL
-                    + schema;
-            } else {
-                throw new IllegalArgumentException("Type de serveur "
-                    + typeServeur
-                    + "n'est pas valide.");
-            }
-            setConnection(DriverManager.getConnection(urlBD,
-                nomUtilisateur,
-                motPasse));
+            setConnection(dataSource.getConnection());
 
             // Mettre en mode de commit manuel
             getConnection().setAutoCommit(false);
-
-            System.out.println("Ouverture de la connexion en mode read committed (default) :\n"
-                + "Heure "
-                + System.currentTimeMillis()
-                + " "
-                + getConnection());
-        } catch(ClassNotFoundException classNotFoundException) {
-            throw new ConnexionException(classNotFoundException);
         } catch(SQLException sqlException) {
+            if(getConnection() != null) {
+                try {
+                    getConnection().close();
+                } catch(SQLException closeException) {
+                    sqlException.addSuppressed(closeException);
+                }
+            }
             throw new ConnexionException(sqlException);
-        } catch(IllegalArgumentException illegalArgumentException) {
-            throw new ConnexionException(illegalArgumentException);
         }
     }
 
@@ -138,9 +127,6 @@ public class Connexion implements AutoCloseable {
     public void close() throws Exception {
         rollback();
         getConnection().close();
-        System.out.println("\nConnexion fermée"
-            + " "
-            + getConnection());
     }
 
     /**
@@ -169,6 +155,56 @@ public class Connexion implements AutoCloseable {
         }
     }
 
+    /**
+     * Retourne le pool de connexions d'un type de serveur, d'un schéma et d'un utilisateur.
+     *
+     * @param typeServeur Type de serveur SQL de la BD
+     * @param schema Nom du schéma de la base de données
+     * @param nomUtilisateur Nom d'utilisateur sur le serveur SQL
+     * @param motPasse Mot de passe sur le serveur SQL
+     * @return Le pool de connexions
+     * @throws ConnexionException Si le driver n'existe pas ou si <code>typeServeur</code> n'est pas valide
+     */
+    private static PoolConnexions getPool(String typeServeur,
+        String schema,
+        String nomUtilisateur,
+        String motPasse) throws ConnexionException {
+        String driverClass = null;
+        String urlBD = null;
+
+        try {
+            if(typeServeur.equals(Connexion.TYPE_SERVEUR_LOCAL)) {
+                driverClass = Connexion.SERVEUR_LOCAL_CLASS;
+                urlBD = Connexion.SERVEUR_LOCAL_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_DISTANT)) {
+                driverClass = Connexion.SERVEUR_DISTANT_CLASS;
+                urlBD = Connexion.SERVEUR_DISTANT_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_POSTGRES)) {
+                driverClass = Connexion.SERVEUR_POSTGRES_CLASS;
+                urlBD = Connexion.SERVEUR_POSTGRES_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_ACCESS)) {
+                driverClass = Connexion.SERVEUR_ACCESS_CLASS;
+                urlBD = Connexion.SERVEUR_ACCESS_URL
+                    + schema;
+            } else {
+                throw new IllegalArgumentException("Type de serveur "
+                    + typeServeur
+                    + "n'est pas valide.");
+            }
+            return PoolConnexions.getPool(driverClass,
+                urlBD,
+                nomUtilisateur,
+                motPasse);
+        } catch(ClassNotFoundException classNotFoundException) {
+            throw new ConnexionException(classNotFoundException);
+        } catch(IllegalArgumentException illegalArgumentException) {
+            throw new ConnexionException(illegalArgumentException);
+        }
+    }
+
     /**
       * Retourne la liste des serveurs supportés par ce gestionnaire de connexion.<br /><br />
       *
@@ -96,8 +96,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
                 + getDtoClass().getName());
         }
         final LivreDTO livreDTO = (LivreDTO) dto;
-        try(
-            PreparedStatement createPreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.CREATE_REQUEST)) {
+        try {
+            final PreparedStatement createPreparedStatement = connexion.prepareStatement(LivreDAO.CREATE_REQUEST);
             createPreparedStatement.setString(1,
                 livreDTO.getTitre());
             createPreparedStatement.setString(2,
@@ -126,8 +126,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
         }
         final String idLivre = (String) primaryKey;
         LivreDTO livreDTO = null;
-        try(
-            PreparedStatement readPreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.READ_REQUEST)) {
+        try {
+            final PreparedStatement readPreparedStatement = connexion.prepareStatement(LivreDAO.READ_REQUEST);
             readPreparedStatement.setString(1,
                 idLivre);
             try(
@@ -166,8 +166,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
                 + getDtoClass().getName());
         }
         final LivreDTO livreDTO = (LivreDTO) dto;
-        try(
-            PreparedStatement updatePreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.UPDATE_REQUEST)) {
+        try {
+            final PreparedStatement updatePreparedStatement = connexion.prepareStatement(LivreDAO.UPDATE_REQUEST);
             updatePreparedStatement.setString(1,
                 livreDTO.getTitre());
             updatePreparedStatement.setString(2,
@@ -202,8 +202,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
                 + getDtoClass().getName());
         }
         final LivreDTO livreDTO = (LivreDTO) dto;
-        try(
-            PreparedStatement deletePreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.DELETE_REQUEST)) {
+        try {
+            final PreparedStatement deletePreparedStatement = connexion.prepareStatement(LivreDAO.DELETE_REQUEST);
             deletePreparedStatement.setString(1,
                 livreDTO.getIdLivre());
             deletePreparedStatement.executeUpdate();
@@ -227,8 +227,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<LivreDTO> livres = Collections.emptyList();
-        try(
-            PreparedStatement getAllPreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.GET_ALL_REQUEST)) {
+        try {
+            final PreparedStatement getAllPreparedStatement = connexion.prepareStatement(LivreDAO.GET_ALL_REQUEST);
             try(
                 ResultSet resultSet = getAllPreparedStatement.executeQuery()) {
                 LivreDTO livreDTO = null;
@@ -270,8 +270,8 @@ public class LivreDAO extends DAO implements ILivreDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<LivreDTO> livres = Collections.emptyList();
-        try(
-            PreparedStatement findByTitrePreparedStatement = connexion.getConnection().prepareStatement(LivreDAO.FIND_BY_TITRE)) {
+        try {
+            final PreparedStatement findByTitrePreparedStatement = connexion.prepareStatement(LivreDAO.FIND_BY_TITRE);
             findByTitrePreparedStatement.setString(1,
                 "%"
                     + titre
@@ -146,8 +146,8 @@ public class PretDAO extends DAO implements IPretDAO {
                 + getDtoClass().getName());
         }
         final PretDTO pretDTO = (PretDTO) dto;
-        try(
-            PreparedStatement createPreparedStatement = connexion.getConnection().prepareStatement(PretDAO.ADD_REQUEST)) {
+        try {
+            final PreparedStatement createPreparedStatement = connexion.prepareStatement(PretDAO.ADD_REQUEST);
             createPreparedStatement.setString(1,
                 pretDTO.getMembreDTO().getIdMembre());
             createPreparedStatement.setString(2,
@@ -210,8 +210,8 @@ public class PretDAO extends DAO implements IPretDAO {
         }
         final String idPret = (String) primaryKey;
         PretDTO pretDTO = null;
-        try(
-            PreparedStatement readPreparedStatement = connexion.getConnection().prepareStatement(PretDAO.READ_REQUEST)) {
+        try {
+            final PreparedStatement readPreparedStatement = connexion.prepareStatement(PretDAO.READ_REQUEST);
             readPreparedStatement.setString(1,
                 idPret);
             try(
@@ -276,8 +276,8 @@ public class PretDAO extends DAO implements IPretDAO {
                 + getDtoClass().getName());
         }
         final PretDTO pretDTO = (PretDTO) dto;
-        try(
-            PreparedStatement updatePreparedStatement = connexion.getConnection().prepareStatement(PretDAO.UPDATE_REQUEST)) {
+        try {
+            final PreparedStatement updatePreparedStatement = connexion.prepareStatement(PretDAO.UPDATE_REQUEST);
             updatePreparedStatement.setString(1,
                 pretDTO.getMembreDTO().getIdMembre());
             updatePreparedStatement.setString(2,
@@ -330,8 +330,8 @@ public class PretDAO extends DAO implements IPretDAO {
                 + getDtoClass().getName());
         }
         final PretDTO pretDTO = (PretDTO) dto;
-        try(
-            PreparedStatement deletePreparedStatement = connexion.getConnection().prepareStatement(PretDAO.DELETE_REQUEST)) {
+        try {
+            final PreparedStatement deletePreparedStatement = connexion.prepareStatement(PretDAO.DELETE_REQUEST);
             deletePreparedStatement.setString(1,
                 pretDTO.getIdPret());
             deletePreparedStatement.executeUpdate();
@@ -392,8 +392,8 @@ public class PretDAO extends DAO implements IPretDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<PretDTO> prets = Collections.emptyList();
-        try(
-            PreparedStatement getAllPreparedStatement = connexion.getConnection().prepareStatement(PretDAO.GET_ALL_REQUEST)) {
+        try {
+            final PreparedStatement getAllPreparedStatement = connexion.prepareStatement(PretDAO.GET_ALL_REQUEST);
             try(
                 ResultSet resultSet = getAllPreparedStatement.executeQuery()) {
                 PretDTO pretDTO = null;
@@ -475,8 +475,8 @@ public class PretDAO extends DAO implements IPretDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<PretDTO> prets = Collections.emptyList();
-        try(
-            PreparedStatement findByTitrePreparedStatement = connexion.getConnection().prepareStatement(PretDAO.FIND_BY_MEMBRE)) {
+        try {
+            final PreparedStatement findByTitrePreparedStatement = connexion.prepareStatement(PretDAO.FIND_BY_MEMBRE);
             findByTitrePreparedStatement.setString(1,
                 "%"
                     + idMembre
@@ -523,8 +523,8 @@ public class PretDAO extends DAO implements IPretDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<PretDTO> prets = Collections.emptyList();
-        try(
-            PreparedStatement findByTitrePreparedStatement = connexion.getConnection().prepareStatement(PretDAO.FIND_BY_LIVRE)) {
+        try {
+            final PreparedStatement findByTitrePreparedStatement = connexion.prepareStatement(PretDAO.FIND_BY_LIVRE);
             findByTitrePreparedStatement.setString(1,
                 idLivre);
             try(
@@ -569,8 +569,8 @@ public class PretDAO extends DAO implements IPretDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<PretDTO> prets = Collections.emptyList();
-        try(
-            PreparedStatement findByTitrePreparedStatement = connexion.getConnection().prepareStatement(PretDAO.FIND_BY_DATE_PRET)) {
+        try {
+            final PreparedStatement findByTitrePreparedStatement = connexion.prepareStatement(PretDAO.FIND_BY_DATE_PRET);
             findByTitrePreparedStatement.setString(1,
                 "%"
                     + datePret
@@ -617,8 +617,8 @@ public class PretDAO extends DAO implements IPretDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<PretDTO> prets = Collections.emptyList();
-        try(
-            PreparedStatement findByDatePretPreparedStatement = connexion.getConnection().prepareStatement(PretDAO.FIND_BY_DATE_PRET)) {
+        try {
+            final PreparedStatement findByDatePretPreparedStatement = connexion.prepareStatement(PretDAO.FIND_BY_DATE_PRET);
             findByDatePretPreparedStatement.setString(1,
                 "%"
                     + dateRetour
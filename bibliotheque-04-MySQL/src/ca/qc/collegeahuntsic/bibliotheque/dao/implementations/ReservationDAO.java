@@ -107,8 +107,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
         }
         final ReservationDTO reservationDTO = (ReservationDTO) dto;
         //TODO : vérifier si la base de donnée utilise des String ou encore des int.
-        try(
-            PreparedStatement createPreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.ADD_REQUEST)) {
+        try {
+            final PreparedStatement createPreparedStatement = connexion.prepareStatement(ReservationDAO.ADD_REQUEST);
             createPreparedStatement.setString(1,
                 reservationDTO.getLivreDTO().getIdLivre());
             createPreparedStatement.setString(2,
@@ -139,8 +139,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
         }
         final String idReservation = (String) primaryKey;
         ReservationDTO reservationDTO = null;
-        try(
-            PreparedStatement readPreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.READ_REQUEST)) {
+        try {
+            final PreparedStatement readPreparedStatement = connexion.prepareStatement(ReservationDAO.READ_REQUEST);
             readPreparedStatement.setString(1,
                 idReservation);
             try(
@@ -183,8 +183,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
                 + getDtoClass().getName());
         }
         final ReservationDTO reservationDTO = (ReservationDTO) dto;
-        try(
-            PreparedStatement updatePreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.UPDATE_REQUEST)) {
+        try {
+            final PreparedStatement updatePreparedStatement = connexion.prepareStatement(ReservationDAO.UPDATE_REQUEST);
             updatePreparedStatement.setString(1,
                 reservationDTO.getLivreDTO().getIdLivre());
             updatePreparedStatement.setString(2,
@@ -219,8 +219,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
                 + getDtoClass().getName());
         }
         final ReservationDTO reservationDTO = (ReservationDTO) dto;
-        try(
-            PreparedStatement deletePreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.DELETE_REQUEST)) {
+        try {
+            final PreparedStatement deletePreparedStatement = connexion.prepareStatement(ReservationDAO.DELETE_REQUEST);
             deletePreparedStatement.setString(1,
                 reservationDTO.getIdReservation());
             deletePreparedStatement.executeUpdate();
@@ -245,8 +245,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<ReservationDTO> reservations = Collections.emptyList();
-        try(
-            PreparedStatement getAllPreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.GET_ALL_REQUEST)) {
+        try {
+            final PreparedStatement getAllPreparedStatement = connexion.prepareStatement(ReservationDAO.GET_ALL_REQUEST);
             try(
                 ResultSet resultSet = getAllPreparedStatement.executeQuery()) {
                 ReservationDTO reservationDTO = null;
@@ -292,8 +292,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<ReservationDTO> reservations = Collections.emptyList();
-        try(
-            PreparedStatement findByLivrePreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.FIND_BY_LIVRE_REQUEST)) {
+        try {
+            final PreparedStatement findByLivrePreparedStatement = connexion.prepareStatement(ReservationDAO.FIND_BY_LIVRE_REQUEST);
             findByLivrePreparedStatement.setString(1,
                 idLivre);
             try(
@@ -341,8 +341,8 @@ public class ReservationDAO extends DAO implements IReservationDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<ReservationDTO> reservations = Collections.emptyList();
-        try(
-            PreparedStatement findByLivrePreparedStatement = connexion.getConnection().prepareStatement(ReservationDAO.FIND_BY_MEMBRE_REQUEST)) {
+        try {
+            final PreparedStatement findByLivrePreparedStatement = connexion.prepareStatement(ReservationDAO.FIND_BY_MEMBRE_REQUEST);
             findByLivrePreparedStatement.setString(1,
                 idMembre);
             try(
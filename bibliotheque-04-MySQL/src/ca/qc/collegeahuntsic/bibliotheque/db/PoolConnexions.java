@@ -0,0 +1,536 @@
+// Fichier PoolConnexions.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.db;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Pool de connexions JDBC pour une URL et un utilisateur.<br /><br />
+ *
+ * Une connexion fermée par son emprunteur retourne au pool, après un rollback si elle n'est pas en mode autocommit. Le pool :
+ * <ul>
+ * <li>limite le nombre de connexions ouvertes ; un emprunt attend qu'une connexion se libère, au plus {@link #DELAI_EMPRUNT} ms ;</li>
+ * <li>valide chaque connexion libre avant de la prêter et remplace celles qui ne répondent plus ;</li>
+ * <li>ferme les connexions plus vieilles que {@link #DUREE_VIE_MAXIMALE} ms, pour suivre les délais du serveur ;</li>
+ * <li>signale sur <code>System.err</code>, avec la pile de l'emprunt, toute connexion gardée plus de {@link #SEUIL_FUITE} ms.</li>
+ * </ul>
+ *
+ * Les pools sont partagés : {@link #getPool(String, String, String, String)} retourne le même pool pour la même URL et le même
+ * utilisateur.
+ *
+ * @author Gilles Bénichou
+ */
+public final class PoolConnexions implements DataSource {
+    /**
+     * Nombre maximal de connexions ouvertes par pool.
+     */
+    public static final int TAILLE_MAXIMALE = 10;
+
+    /**
+     * Attente maximale d'une connexion libre, en millisecondes.
+     */
+    public static final long DELAI_EMPRUNT = 30000;
+
+    /**
+     * Durée de vie maximale d'une connexion, en millisecondes.
+     */
+    public static final long DUREE_VIE_MAXIMALE = 30 * 60 * 1000;
+
+    /**
+     * Durée d'emprunt au-delà de laquelle une connexion est signalée comme une fuite possible, en millisecondes.
+     */
+    public static final long SEUIL_FUITE = 60000;
+
+    private static final int DELAI_VALIDATION = 2;
+
+    private static final ConcurrentMap<String, PoolConnexions> POOLS = new ConcurrentHashMap<>();
+
+    private static final Timer SURVEILLANT = new Timer("PoolConnexions",
+        true);
+
+    private final String url;
+
+    private final String nomUtilisateur;
+
+    private final String motPasse;
+
+    private final Semaphore permis;
+
+    private final BlockingDeque<ConnexionPhysique> libres;
+
+    private final Set<Emprunt> emprunts;
+
+    private final TimerTask detecteurFuites;
+
+    private PrintWriter logWriter;
+
+    private int loginTimeout;
+
+    /**
+     * Crée un pool vide.
+     *
+     * @param url L'URL JDBC de la base de données
+     * @param nomUtilisateur Nom d'utilisateur sur le serveur SQL
+     * @param motPasse Mot de passe sur le serveur SQL
+     */
+    private PoolConnexions(String url,
+        String nomUtilisateur,
+        String motPasse) {
+        super();
+        this.url = url;
+        this.nomUtilisateur = nomUtilisateur;
+        this.motPasse = motPasse;
+        this.permis = new Semaphore(PoolConnexions.TAILLE_MAXIMALE,
+            true);
+        this.libres = new LinkedBlockingDeque<>();
+        this.emprunts = Collections.newSetFromMap(new ConcurrentHashMap<Emprunt, Boolean>());
+        this.detecteurFuites = new TimerTask() {
+            @Override
+            public void run() {
+                detecterFuites();
+            }
+        };
+        PoolConnexions.SURVEILLANT.schedule(this.detecteurFuites,
+            PoolConnexions.SEUIL_FUITE / 2,
+            PoolConnexions.SEUIL_FUITE / 2);
+    }
+
+    /**
+     * Retourne le pool d'une URL et d'un utilisateur ; le crée et charge le driver JDBC au premier appel.
+     *
+     * @param driverClass La classe du driver JDBC
+     * @param url L'URL JDBC de la base de données
+     * @param nomUtilisateur Nom d'utilisateur sur le serveur SQL
+     * @param motPasse Mot de passe sur le serveur SQL
+     * @return Le pool
+     * @throws ClassNotFoundException Si le driver n'existe pas
+     */
+    public static PoolConnexions getPool(String driverClass,
+        String url,
+        String nomUtilisateur,
+        String motPasse) throws ClassNotFoundException {
+        final String cle = nomUtilisateur
+            + "@"
+            + url;
+        PoolConnexions pool = PoolConnexions.POOLS.get(cle);
+        if(pool == null) {
+            Class.forName(driverClass);
+            final PoolConnexions nouveauPool = new PoolConnexions(url,
+                nomUtilisateur,
+                motPasse);
+            pool = PoolConnexions.POOLS.putIfAbsent(cle,
+                nouveauPool);
+            if(pool == null) {
+                pool = nouveauPool;
+            } else {
+                nouveauPool.detecteurFuites.cancel();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Emprunte une connexion. La fermer la rend au pool.
+     *
+     * @return La connexion empruntée
+     * @throws SQLException Si aucune connexion ne se libère à temps ou s'il y a une erreur avec la base de données
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            if(!this.permis.tryAcquire(PoolConnexions.DELAI_EMPRUNT,
+                TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Aucune connexion libre après "
+                    + PoolConnexions.DELAI_EMPRUNT
+                    + " ms pour "
+                    + this.url);
+            }
+        } catch(InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(interruptedException);
+        }
+        boolean empruntee = false;
+        try {
+            ConnexionPhysique connexionPhysique = this.libres.pollFirst();
+            while(connexionPhysique != null
+                && !connexionPhysique.isValide()) {
+                connexionPhysique.fermer();
+                connexionPhysique = this.libres.pollFirst();
+            }
+            if(connexionPhysique == null) {
+                connexionPhysique = ouvrir();
+            }
+            final Emprunt emprunt = new Emprunt(connexionPhysique);
+            this.emprunts.add(emprunt);
+            empruntee = true;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                emprunt);
+        } finally {
+            if(!empruntee) {
+                this.permis.release();
+            }
+        }
+    }
+
+    /**
+     * Emprunte une connexion pour l'utilisateur du pool.
+     *
+     * @param username Nom d'utilisateur sur le serveur SQL ; doit être celui du pool
+     * @param password Mot de passe sur le serveur SQL ; doit être celui du pool
+     * @return La connexion empruntée
+     * @throws SQLException Si l'utilisateur n'est pas celui du pool, si aucune connexion ne se libère à temps ou s'il y a une erreur avec
+     *         la base de données
+     */
+    @Override
+    public Connection getConnection(String username,
+        String password) throws SQLException {
+        if(!this.nomUtilisateur.equals(username)
+            || !this.motPasse.equals(password)) {
+            throw new SQLException("Le pool de "
+                + this.url
+                + " n'ouvre que des connexions pour "
+                + this.nomUtilisateur);
+        }
+        return getConnection();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrintWriter getLogWriter() {
+        return this.logWriter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginTimeout() {
+        return this.loginTimeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("getParentLogger");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if(iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Le pool n'implémente pas "
+            + iface.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Ferme les connexions libres. Les connexions empruntées restent utilisables et retournent au pool à leur fermeture.
+     */
+    public void close() {
+        ConnexionPhysique connexionPhysique = this.libres.pollFirst();
+        while(connexionPhysique != null) {
+            connexionPhysique.fermer();
+            connexionPhysique = this.libres.pollFirst();
+        }
+    }
+
+    /**
+     * Ouvre une nouvelle connexion physique.
+     *
+     * @return La connexion physique
+     * @throws SQLException S'il y a une erreur avec la base de données
+     */
+    private ConnexionPhysique ouvrir() throws SQLException {
+        final Connection connection = DriverManager.getConnection(this.url,
+            this.nomUtilisateur,
+            this.motPasse);
+        System.out.println("Ouverture d'une connexion du pool :\n"
+            + "Heure "
+            + System.currentTimeMillis()
+            + " "
+            + connection);
+        return new ConnexionPhysique(connection);
+    }
+
+    /**
+     * Reprend une connexion rendue par son emprunteur. Elle retourne dans le pool si elle est encore utilisable et n'a pas dépassé sa
+     * durée de vie ; sinon elle est fermée.
+     *
+     * @param emprunt L'emprunt de la connexion
+     */
+    void rendre(Emprunt emprunt) {
+        this.emprunts.remove(emprunt);
+        final ConnexionPhysique connexionPhysique = emprunt.getConnexionPhysique();
+        try {
+            boolean reutilisable = !connexionPhysique.isExpiree()
+                && !connexionPhysique.getConnection().isClosed();
+            if(reutilisable
+                && !connexionPhysique.getConnection().getAutoCommit()) {
+                connexionPhysique.getConnection().rollback();
+            }
+            if(reutilisable) {
+                this.libres.offerFirst(connexionPhysique);
+            } else {
+                connexionPhysique.fermer();
+            }
+        } catch(SQLException sqlException) {
+            connexionPhysique.fermer();
+        } finally {
+            this.permis.release();
+        }
+    }
+
+    /**
+     * Signale les connexions empruntées depuis plus de {@link #SEUIL_FUITE} ms. Chaque emprunt n'est signalé qu'une fois.
+     */
+    void detecterFuites() {
+        final long maintenant = System.currentTimeMillis();
+        for(Emprunt emprunt : this.emprunts) {
+            if(maintenant
+                - emprunt.getDebut() > PoolConnexions.SEUIL_FUITE
+                && emprunt.signaler()) {
+                System.err.println("Fuite possible : connexion de "
+                    + this.url
+                    + " empruntée depuis "
+                    + (maintenant - emprunt.getDebut())
+                    + " ms par :");
+                emprunt.getPile().printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Connexion JDBC ouverte par le pool, avec sa date d'ouverture.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class ConnexionPhysique {
+        private final Connection connection;
+
+        private final long ouverture;
+
+        /**
+         * Crée une connexion physique.
+         *
+         * @param connection La connexion JDBC
+         */
+        ConnexionPhysique(Connection connection) {
+            super();
+            this.connection = connection;
+            this.ouverture = System.currentTimeMillis();
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.connection</code>.
+         *
+         * @return La variable d'instance <code>this.connection</code>
+         */
+        Connection getConnection() {
+            return this.connection;
+        }
+
+        /**
+         * Indique si la connexion a dépassé sa durée de vie.
+         *
+         * @return <code>true</code> si la connexion doit être fermée ; <code>false</code> sinon
+         */
+        boolean isExpiree() {
+            return System.currentTimeMillis()
+                - this.ouverture > PoolConnexions.DUREE_VIE_MAXIMALE;
+        }
+
+        /**
+         * Valide la connexion avant de la prêter. Un driver antérieur à JDBC 4 n'offre pas
+         * {@link Connection#isValid(int)} ; la connexion est alors seulement vérifiée ouverte.
+         *
+         * @return <code>true</code> si la connexion peut être prêtée ; <code>false</code> sinon
+         */
+        boolean isValide() {
+            if(isExpiree()) {
+                return false;
+            }
+            try {
+                return getConnection().isValid(PoolConnexions.DELAI_VALIDATION);
+            } catch(AbstractMethodError abstractMethodError) {
+                try {
+                    return !getConnection().isClosed();
+                } catch(SQLException sqlException) {
+                    return false;
+                }
+            } catch(SQLException sqlException) {
+                return false;
+            }
+        }
+
+        /**
+         * Ferme la connexion. Une erreur à la fermeture est ignorée : la connexion est abandonnée.
+         */
+        void fermer() {
+            try {
+                getConnection().close();
+            } catch(SQLException sqlException) {
+                // La connexion est abandonnée de toute façon.
+            }
+        }
+    }
+
+    /**
+     * Emprunt d'une connexion : délègue les appels à la connexion physique jusqu'à sa fermeture, qui la rend au pool.
+     *
+     * @author Gilles Bénichou
+     */
+    private final class Emprunt implements InvocationHandler {
+        private final ConnexionPhysique connexionPhysique;
+
+        private final long debut;
+
+        private final Throwable pile;
+
+        private final AtomicBoolean rendue;
+
+        private final AtomicBoolean signale;
+
+        /**
+         * Crée un emprunt.
+         *
+         * @param connexionPhysique La connexion empruntée
+         */
+        Emprunt(ConnexionPhysique connexionPhysique) {
+            super();
+            this.connexionPhysique = connexionPhysique;
+            this.debut = System.currentTimeMillis();
+            this.pile = new Throwable("Emprunt de la connexion");
+            this.rendue = new AtomicBoolean();
+            this.signale = new AtomicBoolean();
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.connexionPhysique</code>.
+         *
+         * @return La variable d'instance <code>this.connexionPhysique</code>
+         */
+        ConnexionPhysique getConnexionPhysique() {
+            return this.connexionPhysique;
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.debut</code>.
+         *
+         * @return La variable d'instance <code>this.debut</code>
+         */
+        long getDebut() {
+            return this.debut;
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.pile</code>.
+         *
+         * @return La variable d'instance <code>this.pile</code>
+         */
+        Throwable getPile() {
+            return this.pile;
+        }
+
+        /**
+         * Marque l'emprunt comme signalé.
+         *
+         * @return <code>true</code> s'il ne l'était pas encore ; <code>false</code> sinon
+         */
+        boolean signaler() {
+            return this.signale.compareAndSet(false,
+                true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(Object proxy,
+            Method method,
+            Object[] args) throws Throwable {
+            final String nom = method.getName();
+            if("close".equals(nom)) {
+                if(this.rendue.compareAndSet(false,
+                    true)) {
+                    rendre(this);
+                }
+                return null;
+            }
+            if("isClosed".equals(nom)
+                && this.rendue.get()) {
+                return Boolean.TRUE;
+            }
+            if("equals".equals(nom)) {
+                return Boolean.valueOf(proxy == args[0]);
+            }
+            if("hashCode".equals(nom)) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            }
+            if(this.rendue.get()
+                && !"toString".equals(nom)) {
+                throw new SQLException("La connexion a été rendue au pool");
+            }
+            try {
+                return method.invoke(this.connexionPhysique.getConnection(),
+                    args);
+            } catch(InvocationTargetException invocationTargetException) {
+                throw invocationTargetException.getCause();
+            }
+        }
+    }
+}
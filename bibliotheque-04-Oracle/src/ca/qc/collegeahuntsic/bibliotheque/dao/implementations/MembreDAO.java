@@ -98,8 +98,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
                 + getDtoClass().getName());
         }
         final MembreDTO membreDTO = (MembreDTO) dto;
-        try(
-            PreparedStatement createPreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.ADD_REQUEST)) {
+        try {
+            final PreparedStatement createPreparedStatement = connexion.prepareStatement(MembreDAO.ADD_REQUEST);
             createPreparedStatement.setString(1,
                 membreDTO.getNom());
             createPreparedStatement.setString(2,
@@ -128,8 +128,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
         }
         final String idMembre = (String) primaryKey;
         MembreDTO membreDTO = null;
-        try(
-            PreparedStatement readPreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.READ_REQUEST)) {
+        try {
+            final PreparedStatement readPreparedStatement = connexion.prepareStatement(MembreDAO.READ_REQUEST);
             readPreparedStatement.setString(1,
                 idMembre);
             try(
@@ -168,8 +168,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
                 + getDtoClass().getName());
         }
         final MembreDTO membreDTO = (MembreDTO) dto;
-        try(
-            PreparedStatement updatePreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.UPDATE_REQUEST)) {
+        try {
+            final PreparedStatement updatePreparedStatement = connexion.prepareStatement(MembreDAO.UPDATE_REQUEST);
             updatePreparedStatement.setString(1,
                 membreDTO.getNom());
             updatePreparedStatement.setString(2,
@@ -204,8 +204,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
                 + getDtoClass().getName());
         }
         final MembreDTO membreDTO = (MembreDTO) dto;
-        try(
-            PreparedStatement deletePreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.DELETE_REQUEST)) {
+        try {
+            final PreparedStatement deletePreparedStatement = connexion.prepareStatement(MembreDAO.DELETE_REQUEST);
             deletePreparedStatement.setString(1,
                 membreDTO.getIdMembre());
             deletePreparedStatement.executeUpdate();
@@ -229,8 +229,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<MembreDTO> membre = Collections.emptyList();
-        try(
-            PreparedStatement getAllPreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.GET_ALL_REQUEST)) {
+        try {
+            final PreparedStatement getAllPreparedStatement = connexion.prepareStatement(MembreDAO.GET_ALL_REQUEST);
             try(
                 ResultSet resultSet = getAllPreparedStatement.executeQuery()) {
                 MembreDTO membreDTO = null;
@@ -272,8 +272,8 @@ public class MembreDAO extends DAO implements IMembreDAO {
             throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
         }
         List<MembreDTO> membres = Collections.emptyList();
-        try(
-            PreparedStatement findByNomPreparedStatement = connexion.getConnection().prepareStatement(MembreDAO.FIND_BY_NOM)) {
+        try {
+            final PreparedStatement findByNomPreparedStatement = connexion.prepareStatement(MembreDAO.FIND_BY_NOM);
             findByNomPreparedStatement.setString(1,
                 "%"
                     + nom
@@ -5,8 +5,12 @@
 package ca.qc.collegeahuntsic.bibliotheque.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
 import ca.qc.collegeahuntsic.bibliotheque.exception.db.ConnexionException;
 
 /**
@@ -18,7 +22,13 @@ import ca.qc.collegeahuntsic.bibliotheque.exception.db.ConnexionException;
  *     Le driver JDBC approprié doit être accessible.<br />
  *
  * Post-condition :
- *     La connexion est créée en mode autocommit false.
+ *     La connexion est créée en mode autocommit false.<br /><br />
+ *
+ * La connexion est empruntée à un pool ({@link PoolConnexions} par défaut, ou toute {@link DataSource}) et lui est rendue à la
+ * fermeture : le driver n'est chargé et la connexion physique n'est ouverte qu'au premier emprunt.<br /><br />
+ *
+ * Les requêtes préparées par {@link Connexion#prepareStatement(String)} sont gardées dans un cache LRU, indexé par le texte SQL, pour
+ * que le serveur n'analyse chaque requête qu'une fois par connexion. Elles sont fermées avec la connexion.
  *
  * @author Gilles Benichou
  */
@@ -49,10 +59,14 @@ public class Connexion implements AutoCloseable {
 
     private static final String SERVEUR_ACCESS_URL = "jdbc:postgresql:";
 
+    private static final int TAILLE_CACHE_REQUETES = 32;
+
     private Connection connection;
 
+    private final Map<String, PreparedStatement> requetes;
+
     /**
-     * Crée une connexion en mode autocommit false.
+     * Crée une connexion en mode autocommit false, empruntée au pool partagé du serveur, du schéma et de l'utilisateur.
      *
      * @param typeServeur Type de serveur SQL de la BD
      * @param schema Nom du schéma de la base de données
@@ -65,48 +79,48 @@ public class Connexion implements AutoCloseable {
         String schema,
         String nomUtilisateur,
         String motPasse) throws ConnexionException {
-        String urlBD = null;
+        this(Connexion.getPool(typeServeur,
+            schema,
+            nomUtilisateur,
+            motPasse));
+    }
 
-        try {
-            if(typeServeur.equals(Connexion.TYPE_SERVEUR_LOCAL)) {
-                Class.forName(Connexion.SERVEUR_LOCAL_CLASS);
-                urlBD = Connexion.SERVEUR_LOCAL_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_DISTANT)) {
-                Class.forName(Connexion.SERVEUR_DISTANT_CLASS);
-                urlBD = Connexion.SERVEUR_DISTANT_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_POSTGRES)) {
-                Class.forName(Connexion.SERVEUR_POSTGRES_CLASS);
-                urlBD = Connexion.SERVEUR_POSTGRES_URL
-                    + schema;
-            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_ACCESS)) {
-                Class.forName(Connexion.SERVEUR_ACCESS_CLASS);
-                urlBD = Connexion.SERVEUR_ACCESS_URL
-                    + schema;
-            } else {
-                throw new IllegalArgumentException("Type de serveur "
-                    + typeServeur
-                    + "n'est pas valide.");
+    /**
+     * Crée une connexion en mode autocommit false, empruntée à une source de données. La fermeture de la connexion la rend à la source
+     * de données.
+     *
+     * @param dataSource La source de données, en général un pool de connexions
+     * @throws ConnexionException S'il y a une erreur avec la base de données
+     */
+    public Connexion(DataSource dataSource) throws ConnexionException {
+        this.requetes = new LinkedHashMap<String, PreparedStatement>(Connexion.TAILLE_CACHE_REQUETES,
+            0.75f,
+            true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if(size() > Connexion.TAILLE_CACHE_REQUETES) {
+                    Connexion.fermer(eldest.getValue());
+                    return true;
+                }
+                return false;
             }
-            setConnection(DriverManager.getConnection(urlBD,
-                nomUtilisateur,
-                motPasse));
+        };
+        try {
+            setConnection(dataSource.getConnection());
 
             // Mettre en mode de commit manuel
             getConnection().setAutoCommit(false);
-
-            System.out.println("Ouverture de la connexion en mode read committed (default) :\n"
-                + "Heure "
-                + System.currentTimeMillis()
-                + " "
-                + getConnection());
-        } catch(ClassNotFoundException classNotFoundException) {
-            throw new ConnexionException(classNotFoundException);
         } catch(SQLException sqlException) {
+            if(getConnection() != null) {
+                try {
+                    getConnection().close();
+                } catch(SQLException closeException) {
+                    sqlException.addSuppressed(closeException);
+                }
+            }
             throw new ConnexionException(sqlException);
-        } catch(IllegalArgumentException illegalArgumentException) {
-            throw new ConnexionException(illegalArgumentException);
         }
     }
 
@@ -136,11 +150,35 @@ public class Connexion implements AutoCloseable {
      */
     @Override
     public void close() throws Exception {
+        final Iterator<PreparedStatement> iterator = this.requetes.values().iterator();
+        while(iterator.hasNext()) {
+            Connexion.fermer(iterator.next());
+            iterator.remove();
+        }
         rollback();
         getConnection().close();
-        System.out.println("\nConnexion fermée"
-            + " "
-            + getConnection());
+    }
+
+    /**
+     * Retourne la requête préparée pour un texte SQL. La requête est préparée au premier appel, puis reprise du cache, sans ses paramètres,
+     * aux appels suivants. Elle ne doit donc pas être fermée par l'appelant, et son {@link java.sql.ResultSet} doit être fermé avant de la
+     * réutiliser.
+     *
+     * @param sql Le texte SQL de la requête
+     * @return La requête préparée
+     * @throws SQLException S'il y a une erreur avec la base de données
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement preparedStatement = this.requetes.get(sql);
+        if(preparedStatement == null
+            || preparedStatement.isClosed()) {
+            preparedStatement = getConnection().prepareStatement(sql);
+            this.requetes.put(sql,
+                preparedStatement);
+        } else {
+            preparedStatement.clearParameters();
+        }
+        return preparedStatement;
     }
 
     /**
@@ -169,6 +207,69 @@ public class Connexion implements AutoCloseable {
         }
     }
 
+    /**
+     * Ferme une requête préparée sortie du cache. Une erreur à la fermeture est ignorée : la requête n'est plus utilisée.
+     *
+     * @param preparedStatement La requête à fermer
+     */
+    private static void fermer(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch(SQLException sqlException) {
+            // La requête est abandonnée de toute façon.
+        }
+    }
+
+    /**
+     * Retourne le pool de connexions d'un type de serveur, d'un schéma et d'un utilisateur.
+     *
+     * @param typeServeur Type de serveur SQL de la BD
+     * @param schema Nom du schéma de la base de données
+     * @param nomUtilisateur Nom d'utilisateur sur le serveur SQL
+     * @param motPasse Mot de passe sur le serveur SQL
+     * @return Le pool de connexions
+     * @throws ConnexionException Si le driver n'existe pas ou si <code>typeServeur</code> n'est pas valide
+     */
+    private static PoolConnexions getPool(String typeServeur,
+        String schema,
+        String nomUtilisateur,
+        String motPasse) throws ConnexionException {
+        String driverClass = null;
+        String urlBD = null;
+
+        try {
+            if(typeServeur.equals(Connexion.TYPE_SERVEUR_LOCAL)) {
+                driverClass = Connexion.SERVEUR_LOCAL_CLASS;
+                urlBD = Connexion.SERVEUR_LOCAL_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_DISTANT)) {
+                driverClass = Connexion.SERVEUR_DISTANT_CLASS;
+                urlBD = Connexion.SERVEUR_DISTANT_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_POSTGRES)) {
+                driverClass = Connexion.SERVEUR_POSTGRES_CLASS;
+                urlBD = Connexion.SERVEUR_POSTGRES_URL
+                    + schema;
+            } else if(typeServeur.equals(Connexion.TYPE_SERVEUR_ACCESS)) {
+                driverClass = Connexion.SERVEUR_ACCESS_CLASS;
+                urlBD = Connexion.SERVEUR_ACCESS_URL
+                    + schema;
+            } else {
+                throw new IllegalArgumentException("Type de serveur "
+                    + typeServeur
+                    + "n'est pas valide.");
+            }
+            return PoolConnexions.getPool(driverClass,
+                urlBD,
+                nomUtilisateur,
+                motPasse);
+        } catch(ClassNotFoundException classNotFoundException) {
+            throw new ConnexionException(classNotFoundException);
+        } catch(IllegalArgumentException illegalArgumentException) {
+            throw new ConnexionException(illegalArgumentException);
+        }
+    }
+
     /**
       * Retourne la liste des serveurs supportés par ce gestionnaire de connexion.<br /><br />
       *
@@ -2,48 +2,82 @@ DROP TABLE IF EXISTS reservation CASCADE;
 DROP TABLE IF EXISTS pret CASCADE;
 DROP TABLE IF EXISTS livre CASCADE;
 DROP TABLE IF EXISTS membre CASCADE;
+DROP TABLE IF EXISTS seqIdLivre;
+DROP TABLE IF EXISTS seqIdMembre;
+DROP TABLE IF EXISTS seqIdPret;
+DROP TABLE IF EXISTS seqIdReservation;
 
 
 
 CREATE TABLE membre (
-idMembre        integer AUTO_INCREMENT check(idMembre > 0), 
+idMembre        integer check(idMembre > 0), 
 nom             varchar(10) NOT NULL,
 telephone       bigint(10) , 
 limitePret      integer(2) check(limitePret > 0 and limitePret <= 10),
+nbpret          integer default 0 NOT NULL check(nbpret >= 0) ,
+version         integer default 0 NOT NULL ,
 CONSTRAINT cleMembre PRIMARY KEY (idMembre),
 CONSTRAINT limiteNbPret check(nbpret <= limitePret)
 );
 
 CREATE TABLE livre(
-idLivre         integer AUTO_INCREMENT check(idLivre > 0) , 
+idLivre         integer check(idLivre > 0) , 
 titre           varchar(50) NOT NULL, 
 auteur          varchar(50) NOT NULL,
 dateAcquisition timestamp(3) not null, 
 idMembre        integer , 
 datePret        timestamp(3) ,
+version         integer default 0 NOT NULL ,
 CONSTRAINT cleLivre PRIMARY KEY (idLivre),
 CONSTRAINT refPretMembre1 FOREIGN KEY (idMembre) REFERENCES membre(idMembre)
 );
 
 CREATE TABLE pret(
-idPret      integer AUTO_INCREMENT check(idPret > 0) ,
+idPret      integer check(idPret > 0) ,
 idLivre     integer check(idLivre > 0) ,
 idMembre    integer check(idMembre > 0) ,
 datePret    timestamp(3) ,
 dateRetour 	timestamp(3) ,
+version         integer default 0 NOT NULL ,
+idLivrePrete    integer AS (CASE WHEN dateRetour IS NULL THEN idLivre END) STORED ,
 CONSTRAINT clePret PRIMARY KEY (idPret),
-CONSTRAINT cleCandidatePret UNIQUE (idMembre,idLivre) , 
+CONSTRAINT clePretEnCours UNIQUE (idLivrePrete) , 
 CONSTRAINT refPretLivre FOREIGN KEY (idLivre) REFERENCES livre(idLivre) ON DELETE CASCADE,
 CONSTRAINT refPretMembre2 FOREIGN KEY (idMembre) REFERENCES membre(idMembre) ON DELETE CASCADE
 );
 
 CREATE TABLE reservation( 
-idReservation   integer AUTO_INCREMENT check(idReservation > 0) ,
+idReservation   integer check(idReservation > 0) ,
 idMembre        integer , 
 idLivre         integer , 
 dateReservation timestamp(3) , 
+version         integer default 0 NOT NULL ,
 CONSTRAINT cleReservation PRIMARY KEY (idReservation) ,
 CONSTRAINT cleCandidateReservation UNIQUE (idMembre,idLivre) , 
 CONSTRAINT refReservationMembre FOREIGN KEY (idMembre) REFERENCES membre(idMembre) ON DELETE CASCADE , 
-CONSTRAINT refReservationLivre FOREIGN KEY (idLivre) REFERENCES livre(idMembre) ON DELETE CASCADE
-);
\ No newline at end of file
+CONSTRAINT refReservationLivre FOREIGN KEY (idLivre) REFERENCES livre(idLivre) ON DELETE CASCADE
+);
+
+CREATE TABLE seqIdLivre (
+next_val        bigint NOT NULL
+);
+
+INSERT INTO seqIdLivre VALUES (1);
+
+CREATE TABLE seqIdMembre (
+next_val        bigint NOT NULL
+);
+
+INSERT INTO seqIdMembre VALUES (1);
+
+CREATE TABLE seqIdPret (
+next_val        bigint NOT NULL
+);
+
+INSERT INTO seqIdPret VALUES (1);
+
+CREATE TABLE seqIdReservation (
+next_val        bigint NOT NULL
+);
+
+INSERT INTO seqIdReservation VALUES (1);
\ No newline at end of file
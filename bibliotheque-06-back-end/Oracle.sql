@@ -5,11 +5,12 @@ DROP SEQUENCE seqIdReservation;
 DROP TABLE membre CASCADE CONSTRAINTS;
 
 CREATE TABLE membre ( 
-idMembre        varchar(3) check(idMembre > 0), 
+idMembre        varchar(10) check(idMembre > 0), 
 nom             varchar(10) NOT NULL, 
 telephone       varchar(50) , 
 limitePret      varchar(2) check(limitePret > 0 and limitePret <= 10) , 
-nbpret          varchar(2) default 0 check(nbpret >= 0) , 
+nbpret          number(2) default 0 NOT NULL check(nbpret >= 0) , 
+version         number(10) default 0 NOT NULL ,
 CONSTRAINT cleMembre PRIMARY KEY (idMembre), 
 CONSTRAINT limiteNbPret check(nbpret <= limitePret) 
 );
@@ -17,36 +18,40 @@ CONSTRAINT limiteNbPret check(nbpret <= limitePret)
 DROP TABLE livre CASCADE CONSTRAINTS;
     
 CREATE TABLE livre ( 
-idLivre         varchar(3) check(idLivre > 0) , 
+idLivre         varchar(10) check(idLivre > 0) , 
 titre           varchar(50) NOT NULL, 
 auteur          varchar(50) NOT NULL,
 dateAcquisition date not null, 
+version         number(10) default 0 NOT NULL ,
 CONSTRAINT cleLivre PRIMARY KEY (idLivre)
 );
 
 DROP TABLE pret CASCADE CONSTRAINTS;
 
 CREATE TABLE pret ( 
-idPret   varchar(3) , 
-idLivre       varchar(3) , 
-idMembre         varchar(3) , 
+idPret   varchar(10) , 
+idLivre       varchar(10) , 
+idMembre         varchar(10) , 
 datePret date , 
 dateRetour date , 
+version         number(10) default 0 NOT NULL ,
 CONSTRAINT clePret PRIMARY KEY (idPret), 
-CONSTRAINT cleCandidatePret UNIQUE (idMembre,idLivre), 
 CONSTRAINT refPretMembre FOREIGN KEY (idMembre) REFERENCES membre 
   ON DELETE CASCADE , 
 CONSTRAINT refPretLivre FOREIGN KEY (idLivre) REFERENCES livre 
   ON DELETE CASCADE 
 );
 
+CREATE UNIQUE INDEX clePretEnCours ON pret (CASE WHEN dateRetour IS NULL THEN idLivre END);
+
 DROP TABLE reservation CASCADE CONSTRAINTS;
 
 CREATE TABLE reservation ( 
-idReservation   varchar(3) , 
-idMembre        varchar(3) , 
-idLivre         varchar(3) , 
+idReservation   varchar(10) , 
+idMembre        varchar(10) , 
+idLivre         varchar(10) , 
 dateReservation date , 
+version         number(10) default 0 NOT NULL ,
 CONSTRAINT cleReservation PRIMARY KEY (idReservation) , 
 CONSTRAINT cleCandidateReservation UNIQUE (idMembre,idLivre) , 
 CONSTRAINT refReservationMembre FOREIGN KEY (idMembre) REFERENCES membre 
@@ -57,28 +62,28 @@ CONSTRAINT refReservationLivre FOREIGN KEY (idLivre) REFERENCES livre
 
 CREATE SEQUENCE seqIdLivre
   MINVALUE 1
-  MAXVALUE 9999
+  MAXVALUE 9999999999
   START WITH 1
-  INCREMENT BY 1
+  INCREMENT BY 50
   CACHE 20;
   
 CREATE SEQUENCE seqIdMembre
   MINVALUE 1
-  MAXVALUE 9999
+  MAXVALUE 9999999999
   START WITH 1
-  INCREMENT BY 1
+  INCREMENT BY 50
   CACHE 20; 
   
  CREATE SEQUENCE seqIdPret
   MINVALUE 1
-  MAXVALUE 9999
+  MAXVALUE 9999999999
   START WITH 1
-  INCREMENT BY 1
+  INCREMENT BY 50
   CACHE 20;
   
  CREATE SEQUENCE seqIdReservation
   MINVALUE 1
-  MAXVALUE 9999
+  MAXVALUE 9999999999
   START WITH 1
-  INCREMENT BY 1
+  INCREMENT BY 50
   CACHE 20;
\ No newline at end of file
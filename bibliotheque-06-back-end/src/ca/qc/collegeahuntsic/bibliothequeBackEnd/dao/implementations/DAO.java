@@ -5,35 +5,79 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.implementations;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOClassException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.ApresValidation;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.BibliothequeDate;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.FiltreIdentifiants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
+import org.hibernate.Hibernate;
 import org.hibernate.HibernateException;
+import org.hibernate.LockMode;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.metadata.ClassMetadata;
 
 /**
  * Classe de base pour tous les DAOs.<br />
- * Tous les DAOs devraient en hériter.
+ * Tous les DAOs devraient en hériter.<br />
+ * Si un {@link FiltreIdentifiants} est configuré, <code>get</code> et <code>exists</code> le consultent avant la base de données, et les
+ * écritures le tiennent à jour.
  *
  * @author Gilles Bénichou
  */
 public class DAO implements IDAO {
+    /**
+     * Taille par défaut des lots d'écriture. Elle correspond à la propriété <code>hibernate.jdbc.batch_size</code> des contextes Spring.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final Log LOGGER = LogFactory.getLog(DAO.class);
+
     private Class<? extends DTO> dtoClass;
 
+    private int batchSize;
+
+    private boolean statelessSessionEnabled;
+
+    private FiltreIdentifiants filtreIdentifiants;
+
+    /**
+     * Opérations d'écriture par lots.
+     */
+    private enum BatchOperation {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
     /**
      * Crée un DAO.
      *
@@ -46,6 +90,7 @@ public class DAO implements IDAO {
             throw new InvalidDTOClassException("La classe de DTO ne peut être null");
         }
         setDtoClass(dtoClass);
+        setBatchSize(DAO.DEFAULT_BATCH_SIZE);
     }
 
     // Region Getters and Setters
@@ -66,6 +111,61 @@ public class DAO implements IDAO {
     private void setDtoClass(Class<? extends DTO> dtoClass) {
         this.dtoClass = dtoClass;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.batchSize</code>.
+     *
+     * @return La variable d'instance <code>this.batchSize</code>
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.batchSize</code>.
+     *
+     * @param batchSize La valeur à utiliser pour la variable d'instance <code>this.batchSize</code> ; une valeur inférieure à 1 est
+     *        remplacée par {@link #DEFAULT_BATCH_SIZE}
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize < 1 ? DAO.DEFAULT_BATCH_SIZE : batchSize;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.statelessSessionEnabled</code>.
+     *
+     * @return La variable d'instance <code>this.statelessSessionEnabled</code>
+     */
+    public boolean isStatelessSessionEnabled() {
+        return this.statelessSessionEnabled;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.statelessSessionEnabled</code>.
+     *
+     * @param statelessSessionEnabled La valeur à utiliser pour la variable d'instance <code>this.statelessSessionEnabled</code>
+     */
+    public void setStatelessSessionEnabled(boolean statelessSessionEnabled) {
+        this.statelessSessionEnabled = statelessSessionEnabled;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.filtreIdentifiants</code>.
+     *
+     * @return La variable d'instance <code>this.filtreIdentifiants</code>
+     */
+    public FiltreIdentifiants getFiltreIdentifiants() {
+        return this.filtreIdentifiants;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.filtreIdentifiants</code>.
+     *
+     * @param filtreIdentifiants Le filtre des IDs de la table ; <code>null</code> pour toujours lire la base de données
+     */
+    public void setFiltreIdentifiants(FiltreIdentifiants filtreIdentifiants) {
+        this.filtreIdentifiants = filtreIdentifiants;
+    }
     // EndRegion Getters and Setters
 
     /**
@@ -84,6 +184,10 @@ public class DAO implements IDAO {
         }
         try {
             session.save(dto);
+            registerIdentifier(session,
+                dto);
+            evictCachedCollections(session,
+                dto);
         } catch(HibernateException hibernateException) {
             throw new DAOException(hibernateException);
         }
@@ -103,15 +207,82 @@ public class DAO implements IDAO {
         if(primaryKey == null) {
             throw new InvalidPrimaryKeyException("La clef primaire ne peut être null");
         }
+        final FiltreIdentifiants filtre = getFiltreIdentifiants();
+        if(filtre != null
+            && !filtre.contientPeutEtre(primaryKey)) {
+            return null;
+        }
         try {
             final DTO dto = (DTO) session.get(getDtoClass(),
                 primaryKey);
+            if(filtre != null
+                && dto == null) {
+                filtre.signalerAbsent(primaryKey);
+            }
             return dto;
         } catch(HibernateException hibernateException) {
             throw new DAOException(hibernateException);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(primaryKey == null) {
+            throw new InvalidPrimaryKeyException("La clef primaire ne peut être null");
+        }
+        final FiltreIdentifiants filtre = getFiltreIdentifiants();
+        if(filtre != null
+            && !filtre.contientPeutEtre(primaryKey)) {
+            return false;
+        }
+        try {
+            final Criteria criteria = session.createCriteria(getDtoClass());
+            criteria.add(Restrictions.idEq(primaryKey));
+            criteria.setProjection(Projections.id());
+            final boolean existe = criteria.uniqueResult() != null;
+            if(filtre != null
+                && !existe) {
+                filtre.signalerAbsent(primaryKey);
+            }
+            return existe;
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(propertyName == null) {
+            throw new InvalidCriterionException("La propriété à utiliser ne peut être null");
+        }
+        if(value == null) {
+            throw new InvalidCriterionValueException("La valeur à compter ne peut être null");
+        }
+        return count(session,
+            Restrictions.eq(propertyName,
+                value));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -128,6 +299,30 @@ public class DAO implements IDAO {
         }
         try {
             session.update(dto);
+            evictCachedCollections(session,
+                dto);
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void lock(Session session,
+        DTO dto) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(dto == null) {
+            throw new InvalidDTOException("Le DTO ne peut être null");
+        }
+        try {
+            session.lock(dto,
+                LockMode.FORCE);
         } catch(HibernateException hibernateException) {
             throw new DAOException(hibernateException);
         }
@@ -149,6 +344,10 @@ public class DAO implements IDAO {
         }
         try {
             session.saveOrUpdate(dto);
+            registerIdentifier(session,
+                dto);
+            evictCachedCollections(session,
+                dto);
         } catch(HibernateException hibernateException) {
             throw new DAOException(hibernateException);
         }
@@ -170,11 +369,54 @@ public class DAO implements IDAO {
         }
         try {
             session.delete(dto);
+            unregisterIdentifier(session,
+                dto);
+            evictCachedCollections(session,
+                dto);
         } catch(HibernateException hibernateException) {
             throw new DAOException(hibernateException);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        writeAll(session,
+            dtos,
+            BatchOperation.ADD);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        writeAll(session,
+            dtos,
+            BatchOperation.UPDATE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        writeAll(session,
+            dtos,
+            BatchOperation.DELETE);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -200,6 +442,352 @@ public class DAO implements IDAO {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(sortByPropertyName == null) {
+            throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
+        }
+        if(dtoHandler == null) {
+            throw new InvalidDTOHandlerException("Le traitement ne peut être null");
+        }
+        try {
+            final Criteria criteria = session.createCriteria(getDtoClass());
+            criteria.addOrder(Order.asc(sortByPropertyName));
+            return scroll(session,
+                criteria,
+                fetchSize,
+                dtoHandler);
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(limit < 1) {
+            throw new InvalidCriterionValueException("La taille de la page doit être supérieure à 0");
+        }
+        try {
+            List<? extends DTO> results = Collections.emptyList();
+            final ClassMetadata classMetadata = session.getSessionFactory().getClassMetadata(getDtoClass());
+            final String primaryKeyPropertyName = classMetadata.getIdentifierPropertyName();
+            if(Hibernate.STRING.equals(classMetadata.getIdentifierType())) {
+                results = getNumericStringPage(session,
+                    primaryKeyPropertyName,
+                    (String) lastPrimaryKey,
+                    limit);
+                return results;
+            }
+            final Criteria criteria = session.createCriteria(getDtoClass());
+            if(lastPrimaryKey != null) {
+                criteria.add(Restrictions.gt(primaryKeyPropertyName,
+                    lastPrimaryKey));
+            }
+            criteria.addOrder(Order.asc(primaryKeyPropertyName));
+            criteria.setMaxResults(limit);
+            results = criteria.list();
+            return results;
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Lit une page de DTOs dont la clef primaire est un nombre stocké dans une chaîne de caractères. Les clefs sont classées par longueur,
+     * puis par valeur : pour des nombres sans zéro en tête, c'est l'ordre numérique (<code>"2"</code> avant <code>"10"</code>), alors que
+     * l'ordre des chaînes placerait <code>"10"</code> et <code>"100"</code> avant <code>"2"</code>.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param primaryKeyPropertyName Le nom de la propriété de la clef primaire
+     * @param lastPrimaryKey La clef primaire du dernier DTO de la page précédente ; <code>null</code> pour la première page
+     * @param limit Le nombre maximal de DTOs de la page
+     * @return La liste des DTOs de la page ; une liste vide sinon
+     */
+    @SuppressWarnings("unchecked")
+    private List<? extends DTO> getNumericStringPage(Session session,
+        String primaryKeyPropertyName,
+        String lastPrimaryKey,
+        int limit) {
+        final String primaryKey = "dto."
+            + primaryKeyPropertyName;
+        final StringBuilder request = new StringBuilder("from "
+            + getDtoClass().getName()
+            + " dto");
+        if(lastPrimaryKey != null) {
+            request.append(" where length("
+                + primaryKey
+                + ") > :length or (length("
+                + primaryKey
+                + ") = :length and "
+                + primaryKey
+                + " > :lastPrimaryKey)");
+        }
+        request.append(" order by length("
+            + primaryKey
+            + "), "
+            + primaryKey);
+        final Query query = session.createQuery(request.toString());
+        if(lastPrimaryKey != null) {
+            query.setInteger("length",
+                lastPrimaryKey.length());
+            query.setString("lastPrimaryKey",
+                lastPrimaryKey);
+        }
+        query.setMaxResults(limit);
+        return query.list();
+    }
+
+    /**
+     * Écrit des DTOs par lots. Tous les DTOs sont validés avant la première écriture. Si les sessions sans état sont activées, l'écriture
+     * passe par une {@link StatelessSession} ouverte sur la connexion de la session courante ; sinon, la session est vidée à chaque lot
+     * de {@link #getBatchSize()} DTOs. Seuls les DTOs écrits sont détachés de la session : les autres entités chargées par l'appelant y
+     * restent.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à écrire
+     * @param batchOperation L'opération à effectuer sur chaque DTO
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    private void writeAll(Session session,
+        Collection<? extends DTO> dtos,
+        BatchOperation batchOperation) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(dtos == null) {
+            throw new InvalidDTOException("La collection de DTOs ne peut être null");
+        }
+        for(DTO dto : dtos) {
+            if(dto == null) {
+                throw new InvalidDTOException("Le DTO ne peut être null");
+            }
+        }
+        final long start = System.nanoTime();
+        try {
+            if(isStatelessSessionEnabled()) {
+                writeAllStateless(session,
+                    dtos,
+                    batchOperation);
+            } else {
+                writeAllBatched(session,
+                    dtos,
+                    batchOperation);
+            }
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+        logThroughput(batchOperation,
+            dtos.size(),
+            System.nanoTime() - start);
+    }
+
+    /**
+     * Écrit des DTOs dans la session courante en la vidant à chaque lot, puis détache les DTOs du lot.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à écrire
+     * @param batchOperation L'opération à effectuer sur chaque DTO
+     */
+    private void writeAllBatched(Session session,
+        Collection<? extends DTO> dtos,
+        BatchOperation batchOperation) {
+        final List<DTO> batch = new ArrayList<>(Math.min(dtos.size(),
+            getBatchSize()));
+        for(DTO dto : dtos) {
+            switch(batchOperation) {
+                case ADD:
+                    session.save(dto);
+                    registerIdentifier(session,
+                        dto);
+                    break;
+                case UPDATE:
+                    session.update(dto);
+                    break;
+                default:
+                    session.delete(dto);
+                    unregisterIdentifier(session,
+                        dto);
+                    break;
+            }
+            evictCachedCollections(session,
+                dto);
+            batch.add(dto);
+            if(batch.size() == getBatchSize()) {
+                flushBatch(session,
+                    batch);
+            }
+        }
+        flushBatch(session,
+            batch);
+    }
+
+    /**
+     * Vide la session puis en détache les DTOs d'un lot.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param batch Les DTOs du lot, retirés de la liste une fois détachés
+     */
+    private static void flushBatch(Session session,
+        List<DTO> batch) {
+        session.flush();
+        for(DTO dto : batch) {
+            session.evict(dto);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Écrit des DTOs à l'aide d'une {@link StatelessSession} qui partage la connexion (et donc la transaction) de la session courante. Les
+     * cascades, le cache de second niveau et les intercepteurs ne sont pas appliqués. La connexion est obtenue par le contexte JDBC de la
+     * session, {@link Session#connection()} étant dépréciée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à écrire
+     * @param batchOperation L'opération à effectuer sur chaque DTO
+     */
+    private void writeAllStateless(Session session,
+        Collection<? extends DTO> dtos,
+        BatchOperation batchOperation) {
+        // Les modifications en attente doivent précéder les écritures sans état
+        session.flush();
+        final ClassMetadata classMetadata = session.getSessionFactory().getClassMetadata(getDtoClass());
+        final StatelessSession statelessSession = session.getSessionFactory().openStatelessSession(((SessionImplementor) session).getJDBCContext().connection());
+        try {
+            for(DTO dto : dtos) {
+                switch(batchOperation) {
+                    case ADD:
+                        statelessSession.insert(dto);
+                        registerIdentifier(session,
+                            dto);
+                        break;
+                    case UPDATE:
+                        statelessSession.update(dto);
+                        break;
+                    default:
+                        statelessSession.delete(dto);
+                        unregisterIdentifier(session,
+                            dto);
+                        break;
+                }
+                // Une session sans état ne met pas à jour le cache de second niveau
+                session.getSessionFactory().evict(getDtoClass(),
+                    classMetadata.getIdentifier(dto,
+                        EntityMode.POJO));
+                evictCachedCollections(session,
+                    dto);
+                // Un DTO écrit qui était chargé dans la session courante peut ne plus refléter la base de données
+                session.evict(dto);
+            }
+        } finally {
+            statelessSession.close();
+        }
+    }
+
+    /**
+     * Journalise le débit d'une écriture par lots.
+     *
+     * @param batchOperation L'opération effectuée
+     * @param rows Le nombre de DTOs écrits
+     * @param elapsedNanos La durée de l'écriture en nanosecondes
+     */
+    private void logThroughput(BatchOperation batchOperation,
+        int rows,
+        long elapsedNanos) {
+        if(DAO.LOGGER.isInfoEnabled()) {
+            final long elapsedMillis = elapsedNanos / 1000000L;
+            final long rowsPerSecond = elapsedNanos > 0 ? rows * 1000000000L / elapsedNanos : rows;
+            DAO.LOGGER.info(getDtoClass().getSimpleName()
+                + " "
+                + batchOperation
+                + " : "
+                + rows
+                + " ligne(s) en "
+                + elapsedMillis
+                + " ms ("
+                + rowsPerSecond
+                + " lignes/s)");
+        }
+    }
+
+    /**
+     * Ajoute l'ID d'un DTO qui vient d'être inséré au filtre des IDs, s'il est configuré. L'ID est ajouté sans attendre la validation : une
+     * autre transaction doit le trouver dès qu'elle peut lire la ligne.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dto Le DTO inséré, dont l'ID est assigné
+     */
+    protected void registerIdentifier(Session session,
+        DTO dto) {
+        final FiltreIdentifiants filtre = getFiltreIdentifiants();
+        if(filtre != null) {
+            filtre.ajouter(session.getSessionFactory().getClassMetadata(getDtoClass()).getIdentifier(dto,
+                EntityMode.POJO));
+        }
+    }
+
+    /**
+     * Retire l'ID d'un DTO qui vient d'être supprimé du filtre des IDs, s'il est configuré, après la validation de la transaction : tant
+     * que la suppression peut être annulée, l'ID doit rester dans le filtre.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dto Le DTO supprimé
+     */
+    private void unregisterIdentifier(Session session,
+        DTO dto) {
+        final FiltreIdentifiants filtre = getFiltreIdentifiants();
+        if(filtre != null) {
+            final Serializable primaryKey = session.getSessionFactory().getClassMetadata(getDtoClass()).getIdentifier(dto,
+                EntityMode.POJO);
+            ApresValidation.executer(session,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        filtre.retirer(primaryKey);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Retire du cache de second niveau les collections qui contiennent un DTO qui vient d'être écrit. Les collections <code>prets</code> et
+     * <code>reservations</code> ne sont pas modifiées par leur propriétaire quand un prêt ou une réservation est écrit : sans cette
+     * éviction, elles resteraient périmées dans le cache. Par défaut, aucune collection n'est retirée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dto Le DTO écrit
+     */
+    protected void evictCachedCollections(Session session,
+        DTO dto) {
+        // Nothing to do.
+    }
+
     /**
      * Trouve les DTOs à partir d'une propriété <code>propertyName</code> étant égale à une valeur <code>value</code>. La liste est classée par
      * ordre croissant sur <code>sortByPropertyName</code>. Si aucun DTO n'est trouvé, une {@link List} vide est retournée.
@@ -223,6 +811,63 @@ public class DAO implements IDAO {
         InvalidCriterionValueException,
         InvalidSortByPropertyException,
         DAOException {
+        return find(session,
+            propertyName,
+            value,
+            sortByPropertyName,
+            null);
+    }
+
+    /**
+     * Compte les DTOs qui satisfont tous les critères, par une projection <code>count(*)</code> : aucun DTO n'est chargé.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param criterions Les critères à satisfaire
+     * @return Le nombre de DTOs correspondants
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    protected int count(Session session,
+        Criterion... criterions) throws DAOException {
+        try {
+            final Criteria criteria = session.createCriteria(getDtoClass());
+            for(Criterion criterion : criterions) {
+                criteria.add(criterion);
+            }
+            criteria.setProjection(Projections.rowCount());
+            return ((Number) criteria.uniqueResult()).intValue();
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Trouve les DTOs à partir d'une propriété <code>propertyName</code> étant égale à une valeur <code>value</code>, en passant par le cache
+     * de requêtes. Le résultat est conservé dans la région <code>cacheRegion</code> et il est invalidé par Hibernate dès qu'une table
+     * interrogée est modifiée : à réserver aux recherches fréquentes sur des tables peu modifiées. La liste est classée par ordre croissant
+     * sur <code>sortByPropertyName</code>. Si aucun DTO n'est trouvé, une {@link List} vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param propertyName Le nom de la propriété à utiliser
+     * @param value La valeur à trouver
+     * @param sortByPropertyName Le nom de la propriété à utiliser pour classer
+     * @param cacheRegion La région du cache de requêtes ; <code>null</code> pour ne pas utiliser le cache de requêtes
+     * @return La liste des DTOs correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionException Si la propriété à utiliser est <code>null</code>
+     * @throws InvalidCriterionValueException Si la valeur à trouver est <code>null</code>
+     * @throws InvalidSortByPropertyException Si la propriété à utiliser pour classer est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    @SuppressWarnings("unchecked")
+    protected List<? extends DTO> find(Session session,
+        String propertyName,
+        Object value,
+        String sortByPropertyName,
+        String cacheRegion) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        InvalidSortByPropertyException,
+        DAOException {
         if(session == null) {
             throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
         }
@@ -247,6 +892,10 @@ public class DAO implements IDAO {
                 criteria.add(Restrictions.eq(propertyName,
                     value));
                 criteria.addOrder(Order.asc(sortByPropertyName));
+                if(cacheRegion != null) {
+                    criteria.setCacheable(true);
+                    criteria.setCacheRegion(cacheRegion);
+                }
                 results = criteria.list();
             }
             return results;
@@ -255,6 +904,107 @@ public class DAO implements IDAO {
         }
     }
 
+    /**
+     * Parcourt en continu les DTOs dont la propriété <code>propertyName</code> est égale à une valeur <code>value</code>, par ordre croissant
+     * sur <code>sortByPropertyName</code>. C'est la variante de {@link #find(Session, String, Object, String)} qui ne charge pas le résultat
+     * en mémoire.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param propertyName Le nom de la propriété à utiliser
+     * @param value La valeur à trouver
+     * @param sortByPropertyName Le nom de la propriété à utiliser pour classer
+     * @param fetchSize Le nombre de lignes à lire à chaque aller-retour avec la base de données ; <code>0</code> pour la valeur du pilote
+     * @param dtoHandler Le traitement à appeler sur chacun des DTOs
+     * @return Le nombre de DTOs traités
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionException Si la propriété à utiliser est <code>null</code>
+     * @throws InvalidCriterionValueException Si la valeur à trouver est <code>null</code>
+     * @throws InvalidSortByPropertyException Si la propriété à utiliser pour classer est <code>null</code>
+     * @throws InvalidDTOHandlerException Si le traitement est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    protected int scroll(Session session,
+        String propertyName,
+        Object value,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(propertyName == null) {
+            throw new InvalidCriterionException("La propriété à utiliser ne peut être null");
+        }
+        if(value == null) {
+            throw new InvalidCriterionValueException("La valeur à trouver ne peut être null");
+        }
+        if(sortByPropertyName == null) {
+            throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
+        }
+        if(dtoHandler == null) {
+            throw new InvalidDTOHandlerException("Le traitement ne peut être null");
+        }
+        try {
+            final Criteria criteria = session.createCriteria(getDtoClass());
+            if(value instanceof Date) {
+                criteria.add(Restrictions.between(propertyName,
+                    BibliothequeDate.getStartDate((Date) value),
+                    BibliothequeDate.getEndDate((Date) value)));
+            } else {
+                criteria.add(Restrictions.eq(propertyName,
+                    value));
+            }
+            criteria.addOrder(Order.asc(sortByPropertyName));
+            return scroll(session,
+                criteria,
+                fetchSize,
+                dtoHandler);
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Parcourt le résultat d'un critère avec un curseur en avant seulement. Chaque DTO est retiré de la session après son traitement et le
+     * cache de second niveau est ignoré, ce qui garde la session vide pendant tout le parcours.<br />
+     * Avec MySQL Connector/J, le pilote ne lit le résultat en continu que si <code>fetchSize</code> vaut {@link Integer#MIN_VALUE}.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param criteria Le critère à parcourir
+     * @param fetchSize Le nombre de lignes à lire à chaque aller-retour avec la base de données ; <code>0</code> pour la valeur du pilote
+     * @param dtoHandler Le traitement à appeler sur chacun des DTOs
+     * @return Le nombre de DTOs traités
+     */
+    private static int scroll(Session session,
+        Criteria criteria,
+        int fetchSize,
+        IDTOHandler dtoHandler) {
+        if(fetchSize != 0) {
+            criteria.setFetchSize(fetchSize);
+        }
+        criteria.setCacheMode(CacheMode.IGNORE);
+        final ScrollableResults scrollableResults = criteria.scroll(ScrollMode.FORWARD_ONLY);
+        int count = 0;
+        try {
+            boolean next = true;
+            while(next
+                && scrollableResults.next()) {
+                final DTO dto = (DTO) scrollableResults.get(0);
+                next = dtoHandler.handle(dto);
+                session.evict(dto);
+                count++;
+            }
+        } finally {
+            scrollableResults.close();
+        }
+        return count;
+    }
+
     /**
      * Trouve les DTOs à partir d'une propriété <code>propertyName</code> étant comprise entre la veille et le lendemain de la date
      * <code>date</code>. La liste est classée par ordre croissant sur <code>sortByPropertyName</code>. Si aucun DTO n'est trouvé, une
@@ -4,7 +4,10 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.implementations;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.ILivreDAO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
@@ -13,7 +16,10 @@ import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionV
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOClassException;
+import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
 import org.hibernate.Session;
+import org.hibernate.criterion.Restrictions;
 
 /**
  * DAO pour effectuer des CRUDs avec la table <code>livre</code>.
@@ -21,6 +27,16 @@ import org.hibernate.Session;
  * @author Gilles Bénichou
  */
 public class LivreDAO extends DAO implements ILivreDAO {
+    /**
+     * Région du cache de requêtes des recherches par titre.
+     */
+    private static final String TITRE_QUERY_CACHE_REGION = "query.LivreDTO.titre";
+
+    /**
+     * Nombre maximal de valeurs d'une clause <code>in</code> : Oracle n'en accepte pas davantage.
+     */
+    private static final int IN_LIMIT = 1000;
+
     /**
      * Crée le DAO de la table <code>livre</code>.
      *
@@ -47,7 +63,48 @@ public class LivreDAO extends DAO implements ILivreDAO {
         return (List<LivreDTO>) find(session,
             LivreDTO.TITRE_COLUMN_NAME,
             titre,
-            sortByPropertyName);
+            sortByPropertyName,
+            LivreDAO.TITRE_QUERY_CACHE_REGION);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LivreDTO> findByIds(Session session,
+        List<String> idsLivre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idsLivre == null) {
+            throw new InvalidCriterionValueException("La liste d'IDs ne peut être null");
+        }
+        try {
+            final Map<String, LivreDTO> livres = new HashMap<>();
+            for(int debut = 0; debut < idsLivre.size(); debut += LivreDAO.IN_LIMIT) {
+                final Criteria criteria = session.createCriteria(getDtoClass());
+                criteria.add(Restrictions.in(LivreDTO.ID_LIVRE_COLUMN_NAME,
+                    idsLivre.subList(debut,
+                        Math.min(debut + LivreDAO.IN_LIMIT,
+                            idsLivre.size()))));
+                for(Object resultat : criteria.list()) {
+                    final LivreDTO livreDTO = (LivreDTO) resultat;
+                    livres.put(livreDTO.getIdLivre(),
+                        livreDTO);
+                }
+            }
+            final List<LivreDTO> results = new ArrayList<>(livres.size());
+            for(String idLivre : idsLivre) {
+                final LivreDTO livreDTO = livres.get(idLivre);
+                if(livreDTO != null) {
+                    results.add(livreDTO);
+                }
+            }
+            return results;
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
 }
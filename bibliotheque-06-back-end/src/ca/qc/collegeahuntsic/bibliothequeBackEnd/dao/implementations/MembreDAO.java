@@ -13,7 +13,11 @@ import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionV
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOClassException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.ApresValidation;
+import org.hibernate.HibernateException;
+import org.hibernate.SQLQuery;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 
 /**
  * DAO pour effectuer des CRUDs avec la table membre.
@@ -22,6 +26,32 @@ import org.hibernate.Session;
  */
 
 public class MembreDAO extends DAO implements IMembreDAO {
+    /**
+     * Région du cache de requêtes des recherches par nom.
+     */
+    private static final String NOM_QUERY_CACHE_REGION = "query.MembreDTO.nom";
+
+    /**
+     * Espace de requêtes des mises à jour du compteur des prêts en cours. Aucune requête ne le lit : une mise à jour du compteur
+     * n'invalide donc ni tout le cache des membres ni le cache de requêtes, ce que Hibernate ferait pour toute requête SQL native sans
+     * espace. Seul le membre mis à jour est retiré du cache (voir {@link #evictMembre(Session, String)}).
+     */
+    private static final String NB_PRET_QUERY_SPACE = "MEMBRE.NBPRET";
+
+    private static final String INCREMENT_NB_PRET_REQUEST = "UPDATE MEMBRE "
+        + "SET NBPRET = NBPRET + 1 "
+        + "WHERE IDMEMBRE = :idMembre "
+        + "AND NBPRET < LIMITEPRET";
+
+    private static final String DECREMENT_NB_PRET_REQUEST = "UPDATE MEMBRE "
+        + "SET NBPRET = NBPRET - 1 "
+        + "WHERE IDMEMBRE = :idMembre "
+        + "AND NBPRET > 0";
+
+    private static final String REPAIR_NB_PRET_REQUEST = "UPDATE MEMBRE membre "
+        + "SET NBPRET = (SELECT COUNT(*) FROM PRET pret WHERE pret.IDMEMBRE = membre.IDMEMBRE AND pret.DATERETOUR IS NULL) "
+        + "WHERE NBPRET <> (SELECT COUNT(*) FROM PRET pret WHERE pret.IDMEMBRE = membre.IDMEMBRE AND pret.DATERETOUR IS NULL)";
+
     /**
      * Crée un DAO à partir d'une connexion à la base de données.
      *
@@ -48,7 +78,113 @@ public class MembreDAO extends DAO implements IMembreDAO {
         return (List<MembreDTO>) find(session,
             MembreDTO.NOM_COLUMN_NAME,
             nom,
-            sortByPropertyName);
+            sortByPropertyName,
+            MembreDAO.NOM_QUERY_CACHE_REGION);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean incrementNbPret(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        return updateNbPret(session,
+            idMembre,
+            MembreDAO.INCREMENT_NB_PRET_REQUEST) == 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void decrementNbPret(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        updateNbPret(session,
+            idMembre,
+            MembreDAO.DECREMENT_NB_PRET_REQUEST);
     }
 
+    /**
+     * {@inheritDoc}<br />
+     * <br />
+     * Les membres en cache, dont les compteurs peuvent avoir changé, en sont retirés.
+     */
+    @Override
+    public int repairNbPret(Session session) throws InvalidHibernateSessionException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        try {
+            final SQLQuery sqlQuery = session.createSQLQuery(MembreDAO.REPAIR_NB_PRET_REQUEST);
+            sqlQuery.addSynchronizedEntityClass(MembreDTO.class);
+            return sqlQuery.executeUpdate();
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Exécute une mise à jour du compteur des prêts en cours d'un membre.
+     *
+     * @param session La session à utiliser
+     * @param idMembre L'ID du membre
+     * @param request La requête de mise à jour
+     * @return Le nombre de membres mis à jour
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    private static int updateNbPret(Session session,
+        String idMembre,
+        String request) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idMembre == null) {
+            throw new InvalidCriterionValueException("L'ID du membre ne peut être null");
+        }
+        try {
+            final SQLQuery sqlQuery = session.createSQLQuery(request);
+            sqlQuery.addSynchronizedQuerySpace(MembreDAO.NB_PRET_QUERY_SPACE);
+            sqlQuery.setString("idMembre",
+                idMembre);
+            final int count = sqlQuery.executeUpdate();
+            if(count > 0) {
+                MembreDAO.evictMembre(session,
+                    idMembre);
+            }
+            return count;
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Retire un membre du cache de second niveau, dont le compteur des prêts en cours vient de changer : tout de suite, puis après la
+     * validation de la transaction, puisqu'une autre transaction peut remettre en cache l'ancien compteur d'ici là.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param idMembre L'ID du membre
+     */
+    private static void evictMembre(Session session,
+        final String idMembre) {
+        final SessionFactory sessionFactory = session.getSessionFactory();
+        sessionFactory.evict(MembreDTO.class,
+            idMembre);
+        ApresValidation.executer(session,
+            new Runnable() {
+                @Override
+                public void run() {
+                    sessionFactory.evict(MembreDTO.class,
+                        idMembre);
+                }
+            });
+    }
 }
@@ -4,18 +4,37 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.implementations;
 
+import java.io.Serializable;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Locale;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ContextePretDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOClassException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
+import org.hibernate.Criteria;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.LockMode;
+import org.hibernate.SQLQuery;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.exception.ConstraintViolationException;
 
 /**
  * DAO pour effectuer des CRUDs avec la table <code>pret</code>.
@@ -23,6 +42,64 @@ import org.hibernate.Session;
  * @author Gilles Bénichou
  */
 public class PretDAO extends DAO implements IPretDAO {
+    private static final String LIVRE_PRETS_ROLE = LivreDTO.class.getName()
+        + ".prets";
+
+    private static final String MEMBRE_PRETS_ROLE = MembreDTO.class.getName()
+        + ".prets";
+
+    private static final String ID_LIVRE_PROPERTY = "livreDTO."
+        + LivreDTO.ID_LIVRE_COLUMN_NAME;
+
+    private static final String ID_MEMBRE_PROPERTY = "membreDTO."
+        + MembreDTO.ID_MEMBRE_COLUMN_NAME;
+
+    /**
+     * Requête du contexte de prêt. Le livre est joint à son prêt en cours et à ses réservations par ordre d'ancienneté ; seule la première
+     * ligne est lue. Le nombre de prêts du membre est son compteur <code>NBPRET</code> ; son nombre de réservations du livre est une
+     * sous-requête scalaire.
+     */
+    private static final String CONTEXTE_PRET_REQUEST = "SELECT livre.IDLIVRE AS idLivre, "
+        + "emprunteur.IDMEMBRE AS idEmprunteur, "
+        + "emprunteur.NOM AS nomEmprunteur, "
+        + "COALESCE((SELECT membre.NBPRET FROM MEMBRE membre WHERE membre.IDMEMBRE = :idMembre), 0) AS nombrePretsMembre, "
+        + "reservataire.IDMEMBRE AS idReservataire, "
+        + "reservataire.NOM AS nomReservataire, "
+        + "(SELECT COUNT(*) FROM RESERVATION reservationMembre WHERE reservationMembre.IDMEMBRE = :idMembre AND reservationMembre.IDLIVRE = livre.IDLIVRE) AS nombreReservationsMembre "
+        + "FROM LIVRE livre "
+        + "LEFT OUTER JOIN PRET pret ON pret.IDLIVRE = livre.IDLIVRE AND pret.DATERETOUR IS NULL "
+        + "LEFT OUTER JOIN MEMBRE emprunteur ON emprunteur.IDMEMBRE = pret.IDMEMBRE "
+        + "LEFT OUTER JOIN RESERVATION reservation ON reservation.IDLIVRE = livre.IDLIVRE "
+        + "LEFT OUTER JOIN MEMBRE reservataire ON reservataire.IDMEMBRE = reservation.IDMEMBRE "
+        + "WHERE livre.IDLIVRE = :idLivre "
+        + "ORDER BY reservation.DATERESERVATION ASC, pret.DATEPRET ASC";
+
+    /**
+     * Insertion conditionnelle d'un prêt. La ligne n'est produite que si le livre et le membre existent, que le livre n'a aucun prêt en
+     * cours et que le membre n'a pas atteint sa limite de prêt.
+     */
+    private static final String PRET_CONDITIONNEL_REQUEST = "INSERT INTO PRET (IDPRET, IDLIVRE, IDMEMBRE, DATEPRET, DATERETOUR, VERSION) "
+        + "SELECT :idPret, livre.IDLIVRE, membre.IDMEMBRE, :datePret, NULL, 0 "
+        + "FROM LIVRE livre, MEMBRE membre "
+        + "WHERE livre.IDLIVRE = :idLivre "
+        + "AND membre.IDMEMBRE = :idMembre "
+        + "AND membre.NBPRET < membre.LIMITEPRET "
+        + "AND NOT EXISTS (SELECT pretLivre.IDPRET FROM PRET pretLivre WHERE pretLivre.IDLIVRE = livre.IDLIVRE AND pretLivre.DATERETOUR IS NULL)";
+
+    /**
+     * Nom, en majuscules, de l'index unique des prêts en cours. Il figure dans le nom de la contrainte violée, ou à défaut dans le message
+     * de la base de données, quand un autre prêt en cours du livre vient d'être inséré.
+     */
+    private static final String CLE_PRET_EN_COURS = "CLEPRETENCOURS";
+
+    /**
+     * Espace de requête de l'insertion conditionnelle. Il ne correspond à aucune table : sans espace, Hibernate retirerait du cache de
+     * second niveau toutes les entités et toutes les collections à chaque prêt. Aucune requête mise en cache ne lit la table
+     * <code>PRET</code> ; seules les collections <code>prets</code> du livre et du membre sont retirées (voir
+     * {@link #evictCachedCollections(Session, DTO)}).
+     */
+    private static final String PRET_CONDITIONNEL_SPACE = "PRET_CONDITIONNEL";
+
     /**
      * Crée un DAO à partir d'une connexion à la base de données.
      *
@@ -105,4 +182,260 @@ public class PretDAO extends DAO implements IPretDAO {
             dateRetour,
             sortByPropertyName);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ContextePretDTO getContextePret(Session session,
+        String idLivre,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idLivre == null) {
+            throw new InvalidCriterionValueException("L'ID du livre ne peut être null");
+        }
+        if(idMembre == null) {
+            throw new InvalidCriterionValueException("L'ID du membre ne peut être null");
+        }
+        try {
+            final SQLQuery sqlQuery = session.createSQLQuery(PretDAO.CONTEXTE_PRET_REQUEST);
+            sqlQuery.addScalar("idLivre",
+                Hibernate.STRING);
+            sqlQuery.addScalar("idEmprunteur",
+                Hibernate.STRING);
+            sqlQuery.addScalar("nomEmprunteur",
+                Hibernate.STRING);
+            sqlQuery.addScalar("nombrePretsMembre",
+                Hibernate.INTEGER);
+            sqlQuery.addScalar("idReservataire",
+                Hibernate.STRING);
+            sqlQuery.addScalar("nomReservataire",
+                Hibernate.STRING);
+            sqlQuery.addScalar("nombreReservationsMembre",
+                Hibernate.INTEGER);
+            // Les écritures en attente sur ces tables sont vidées avant la requête
+            sqlQuery.addSynchronizedEntityClass(LivreDTO.class);
+            sqlQuery.addSynchronizedEntityClass(MembreDTO.class);
+            sqlQuery.addSynchronizedEntityClass(PretDTO.class);
+            sqlQuery.addSynchronizedEntityClass(ReservationDTO.class);
+            sqlQuery.setString("idLivre",
+                idLivre);
+            sqlQuery.setString("idMembre",
+                idMembre);
+            sqlQuery.setMaxResults(1);
+            final ContextePretDTO contextePretDTO = new ContextePretDTO();
+            contextePretDTO.setIdLivre(idLivre);
+            contextePretDTO.setIdMembre(idMembre);
+            final Object[] row = (Object[]) sqlQuery.uniqueResult();
+            if(row != null) {
+                contextePretDTO.setIdEmprunteur((String) row[1]);
+                contextePretDTO.setNomEmprunteur((String) row[2]);
+                contextePretDTO.setNombrePretsMembre(((Integer) row[3]).intValue());
+                contextePretDTO.setIdReservataire((String) row[4]);
+                contextePretDTO.setNomReservataire((String) row[5]);
+                contextePretDTO.setNombreReservationsMembre(((Integer) row[6]).intValue());
+            }
+            return contextePretDTO;
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ContextePretDTO lockContextePret(Session session,
+        LivreDTO livreDTO,
+        MembreDTO membreDTO) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(livreDTO == null) {
+            throw new InvalidDTOException("Le livre ne peut être null");
+        }
+        if(membreDTO == null) {
+            throw new InvalidDTOException("Le membre ne peut être null");
+        }
+        lock(session,
+            membreDTO);
+        lock(session,
+            livreDTO);
+        return getContextePret(session,
+            livreDTO.getIdLivre(),
+            membreDTO.getIdMembre());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countOpenLoansByLivre(Session session,
+        String idLivre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idLivre == null) {
+            throw new InvalidCriterionValueException("L'ID du livre ne peut être null");
+        }
+        return count(session,
+            Restrictions.eq(PretDAO.ID_LIVRE_PROPERTY,
+                idLivre),
+            Restrictions.isNull(PretDTO.DATE_RETOUR_COLUMN_NAME));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countOpenLoansByMembre(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idMembre == null) {
+            throw new InvalidCriterionValueException("L'ID du membre ne peut être null");
+        }
+        return count(session,
+            Restrictions.eq(PretDAO.ID_MEMBRE_PROPERTY,
+                idMembre),
+            Restrictions.isNull(PretDTO.DATE_RETOUR_COLUMN_NAME));
+    }
+
+    /**
+     * {@inheritDoc}<br />
+     * <br />
+     * L'ID du prêt est tiré du générateur de la classe <code>PretDTO</code>, qui le distribue en mémoire la plupart du temps : un prêt ne
+     * coûte donc qu'un aller-retour avec la base de données. Une violation de l'index unique des prêts en cours, quand une autre transaction
+     * vient de prêter le même livre, est traitée comme un livre indisponible ; toute autre violation de contrainte est une erreur.
+     */
+    @Override
+    public boolean addIfAvailable(Session session,
+        PretDTO pretDTO) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(pretDTO == null) {
+            throw new InvalidDTOException("Le DTO ne peut être null");
+        }
+        if(pretDTO.getLivreDTO() == null) {
+            throw new InvalidDTOException("Le livre ne peut être null");
+        }
+        if(pretDTO.getMembreDTO() == null) {
+            throw new InvalidDTOException("Le membre ne peut être null");
+        }
+        try {
+            final Serializable idPret = ((SessionFactoryImplementor) session.getSessionFactory()).getIdentifierGenerator(
+                PretDTO.class.getName()).generate((SessionImplementor) session,
+                    pretDTO);
+            final SQLQuery sqlQuery = session.createSQLQuery(PretDAO.PRET_CONDITIONNEL_REQUEST);
+            sqlQuery.addSynchronizedQuerySpace(PretDAO.PRET_CONDITIONNEL_SPACE);
+            sqlQuery.setString("idPret",
+                (String) idPret);
+            sqlQuery.setTimestamp("datePret",
+                pretDTO.getDatePret());
+            sqlQuery.setString("idLivre",
+                pretDTO.getLivreDTO().getIdLivre());
+            sqlQuery.setString("idMembre",
+                pretDTO.getMembreDTO().getIdMembre());
+            if(sqlQuery.executeUpdate() == 0) {
+                if(!PretDAO.rowExists(session,
+                    LivreDTO.class,
+                    pretDTO.getLivreDTO().getIdLivre())) {
+                    throw new InvalidDTOException("Le livre d'ID "
+                        + pretDTO.getLivreDTO().getIdLivre()
+                        + " n'existe pas");
+                }
+                if(!PretDAO.rowExists(session,
+                    MembreDTO.class,
+                    pretDTO.getMembreDTO().getIdMembre())) {
+                    throw new InvalidDTOException("Le membre d'ID "
+                        + pretDTO.getMembreDTO().getIdMembre()
+                        + " n'existe pas");
+                }
+                return false;
+            }
+            pretDTO.setIdPret((String) idPret);
+            pretDTO.setVersion(Integer.valueOf(0));
+            // Le prêt inséré est attaché à la session sans relecture, comme s'il venait d'être chargé
+            session.lock(pretDTO,
+                LockMode.NONE);
+            registerIdentifier(session,
+                pretDTO);
+            evictCachedCollections(session,
+                pretDTO);
+            return true;
+        } catch(ConstraintViolationException constraintViolationException) {
+            if(PretDAO.isPretEnCours(constraintViolationException)) {
+                return false;
+            }
+            throw new DAOException(constraintViolationException);
+        } catch(HibernateException hibernateException) {
+            throw new DAOException(hibernateException);
+        }
+    }
+
+    /**
+     * Indique si une violation de contrainte porte sur l'index unique des prêts en cours. Le nom de la contrainte n'est connu que des
+     * dialectes qui savent l'extraire ; sinon, il est cherché dans le message de la base de données.
+     *
+     * @param constraintViolationException La violation de contrainte
+     * @return <code>true</code> si l'index des prêts en cours est violé ; <code>false</code> sinon
+     */
+    private static boolean isPretEnCours(ConstraintViolationException constraintViolationException) {
+        String contrainte = constraintViolationException.getConstraintName();
+        if(contrainte == null) {
+            final SQLException sqlException = constraintViolationException.getSQLException();
+            contrainte = sqlException == null ? null : sqlException.getMessage();
+        }
+        return contrainte != null
+            && contrainte.toUpperCase(Locale.ENGLISH).contains(PretDAO.CLE_PRET_EN_COURS);
+    }
+
+    /**
+     * Indique si une ligne existe, sans charger son DTO.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtoClass La classe du DTO de la table
+     * @param primaryKey La clef primaire de la ligne
+     * @return <code>true</code> si la ligne existe ; <code>false</code> sinon
+     */
+    private static boolean rowExists(Session session,
+        Class<? extends DTO> dtoClass,
+        Serializable primaryKey) {
+        final Criteria criteria = session.createCriteria(dtoClass);
+        criteria.add(Restrictions.idEq(primaryKey));
+        criteria.setProjection(Projections.id());
+        return criteria.uniqueResult() != null;
+    }
+
+    /**
+     * {@inheritDoc}<br />
+     * <br />
+     * Retire du cache les collections <code>prets</code> du livre et du membre du prêt.
+     */
+    @Override
+    protected void evictCachedCollections(Session session,
+        DTO dto) {
+        final PretDTO pretDTO = (PretDTO) dto;
+        final SessionFactory sessionFactory = session.getSessionFactory();
+        if(pretDTO.getLivreDTO() != null) {
+            sessionFactory.evictCollection(PretDAO.LIVRE_PRETS_ROLE,
+                pretDTO.getLivreDTO().getIdLivre());
+        }
+        if(pretDTO.getMembreDTO() != null) {
+            sessionFactory.evictCollection(PretDAO.MEMBRE_PRETS_ROLE,
+                pretDTO.getMembreDTO().getIdMembre());
+        }
+    }
 }
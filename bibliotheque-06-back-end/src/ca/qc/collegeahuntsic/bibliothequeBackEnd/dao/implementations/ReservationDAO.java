@@ -6,6 +6,9 @@ package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.implementations;
 
 import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IReservationDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
@@ -14,6 +17,8 @@ import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateS
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOClassException;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Restrictions;
 
 /**
  * DAO pour effectuer des CRUDs avec la table reservation.
@@ -22,6 +27,18 @@ import org.hibernate.Session;
  */
 
 public class ReservationDAO extends DAO implements IReservationDAO {
+    private static final String LIVRE_RESERVATIONS_ROLE = LivreDTO.class.getName()
+        + ".reservations";
+
+    private static final String MEMBRE_RESERVATIONS_ROLE = MembreDTO.class.getName()
+        + ".reservations";
+
+    private static final String ID_LIVRE_PROPERTY = "livreDTO."
+        + LivreDTO.ID_LIVRE_COLUMN_NAME;
+
+    private static final String ID_MEMBRE_PROPERTY = "membreDTO."
+        + MembreDTO.ID_MEMBRE_COLUMN_NAME;
+
     /**
      * Crée le DAO de la table <code>reservation</code>.
      *
@@ -45,7 +62,7 @@ public class ReservationDAO extends DAO implements IReservationDAO {
         InvalidSortByPropertyException,
         DAOException {
         return (List<ReservationDTO>) find(session,
-            ReservationDTO.ID_LIVRE_COLUMN_NAME,
+            ReservationDAO.ID_LIVRE_PROPERTY,
             idLivre,
             sortByPropertyName);
     }
@@ -63,9 +80,47 @@ public class ReservationDAO extends DAO implements IReservationDAO {
         InvalidSortByPropertyException,
         DAOException {
         return (List<ReservationDTO>) find(session,
-            ReservationDTO.ID_MEMBRE_COLUMN_NAME,
+            ReservationDAO.ID_MEMBRE_PROPERTY,
             idMembre,
             sortByPropertyName);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countByMembre(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(idMembre == null) {
+            throw new InvalidCriterionValueException("L'ID du membre ne peut être null");
+        }
+        return count(session,
+            Restrictions.eq(ReservationDAO.ID_MEMBRE_PROPERTY,
+                idMembre));
+    }
+
+    /**
+     * {@inheritDoc}<br />
+     * <br />
+     * Retire du cache les collections <code>reservations</code> du livre et du membre du réservation.
+     */
+    @Override
+    protected void evictCachedCollections(Session session,
+        DTO dto) {
+        final ReservationDTO reservationDTO = (ReservationDTO) dto;
+        final SessionFactory sessionFactory = session.getSessionFactory();
+        if(reservationDTO.getLivreDTO() != null) {
+            sessionFactory.evictCollection(ReservationDAO.LIVRE_RESERVATIONS_ROLE,
+                reservationDTO.getLivreDTO().getIdLivre());
+        }
+        if(reservationDTO.getMembreDTO() != null) {
+            sessionFactory.evictCollection(ReservationDAO.MEMBRE_RESERVATIONS_ROLE,
+                reservationDTO.getMembreDTO().getIdMembre());
+        }
+    }
 }
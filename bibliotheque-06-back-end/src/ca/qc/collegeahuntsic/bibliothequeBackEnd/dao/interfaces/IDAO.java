@@ -5,9 +5,13 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
@@ -50,6 +54,41 @@ public interface IDAO {
         InvalidPrimaryKeyException,
         DAOException;
 
+    /**
+     * Indique si un DTO existe dans la base de données. Seule sa clef primaire est lue : le DTO n'est pas chargé dans la session.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param primaryKey La clef primaire du DTO à chercher
+     * @return <code>true</code> si le DTO existe ; <code>false</code> sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidPrimaryKeyException Si la clef primaire du DTO est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        DAOException;
+
+    /**
+     * Compte les DTOs dont la propriété <code>propertyName</code> est égale à une valeur <code>value</code>. Le compte est fait par la base
+     * de données ; aucun DTO n'est chargé. La propriété peut désigner l'ID d'une association, par exemple <code>membreDTO.idMembre</code>.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param propertyName Le nom de la propriété à utiliser
+     * @param value La valeur à compter
+     * @return Le nombre de DTOs correspondants
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionException Si la propriété à utiliser est <code>null</code>
+     * @throws InvalidCriterionValueException Si la valeur à compter est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        DAOException;
+
     /**
      * Met à jour un DTO dans la base de données.
      *
@@ -64,6 +103,22 @@ public interface IDAO {
         InvalidDTOException,
         DAOException;
 
+    /**
+     * Verrouille un DTO en incrémentant sa version dans la base de données, même s'il n'est pas modifié. Une autre transaction qui a
+     * verrouillé ou modifié le même DTO ne peut plus valider : elle échoue sur une {@link org.hibernate.StaleObjectStateException} et doit
+     * être reprise.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dto Le DTO à verrouiller
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si le DTO est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données, ou si le DTO a été modifié par une autre transaction
+     */
+    void lock(Session session,
+        DTO dto) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException;
+
     /**
      * Ajoute un nouveau DTO dans la base de données s'il n'existe pas ; le met à jour sinon.
      *
@@ -92,6 +147,51 @@ public interface IDAO {
         InvalidDTOException,
         DAOException;
 
+    /**
+     * Ajoute des nouveaux DTOs dans la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>)
+     * à chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à ajouter
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    void addAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException;
+
+    /**
+     * Met à jour des DTOs dans la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>) à
+     * chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à mettre à jour
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    void updateAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException;
+
+    /**
+     * Supprime des DTOs de la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>) à
+     * chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à supprimer
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    void deleteAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException;
+
     /**
      * Trouve tous les DTOs de la base de données. La liste est classée par ordre croissant sur <code>sortByPropertyName</code>. Si aucun
      * DTO n'est trouvé, une {@link List} vide est retournée.
@@ -107,4 +207,47 @@ public interface IDAO {
         String sortByPropertyName) throws InvalidHibernateSessionException,
         InvalidSortByPropertyException,
         DAOException;
+
+    /**
+     * Parcourt en continu tous les DTOs de la base de données, par ordre croissant sur <code>sortByPropertyName</code>. Les DTOs sont lus
+     * à l'aide d'un curseur en avant seulement et sont retirés de la session dès qu'ils sont traités, ce qui garde la mémoire constante
+     * quelle que soit la taille de la table.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param sortByPropertyName Le nom de la propriété à utiliser pour classer
+     * @param fetchSize Le nombre de lignes à lire à chaque aller-retour avec la base de données ; <code>0</code> pour la valeur du pilote
+     * @param dtoHandler Le traitement à appeler sur chacun des DTOs
+     * @return Le nombre de DTOs traités
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidSortByPropertyException Si la propriété à utiliser pour classer est <code>null</code>
+     * @throws InvalidDTOHandlerException Si le traitement est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        DAOException;
+
+    /**
+     * Lit une page de DTOs classés par ordre croissant de clef primaire. La page commence après la clef primaire
+     * <code>lastPrimaryKey</code> (pagination par clef) : le coût d'une page ne dépend pas de sa position dans la table. Une clef primaire
+     * stockée dans une chaîne de caractères est classée par ordre numérique (longueur, puis valeur). Si aucun DTO n'est trouvé, une
+     * {@link List} vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param lastPrimaryKey La clef primaire du dernier DTO de la page précédente ; <code>null</code> pour la première page
+     * @param limit Le nombre maximal de DTOs de la page
+     * @return La liste des DTOs de la page ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si le nombre maximal de DTOs est inférieur à 1
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
 }
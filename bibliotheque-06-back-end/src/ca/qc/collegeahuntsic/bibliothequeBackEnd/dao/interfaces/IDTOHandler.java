@@ -0,0 +1,23 @@
+// Fichier IDTOHandler.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces;
+
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+
+/**
+ * Traitement appelé sur chacun des DTOs d'un parcours en continu (voir {@link IDAO#scrollAll}).<br />
+ * Le DTO est retiré de la session Hibernate dès que le traitement se termine : il ne doit pas être conservé pour être modifié plus tard.
+ *
+ * @author Gilles Bénichou
+ */
+public interface IDTOHandler {
+    /**
+     * Traite un DTO du parcours.
+     *
+     * @param dto Le DTO à traiter
+     * @return <code>true</code> pour continuer le parcours ; <code>false</code> pour l'arrêter
+     */
+    boolean handle(DTO dto);
+}
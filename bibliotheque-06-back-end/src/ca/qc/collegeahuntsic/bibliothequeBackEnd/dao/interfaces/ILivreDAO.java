@@ -41,4 +41,19 @@ public interface ILivreDAO extends IDAO {
         InvalidSortByPropertyException,
         DAOException;
 
+    /**
+     * Trouve les livres à partir d'une liste d'IDs, en une requête par tranche de 1000 IDs. La liste retournée suit l'ordre
+     * des IDs ; les IDs qui ne correspondent à aucun livre sont ignorés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param idsLivre Les IDs des livres à trouver
+     * @return La liste des livres correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si la liste d'IDs est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    List<LivreDTO> findByIds(Session session,
+        List<String> idsLivre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
 }
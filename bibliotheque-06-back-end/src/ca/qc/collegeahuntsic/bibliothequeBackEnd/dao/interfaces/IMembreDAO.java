@@ -41,4 +41,47 @@ public interface IMembreDAO extends IDAO {
         DAOException,
         InvalidCriterionValueException;
 
+    /**
+     * Incrémente le compteur des prêts en cours d'un membre, s'il n'a pas atteint sa limite de prêt. La vérification et l'incrément sont
+     * faits par une seule requête : la ligne du membre reste verrouillée jusqu'à la fin de la transaction, et deux prêts simultanés au
+     * même membre ne peuvent pas dépasser sa limite.
+     *
+     * @param session La session à utiliser
+     * @param idMembre L'ID du membre
+     * @return <code>true</code> si le compteur a été incrémenté ; <code>false</code> si le membre a atteint sa limite de prêt ou s'il
+     *         n'existe pas
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    boolean incrementNbPret(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
+
+    /**
+     * Décrémente le compteur des prêts en cours d'un membre. Le compteur ne descend pas sous zéro.
+     *
+     * @param session La session à utiliser
+     * @param idMembre L'ID du membre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    void decrementNbPret(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
+
+    /**
+     * Recalcule en une seule requête le compteur des prêts en cours de tous les membres à partir de la table <code>pret</code>, par
+     * exemple après une importation qui n'est pas passée par les services. Seuls les compteurs faux sont réécrits.
+     *
+     * @param session La session à utiliser
+     * @return Le nombre de compteurs corrigés
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int repairNbPret(Session session) throws InvalidHibernateSessionException,
+        DAOException;
 }
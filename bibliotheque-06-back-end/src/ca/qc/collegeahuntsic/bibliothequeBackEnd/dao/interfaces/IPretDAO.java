@@ -6,12 +6,16 @@ package ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces;
 
 import java.sql.Timestamp;
 import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ContextePretDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
 import org.hibernate.Session;
 
 /**
@@ -109,4 +113,96 @@ public interface IPretDAO extends IDAO {
         InvalidSortByPropertyException,
         DAOException;
 
+    /**
+     * Lit en une seule requête le contexte de prêt d'un livre pour un membre : l'emprunteur actuel du livre, le nombre de prêts en cours du
+     * membre, le premier membre de la file de réservation du livre et le nombre de réservations du membre pour ce livre. Le nombre de
+     * requêtes SQL ne dépend donc pas de la taille des collections <code>prets</code> et <code>reservations</code>. Si le livre n'existe pas,
+     * un contexte vide est retourné.
+     *
+     * @param session La session à utiliser
+     * @param idLivre L'ID du livre
+     * @param idMembre L'ID du membre
+     * @return Le contexte de prêt du livre pour le membre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du livre ou l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    ContextePretDTO getContextePret(Session session,
+        String idLivre,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
+
+    /**
+     * Verrouille le membre puis le livre, puis lit le contexte de prêt du livre pour le membre (voir
+     * {@link #getContextePret(Session, String, String)}). Le verrou incrémente leur version : si une autre transaction prête, rend ou réserve
+     * le même livre, ou touche le même membre, une seule des deux peut valider et les vérifications faites sur ce contexte restent vraies
+     * jusqu'à la validation. Les verrous sont toujours pris dans le même ordre, pour éviter les interblocages.
+     *
+     * @param session La session à utiliser
+     * @param livreDTO Le livre
+     * @param membreDTO Le membre
+     * @return Le contexte de prêt du livre pour le membre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidDTOException Si le livre ou le membre est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du livre ou l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données ou un conflit avec une autre transaction
+     */
+    ContextePretDTO lockContextePret(Session session,
+        LivreDTO livreDTO,
+        MembreDTO membreDTO) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        InvalidCriterionValueException,
+        DAOException;
+
+    /**
+     * Ajoute un prêt en une seule requête, à condition que le livre ne soit pas déjà prêté et que le membre n'ait pas atteint sa limite de
+     * prêt. Les vérifications et l'insertion sont faites par la base de données dans la même instruction ; l'index unique des prêts en
+     * cours garantit en plus qu'un livre n'a jamais deux prêts en cours, même si deux transactions insèrent en même temps. Le compteur de
+     * prêts du membre n'est pas modifié (voir {@link IMembreDAO#incrementNbPret(Session, String)}). Le prêt ajouté est attaché à la session ;
+     * seules les collections <code>prets</code> de son livre et de son membre sont retirées du cache de second niveau.
+     *
+     * @param session La session à utiliser
+     * @param pretDTO Le prêt à ajouter, avec son livre, son membre et sa date de prêt
+     * @return <code>true</code> si le prêt a été ajouté ; <code>false</code> si le livre est déjà prêté ou si le membre a atteint sa limite de
+     *         prêt
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidDTOException Si le prêt, son livre ou son membre est <code>null</code>, ou si le livre ou le membre n'existe pas
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    boolean addIfAvailable(Session session,
+        PretDTO pretDTO) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        DAOException;
+
+    /**
+     * Compte les prêts en cours d'un livre. Le compte est fait par la base de données : ni les prêts ni le livre ne sont chargés.
+     *
+     * @param session La session à utiliser
+     * @param idLivre L'ID du livre
+     * @return Le nombre de prêts en cours du livre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du livre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int countOpenLoansByLivre(Session session,
+        String idLivre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
+
+    /**
+     * Compte les prêts en cours d'un membre, sans charger les prêts ni le membre. Contrairement au compteur <code>NBPRET</code> du membre,
+     * le compte est lu dans la table <code>pret</code>.
+     *
+     * @param session La session à utiliser
+     * @param idMembre L'ID du membre
+     * @return Le nombre de prêts en cours du membre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int countOpenLoansByMembre(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
 }
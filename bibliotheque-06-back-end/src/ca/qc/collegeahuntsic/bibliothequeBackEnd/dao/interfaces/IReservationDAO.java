@@ -62,4 +62,19 @@ public interface IReservationDAO extends IDAO {
         InvalidCriterionValueException,
         InvalidSortByPropertyException,
         DAOException;
+
+    /**
+     * Compte les réservations d'un membre, sans les charger.
+     *
+     * @param session La session à utiliser
+     * @param idMembre L'ID du membre
+     * @return Le nombre de réservations du membre
+     * @throws InvalidHibernateSessionException Si la session est <code>null</code>
+     * @throws InvalidCriterionValueException Si l'ID du membre est <code>null</code>
+     * @throws DAOException S'il y a une erreur avec la base de données
+     */
+    int countByMembre(Session session,
+        String idMembre) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        DAOException;
 }
@@ -0,0 +1,307 @@
+// Fichier ContextePretDTO.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * DTO non persistant regroupant, pour un livre et un membre, ce dont les règles de prêt et de réservation ont besoin : l'emprunteur actuel
+ * du livre, le nombre de prêts en cours du membre, le premier membre de la file de réservation du livre et le nombre de réservations du
+ * membre pour ce livre.<br />
+ * Il est lu en une seule requête par {@link ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO#getContextePret}.
+ *
+ * @author Gilles Bénichou
+ */
+public final class ContextePretDTO extends DTO {
+    private static final long serialVersionUID = 1L;
+
+    private String idLivre;
+
+    private String idMembre;
+
+    private String idEmprunteur;
+
+    private String nomEmprunteur;
+
+    private int nombrePretsMembre;
+
+    private String idReservataire;
+
+    private String nomReservataire;
+
+    private int nombreReservationsMembre;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public ContextePretDTO() {
+        super();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.idLivre</code>.
+     *
+     * @return La variable d'instance <code>this.idLivre</code>
+     */
+    public String getIdLivre() {
+        return this.idLivre;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.idLivre</code>.
+     *
+     * @param idLivre La valeur à utiliser pour la variable d'instance <code>this.idLivre</code>
+     */
+    public void setIdLivre(String idLivre) {
+        this.idLivre = idLivre;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.idMembre</code>.
+     *
+     * @return La variable d'instance <code>this.idMembre</code>
+     */
+    public String getIdMembre() {
+        return this.idMembre;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.idMembre</code>.
+     *
+     * @param idMembre La valeur à utiliser pour la variable d'instance <code>this.idMembre</code>
+     */
+    public void setIdMembre(String idMembre) {
+        this.idMembre = idMembre;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.idEmprunteur</code>.
+     *
+     * @return La variable d'instance <code>this.idEmprunteur</code>
+     */
+    public String getIdEmprunteur() {
+        return this.idEmprunteur;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.idEmprunteur</code>.
+     *
+     * @param idEmprunteur La valeur à utiliser pour la variable d'instance <code>this.idEmprunteur</code>
+     */
+    public void setIdEmprunteur(String idEmprunteur) {
+        this.idEmprunteur = idEmprunteur;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nomEmprunteur</code>.
+     *
+     * @return La variable d'instance <code>this.nomEmprunteur</code>
+     */
+    public String getNomEmprunteur() {
+        return this.nomEmprunteur;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.nomEmprunteur</code>.
+     *
+     * @param nomEmprunteur La valeur à utiliser pour la variable d'instance <code>this.nomEmprunteur</code>
+     */
+    public void setNomEmprunteur(String nomEmprunteur) {
+        this.nomEmprunteur = nomEmprunteur;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombrePretsMembre</code>.
+     *
+     * @return La variable d'instance <code>this.nombrePretsMembre</code>
+     */
+    public int getNombrePretsMembre() {
+        return this.nombrePretsMembre;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.nombrePretsMembre</code>.
+     *
+     * @param nombrePretsMembre La valeur à utiliser pour la variable d'instance <code>this.nombrePretsMembre</code>
+     */
+    public void setNombrePretsMembre(int nombrePretsMembre) {
+        this.nombrePretsMembre = nombrePretsMembre;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.idReservataire</code>.
+     *
+     * @return La variable d'instance <code>this.idReservataire</code>
+     */
+    public String getIdReservataire() {
+        return this.idReservataire;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.idReservataire</code>.
+     *
+     * @param idReservataire La valeur à utiliser pour la variable d'instance <code>this.idReservataire</code>
+     */
+    public void setIdReservataire(String idReservataire) {
+        this.idReservataire = idReservataire;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nomReservataire</code>.
+     *
+     * @return La variable d'instance <code>this.nomReservataire</code>
+     */
+    public String getNomReservataire() {
+        return this.nomReservataire;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.nomReservataire</code>.
+     *
+     * @param nomReservataire La valeur à utiliser pour la variable d'instance <code>this.nomReservataire</code>
+     */
+    public void setNomReservataire(String nomReservataire) {
+        this.nomReservataire = nomReservataire;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreReservationsMembre</code>.
+     *
+     * @return La variable d'instance <code>this.nombreReservationsMembre</code>
+     */
+    public int getNombreReservationsMembre() {
+        return this.nombreReservationsMembre;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.nombreReservationsMembre</code>.
+     *
+     * @param nombreReservationsMembre La valeur à utiliser pour la variable d'instance <code>this.nombreReservationsMembre</code>
+     */
+    public void setNombreReservationsMembre(int nombreReservationsMembre) {
+        this.nombreReservationsMembre = nombreReservationsMembre;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Indique si le livre fait l'objet d'un prêt en cours.
+     *
+     * @return <code>true</code> si le livre est prêté ; <code>false</code> sinon
+     */
+    public boolean isPrete() {
+        return getIdEmprunteur() != null;
+    }
+
+    /**
+     * Indique si le livre est prêté au membre.
+     *
+     * @return <code>true</code> si le membre est l'emprunteur actuel du livre ; <code>false</code> sinon
+     */
+    public boolean isPreteAuMembre() {
+        return isPrete()
+            && getIdEmprunteur().equals(getIdMembre());
+    }
+
+    /**
+     * Indique si le livre a au moins une réservation.
+     *
+     * @return <code>true</code> si le livre est réservé ; <code>false</code> sinon
+     */
+    public boolean isReserve() {
+        return getIdReservataire() != null;
+    }
+
+    /**
+     * Indique si le membre est le premier de la file de réservation du livre.
+     *
+     * @return <code>true</code> si la plus ancienne réservation du livre est celle du membre ; <code>false</code> sinon
+     */
+    public boolean isReserveParLeMembre() {
+        return isReserve()
+            && getIdReservataire().equals(getIdMembre());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+        DTO.ajouterPropriete(string,
+            "idEmprunteur",
+            getIdEmprunteur());
+        DTO.ajouterPropriete(string,
+            "idLivre",
+            getIdLivre());
+        DTO.ajouterPropriete(string,
+            "idMembre",
+            getIdMembre());
+        DTO.ajouterPropriete(string,
+            "idReservataire",
+            getIdReservataire());
+        DTO.ajouterPropriete(string,
+            "nomEmprunteur",
+            getNomEmprunteur());
+        DTO.ajouterPropriete(string,
+            "nomReservataire",
+            getNomReservataire());
+        DTO.ajouterPropriete(string,
+            "nombrePretsMembre",
+            Integer.valueOf(getNombrePretsMembre()));
+        DTO.ajouterPropriete(string,
+            "nombreReservationsMembre",
+            Integer.valueOf(getNombreReservationsMembre()));
+        DTO.ajouterPropriete(string,
+            "prete",
+            Boolean.valueOf(isPrete()));
+        DTO.ajouterPropriete(string,
+            "preteAuMembre",
+            Boolean.valueOf(isPreteAuMembre()));
+        DTO.ajouterPropriete(string,
+            "reserve",
+            Boolean.valueOf(isReserve()));
+        DTO.ajouterPropriete(string,
+            "reserveParLeMembre",
+            Boolean.valueOf(isReserveParLeMembre()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        boolean equals = this == obj;
+        if(!equals) {
+            equals = obj != null
+                && obj instanceof ContextePretDTO;
+            if(equals) {
+                final ContextePretDTO contextePretDTO = (ContextePretDTO) obj;
+                final EqualsBuilder equalsBuilder = new EqualsBuilder();
+                equalsBuilder.append(getIdLivre(),
+                    contextePretDTO.getIdLivre());
+                equalsBuilder.append(getIdMembre(),
+                    contextePretDTO.getIdMembre());
+                equals = equalsBuilder.isEquals();
+            }
+        }
+        return equals;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(29,
+            19);
+        hashCodeBuilder.append(getIdLivre());
+        hashCodeBuilder.append(getIdMembre());
+        return hashCodeBuilder.toHashCode();
+    }
+}
@@ -4,20 +4,16 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
 
-import java.beans.BeanInfo;
-import java.beans.IndexedPropertyDescriptor;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.Serializable;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collections;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.Constants;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.HibernateProxyHelper;
 
 /**
- * Classe de base pour tous les DTOs.
+ * Classe de base pour tous les DTOs.<br />
+ * L'égalité et le hash code d'un DTO reposent sur sa clé primaire (voir {@link #getPrimaryKey()}) ; celle d'un proxy Hibernate est lue
+ * sans le charger. Les propriétés affichées par {@link #toString()} sont ajoutées par chaque classe (voir
+ * {@link #ajouterProprietes(StringBuilder)}), sans réflexion.
  *
  * @author Gilles Bénichou
  */
@@ -31,6 +27,15 @@ public class DTO implements Serializable {
         super();
     }
 
+    /**
+     * Retourne la clé primaire du DTO. Les sous-classes qui correspondent à une table la redéfinissent.
+     *
+     * @return La clé primaire ; <code>null</code> si le DTO n'en a pas ou si elle n'est pas encore assignée
+     */
+    protected Serializable getPrimaryKey() {
+        return null;
+    }
+
     /**
      * Indicates whether some other object is "equal to" this one. <br />
      * The equals method implements an equivalence relation on non-<code>null</code> object references: <br />
@@ -53,7 +58,10 @@ public class DTO implements Serializable {
      * (x == y has the value <code>true</code>). <br />
      * <br />
      * Note that it is generally necessary to override the hashCode method whenever this method is overridden, so as to maintain the general
-     * contract for the hashCode method, which states that equal objects must have equal hash codes.
+     * contract for the hashCode method, which states that equal objects must have equal hash codes.<br />
+     * <br />
+     * Deux DTOs sont égaux s'ils sont de la même classe et ont la même clé primaire. Un DTO sans clé primaire n'est égal qu'à lui-même. La
+     * classe et la clé primaire d'un proxy Hibernate sont celles de l'entité qu'il représente, et elles sont obtenues sans charger le proxy.
      *
      * @param obj The reference object with which to compare
      * @return <code>true</code> if this object is the same as the obj argument; <code>false</code> otherwise
@@ -61,9 +69,13 @@ public class DTO implements Serializable {
     @Override
     public boolean equals(Object obj) {
         boolean equals = this == obj;
-        if(!equals) {
-            equals = obj != null
-                && obj instanceof DTO;
+        if(!equals
+            && obj instanceof DTO) {
+            final DTO dto = (DTO) obj;
+            final Serializable primaryKey = DTO.getIdentifiant(this);
+            equals = primaryKey != null
+                && HibernateProxyHelper.getClassWithoutInitializingProxy(this) == HibernateProxyHelper.getClassWithoutInitializingProxy(dto)
+                && primaryKey.equals(DTO.getIdentifiant(dto));
         }
         return equals;
     }
@@ -87,15 +99,18 @@ public class DTO implements Serializable {
      * <br />
      * As much as is reasonably practical, the hashCode method defined by class Object does return distinct integers for distinct objects (this
      * is typically implemented by converting the internal address of the object into an integer, but this implementation technique is not
-     * required by the Java<small><sup>TM</sup></small> programming language).
+     * required by the Java<small><sup>TM</sup></small> programming language).<br />
+     * <br />
+     * Le hash code est celui de la clé primaire, ou celui de l'identité de l'objet si la clé n'est pas encore assignée. Un DTO ne doit donc
+     * être placé dans un {@link java.util.HashSet} qu'une fois sa clé assignée, ce que fait la sauvegarde par Hibernate. Le hash code d'un
+     * proxy Hibernate est obtenu sans charger le proxy.
      *
      * @return A hash code value for this object
      */
     @Override
     public int hashCode() {
-        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(15,
-            5);
-        return hashCodeBuilder.toHashCode();
+        final Serializable primaryKey = DTO.getIdentifiant(this);
+        return primaryKey == null ? System.identityHashCode(this) : primaryKey.hashCode();
     }
 
     /**
@@ -120,50 +135,59 @@ public class DTO implements Serializable {
      */
     @Override
     public String toString() {
-        String string = Constants.NEW_LINE.toString()
-            + Constants.OPENING_BRACE.toString();
-        try {
-            final BeanInfo beanInfo = Introspector.getBeanInfo(getClass());
-            final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-            String propertyName = null;
-            Method getter = null;
-            for(PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                if(!propertyDescriptor.getPropertyType().isInstance(Collections.EMPTY_SET)) {
-                    string += Constants.NEW_LINE.toString()
-                        + Constants.SPACE.toString()
-                        + Constants.SPACE.toString();
-                    try {
-                        if(propertyDescriptor instanceof IndexedPropertyDescriptor) {
-                            getter = ((IndexedPropertyDescriptor) propertyDescriptor).getIndexedReadMethod();
-                        } else {
-                            getter = propertyDescriptor.getReadMethod();
-                        }
-                        propertyName = propertyDescriptor.getName();
-                        string += propertyName
-                            + Constants.SPACE.toString()
-                            + Constants.EQUALS.toString()
-                            + Constants.SPACE.toString()
-                            + getter.invoke(this,
-                                (Object[]) null)
-                            + Constants.COMMA.toString();
-                    } catch(NullPointerException nullPointerException) {
-                        // Nothing to do.
-                    } catch(IllegalAccessException illegalAccessException) {
-                        // Nothing to do.
-                    } catch(IllegalArgumentException illegalArgumentException) {
-                        // Nothing to do.
-                    } catch(InvocationTargetException invocationTargetException) {
-                        // Nothing to do.
-                    }
-                }
-            }
-        } catch(NullPointerException nullPointerException) {
-            // Nothing to do.
-        } catch(IntrospectionException introspectionException) {
-            // Nothing to do.
+        final StringBuilder string = new StringBuilder();
+        string.append(Constants.NEW_LINE.charValue());
+        string.append(Constants.OPENING_BRACE.charValue());
+        ajouterProprietes(string);
+        string.append(Constants.NEW_LINE.charValue());
+        string.append(Constants.CLOSING_BRACE.charValue());
+        return string.toString();
+    }
+
+    /**
+     * Ajoute les propriétés du DTO à sa représentation textuelle, dans l'ordre alphabétique de leurs noms, avec
+     * {@link #ajouterPropriete(StringBuilder, String, Object)}. Les sous-classes la redéfinissent pour ajouter leurs propriétés ; les
+     * collections ne sont pas affichées.
+     *
+     * @param string La représentation textuelle en cours de construction
+     */
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+    }
+
+    /**
+     * Ajoute une propriété à la représentation textuelle d'un DTO.
+     *
+     * @param string La représentation textuelle en cours de construction
+     * @param nom Le nom de la propriété
+     * @param valeur La valeur de la propriété
+     */
+    protected static void ajouterPropriete(StringBuilder string,
+        String nom,
+        Object valeur) {
+        string.append(Constants.NEW_LINE.charValue());
+        string.append(Constants.SPACE.charValue());
+        string.append(Constants.SPACE.charValue());
+        string.append(nom);
+        string.append(Constants.SPACE.charValue());
+        string.append(Constants.EQUALS.charValue());
+        string.append(Constants.SPACE.charValue());
+        string.append(valeur);
+        string.append(Constants.COMMA.charValue());
+    }
+
+    /**
+     * Retourne la clé primaire d'un DTO. Celle d'un proxy Hibernate est lue dans son initialiseur, sans charger le proxy.
+     *
+     * @param dto Le DTO
+     * @return La clé primaire ; <code>null</code> si le DTO n'en a pas ou si elle n'est pas encore assignée
+     */
+    private static Serializable getIdentifiant(DTO dto) {
+        if(dto instanceof HibernateProxy) {
+            return ((HibernateProxy) dto).getHibernateLazyInitializer().getIdentifier();
         }
-        string += Constants.NEW_LINE.toString()
-            + Constants.CLOSING_BRACE.toString();
-        return string;
+        return dto.getPrimaryKey();
     }
 }
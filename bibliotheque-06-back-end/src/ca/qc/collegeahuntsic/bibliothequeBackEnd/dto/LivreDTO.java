@@ -4,11 +4,10 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
 
+import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.Collections;
 import java.util.Set;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * DTO de la table <code>livre</code>.
@@ -24,6 +23,8 @@ public final class LivreDTO extends DTO {
 
     public static final String DATE_ACQUISITION_COLUMN_NAME = "dateAcquisition";
 
+    public static final String VERSION_COLUMN_NAME = "version";
+
     private static final long serialVersionUID = 1L;
 
     private String idLivre;
@@ -38,6 +39,8 @@ public final class LivreDTO extends DTO {
 
     private Set<PretDTO> prets = Collections.emptySet();
 
+    private Integer version;
+
     /**
      * Constructeur par défaut.
      */
@@ -153,38 +156,57 @@ public final class LivreDTO extends DTO {
     public void setPrets(Set<PretDTO> prets) {
         this.prets = prets;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.version</code>. La version est incrémentée par Hibernate à chaque mise à jour et sert au
+     * verrouillage optimiste.
+     *
+     * @return La variable d'instance <code>this.version</code> ; <code>null</code> si le DTO n'a pas encore été enregistré
+     */
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.version</code>.
+     *
+     * @param version La valeur à utiliser pour la variable d'instance <code>this.version</code>
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
     // EndRegion Getters and Setters
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object obj) {
-        boolean equals = this == obj;
-        if(!equals) {
-            equals = obj != null
-                && obj instanceof LivreDTO;
-            if(equals) {
-                final LivreDTO livreDTO = (LivreDTO) obj;
-                final EqualsBuilder equalsBuilder = new EqualsBuilder();
-                equalsBuilder.appendSuper(super.equals(livreDTO));
-                equalsBuilder.append(getIdLivre(),
-                    livreDTO.getIdLivre());
-                equals = equalsBuilder.isEquals();
-            }
-        }
-        return equals;
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "auteur",
+            getAuteur());
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+        DTO.ajouterPropriete(string,
+            "dateAcquisition",
+            getDateAcquisition());
+        DTO.ajouterPropriete(string,
+            "idLivre",
+            getIdLivre());
+        DTO.ajouterPropriete(string,
+            "titre",
+            getTitre());
+        DTO.ajouterPropriete(string,
+            "version",
+            getVersion());
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(459,
-            449);
-        hashCodeBuilder.appendSuper(super.hashCode());
-        hashCodeBuilder.append(getIdLivre());
-        return hashCodeBuilder.toHashCode();
+    protected Serializable getPrimaryKey() {
+        return getIdLivre();
     }
 }
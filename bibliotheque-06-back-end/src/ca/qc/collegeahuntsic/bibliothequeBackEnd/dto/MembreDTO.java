@@ -4,10 +4,9 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Set;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * DTO de la table <code>membre</code>.
@@ -23,6 +22,10 @@ public final class MembreDTO extends DTO {
 
     public static final String LIMITE_PRET_COLUMN_NAME = "idMembre";
 
+    public static final String NB_PRET_COLUMN_NAME = "nbPret";
+
+    public static final String VERSION_COLUMN_NAME = "version";
+
     private static final long serialVersionUID = 1L;
 
     private String idMembre;
@@ -33,10 +36,14 @@ public final class MembreDTO extends DTO {
 
     private String limitePret;
 
+    private Integer nbPret;
+
     private Set<ReservationDTO> reservations = Collections.emptySet();
 
     private Set<PretDTO> prets = Collections.emptySet();
 
+    private Integer version;
+
     /**
      * Constructeur par défaut.
      */
@@ -117,6 +124,26 @@ public final class MembreDTO extends DTO {
         this.limitePret = limitePret;
     }
 
+    /**
+     * Getter de la variable d'instance <code>this.nbPret</code>. Le compteur des prêts en cours est tenu par la base de données (voir
+     * {@link ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IMembreDAO#incrementNbPret}) : la valeur est celle lue au
+     * chargement du membre.
+     *
+     * @return La variable d'instance <code>this.nbPret</code>
+     */
+    public Integer getNbPret() {
+        return this.nbPret;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.nbPret</code>.
+     *
+     * @param nbPret La valeur à utiliser pour la variable d'instance <code>this.nbPret</code>
+     */
+    public void setNbPret(Integer nbPret) {
+        this.nbPret = nbPret;
+    }
+
     /**
      * Getter de la variable d'instance <code>this.reservations</code>.
      *
@@ -152,38 +179,60 @@ public final class MembreDTO extends DTO {
     public void setPrets(Set<PretDTO> prets) {
         this.prets = prets;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.version</code>. La version est incrémentée par Hibernate à chaque mise à jour et sert au
+     * verrouillage optimiste.
+     *
+     * @return La variable d'instance <code>this.version</code> ; <code>null</code> si le DTO n'a pas encore été enregistré
+     */
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.version</code>.
+     *
+     * @param version La valeur à utiliser pour la variable d'instance <code>this.version</code>
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
     // EndRegion Getters and Setters
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object obj) {
-        boolean equals = this == obj;
-        if(!equals) {
-            equals = obj != null
-                && obj instanceof MembreDTO;
-            if(equals) {
-                final MembreDTO membreDTO = (MembreDTO) obj;
-                final EqualsBuilder equalsBuilder = new EqualsBuilder();
-                equalsBuilder.appendSuper(super.equals(membreDTO));
-                equalsBuilder.append(getIdMembre(),
-                    membreDTO.getIdMembre());
-                equals = equalsBuilder.isEquals();
-            }
-        }
-        return equals;
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+        DTO.ajouterPropriete(string,
+            "idMembre",
+            getIdMembre());
+        DTO.ajouterPropriete(string,
+            "limitePret",
+            getLimitePret());
+        DTO.ajouterPropriete(string,
+            "nbPret",
+            getNbPret());
+        DTO.ajouterPropriete(string,
+            "nom",
+            getNom());
+        DTO.ajouterPropriete(string,
+            "telephone",
+            getTelephone());
+        DTO.ajouterPropriete(string,
+            "version",
+            getVersion());
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(461,
-            451);
-        hashCodeBuilder.appendSuper(super.hashCode());
-        hashCodeBuilder.append(getIdMembre());
-        return hashCodeBuilder.toHashCode();
+    protected Serializable getPrimaryKey() {
+        return getIdMembre();
     }
 }
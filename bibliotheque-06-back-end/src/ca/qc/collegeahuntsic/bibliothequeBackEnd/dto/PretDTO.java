@@ -4,9 +4,8 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
 
+import java.io.Serializable;
 import java.sql.Timestamp;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * DTO de la table <code>pret</code>.
@@ -24,6 +23,8 @@ public final class PretDTO extends DTO {
 
     public static final String DATE_RETOUR_COLUMN_NAME = "dateRetour";
 
+    public static final String VERSION_COLUMN_NAME = "version";
+
     private static final long serialVersionUID = 1L;
 
     private String idPret;
@@ -36,6 +37,8 @@ public final class PretDTO extends DTO {
 
     private Timestamp dateRetour;
 
+    private Integer version;
+
     /**
      * Constructeur par défaut.
      */
@@ -133,38 +136,60 @@ public final class PretDTO extends DTO {
     public void setDateRetour(Timestamp dateRetour) {
         this.dateRetour = dateRetour;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.version</code>. La version est incrémentée par Hibernate à chaque mise à jour et sert au
+     * verrouillage optimiste.
+     *
+     * @return La variable d'instance <code>this.version</code> ; <code>null</code> si le DTO n'a pas encore été enregistré
+     */
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.version</code>.
+     *
+     * @param version La valeur à utiliser pour la variable d'instance <code>this.version</code>
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
     // EndRegion Getters and Setters
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object obj) {
-        boolean equals = this == obj;
-        if(!equals) {
-            equals = obj != null
-                && obj instanceof PretDTO;
-            if(equals) {
-                final PretDTO pretDTO = (PretDTO) obj;
-                final EqualsBuilder equalsBuilder = new EqualsBuilder();
-                equalsBuilder.appendSuper(super.equals(pretDTO));
-                equalsBuilder.append(getIdPret(),
-                    pretDTO.getIdPret());
-                equals = equalsBuilder.isEquals();
-            }
-        }
-        return equals;
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+        DTO.ajouterPropriete(string,
+            "datePret",
+            getDatePret());
+        DTO.ajouterPropriete(string,
+            "dateRetour",
+            getDateRetour());
+        DTO.ajouterPropriete(string,
+            "idPret",
+            getIdPret());
+        DTO.ajouterPropriete(string,
+            "livreDTO",
+            getLivreDTO());
+        DTO.ajouterPropriete(string,
+            "membreDTO",
+            getMembreDTO());
+        DTO.ajouterPropriete(string,
+            "version",
+            getVersion());
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(23,
-            13);
-        hashCodeBuilder.appendSuper(super.hashCode());
-        hashCodeBuilder.append(getIdPret());
-        return hashCodeBuilder.toHashCode();
+    protected Serializable getPrimaryKey() {
+        return getIdPret();
     }
 }
@@ -4,9 +4,8 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.dto;
 
+import java.io.Serializable;
 import java.sql.Timestamp;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * DTO de la table <code>reservation</code>.
@@ -22,6 +21,8 @@ public final class ReservationDTO extends DTO {
 
     public static final String DATE_RESERVATION_COLUMN_NAME = "dateReservation";
 
+    public static final String VERSION_COLUMN_NAME = "version";
+
     private static final long serialVersionUID = 1L;
 
     private String idReservation;
@@ -32,6 +33,8 @@ public final class ReservationDTO extends DTO {
 
     private Timestamp dateReservation;
 
+    private Integer version;
+
     /**
      * Constructeur par défaut.
      */
@@ -111,38 +114,57 @@ public final class ReservationDTO extends DTO {
     public void setDateReservation(Timestamp dateReservation) {
         this.dateReservation = dateReservation;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.version</code>. La version est incrémentée par Hibernate à chaque mise à jour et sert au
+     * verrouillage optimiste.
+     *
+     * @return La variable d'instance <code>this.version</code> ; <code>null</code> si le DTO n'a pas encore été enregistré
+     */
+    public Integer getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.version</code>.
+     *
+     * @param version La valeur à utiliser pour la variable d'instance <code>this.version</code>
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
     // EndRegion Getters and Setters
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object obj) {
-        boolean equals = this == obj;
-        if(!equals) {
-            equals = obj != null
-                && obj instanceof ReservationDTO;
-            if(equals) {
-                final ReservationDTO reservationDTO = (ReservationDTO) obj;
-                final EqualsBuilder equalsBuilder = new EqualsBuilder();
-                equalsBuilder.appendSuper(super.equals(reservationDTO));
-                equalsBuilder.append(getIdReservation(),
-                    reservationDTO.getIdReservation());
-                equals = equalsBuilder.isEquals();
-            }
-        }
-        return equals;
+    protected void ajouterProprietes(StringBuilder string) {
+        DTO.ajouterPropriete(string,
+            "class",
+            getClass());
+        DTO.ajouterPropriete(string,
+            "dateReservation",
+            getDateReservation());
+        DTO.ajouterPropriete(string,
+            "idReservation",
+            getIdReservation());
+        DTO.ajouterPropriete(string,
+            "livreDTO",
+            getLivreDTO());
+        DTO.ajouterPropriete(string,
+            "membreDTO",
+            getMembreDTO());
+        DTO.ajouterPropriete(string,
+            "version",
+            getVersion());
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(25,
-            15);
-        hashCodeBuilder.appendSuper(super.hashCode());
-        hashCodeBuilder.append(getIdReservation());
-        return hashCodeBuilder.toHashCode();
+    protected Serializable getPrimaryKey() {
+        return getIdReservation();
     }
 }
@@ -5,9 +5,15 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.implementations;
 
 import java.io.Serializable;
+import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.facade.FacadeException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.facade.InvalidServiceException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ServiceException;
@@ -79,4 +85,108 @@ public class Facade implements IFacade {
             throw new FacadeException(serviceException);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        FacadeException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(primaryKey == null) {
+            throw new InvalidPrimaryKeyException("La clef primaire ne peut être null");
+        }
+        try {
+            return getService().exists(session,
+                primaryKey);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        FacadeException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(propertyName == null) {
+            throw new InvalidCriterionException("La propriété à utiliser ne peut être null");
+        }
+        if(value == null) {
+            throw new InvalidCriterionValueException("La valeur à compter ne peut être null");
+        }
+        try {
+            return getService().count(session,
+                propertyName,
+                value);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        FacadeException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(sortByPropertyName == null) {
+            throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
+        }
+        if(dtoHandler == null) {
+            throw new InvalidDTOHandlerException("Le traitement ne peut être null");
+        }
+        try {
+            return getService().scrollAll(session,
+                sortByPropertyName,
+                fetchSize,
+                dtoHandler);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(limit < 1) {
+            throw new InvalidCriterionValueException("La taille de la page doit être supérieure à 0");
+        }
+        try {
+            return getService().getPage(session,
+                lastPrimaryKey,
+                limit);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
 }
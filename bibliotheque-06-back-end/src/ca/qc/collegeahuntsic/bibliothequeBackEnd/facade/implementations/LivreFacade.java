@@ -4,7 +4,9 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.implementations;
 
+import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.facade.FacadeException;
@@ -58,6 +60,40 @@ public class LivreFacade extends Facade implements ILivreFacade {
     }
     // EndRegion Getters and Setters
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LivreDTO> search(Session session,
+        String recherche) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException {
+        try {
+            return getLivreService().search(session,
+                recherche);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LivreDTO> search(Session session,
+        String recherche,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException {
+        try {
+            return getLivreService().search(session,
+                recherche,
+                limit);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
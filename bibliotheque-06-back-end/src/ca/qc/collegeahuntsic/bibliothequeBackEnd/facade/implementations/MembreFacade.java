@@ -89,4 +89,17 @@ public class MembreFacade extends Facade implements IMembreFacade {
             throw new FacadeException(serviceException);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int recompterPrets(Session session) throws InvalidHibernateSessionException,
+        FacadeException {
+        try {
+            return getMembreService().recompterPrets(session);
+        } catch(ServiceException serviceException) {
+            throw new FacadeException(serviceException);
+        }
+    }
 }
@@ -5,9 +5,15 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces;
 
 import java.io.Serializable;
+import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.facade.FacadeException;
 import org.hibernate.Session;
 
@@ -32,4 +38,80 @@ public interface IFacade {
         Serializable primaryKey) throws InvalidHibernateSessionException,
         InvalidPrimaryKeyException,
         FacadeException;
+
+    /**
+     * Indique si un DTO existe dans la base de données, sans le lire.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param primaryKey La clef primaire du DTO à chercher
+     * @return <code>true</code> si le DTO existe ; <code>false</code> sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidPrimaryKeyException Si la clef primaire du DTO est <code>null</code>
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        FacadeException;
+
+    /**
+     * Compte les DTOs dont la propriété <code>propertyName</code> est égale à une valeur <code>value</code>, sans les lire.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param propertyName Le nom de la propriété à utiliser
+     * @param value La valeur à compter
+     * @return Le nombre de DTOs correspondants
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionException Si la propriété à utiliser est <code>null</code>
+     * @throws InvalidCriterionValueException Si la valeur à compter est <code>null</code>
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        FacadeException;
+
+    /**
+     * Parcourt en continu tous les DTOs de la base de données, par ordre croissant sur <code>sortByPropertyName</code>. Les DTOs sont lus
+     * à l'aide d'un curseur en avant seulement et sont retirés de la session dès qu'ils sont traités, ce qui garde la mémoire constante
+     * quelle que soit la taille de la table.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param sortByPropertyName Le nom de la propriété à utiliser pour classer
+     * @param fetchSize Le nombre de lignes à lire à chaque aller-retour avec la base de données ; <code>0</code> pour la valeur du pilote
+     * @param dtoHandler Le traitement à appeler sur chacun des DTOs
+     * @return Le nombre de DTOs traités
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidSortByPropertyException Si la propriété à utiliser pour classer est <code>null</code>
+     * @throws InvalidDTOHandlerException Si le traitement est <code>null</code>
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        FacadeException;
+
+    /**
+     * Lit une page de DTOs classés par ordre croissant de clef primaire. La page commence après la clef primaire
+     * <code>lastPrimaryKey</code> (pagination par clef) : le coût d'une page ne dépend pas de sa position dans la table. Si aucun DTO n'est
+     * trouvé, une {@link List} vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param lastPrimaryKey La clef primaire du dernier DTO de la page précédente ; <code>null</code> pour la première page
+     * @param limit Le nombre maximal de DTOs de la page
+     * @return La liste des DTOs de la page ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si le nombre maximal de DTOs est inférieur à 1
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException;
 }
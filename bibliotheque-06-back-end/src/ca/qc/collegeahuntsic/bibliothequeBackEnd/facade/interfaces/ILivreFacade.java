@@ -4,7 +4,9 @@
 
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces;
 
+import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.facade.FacadeException;
@@ -18,6 +20,41 @@ import org.hibernate.Session;
  * @author Gilles Bénichou
  */
 public interface ILivreFacade extends IFacade {
+    /**
+     * Cherche au plus 100 livres dont le titre ou l'auteur contient tous les mots de <code>recherche</code>, sans tenir compte des accents
+     * ni de la casse ; le dernier mot peut n'être que le début d'un mot. Si aucun livre n'est trouvé, une {@link List} vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param recherche Les mots à trouver
+     * @return La liste des livres correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si les mots à trouver sont <code>null</code>
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    List<LivreDTO> search(Session session,
+        String recherche) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException;
+
+    /**
+     * Cherche au plus <code>limit</code> livres dont le titre ou l'auteur contient tous les mots de <code>recherche</code>, sans tenir
+     * compte des accents ni de la casse ; le dernier mot peut n'être que le début d'un mot. Si aucun livre n'est trouvé, une {@link List}
+     * vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param recherche Les mots à trouver
+     * @param limit Le nombre maximal de livres à retourner
+     * @return La liste des livres correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si les mots à trouver sont <code>null</code> ou si <code>limit</code> est inférieur à 1
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    List<LivreDTO> search(Session session,
+        String recherche,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        FacadeException;
+
     /**
      * Acquiert un livre.
      *
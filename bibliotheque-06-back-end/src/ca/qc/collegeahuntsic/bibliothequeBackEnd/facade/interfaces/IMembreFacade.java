@@ -49,4 +49,15 @@ public interface IMembreFacade extends IFacade {
         ExistingLoanException,
         ExistingReservationException,
         FacadeException;
+
+    /**
+     * Recompte les prêts en cours de tous les membres et corrige leurs compteurs.
+     *
+     * @param session La session Hibernate à utiliser
+     * @return Le nombre de membres dont le compteur a été corrigé
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws FacadeException S'il y a une erreur avec la base de données
+     */
+    int recompterPrets(Session session) throws InvalidHibernateSessionException,
+        FacadeException;
 }
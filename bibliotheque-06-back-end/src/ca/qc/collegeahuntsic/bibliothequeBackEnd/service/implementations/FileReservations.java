@@ -0,0 +1,518 @@
+// Fichier FileReservations.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IReservationDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidDAOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ServiceException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.ApresValidation;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Files d'attente des réservations, une par livre, tenues en mémoire.<br />
+ * La file d'un livre est lue dans la table <code>reservation</code> la première fois qu'on la consulte, puis tenue à jour par
+ * {@link #ajouter} et {@link #retirer} dès l'appel, pour que les commandes suivantes d'une même transaction la voient. Le premier
+ * réservataire, la longueur de la file et le rang d'un membre s'obtiennent en temps constant ; retirer une réservation coûte la longueur
+ * de la file.<br />
+ * L'ordre de la file est celui d'une séquence croissante attribuée au moment de la réservation, et non celui de la date de réservation :
+ * deux réservations placées dans la même milliseconde restent départagées. Les réservations lues dans la base sont classées par date
+ * puis par identifiant, et passent avant toutes celles placées ensuite.<br />
+ * Une file lue ou modifiée dans une transaction voit les réservations que cette transaction n'a pas encore validées : elle est oubliée si la
+ * transaction est annulée, ou ramenée à un point de sauvegarde, et sera relue à sa prochaine consultation.<br />
+ * Toutes les réservations doivent passer par les services pour que les files restent justes.<br />
+ * Si une fabrique de sessions est configurée, {@link #verifier()} lit une file au démarrage : une requête de lecture qui ne correspond
+ * pas au mapping empêche le démarrage, au lieu de faire échouer chaque prêt et chaque réservation.
+ *
+ * @author Gilles Bénichou
+ */
+public class FileReservations {
+    private static final long PREMIERE_SEQUENCE_LUE = Long.MIN_VALUE;
+
+    /**
+     * ID du livre dont la file est lue par {@link #verifier()}. Les IDs de livre sont strictement positifs : la file est toujours vide.
+     */
+    private static final String ID_LIVRE_VERIFICATION = "0";
+
+    private static final Comparator<ReservationDTO> ORDRE_DE_LA_BASE = new Comparator<ReservationDTO>() {
+        @Override
+        public int compare(ReservationDTO reservationDTO,
+            ReservationDTO autreReservationDTO) {
+            int compare = reservationDTO.getDateReservation().compareTo(autreReservationDTO.getDateReservation());
+            if(compare == 0) {
+                final String idReservation = reservationDTO.getIdReservation();
+                final String autreIdReservation = autreReservationDTO.getIdReservation();
+                compare = Integer.compare(idReservation.length(),
+                    autreIdReservation.length());
+                if(compare == 0) {
+                    compare = idReservation.compareTo(autreIdReservation);
+                }
+            }
+            return compare;
+        }
+    };
+
+    private IReservationDAO reservationDAO;
+
+    private SessionFactory sessionFactory;
+
+    private final ConcurrentMap<String, File> files;
+
+    private final AtomicLong sequence;
+
+    /**
+     * Crée les files d'attente des réservations.
+     *
+     * @param reservationDAO Le DAO de la table <code>reservation</code>
+     * @throws InvalidDAOException Si le DAO de réservation est <code>null</code>
+     */
+    public FileReservations(IReservationDAO reservationDAO) throws InvalidDAOException {
+        super();
+        if(reservationDAO == null) {
+            throw new InvalidDAOException("Le DAO de réservation ne peut être null");
+        }
+        setReservationDAO(reservationDAO);
+        this.files = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.reservationDAO</code>.
+     *
+     * @return La variable d'instance <code>this.reservationDAO</code>
+     */
+    private IReservationDAO getReservationDAO() {
+        return this.reservationDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.reservationDAO</code>.
+     *
+     * @param reservationDAO La valeur à utiliser pour la variable d'instance <code>this.reservationDAO</code>
+     */
+    private void setReservationDAO(IReservationDAO reservationDAO) {
+        this.reservationDAO = reservationDAO;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.sessionFactory</code>.
+     *
+     * @return La variable d'instance <code>this.sessionFactory</code>
+     */
+    public SessionFactory getSessionFactory() {
+        return this.sessionFactory;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.sessionFactory</code>.
+     *
+     * @param sessionFactory La fabrique de sessions utilisée par {@link #verifier()} ; <code>null</code> pour ne rien vérifier
+     */
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Vérifie que la file d'un livre peut être lue, en lisant la file d'un livre qui n'existe pas dans une session dédiée. La file lue est
+     * ensuite oubliée. Rien n'est vérifié si la fabrique de sessions n'est pas configurée.
+     *
+     * @throws ServiceException Si la file ne peut être lue
+     */
+    public void verifier() throws ServiceException {
+        if(getSessionFactory() == null) {
+            return;
+        }
+        final Session session = getSessionFactory().openSession();
+        try {
+            getFile(session,
+                FileReservations.ID_LIVRE_VERIFICATION);
+        } catch(InvalidHibernateSessionException invalidHibernateSessionException) {
+            throw new ServiceException(invalidHibernateSessionException);
+        } finally {
+            this.files.remove(FileReservations.ID_LIVRE_VERIFICATION);
+            session.close();
+        }
+    }
+
+    /**
+     * Retourne la première réservation de la file d'un livre.
+     *
+     * @param session La session Hibernate à utiliser pour lire la file
+     * @param idLivre L'ID du livre
+     * @return La première réservation ; <code>null</code> si le livre n'est pas réservé
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    public Entree getTete(Session session,
+        String idLivre) throws InvalidHibernateSessionException,
+        ServiceException {
+        return getFile(session,
+            idLivre).getTete();
+    }
+
+    /**
+     * Retourne le nombre de réservations d'un livre.
+     *
+     * @param session La session Hibernate à utiliser pour lire la file
+     * @param idLivre L'ID du livre
+     * @return Le nombre de réservations du livre
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    public int getLongueur(Session session,
+        String idLivre) throws InvalidHibernateSessionException,
+        ServiceException {
+        return getFile(session,
+            idLivre).getLongueur();
+    }
+
+    /**
+     * Retourne le rang d'un membre dans la file d'un livre.
+     *
+     * @param session La session Hibernate à utiliser pour lire la file
+     * @param idLivre L'ID du livre
+     * @param idMembre L'ID du membre
+     * @return Le rang du membre, à partir de <code>1</code> ; <code>0</code> si le membre n'a pas réservé le livre
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    public int getRang(Session session,
+        String idLivre,
+        String idMembre) throws InvalidHibernateSessionException,
+        ServiceException {
+        return getFile(session,
+            idLivre).getRang(idMembre);
+    }
+
+    /**
+     * Ajoute une réservation en fin de file. La file est oubliée si la transaction de la session est annulée.
+     *
+     * @param session La session Hibernate qui a ajouté la réservation
+     * @param reservationDTO La réservation ajoutée
+     */
+    public void ajouter(Session session,
+        ReservationDTO reservationDTO) {
+        final String idLivre = reservationDTO.getLivreDTO().getIdLivre();
+        final Entree entree = new Entree(reservationDTO.getIdReservation(),
+            reservationDTO.getMembreDTO().getIdMembre(),
+            reservationDTO.getMembreDTO().getNom(),
+            this.sequence.getAndIncrement());
+        final File file = this.files.get(idLivre);
+        if(file != null) {
+            synchronized(file) {
+                if(file.isChargee()) {
+                    file.ajouter(entree);
+                }
+            }
+            oublierSiAnnulee(session,
+                idLivre,
+                file);
+        }
+    }
+
+    /**
+     * Retire une réservation de la file. La file est oubliée si la transaction de la session est annulée.
+     *
+     * @param session La session Hibernate qui a supprimé la réservation
+     * @param reservationDTO La réservation supprimée
+     */
+    public void retirer(Session session,
+        ReservationDTO reservationDTO) {
+        final String idLivre = reservationDTO.getLivreDTO().getIdLivre();
+        final String idMembre = reservationDTO.getMembreDTO().getIdMembre();
+        final File file = this.files.get(idLivre);
+        if(file != null) {
+            file.retirer(idMembre);
+            oublierSiAnnulee(session,
+                idLivre,
+                file);
+        }
+    }
+
+    /**
+     * Oublie toutes les files : elles seront relues dans la base à leur prochaine consultation.
+     */
+    public void vider() {
+        this.files.clear();
+    }
+
+    /**
+     * Retourne la file d'un livre, en la lisant dans la base si elle ne l'a pas encore été.
+     *
+     * @param session La session Hibernate à utiliser pour lire la file
+     * @param idLivre L'ID du livre
+     * @return La file du livre
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    private File getFile(Session session,
+        final String idLivre) throws InvalidHibernateSessionException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        File file = this.files.get(idLivre);
+        if(file == null) {
+            final File nouvelleFile = new File();
+            file = this.files.putIfAbsent(idLivre,
+                nouvelleFile);
+            if(file == null) {
+                file = nouvelleFile;
+            }
+        }
+        synchronized(file) {
+            if(!file.isChargee()) {
+                try {
+                    final List<ReservationDTO> reservations = new ArrayList<>(getReservationDAO().findByLivre(session,
+                        idLivre,
+                        ReservationDTO.DATE_RESERVATION_COLUMN_NAME));
+                    Collections.sort(reservations,
+                        FileReservations.ORDRE_DE_LA_BASE);
+                    long sequenceLue = FileReservations.PREMIERE_SEQUENCE_LUE;
+                    for(ReservationDTO reservationDTO : reservations) {
+                        file.ajouter(new Entree(reservationDTO.getIdReservation(),
+                            reservationDTO.getMembreDTO().getIdMembre(),
+                            reservationDTO.getMembreDTO().getNom(),
+                            sequenceLue++));
+                    }
+                    file.setChargee(true);
+                    oublierSiAnnulee(session,
+                        idLivre,
+                        file);
+                } catch(
+                    InvalidCriterionException
+                    | InvalidCriterionValueException
+                    | InvalidSortByPropertyException
+                    | DAOException daoException) {
+                    throw new ServiceException(daoException);
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Oublie la file d'un livre si la transaction de la session est annulée, ou ramenée à un point de sauvegarde posé avant l'appel.
+     *
+     * @param session La session Hibernate qui a lu ou modifié la file
+     * @param idLivre L'ID du livre
+     * @param file La file lue ou modifiée
+     */
+    private void oublierSiAnnulee(Session session,
+        final String idLivre,
+        final File file) {
+        ApresValidation.executerSiAnnulee(session,
+            new Runnable() {
+                @Override
+                public void run() {
+                    FileReservations.this.files.remove(idLivre,
+                        file);
+                }
+            });
+    }
+
+    /**
+     * Une réservation dans une file d'attente.
+     *
+     * @author Gilles Bénichou
+     */
+    public static final class Entree {
+        private final String idReservation;
+
+        private final String idMembre;
+
+        private final String nomMembre;
+
+        private final long sequence;
+
+        /**
+         * Crée une réservation de file d'attente.
+         *
+         * @param idReservation L'ID de la réservation
+         * @param idMembre L'ID du membre qui a réservé
+         * @param nomMembre Le nom du membre qui a réservé
+         * @param sequence La place de la réservation dans l'ordre des réservations
+         */
+        Entree(String idReservation,
+            String idMembre,
+            String nomMembre,
+            long sequence) {
+            super();
+            this.idReservation = idReservation;
+            this.idMembre = idMembre;
+            this.nomMembre = nomMembre;
+            this.sequence = sequence;
+        }
+
+        // Region Getters and Setters
+        /**
+         * Getter de la variable d'instance <code>this.idReservation</code>.
+         *
+         * @return La variable d'instance <code>this.idReservation</code>
+         */
+        public String getIdReservation() {
+            return this.idReservation;
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.idMembre</code>.
+         *
+         * @return La variable d'instance <code>this.idMembre</code>
+         */
+        public String getIdMembre() {
+            return this.idMembre;
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.nomMembre</code>.
+         *
+         * @return La variable d'instance <code>this.nomMembre</code>
+         */
+        public String getNomMembre() {
+            return this.nomMembre;
+        }
+
+        /**
+         * Getter de la variable d'instance <code>this.sequence</code>.
+         *
+         * @return La variable d'instance <code>this.sequence</code>
+         */
+        public long getSequence() {
+            return this.sequence;
+        }
+        // EndRegion Getters and Setters
+    }
+
+    /**
+     * File d'attente d'un livre : les réservations dans l'ordre de leur séquence et, pour chaque membre, l'indice de sa réservation.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class File {
+        private final List<Entree> entrees;
+
+        private final Map<String, Integer> indices;
+
+        private boolean chargee;
+
+        /**
+         * Crée une file vide, pas encore lue dans la base.
+         */
+        File() {
+            super();
+            this.entrees = new ArrayList<>();
+            this.indices = new HashMap<>();
+        }
+
+        // Region Getters and Setters
+        /**
+         * Getter de la variable d'instance <code>this.chargee</code>.
+         *
+         * @return La variable d'instance <code>this.chargee</code>
+         */
+        boolean isChargee() {
+            return this.chargee;
+        }
+
+        /**
+         * Setter de la variable d'instance <code>this.chargee</code>.
+         *
+         * @param chargee La valeur à utiliser pour la variable d'instance <code>this.chargee</code>
+         */
+        void setChargee(boolean chargee) {
+            this.chargee = chargee;
+        }
+        // EndRegion Getters and Setters
+
+        /**
+         * Retourne la première réservation de la file.
+         *
+         * @return La première réservation ; <code>null</code> si la file est vide
+         */
+        synchronized Entree getTete() {
+            return this.entrees.isEmpty() ? null : this.entrees.get(0);
+        }
+
+        /**
+         * Retourne le nombre de réservations de la file.
+         *
+         * @return Le nombre de réservations
+         */
+        synchronized int getLongueur() {
+            return this.entrees.size();
+        }
+
+        /**
+         * Retourne le rang d'un membre dans la file.
+         *
+         * @param idMembre L'ID du membre
+         * @return Le rang du membre, à partir de <code>1</code> ; <code>0</code> si le membre n'est pas dans la file
+         */
+        synchronized int getRang(String idMembre) {
+            final Integer indice = this.indices.get(idMembre);
+            return indice == null ? 0 : indice + 1;
+        }
+
+        /**
+         * Place une réservation dans la file selon sa séquence. Ne fait rien si le membre est déjà dans la file.
+         *
+         * @param entree La réservation
+         */
+        synchronized void ajouter(Entree entree) {
+            if(!this.indices.containsKey(entree.getIdMembre())) {
+                int indice = this.entrees.size();
+                while(indice > 0
+                    && this.entrees.get(indice - 1).getSequence() > entree.getSequence()) {
+                    indice--;
+                }
+                this.entrees.add(indice,
+                    entree);
+                reindexer(indice);
+            }
+        }
+
+        /**
+         * Retire la réservation d'un membre de la file. Ne fait rien si le membre n'est pas dans la file.
+         *
+         * @param idMembre L'ID du membre
+         */
+        synchronized void retirer(String idMembre) {
+            final Integer indice = this.indices.remove(idMembre);
+            if(indice != null) {
+                this.entrees.remove(indice.intValue());
+                reindexer(indice);
+            }
+        }
+
+        /**
+         * Recalcule les indices des réservations à partir d'un indice.
+         *
+         * @param debut Le premier indice à recalculer
+         */
+        private void reindexer(int debut) {
+            for(int indice = debut; indice < this.entrees.size(); indice++) {
+                this.indices.put(this.entrees.get(indice).getIdMembre(),
+                    indice);
+            }
+        }
+    }
+}
@@ -6,42 +6,76 @@ package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
 
 import java.util.ArrayList;
 import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.ILivreDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
-import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingLoanException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingReservationException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidDAOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidReservationQueueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ServiceException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.service.interfaces.ILivreService;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.ApresValidation;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.IndexTexte;
 import org.hibernate.Session;
 
 /**
- * Service de la table <code>livre</code>.
+ * Service de la table <code>livre</code>.<br />
+ * La recherche par mots du titre et de l'auteur passe par un {@link IndexTexte} tenu en mémoire : il est construit au premier appel de
+ * <code>search</code> par un parcours de la table, puis tenu à jour par {@link #acquerir} et {@link #vendre} une fois leur transaction
+ * validée.
  *
  * @author Gilles Bénichou
  */
 public class LivreService extends Service implements ILivreService {
+    private static final int INDEX_FETCH_SIZE = 1000;
+
+    private static final int LIMITE_RECHERCHE = 100;
+
     private ILivreDAO livreDAO;
 
+    private IPretDAO pretDAO;
+
+    private IndexTexte indexTexte;
+
+    private FileReservations fileReservations;
+
     /**
      * Crée le service de la table <code>livre</code>.
      *
      * @param livreDAO Le DAO de la table <code>livre</code>
+     * @param pretDAO Le DAO de la table <code>pret</code>
+     * @param fileReservations Les files d'attente des réservations
      * @throws InvalidDAOException Si le DAO de livre est <code>null</code>, si le DAO de membre est <code>null</code>, si le DAO de prêt est
      *         <code>null</code> ou si le DAO de réservation est <code>null</code>
+     * @throws InvalidReservationQueueException Si les files de réservations sont <code>null</code>
      */
-    LivreService(ILivreDAO livreDAO) throws InvalidDAOException {
+    LivreService(ILivreDAO livreDAO,
+        IPretDAO pretDAO,
+        FileReservations fileReservations) throws InvalidDAOException,
+        InvalidReservationQueueException {
         super(livreDAO);
+        if(pretDAO == null) {
+            throw new InvalidDAOException("Le DAO de prêt ne peut être null");
+        }
+        if(fileReservations == null) {
+            throw new InvalidReservationQueueException("Les files de réservations ne peuvent être null");
+        }
         setLivreDAO(livreDAO);
+        setPretDAO(pretDAO);
+        setFileReservations(fileReservations);
+        setIndexTexte(new IndexTexte());
     }
 
     // Region Getters and Setters
@@ -61,6 +95,60 @@ public class LivreService extends Service implements ILivreService {
     private void setLivreDAO(ILivreDAO livreDAO) {
         this.livreDAO = livreDAO;
     }
+
+    /**
+     * Getter de la variable d'instance <code>this.pretDAO</code>.
+     *
+     * @return La variable d'instance <code>this.pretDAO</code>
+     */
+    private IPretDAO getPretDAO() {
+        return this.pretDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.pretDAO</code>.
+     *
+     * @param pretDAO La valeur à utiliser pour la variable d'instance <code>this.pretDAO</code>
+     */
+    private void setPretDAO(IPretDAO pretDAO) {
+        this.pretDAO = pretDAO;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.indexTexte</code>.
+     *
+     * @return La variable d'instance <code>this.indexTexte</code>
+     */
+    private IndexTexte getIndexTexte() {
+        return this.indexTexte;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.indexTexte</code>.
+     *
+     * @param indexTexte La valeur à utiliser pour la variable d'instance <code>this.indexTexte</code>
+     */
+    private void setIndexTexte(IndexTexte indexTexte) {
+        this.indexTexte = indexTexte;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @return La variable d'instance <code>this.fileReservations</code>
+     */
+    private FileReservations getFileReservations() {
+        return this.fileReservations;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @param fileReservations La valeur à utiliser pour la variable d'instance <code>this.fileReservations</code>
+     */
+    private void setFileReservations(FileReservations fileReservations) {
+        this.fileReservations = fileReservations;
+    }
     // EndRegion Getters and Setters
 
     /**
@@ -83,6 +171,48 @@ public class LivreService extends Service implements ILivreService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LivreDTO> search(Session session,
+        String recherche) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException {
+        return search(session,
+            recherche,
+            LivreService.LIMITE_RECHERCHE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<LivreDTO> search(Session session,
+        String recherche,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(recherche == null) {
+            throw new InvalidCriterionValueException("La valeur à trouver ne peut être null");
+        }
+        if(limit < 1) {
+            throw new InvalidCriterionValueException("Le nombre de livres à retourner doit être supérieur à 0");
+        }
+        construireIndex(session);
+        final List<String> ids = getIndexTexte().search(recherche,
+            limit);
+        try {
+            return getLivreDAO().findByIds(session,
+                ids);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -93,6 +223,9 @@ public class LivreService extends Service implements ILivreService {
         ServiceException {
         add(session,
             livreDTO);
+        mettreAJourIndex(session,
+            livreDTO,
+            true);
     }
 
     /**
@@ -105,9 +238,10 @@ public class LivreService extends Service implements ILivreService {
         ExistingLoanException,
         ExistingReservationException,
         ServiceException {
-        final List<PretDTO> prets = new ArrayList<>(livreDTO.getPrets());
-        if(!prets.isEmpty()) {
-            for(PretDTO pretDTO : prets) {
+        // Les prêts du livre ne sont chargés que pour nommer l'emprunteur
+        if(compterPretsEnCours(session,
+            livreDTO) > 0) {
+            for(PretDTO pretDTO : new ArrayList<>(livreDTO.getPrets())) {
                 if(pretDTO.getDateRetour() == null) {
                     final MembreDTO emprunteur = pretDTO.getMembreDTO();
                     throw new ExistingLoanException("Le livre "
@@ -122,22 +256,140 @@ public class LivreService extends Service implements ILivreService {
                 }
             }
         }
-        final List<ReservationDTO> reservations = new ArrayList<>(livreDTO.getReservations());
-        if(!reservations.isEmpty()) {
-            final ReservationDTO reservationDTO = reservations.get(0);
-            final MembreDTO booker = reservationDTO.getMembreDTO();
+        final FileReservations.Entree reservataire = getFileReservations().getTete(session,
+            livreDTO.getIdLivre());
+        if(reservataire != null) {
             throw new ExistingReservationException("Le livre "
                 + livreDTO.getTitre()
                 + " (ID de livre : "
                 + livreDTO.getIdLivre()
                 + ") est réservé pour "
-                + booker.getNom()
+                + reservataire.getNomMembre()
                 + " (ID de membre : "
-                + booker.getIdMembre()
+                + reservataire.getIdMembre()
                 + ")");
         }
         delete(session,
             livreDTO);
+        mettreAJourIndex(session,
+            livreDTO,
+            false);
+    }
+
+    /**
+     * Compte les prêts en cours d'un livre par une projection, sans charger sa collection <code>prets</code>.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param livreDTO Le livre
+     * @return Le nombre de prêts en cours du livre
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si le livre est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    private int compterPretsEnCours(Session session,
+        LivreDTO livreDTO) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException {
+        if(livreDTO == null) {
+            throw new InvalidDTOException("Le livre ne peut être null");
+        }
+        try {
+            return getPretDAO().countOpenLoansByLivre(session,
+                livreDTO.getIdLivre());
+        } catch(
+            DAOException
+            | InvalidCriterionValueException exception) {
+            throw new ServiceException(exception);
+        }
     }
 
+    /**
+     * Construit l'index de recherche s'il ne l'est pas encore, en parcourant la table <code>livre</code> sans la charger en entier.
+     *
+     * @param session La session à utiliser
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    private void construireIndex(Session session) throws InvalidHibernateSessionException,
+        ServiceException {
+        final IndexTexte index = getIndexTexte();
+        if(!index.isConstruit()) {
+            synchronized(index) {
+                if(!index.isConstruit()) {
+                    try {
+                        scrollAll(session,
+                            LivreDTO.ID_LIVRE_COLUMN_NAME,
+                            LivreService.INDEX_FETCH_SIZE,
+                            new IDTOHandler() {
+                                @Override
+                                public boolean handle(DTO dto) {
+                                    LivreService.indexer(index,
+                                        (LivreDTO) dto);
+                                    return true;
+                                }
+                            });
+                    } catch(
+                        InvalidSortByPropertyException
+                        | InvalidDTOHandlerException exception) {
+                        throw new ServiceException(exception);
+                    }
+                    index.setConstruit(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reporte l'acquisition ou la vente d'un livre dans l'index de recherche. Si la session a une transaction en cours, l'index n'est
+     * modifié qu'après sa validation : un livre acquis dans une transaction annulée n'y apparaît jamais.
+     *
+     * @param session La session utilisée
+     * @param livreDTO Le livre acquis ou vendu
+     * @param acquis <code>true</code> si le livre est acquis ; <code>false</code> s'il est vendu
+     */
+    private void mettreAJourIndex(Session session,
+        final LivreDTO livreDTO,
+        final boolean acquis) {
+        final IndexTexte index = getIndexTexte();
+        ApresValidation.executer(session,
+            new Runnable() {
+                @Override
+                public void run() {
+                    LivreService.mettreAJourIndex(index,
+                        livreDTO,
+                        acquis);
+                }
+            });
+    }
+
+    /**
+     * Ajoute un livre à l'index ou l'en retire.
+     *
+     * @param index L'index de recherche
+     * @param livreDTO Le livre
+     * @param acquis <code>true</code> pour ajouter le livre ; <code>false</code> pour le retirer
+     */
+    private static void mettreAJourIndex(IndexTexte index,
+        LivreDTO livreDTO,
+        boolean acquis) {
+        if(acquis) {
+            LivreService.indexer(index,
+                livreDTO);
+        } else {
+            index.remove(livreDTO.getIdLivre());
+        }
+    }
+
+    /**
+     * Indexe le titre et l'auteur d'un livre.
+     *
+     * @param index L'index de recherche
+     * @param livreDTO Le livre
+     */
+    private static void indexer(IndexTexte index,
+        LivreDTO livreDTO) {
+        index.index(livreDTO.getIdLivre(),
+            livreDTO.getTitre(),
+            livreDTO.getAuteur());
+    }
 }
@@ -6,6 +6,8 @@ package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
 
 import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IMembreDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IReservationDAO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
@@ -30,19 +32,35 @@ public class MembreService extends Service implements IMembreService {
 
     private IMembreDAO membreDAO;
 
+    private IPretDAO pretDAO;
+
+    private IReservationDAO reservationDAO;
+
     /**
      * Crée le service de la table <code>membre</code>.
      *
      * @param membreDAO Le DAO de la table <code>membre</code>
+     * @param pretDAO Le DAO de la table <code>pret</code>
+     * @param reservationDAO Le DAO de la table <code>reservation</code>
      * @throws InvalidDAOException Si le DAO de livre est <code>null</code>, si le DAO de membre est <code>null</code>, si le DAO de prêt est
      *         <code>null</code> ou si le DAO de réservation est <code>null</code>
      */
-    public MembreService(IMembreDAO membreDAO) throws InvalidDAOException {
+    public MembreService(IMembreDAO membreDAO,
+        IPretDAO pretDAO,
+        IReservationDAO reservationDAO) throws InvalidDAOException {
         super(membreDAO);
         if(membreDAO == null) {
             throw new InvalidDAOException("Le DAO de membre ne peut être null");
         }
+        if(pretDAO == null) {
+            throw new InvalidDAOException("Le DAO de prêt ne peut être null");
+        }
+        if(reservationDAO == null) {
+            throw new InvalidDAOException("Le DAO de réservation ne peut être null");
+        }
         setMembreDAO(membreDAO);
+        setPretDAO(pretDAO);
+        setReservationDAO(reservationDAO);
     }
 
     /**
@@ -63,6 +81,42 @@ public class MembreService extends Service implements IMembreService {
         this.membreDAO = membreDAO;
     }
 
+    /**
+     * Getter de la variable d'instance <code>this.pretDAO</code>.
+     *
+     * @return La variable d'instance <code>this.pretDAO</code>
+     */
+    private IPretDAO getPretDAO() {
+        return this.pretDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.pretDAO</code>.
+     *
+     * @param pretDAO La valeur à utiliser pour la variable d'instance <code>this.pretDAO</code>
+     */
+    private void setPretDAO(IPretDAO pretDAO) {
+        this.pretDAO = pretDAO;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.reservationDAO</code>.
+     *
+     * @return La variable d'instance <code>this.reservationDAO</code>
+     */
+    private IReservationDAO getReservationDAO() {
+        return this.reservationDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.reservationDAO</code>.
+     *
+     * @param reservationDAO La valeur à utiliser pour la variable d'instance <code>this.reservationDAO</code>
+     */
+    private void setReservationDAO(IReservationDAO reservationDAO) {
+        this.reservationDAO = reservationDAO;
+    }
+
     // EndRegion Getters and Setters
 
     /**
@@ -78,7 +132,9 @@ public class MembreService extends Service implements IMembreService {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}<br />
+     * <br />
+     * Les prêts en cours et les réservations du membre sont comptés par la base de données : ses collections ne sont pas chargées.
      */
     @Override
     public void desinscrire(Session session,
@@ -87,14 +143,29 @@ public class MembreService extends Service implements IMembreService {
         ExistingLoanException,
         ExistingReservationException,
         ServiceException {
-        if(!membreDTO.getPrets().isEmpty()) {
+        if(membreDTO == null) {
+            throw new InvalidDTOException("Le membre ne peut être null");
+        }
+        final int nombrePrets;
+        final int nombreReservations;
+        try {
+            nombrePrets = getPretDAO().countOpenLoansByMembre(session,
+                membreDTO.getIdMembre());
+            nombreReservations = nombrePrets > 0 ? 0 : getReservationDAO().countByMembre(session,
+                membreDTO.getIdMembre());
+        } catch(
+            DAOException
+            | InvalidCriterionValueException exception) {
+            throw new ServiceException(exception);
+        }
+        if(nombrePrets > 0) {
             throw new ExistingLoanException("Le membre "
                 + membreDTO.getNom()
                 + " (ID de membre : "
                 + membreDTO.getIdMembre()
                 + ") a encore des prêts");
         }
-        if(!membreDTO.getReservations().isEmpty()) {
+        if(nombreReservations > 0) {
             throw new ExistingReservationException("Le membre "
                 + membreDTO.getNom()
                 + " (ID de membre : "
@@ -105,6 +176,19 @@ public class MembreService extends Service implements IMembreService {
             membreDTO);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int recompterPrets(Session session) throws InvalidHibernateSessionException,
+        ServiceException {
+        try {
+            return getMembreDAO().repairNbPret(session);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -5,13 +5,13 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
 
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IMembreDAO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ContextePretDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
-import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
@@ -22,6 +22,7 @@ import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingLoanE
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingReservationException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidDAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidLoanLimitException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidReservationQueueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.MissingLoanException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ServiceException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.service.interfaces.IPretService;
@@ -35,18 +36,36 @@ import org.hibernate.Session;
 public class PretService extends Service implements IPretService {
     private IPretDAO pretDAO;
 
+    private IMembreDAO membreDAO;
+
+    private FileReservations fileReservations;
+
     /**
      * Crée le service de la table <code>pret</code>.
      *
      * @param pretDAO Le DAO de la table <code>pret</code>
-     * @throws InvalidDAOException Si le DAO est <code>null</code>
+     * @param membreDAO Le DAO de la table <code>membre</code>, qui tient le compteur des prêts en cours des membres
+     * @param fileReservations Les files d'attente des réservations
+     * @throws InvalidDAOException Si le DAO de prêt ou le DAO de membre est <code>null</code>
+     * @throws InvalidReservationQueueException Si les files de réservations sont <code>null</code>
      */
-    public PretService(IPretDAO pretDAO) throws InvalidDAOException {
+    public PretService(IPretDAO pretDAO,
+        IMembreDAO membreDAO,
+        FileReservations fileReservations) throws InvalidDAOException,
+        InvalidReservationQueueException {
         super(pretDAO);
         if(pretDAO == null) {
             throw new InvalidDAOException("Le DAO de prêt ne peut être null");
         }
+        if(membreDAO == null) {
+            throw new InvalidDAOException("Le DAO de membre ne peut être null");
+        }
+        if(fileReservations == null) {
+            throw new InvalidReservationQueueException("Les files de réservations ne peuvent être null");
+        }
         setPretDAO(pretDAO);
+        setMembreDAO(membreDAO);
+        setFileReservations(fileReservations);
     }
 
     // Region Getters and Setters
@@ -68,6 +87,42 @@ public class PretService extends Service implements IPretService {
         this.pretDAO = pretDAO;
     }
 
+    /**
+     * Getter de la variable d'instance <code>this.membreDAO</code>.
+     *
+     * @return La variable d'instance <code>this.membreDAO</code>
+     */
+    private IMembreDAO getMembreDAO() {
+        return this.membreDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.membreDAO</code>.
+     *
+     * @param membreDAO La valeur à utiliser pour la variable d'instance <code>this.membreDAO</code>
+     */
+    private void setMembreDAO(IMembreDAO membreDAO) {
+        this.membreDAO = membreDAO;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @return La variable d'instance <code>this.fileReservations</code>
+     */
+    private FileReservations getFileReservations() {
+        return this.fileReservations;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @param fileReservations La valeur à utiliser pour la variable d'instance <code>this.fileReservations</code>
+     */
+    private void setFileReservations(FileReservations fileReservations) {
+        this.fileReservations = fileReservations;
+    }
+
     // EndRegion Getters and Setters
 
     /**
@@ -151,7 +206,14 @@ public class PretService extends Service implements IPretService {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}<br />
+     * <br />
+     * La file de réservation du livre est tenue en mémoire. Le prêt est ajouté par une insertion conditionnelle (voir
+     * {@link IPretDAO#addIfAvailable(Session, PretDTO)}), qui vérifie dans la même requête que le livre est libre et que le membre n'a pas
+     * atteint sa limite ; si elle est refusée, le contexte de prêt est lu pour en donner la raison. Un livre déjà prêté est signalé comme
+     * tel, même à un membre qui a atteint sa limite. Le compteur des prêts en cours du membre est ensuite incrémenté (voir
+     * {@link IMembreDAO#incrementNbPret(Session, String)}) ; s'il ne peut l'être, un prêt simultané au même membre a atteint sa limite, et
+     * l'exception levée impose d'annuler la transaction, comme toutes celles du service.
      */
     @Override
     public void commencer(Session session,
@@ -161,49 +223,73 @@ public class PretService extends Service implements IPretService {
         InvalidLoanLimitException,
         ExistingReservationException,
         ServiceException {
+        if(pretDTO == null) {
+            throw new InvalidDTOException("Le prêt ne peut être null");
+        }
         final MembreDTO unMembreDTO = pretDTO.getMembreDTO();
         final LivreDTO unLivreDTO = pretDTO.getLivreDTO();
-        List<PretDTO> prets = new ArrayList<>(unLivreDTO.getPrets());
-        if(!prets.isEmpty()) {
-            final PretDTO unPretDTO = prets.get(0);
-            final MembreDTO emprunteur = unPretDTO.getMembreDTO();
-            throw new ExistingLoanException("Le livre "
+        if(unLivreDTO == null) {
+            throw new InvalidDTOException("Le livre ne peut être null");
+        }
+        if(unMembreDTO == null) {
+            throw new InvalidDTOException("Le membre ne peut être null");
+        }
+        final FileReservations.Entree reservataire = getFileReservations().getTete(session,
+            unLivreDTO.getIdLivre());
+        if(reservataire != null) {
+            throw new ExistingReservationException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
-                + ") a été prêté à "
-                + emprunteur.getNom()
+                + ") est réservé pour "
+                + reservataire.getNomMembre()
                 + " (ID de membre : "
-                + emprunteur.getIdMembre()
+                + reservataire.getIdMembre()
                 + ")");
         }
-        prets = new ArrayList<>(unMembreDTO.getPrets());
-        if(prets.size() >= Integer.parseInt(unMembreDTO.getLimitePret())) {
-            throw new InvalidLoanLimitException("Le membre "
-                + unMembreDTO.getNom()
-                + " (ID de membre : "
-                + unMembreDTO.getIdMembre()
-                + ") a atteint sa limite de prêt ("
-                + unMembreDTO.getLimitePret()
-                + " emprunt(s) maximum)");
+        pretDTO.setDatePret(new Timestamp(System.currentTimeMillis()));
+        final ContextePretDTO contextePretDTO;
+        try {
+            if(getPretDAO().addIfAvailable(session,
+                pretDTO)) {
+                if(getMembreDAO().incrementNbPret(session,
+                    unMembreDTO.getIdMembre())) {
+                    return;
+                }
+                throw PretService.limiteAtteinte(unMembreDTO);
+            }
+            contextePretDTO = getPretDAO().getContextePret(session,
+                unLivreDTO.getIdLivre(),
+                unMembreDTO.getIdMembre());
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
+            throw new ServiceException(daoException);
         }
-        final List<ReservationDTO> reservations = new ArrayList<>(pretDTO.getLivreDTO().getReservations());
-        if(!reservations.isEmpty()) {
-            final ReservationDTO uneReservationDTO = reservations.get(0);
-            final MembreDTO booker = uneReservationDTO.getMembreDTO();
-            throw new ExistingReservationException("Le livre "
+        if(contextePretDTO.isPrete()) {
+            throw new ExistingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
-                + ") est réservé pour "
-                + booker.getNom()
+                + ") a été prêté à "
+                + contextePretDTO.getNomEmprunteur()
                 + " (ID de membre : "
-                + booker.getIdMembre()
+                + contextePretDTO.getIdEmprunteur()
                 + ")");
         }
-        pretDTO.setDatePret(new Timestamp(System.currentTimeMillis()));
-        add(session,
-            pretDTO);
+        if(contextePretDTO.getNombrePretsMembre() >= Integer.parseInt(unMembreDTO.getLimitePret())) {
+            throw PretService.limiteAtteinte(unMembreDTO);
+        }
+        // Le prêt concurrent qui a fait échouer l'insertion a déjà été rendu
+        throw new ExistingLoanException("Le livre "
+            + unLivreDTO.getTitre()
+            + " (ID de livre : "
+            + unLivreDTO.getIdLivre()
+            + ") n'a pu être prêté à "
+            + unMembreDTO.getNom()
+            + " (ID de membre : "
+            + unMembreDTO.getIdMembre()
+            + ")");
     }
 
     /**
@@ -218,22 +304,24 @@ public class PretService extends Service implements IPretService {
         ServiceException {
         final MembreDTO unMembreDTO = pretDTO.getMembreDTO();
         final LivreDTO unLivreDTO = pretDTO.getLivreDTO();
-        //Avant : MembreDTO.getPrets
-        final List<PretDTO> prets = new ArrayList<>(unLivreDTO.getPrets());
-        if(prets.isEmpty()) {
+        final ContextePretDTO contextePretDTO;
+        try {
+            contextePretDTO = getPretDAO().lockContextePret(session,
+                unLivreDTO,
+                unMembreDTO);
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
+            throw new ServiceException(daoException);
+        }
+        if(!contextePretDTO.isPrete()) {
             throw new MissingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
                 + ") n'est pas encore prêté");
         }
-        //TODO vérifier
-        boolean aEteEmprunteParMembre = false;
-        for(PretDTO unAutrePretDTO : prets) {
-            aEteEmprunteParMembre = unMembreDTO.equals(unAutrePretDTO.getMembreDTO())
-                && unLivreDTO.equals(unAutrePretDTO.getLivreDTO());
-        }
-        if(!aEteEmprunteParMembre) {
+        if(!contextePretDTO.isPreteAuMembre()) {
             throw new MissingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
@@ -244,18 +332,17 @@ public class PretService extends Service implements IPretService {
                 + unMembreDTO.getIdMembre()
                 + ")");
         }
-        final List<ReservationDTO> reservations = new ArrayList<>(pretDTO.getLivreDTO().getReservations());
-        if(!reservations.isEmpty()) {
-            final ReservationDTO uneReservationDTO = reservations.get(0);
-            final MembreDTO booker = uneReservationDTO.getMembreDTO();
+        final FileReservations.Entree reservataire = getFileReservations().getTete(session,
+            unLivreDTO.getIdLivre());
+        if(reservataire != null) {
             throw new ExistingReservationException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
                 + ") est réservé pour "
-                + booker.getNom()
+                + reservataire.getNomMembre()
                 + " (ID de membre : "
-                + booker.getIdMembre()
+                + reservataire.getIdMembre()
                 + ")");
         }
         final PretDTO unPretDTO = pretDTO;
@@ -275,22 +362,24 @@ public class PretService extends Service implements IPretService {
         ServiceException {
         final MembreDTO unMembreDTO = pretDTO.getMembreDTO();
         final LivreDTO unLivreDTO = pretDTO.getLivreDTO();
-        //Avant : MembreDTO.getPrets
-        final List<PretDTO> prets = new ArrayList<>(unLivreDTO.getPrets());
-        if(prets.isEmpty()) {
+        final ContextePretDTO contextePretDTO;
+        try {
+            contextePretDTO = getPretDAO().lockContextePret(session,
+                unLivreDTO,
+                unMembreDTO);
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
+            throw new ServiceException(daoException);
+        }
+        if(!contextePretDTO.isPrete()) {
             throw new MissingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
                 + ") n'est pas encore prêté");
         }
-        //TODO vérifier
-        boolean aEteEmprunteParMembre = false;
-        for(PretDTO unAutrePretDTO : prets) {
-            aEteEmprunteParMembre = unMembreDTO.equals(unAutrePretDTO.getMembreDTO())
-                && unLivreDTO.equals(unAutrePretDTO.getLivreDTO());
-        }
-        if(!aEteEmprunteParMembre) {
+        if(!contextePretDTO.isPreteAuMembre()) {
             throw new MissingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
@@ -305,5 +394,29 @@ public class PretService extends Service implements IPretService {
         unPretDTO.setDateRetour(new Timestamp(System.currentTimeMillis()));
         update(session,
             unPretDTO);
+        try {
+            getMembreDAO().decrementNbPret(session,
+                unMembreDTO.getIdMembre());
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
+    /**
+     * Crée l'exception d'un membre qui a atteint sa limite de prêt.
+     *
+     * @param membreDTO Le membre
+     * @return L'exception à lever
+     */
+    static InvalidLoanLimitException limiteAtteinte(MembreDTO membreDTO) {
+        return new InvalidLoanLimitException("Le membre "
+            + membreDTO.getNom()
+            + " (ID de membre : "
+            + membreDTO.getIdMembre()
+            + ") a atteint sa limite de prêt ("
+            + membreDTO.getLimitePret()
+            + " emprunt(s) maximum)");
     }
 }
@@ -5,10 +5,11 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
 
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IMembreDAO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IPretDAO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IReservationDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ContextePretDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
@@ -23,6 +24,7 @@ import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingLoanE
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ExistingReservationException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidDAOException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidLoanLimitException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.InvalidReservationQueueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.MissingLoanException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.service.ServiceException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.service.interfaces.IReservationService;
@@ -39,15 +41,25 @@ public class ReservationService extends Service implements IReservationService {
 
     private IPretDAO pretDAO;
 
+    private IMembreDAO membreDAO;
+
+    private FileReservations fileReservations;
+
     /**
      * Crée le service de la table <code>reservation</code>.
      *
      * @param reservationDAO Le DAO de la table <code>reservation</code>
      * @param pretDAO Le DAO de la table <code>pret</code>
+     * @param membreDAO Le DAO de la table <code>membre</code>, qui tient le compteur des prêts en cours des membres
+     * @param fileReservations Les files d'attente des réservations
      * @throws InvalidDAOException Si le DAO de réservation est <code>null</code>, Si le DAO de membre est <code>null</code>, Si le DAO de livre est <code>null</code>, Si le DAO de prêt est <code>null</code>
+     * @throws InvalidReservationQueueException Si les files de réservations sont <code>null</code>
      */
     public ReservationService(IReservationDAO reservationDAO,
-        IPretDAO pretDAO) throws InvalidDAOException {
+        IPretDAO pretDAO,
+        IMembreDAO membreDAO,
+        FileReservations fileReservations) throws InvalidDAOException,
+        InvalidReservationQueueException {
         super(reservationDAO);
         if(pretDAO == null) {
             throw new InvalidDAOException("Le DAO de prêt ne peut être null");
@@ -55,8 +67,16 @@ public class ReservationService extends Service implements IReservationService {
         if(reservationDAO == null) {
             throw new InvalidDAOException("Le DAO de réservation ne peut être null");
         }
+        if(membreDAO == null) {
+            throw new InvalidDAOException("Le DAO de membre ne peut être null");
+        }
+        if(fileReservations == null) {
+            throw new InvalidReservationQueueException("Les files de réservations ne peuvent être null");
+        }
         setPretDAO(pretDAO);
         setReservationDAO(reservationDAO);
+        setMembreDAO(membreDAO);
+        setFileReservations(fileReservations);
     }
 
     // Region Getters and Setters
@@ -96,6 +116,42 @@ public class ReservationService extends Service implements IReservationService {
         this.pretDAO = pretDAO;
     }
 
+    /**
+     * Getter de la variable d'instance <code>this.membreDAO</code>.
+     *
+     * @return La variable d'instance <code>this.membreDAO</code>
+     */
+    private IMembreDAO getMembreDAO() {
+        return this.membreDAO;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.membreDAO</code>.
+     *
+     * @param membreDAO La valeur à utiliser pour la variable d'instance <code>this.membreDAO</code>
+     */
+    private void setMembreDAO(IMembreDAO membreDAO) {
+        this.membreDAO = membreDAO;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @return La variable d'instance <code>this.fileReservations</code>
+     */
+    private FileReservations getFileReservations() {
+        return this.fileReservations;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.fileReservations</code>.
+     *
+     * @param fileReservations La valeur à utiliser pour la variable d'instance <code>this.fileReservations</code>
+     */
+    private void setFileReservations(FileReservations fileReservations) {
+        this.fileReservations = fileReservations;
+    }
+
     // EndRegion Getters and Setters
 
     /**
@@ -153,26 +209,32 @@ public class ReservationService extends Service implements IReservationService {
         ServiceException {
         final MembreDTO unMembreDTO = reservationDTO.getMembreDTO();
         final LivreDTO unLivreDTO = reservationDTO.getLivreDTO();
-        MembreDTO emprunteur = null;
-        if(new ArrayList<>(unLivreDTO.getPrets()).size() > 0) {
-            emprunteur = new ArrayList<>(unLivreDTO.getPrets()).get(0).getMembreDTO();
+        final ContextePretDTO contextePretDTO;
+        try {
+            contextePretDTO = getPretDAO().lockContextePret(session,
+                unLivreDTO,
+                unMembreDTO);
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
+            throw new ServiceException(daoException);
         }
-        if(emprunteur == null) {
+        if(!contextePretDTO.isPrete()) {
             throw new MissingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
                 + ") n'est pas encore prêté");
         }
-        if(unMembreDTO.getIdMembre() == emprunteur.getIdMembre()) {
+        if(contextePretDTO.isPreteAuMembre()) {
             throw new ExistingLoanException("Le livre "
                 + unLivreDTO.getTitre()
                 + " (ID de livre : "
                 + unLivreDTO.getIdLivre()
                 + ") est déjà prêté à "
-                + emprunteur.getNom()
+                + contextePretDTO.getNomEmprunteur()
                 + " (ID de membre : "
-                + emprunteur.getIdMembre()
+                + contextePretDTO.getIdEmprunteur()
                 + ")");
         }
 
@@ -183,23 +245,24 @@ public class ReservationService extends Service implements IReservationService {
         //     throw new BibliothequeException("Date de réservation inférieure à la date de prêt");
         // }
 
-        final List<ReservationDTO> reservations = new ArrayList<>(unMembreDTO.getReservations());
-        for(ReservationDTO uneAutreReservationDTO : reservations) {
-            if(uneAutreReservationDTO.getLivreDTO().getIdLivre() == unLivreDTO.getIdLivre()) {
-                throw new ExistingReservationException("Le livre "
-                    + unLivreDTO.getTitre()
-                    + " (ID de livre : "
-                    + unLivreDTO.getIdLivre()
-                    + ") est déjà réservé à "
-                    + emprunteur.getNom()
-                    + " (ID de membre : "
-                    + emprunteur.getIdMembre()
-                    + ")");
-            }
+        if(getFileReservations().getRang(session,
+            unLivreDTO.getIdLivre(),
+            unMembreDTO.getIdMembre()) > 0) {
+            throw new ExistingReservationException("Le livre "
+                + unLivreDTO.getTitre()
+                + " (ID de livre : "
+                + unLivreDTO.getIdLivre()
+                + ") est déjà réservé à "
+                + unMembreDTO.getNom()
+                + " (ID de membre : "
+                + unMembreDTO.getIdMembre()
+                + ")");
         }
         reservationDTO.setDateReservation(new Timestamp(System.currentTimeMillis()));
         add(session,
             reservationDTO);
+        getFileReservations().ajouter(session,
+            reservationDTO);
 
     }
 
@@ -217,45 +280,34 @@ public class ReservationService extends Service implements IReservationService {
         try {
             final MembreDTO unMembreDTO = reservationDTO.getMembreDTO();
             final LivreDTO unLivreDTO = reservationDTO.getLivreDTO();
-            final List<ReservationDTO> reservationsLivre = new ArrayList<>(unLivreDTO.getReservations());
-            if(!reservationsLivre.isEmpty()) {
-                final ReservationDTO uneReservationDTO = reservationsLivre.get(0);
-                if(uneReservationDTO.getMembreDTO().getIdMembre() != unMembreDTO.getIdMembre()) {
-                    final MembreDTO booker = uneReservationDTO.getMembreDTO();
-                    throw new ExistingReservationException("Le livre "
-                        + unLivreDTO.getTitre()
-                        + " (ID de livre : "
-                        + unLivreDTO.getIdLivre()
-                        + ") est réservé pour "
-                        + booker.getNom()
-                        + " (ID de membre : "
-                        + booker.getIdMembre()
-                        + ")");
-                }
+            final ContextePretDTO contextePretDTO = getPretDAO().lockContextePret(session,
+                unLivreDTO,
+                unMembreDTO);
+            final FileReservations.Entree reservataire = getFileReservations().getTete(session,
+                unLivreDTO.getIdLivre());
+            if(reservataire != null
+                && !reservataire.getIdMembre().equals(unMembreDTO.getIdMembre())) {
+                throw new ExistingReservationException("Le livre "
+                    + unLivreDTO.getTitre()
+                    + " (ID de livre : "
+                    + unLivreDTO.getIdLivre()
+                    + ") est réservé pour "
+                    + reservataire.getNomMembre()
+                    + " (ID de membre : "
+                    + reservataire.getIdMembre()
+                    + ")");
             }
-            final List<PretDTO> pretsLivre = new ArrayList<>(unLivreDTO.getPrets());
-            if(!pretsLivre.isEmpty()) {
-                final MembreDTO emprunteur = pretsLivre.get(0).getMembreDTO();
+            if(contextePretDTO.isPrete()) {
                 throw new ExistingLoanException("Le livre "
                     + unLivreDTO.getTitre()
                     + " (ID de livre : "
                     + unLivreDTO.getIdLivre()
                     + ") a été prêté à "
-                    + emprunteur.getNom()
+                    + contextePretDTO.getNomEmprunteur()
                     + " (ID de membre : "
-                    + emprunteur.getIdMembre()
+                    + contextePretDTO.getIdEmprunteur()
                     + ")");
             }
-            final List<PretDTO> empruntsMembre = new ArrayList<>(unMembreDTO.getPrets());
-            if(empruntsMembre.size() >= Integer.parseInt(unMembreDTO.getLimitePret())) {
-                throw new InvalidLoanLimitException("Le membre "
-                    + unMembreDTO.getNom()
-                    + " (ID de membre : "
-                    + unMembreDTO.getIdMembre()
-                    + ") a atteint sa limite de prêt ("
-                    + unMembreDTO.getLimitePret()
-                    + " emprunt(s) maximum)");
-            }
 
             // Cas éliminé en utilisant la date de prêt et de réservation comme étant la date système de la base de données
 
@@ -267,11 +319,32 @@ public class ReservationService extends Service implements IReservationService {
             pretDTO.setLivreDTO(unLivreDTO);
             pretDTO.setMembreDTO(unMembreDTO);
             pretDTO.setDatePret(new Timestamp(System.currentTimeMillis()));
+            // Le livre n'est pas prêté : une insertion refusée signale un membre qui a atteint sa limite, ou un prêt simultané du livre
+            if(!getPretDAO().addIfAvailable(session,
+                pretDTO)) {
+                if(contextePretDTO.getNombrePretsMembre() >= Integer.parseInt(unMembreDTO.getLimitePret())) {
+                    throw PretService.limiteAtteinte(unMembreDTO);
+                }
+                throw new ExistingLoanException("Le livre "
+                    + unLivreDTO.getTitre()
+                    + " (ID de livre : "
+                    + unLivreDTO.getIdLivre()
+                    + ") n'a pu être prêté à "
+                    + unMembreDTO.getNom()
+                    + " (ID de membre : "
+                    + unMembreDTO.getIdMembre()
+                    + ")");
+            }
+            if(!getMembreDAO().incrementNbPret(session,
+                unMembreDTO.getIdMembre())) {
+                // Un prêt simultané au même membre a atteint sa limite : la transaction doit être annulée
+                throw PretService.limiteAtteinte(unMembreDTO);
+            }
             annuler(session,
                 reservationDTO);
-            getPretDAO().add(session,
-                pretDTO);
-        } catch(DAOException daoException) {
+        } catch(
+            DAOException
+            | InvalidCriterionValueException daoException) {
             throw new ServiceException(daoException);
         }
 
@@ -287,5 +360,7 @@ public class ReservationService extends Service implements IReservationService {
         ServiceException {
         delete(session,
             reservationDTO);
+        getFileReservations().retirer(session,
+            reservationDTO);
     }
 }
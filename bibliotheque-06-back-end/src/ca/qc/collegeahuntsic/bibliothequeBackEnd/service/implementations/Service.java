@@ -5,10 +5,15 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.implementations;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDAO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.DAOException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
@@ -105,6 +110,56 @@ public class Service implements IService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(primaryKey == null) {
+            throw new InvalidPrimaryKeyException("La clef primaire ne peut être null");
+        }
+        try {
+            return getDao().exists(session,
+                primaryKey);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(propertyName == null) {
+            throw new InvalidCriterionException("La propriété à utiliser ne peut être null");
+        }
+        if(value == null) {
+            throw new InvalidCriterionValueException("La valeur à compter ne peut être null");
+        }
+        try {
+            return getDao().count(session,
+                propertyName,
+                value);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,6 +226,72 @@ public class Service implements IService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(dtos == null) {
+            throw new InvalidDTOException("La collection de DTOs ne peut être null");
+        }
+        try {
+            getDao().addAll(session,
+                dtos);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(dtos == null) {
+            throw new InvalidDTOException("La collection de DTOs ne peut être null");
+        }
+        try {
+            getDao().updateAll(session,
+                dtos);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(dtos == null) {
+            throw new InvalidDTOException("La collection de DTOs ne peut être null");
+        }
+        try {
+            getDao().deleteAll(session,
+                dtos);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -193,4 +314,58 @@ public class Service implements IService {
             throw new ServiceException(daoException);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(sortByPropertyName == null) {
+            throw new InvalidSortByPropertyException("La propriété utilisée pour classer ne peut être null");
+        }
+        if(dtoHandler == null) {
+            throw new InvalidDTOHandlerException("Le traitement ne peut être null");
+        }
+        try {
+            return getDao().scrollAll(session,
+                sortByPropertyName,
+                fetchSize,
+                dtoHandler);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException {
+        if(session == null) {
+            throw new InvalidHibernateSessionException("La session Hibernate ne peut être null");
+        }
+        if(limit < 1) {
+            throw new InvalidCriterionValueException("La taille de la page doit être supérieure à 0");
+        }
+        try {
+            return getDao().getPage(session,
+                lastPrimaryKey,
+                limit);
+        } catch(DAOException daoException) {
+            throw new ServiceException(daoException);
+        }
+    }
 }
@@ -46,6 +46,41 @@ public interface ILivreService extends IService {
         InvalidSortByPropertyException,
         ServiceException;
 
+    /**
+     * Cherche au plus 100 livres dont le titre ou l'auteur contient tous les mots de <code>recherche</code>, sans tenir compte des accents
+     * ni de la casse ; le dernier mot peut n'être que le début d'un mot. Si aucun livre n'est trouvé, une {@link List} vide est retournée.
+     *
+     * @param session La session à utiliser
+     * @param recherche Les mots à trouver
+     * @return La liste des livres correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si les mots à trouver sont <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    List<LivreDTO> search(Session session,
+        String recherche) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException;
+
+    /**
+     * Cherche au plus <code>limit</code> livres dont le titre ou l'auteur contient tous les mots de <code>recherche</code>, sans tenir
+     * compte des accents ni de la casse ; le dernier mot peut n'être que le début d'un mot. Si aucun livre n'est trouvé, une {@link List}
+     * vide est retournée.
+     *
+     * @param session La session à utiliser
+     * @param recherche Les mots à trouver
+     * @param limit Le nombre maximal de livres à retourner
+     * @return La liste des livres correspondants ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si les mots à trouver sont <code>null</code> ou si <code>limit</code> est inférieur à 1
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    List<LivreDTO> search(Session session,
+        String recherche,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException;
+
     /**
      * Acquiert un livre.
      *
@@ -78,4 +78,15 @@ public interface IMembreService extends IService {
         ExistingReservationException,
         ServiceException;
 
+    /**
+     * Recompte les prêts en cours de tous les membres et corrige leurs compteurs. À exécuter après une importation de prêts qui n'est pas
+     * passée par les services.
+     *
+     * @param session La session à utiliser
+     * @return Le nombre de membres dont le compteur a été corrigé
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    int recompterPrets(Session session) throws InvalidHibernateSessionException,
+        ServiceException;
 }
@@ -5,8 +5,13 @@
 package ca.qc.collegeahuntsic.bibliothequeBackEnd.service.interfaces;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dao.interfaces.IDTOHandler;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidDTOHandlerException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidSortByPropertyException;
@@ -50,6 +55,40 @@ public interface IService {
         InvalidPrimaryKeyException,
         ServiceException;
 
+    /**
+     * Indique si un DTO existe dans la base de données, sans le lire.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param primaryKey La clef primaire du DTO à chercher
+     * @return <code>true</code> si le DTO existe ; <code>false</code> sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidPrimaryKeyException Si la clef primaire du DTO est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    boolean exists(Session session,
+        Serializable primaryKey) throws InvalidHibernateSessionException,
+        InvalidPrimaryKeyException,
+        ServiceException;
+
+    /**
+     * Compte les DTOs dont la propriété <code>propertyName</code> est égale à une valeur <code>value</code>, sans les lire.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param propertyName Le nom de la propriété à utiliser
+     * @param value La valeur à compter
+     * @return Le nombre de DTOs correspondants
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionException Si la propriété à utiliser est <code>null</code>
+     * @throws InvalidCriterionValueException Si la valeur à compter est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    int count(Session session,
+        String propertyName,
+        Object value) throws InvalidHibernateSessionException,
+        InvalidCriterionException,
+        InvalidCriterionValueException,
+        ServiceException;
+
     /**
      * Met à jour un DTO dans la base de données.
      *
@@ -92,6 +131,51 @@ public interface IService {
         InvalidDTOException,
         ServiceException;
 
+    /**
+     * Ajoute des nouveaux DTOs dans la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>)
+     * à chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à ajouter
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    void addAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException;
+
+    /**
+     * Met à jour des DTOs dans la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>) à
+     * chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à mettre à jour
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    void updateAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException;
+
+    /**
+     * Supprime des DTOs de la base de données par lots. La session est vidée (<code>flush</code>) puis nettoyée (<code>clear</code>) à
+     * chaque lot afin que sa taille reste bornée ; les DTOs déjà chargés dans la session sont donc détachés.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param dtos Les DTOs à supprimer
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidDTOException Si la collection de DTOs est <code>null</code> ou si elle contient un DTO <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    void deleteAll(Session session,
+        Collection<? extends DTO> dtos) throws InvalidHibernateSessionException,
+        InvalidDTOException,
+        ServiceException;
+
     /**
      * Trouve tous les DTOs de la base de données. La liste est classée par ordre croissant sur <code>sortByPropertyName</code>. Si aucun
      * DTO n'est trouvé, une {@link List} vide est retournée.
@@ -107,4 +191,46 @@ public interface IService {
         String sortByPropertyName) throws InvalidHibernateSessionException,
         InvalidSortByPropertyException,
         ServiceException;
+
+    /**
+     * Parcourt en continu tous les DTOs de la base de données, par ordre croissant sur <code>sortByPropertyName</code>. Les DTOs sont lus
+     * à l'aide d'un curseur en avant seulement et sont retirés de la session dès qu'ils sont traités, ce qui garde la mémoire constante
+     * quelle que soit la taille de la table.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param sortByPropertyName Le nom de la propriété à utiliser pour classer
+     * @param fetchSize Le nombre de lignes à lire à chaque aller-retour avec la base de données ; <code>0</code> pour la valeur du pilote
+     * @param dtoHandler Le traitement à appeler sur chacun des DTOs
+     * @return Le nombre de DTOs traités
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidSortByPropertyException Si la propriété à utiliser pour classer est <code>null</code>
+     * @throws InvalidDTOHandlerException Si le traitement est <code>null</code>
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    int scrollAll(Session session,
+        String sortByPropertyName,
+        int fetchSize,
+        IDTOHandler dtoHandler) throws InvalidHibernateSessionException,
+        InvalidSortByPropertyException,
+        InvalidDTOHandlerException,
+        ServiceException;
+
+    /**
+     * Lit une page de DTOs classés par ordre croissant de clef primaire. La page commence après la clef primaire
+     * <code>lastPrimaryKey</code> (pagination par clef) : le coût d'une page ne dépend pas de sa position dans la table. Si aucun DTO n'est
+     * trouvé, une {@link List} vide est retournée.
+     *
+     * @param session La session Hibernate à utiliser
+     * @param lastPrimaryKey La clef primaire du dernier DTO de la page précédente ; <code>null</code> pour la première page
+     * @param limit Le nombre maximal de DTOs de la page
+     * @return La liste des DTOs de la page ; une liste vide sinon
+     * @throws InvalidHibernateSessionException Si la session Hibernate est <code>null</code>
+     * @throws InvalidCriterionValueException Si le nombre maximal de DTOs est inférieur à 1
+     * @throws ServiceException S'il y a une erreur avec la base de données
+     */
+    List<? extends DTO> getPage(Session session,
+        Serializable lastPrimaryKey,
+        int limit) throws InvalidHibernateSessionException,
+        InvalidCriterionValueException,
+        ServiceException;
 }
@@ -0,0 +1,373 @@
+// Fichier AppenderAsynchrone.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.AppenderAttachableImpl;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.AppenderAttachable;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Appender log4j qui dépose les événements dans une file bornée et les écrit dans ses appenders attachés depuis un fil dédié.<br />
+ * Le fil qui journalise ne paie que la copie de son contexte (nom du fil, NDC, MDC, message rendu) et l'ajout dans la file. Quand la file
+ * est pleine, il attend une place (<code>Bloquer</code> à <code>true</code>) ou l'événement est rejeté ; les rejets sont comptés et
+ * signalés par un avertissement dès que la file se vide. Le fil d'écriture retire les événements par lots d'au plus
+ * <code>TailleLot</code> et, à la fin de chaque lot, vide les appenders attachés qui implémentent {@link Flushable} (voir
+ * {@link ConsoleParLots} et {@link FichierParLots}) : un lot coûte une seule écriture sur la console ou le disque.<br />
+ * Les appenders attachés sont configurés par <code>appender-ref</code> dans <code>log4j.xml</code>. La file est vidée à l'arrêt de la
+ * machine virtuelle.
+ *
+ * @author Gilles Bénichou
+ */
+public class AppenderAsynchrone extends AppenderSkeleton implements AppenderAttachable {
+    private static final int CAPACITE_DEFAUT = 8192;
+
+    private static final int TAILLE_LOT_DEFAUT = 256;
+
+    private static final long DELAI_ATTENTE = 100;
+
+    private static final long DELAI_FERMETURE = 5000;
+
+    private final AppenderAttachableImpl appenders;
+
+    private final AtomicLong rejets;
+
+    private int capacite;
+
+    private boolean bloquer;
+
+    private int tailleLot;
+
+    private BlockingQueue<LoggingEvent> file;
+
+    private Thread ecrivain;
+
+    private Thread arret;
+
+    private volatile boolean ferme;
+
+    /**
+     * Crée un appender asynchrone avec une file de 8192 événements, qui bloque quand la file est pleine.
+     */
+    public AppenderAsynchrone() {
+        super();
+        this.appenders = new AppenderAttachableImpl();
+        this.rejets = new AtomicLong();
+        setCapacite(AppenderAsynchrone.CAPACITE_DEFAUT);
+        setBloquer(true);
+        setTailleLot(AppenderAsynchrone.TAILLE_LOT_DEFAUT);
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.capacite</code>.
+     *
+     * @return La variable d'instance <code>this.capacite</code>
+     */
+    public int getCapacite() {
+        return this.capacite;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.capacite</code>. Prend effet à l'activation des options.
+     *
+     * @param capacite Le nombre maximal d'événements en attente d'écriture
+     */
+    public void setCapacite(int capacite) {
+        this.capacite = capacite;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.bloquer</code>.
+     *
+     * @return La variable d'instance <code>this.bloquer</code>
+     */
+    public boolean getBloquer() {
+        return this.bloquer;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.bloquer</code>.
+     *
+     * @param bloquer <code>true</code> pour attendre une place quand la file est pleine ; <code>false</code> pour rejeter l'événement
+     */
+    public void setBloquer(boolean bloquer) {
+        this.bloquer = bloquer;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.tailleLot</code>.
+     *
+     * @return La variable d'instance <code>this.tailleLot</code>
+     */
+    public int getTailleLot() {
+        return this.tailleLot;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.tailleLot</code>.
+     *
+     * @param tailleLot Le nombre maximal d'événements écrits entre deux vidages des appenders attachés
+     */
+    public void setTailleLot(int tailleLot) {
+        this.tailleLot = tailleLot;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Retourne le nombre d'événements rejetés parce que la file était pleine.
+     *
+     * @return Le nombre d'événements rejetés
+     */
+    public long getRejets() {
+        return this.rejets.get();
+    }
+
+    /**
+     * Crée la file et démarre le fil d'écriture.
+     */
+    @Override
+    public void activateOptions() {
+        super.activateOptions();
+        this.file = new ArrayBlockingQueue<>(Math.max(1,
+            getCapacite()));
+        this.ecrivain = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ecrire();
+            }
+        },
+            "AppenderAsynchrone-"
+                + getName());
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+        this.arret = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        },
+            "AppenderAsynchrone-arret-"
+                + getName());
+        Runtime.getRuntime().addShutdownHook(this.arret);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void append(LoggingEvent event) {
+        if(this.file == null
+            || this.ferme) {
+            synchronized(this.appenders) {
+                this.appenders.appendLoopOnAppenders(event);
+            }
+            return;
+        }
+        // Le contexte du fil appelant doit être copié avant que l'événement ne change de fil
+        event.getThreadName();
+        event.getNDC();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        if(getBloquer()) {
+            try {
+                this.file.put(event);
+            } catch(InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                this.rejets.incrementAndGet();
+            }
+        } else if(!this.file.offer(event)) {
+            this.rejets.incrementAndGet();
+        }
+    }
+
+    /**
+     * Vide la file, arrête le fil d'écriture et ferme les appenders attachés.
+     */
+    @Override
+    public synchronized void close() {
+        if(this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.ferme = true;
+        if(this.ecrivain != null) {
+            try {
+                this.ecrivain.join(AppenderAsynchrone.DELAI_FERMETURE);
+            } catch(InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if(this.arret != null
+            && Thread.currentThread() != this.arret) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.arret);
+            } catch(IllegalStateException illegalStateException) {
+                // L'arrêt de la machine virtuelle est déjà commencé
+            }
+        }
+        synchronized(this.appenders) {
+            final Enumeration<?> enumeration = this.appenders.getAllAppenders();
+            while(enumeration != null
+                && enumeration.hasMoreElements()) {
+                ((Appender) enumeration.nextElement()).close();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAppender(Appender newAppender) {
+        synchronized(this.appenders) {
+            this.appenders.addAppender(newAppender);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Enumeration<?> getAllAppenders() {
+        synchronized(this.appenders) {
+            return this.appenders.getAllAppenders();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Appender getAppender(String name) {
+        synchronized(this.appenders) {
+            return this.appenders.getAppender(name);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAttached(Appender appender) {
+        synchronized(this.appenders) {
+            return this.appenders.isAttached(appender);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllAppenders() {
+        synchronized(this.appenders) {
+            this.appenders.removeAllAppenders();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAppender(Appender appender) {
+        synchronized(this.appenders) {
+            this.appenders.removeAppender(appender);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAppender(String name) {
+        synchronized(this.appenders) {
+            this.appenders.removeAppender(name);
+        }
+    }
+
+    /**
+     * Boucle du fil d'écriture : retire les événements par lots jusqu'à la fermeture, puis écrit ceux qui restent dans la file.
+     */
+    void ecrire() {
+        final List<LoggingEvent> lot = new ArrayList<>(getTailleLot());
+        long rejetsSignales = 0;
+        while(!this.ferme
+            || !this.file.isEmpty()) {
+            try {
+                final LoggingEvent premier = this.file.poll(AppenderAsynchrone.DELAI_ATTENTE,
+                    TimeUnit.MILLISECONDS);
+                if(premier == null) {
+                    continue;
+                }
+                lot.add(premier);
+            } catch(InterruptedException interruptedException) {
+                continue;
+            }
+            this.file.drainTo(lot,
+                getTailleLot() - 1);
+            synchronized(this.appenders) {
+                for(LoggingEvent event : lot) {
+                    this.appenders.appendLoopOnAppenders(event);
+                }
+                final long rejetsActuels = getRejets();
+                if(rejetsActuels != rejetsSignales) {
+                    this.appenders.appendLoopOnAppenders(new LoggingEvent(AppenderAsynchrone.class.getName(),
+                        Logger.getLogger(AppenderAsynchrone.class),
+                        Level.WARN,
+                        (rejetsActuels - rejetsSignales)
+                            + " événement(s) rejeté(s) : la file de "
+                            + getCapacite()
+                            + " événements était pleine",
+                        null));
+                    rejetsSignales = rejetsActuels;
+                }
+                vider();
+            }
+            lot.clear();
+        }
+    }
+
+    /**
+     * Vide les appenders attachés qui retiennent leurs écritures.
+     */
+    private void vider() {
+        final Enumeration<?> enumeration = this.appenders.getAllAppenders();
+        while(enumeration != null
+            && enumeration.hasMoreElements()) {
+            final Object appender = enumeration.nextElement();
+            if(appender instanceof Flushable) {
+                try {
+                    ((Flushable) appender).flush();
+                } catch(IOException ioException) {
+                    LogLog.error("Impossible de vider l'appender "
+                        + ((Appender) appender).getName(),
+                        ioException);
+                }
+            }
+        }
+    }
+}
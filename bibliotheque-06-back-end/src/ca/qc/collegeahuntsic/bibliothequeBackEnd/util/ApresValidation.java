@@ -0,0 +1,234 @@
+// Fichier ApresValidation.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Reporte une action après la validation, ou après l'annulation, de la transaction en cours d'une session Hibernate.<br />
+ * Sert à tenir à jour les structures en mémoire (index, files d'attente) qui reflètent la base de données : une action enregistrée dans une
+ * transaction annulée n'est jamais exécutée, et une structure lue dans une transaction qui écrit peut être oubliée si cette transaction est
+ * annulée.<br />
+ * Une transaction peut aussi être annulée en partie, jusqu'à un point de sauvegarde : {@link #marquer(Session)} repère les actions
+ * enregistrées jusque-là, et {@link #annulerDepuis(Session, int)} traite les actions enregistrées ensuite comme si leur transaction avait
+ * été annulée.
+ *
+ * @author Gilles Bénichou
+ */
+public final class ApresValidation {
+    private static final Map<Transaction, Actions> ACTIONS = Collections.synchronizedMap(new WeakHashMap<Transaction, Actions>());
+
+    /**
+     * Constructeur privé : classe utilitaire.
+     */
+    private ApresValidation() {
+        super();
+    }
+
+    /**
+     * Exécute une action après la validation de la transaction en cours de la session, ou tout de suite si la session n'a pas de
+     * transaction en cours.
+     *
+     * @param session La session Hibernate
+     * @param action L'action à exécuter
+     */
+    public static void executer(Session session,
+        Runnable action) {
+        final Actions actions = ApresValidation.getActions(session);
+        if(actions == null) {
+            action.run();
+        } else {
+            actions.ajouter(action,
+                true);
+        }
+    }
+
+    /**
+     * Exécute une action si la transaction en cours de la session se termine sans être validée. Ne fait rien si la session n'a pas de
+     * transaction en cours.
+     *
+     * @param session La session Hibernate
+     * @param action L'action à exécuter
+     */
+    public static void executerSiAnnulee(Session session,
+        Runnable action) {
+        final Actions actions = ApresValidation.getActions(session);
+        if(actions != null) {
+            actions.ajouter(action,
+                false);
+        }
+    }
+
+    /**
+     * Repère les actions enregistrées jusqu'ici pour la transaction en cours de la session, avant de poser un point de sauvegarde.
+     *
+     * @param session La session Hibernate
+     * @return La marque à passer à {@link #annulerDepuis(Session, int)}
+     */
+    public static int marquer(Session session) {
+        final Actions actions = ApresValidation.getActions(session);
+        return actions == null ? 0 : actions.getNombre();
+    }
+
+    /**
+     * Traite les actions enregistrées depuis une marque comme si leur transaction avait été annulée, après un retour au point de
+     * sauvegarde posé avec cette marque : les actions à exécuter en cas d'annulation le sont tout de suite, celles à exécuter après la
+     * validation sont oubliées.
+     *
+     * @param session La session Hibernate
+     * @param marque La marque retournée par {@link #marquer(Session)}
+     */
+    public static void annulerDepuis(Session session,
+        int marque) {
+        final Actions actions = ApresValidation.getActions(session);
+        if(actions != null) {
+            actions.annulerDepuis(marque);
+        }
+    }
+
+    /**
+     * Retourne les actions de la transaction en cours de la session, en les enregistrant auprès de la transaction au premier appel.
+     *
+     * @param session La session Hibernate
+     * @return Les actions de la transaction ; <code>null</code> si la session n'a pas de transaction en cours
+     */
+    private static Actions getActions(Session session) {
+        final Transaction transaction = session.getTransaction();
+        if(transaction == null
+            || !transaction.isActive()) {
+            return null;
+        }
+        synchronized(ApresValidation.ACTIONS) {
+            Actions actions = ApresValidation.ACTIONS.get(transaction);
+            if(actions == null
+                || actions.isTerminee()) {
+                actions = new Actions();
+                transaction.registerSynchronization(actions);
+                ApresValidation.ACTIONS.put(transaction,
+                    actions);
+            }
+            return actions;
+        }
+    }
+
+    /**
+     * Les actions reportées d'une transaction, dans l'ordre de leur enregistrement. Elles ne retiennent pas leur transaction : l'entrée de
+     * {@link ApresValidation#ACTIONS} disparaît avec la transaction.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class Actions implements Synchronization {
+        private final List<Runnable> actions;
+
+        private final List<Boolean> siValidees;
+
+        private boolean terminee;
+
+        /**
+         * Crée la liste des actions d'une transaction.
+         */
+        Actions() {
+            super();
+            this.actions = new ArrayList<>();
+            this.siValidees = new ArrayList<>();
+        }
+
+        /**
+         * Indique si la transaction des actions est terminée.
+         *
+         * @return <code>true</code> si la transaction est terminée ; <code>false</code> sinon
+         */
+        synchronized boolean isTerminee() {
+            return this.terminee;
+        }
+
+        /**
+         * Retourne le nombre d'actions enregistrées.
+         *
+         * @return Le nombre d'actions
+         */
+        synchronized int getNombre() {
+            return this.actions.size();
+        }
+
+        /**
+         * Enregistre une action.
+         *
+         * @param action L'action à exécuter
+         * @param siValidee <code>true</code> pour exécuter l'action si la transaction est validée ; <code>false</code> pour l'exécuter si
+         *        elle ne l'est pas
+         */
+        synchronized void ajouter(Runnable action,
+            boolean siValidee) {
+            this.actions.add(action);
+            this.siValidees.add(Boolean.valueOf(siValidee));
+        }
+
+        /**
+         * Exécute les actions à exécuter en cas d'annulation enregistrées depuis une marque, puis oublie toutes les actions enregistrées
+         * depuis cette marque.
+         *
+         * @param marque Le nombre d'actions à garder
+         */
+        void annulerDepuis(int marque) {
+            final List<Runnable> annulees = new ArrayList<>();
+            synchronized(this) {
+                if(marque >= this.actions.size()) {
+                    return;
+                }
+                for(int index = marque; index < this.actions.size(); index++) {
+                    if(!this.siValidees.get(index).booleanValue()) {
+                        annulees.add(this.actions.get(index));
+                    }
+                }
+                this.actions.subList(marque,
+                    this.actions.size()).clear();
+                this.siValidees.subList(marque,
+                    this.siValidees.size()).clear();
+            }
+            for(Runnable action : annulees) {
+                action.run();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void beforeCompletion() {
+            // Nothing to do.
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void afterCompletion(int status) {
+            final boolean validee = status == Status.STATUS_COMMITTED;
+            final List<Runnable> aExecuter = new ArrayList<>();
+            synchronized(this) {
+                this.terminee = true;
+                for(int index = 0; index < this.actions.size(); index++) {
+                    if(this.siValidees.get(index).booleanValue() == validee) {
+                        aExecuter.add(this.actions.get(index));
+                    }
+                }
+                this.actions.clear();
+                this.siValidees.clear();
+            }
+            for(Runnable action : aExecuter) {
+                action.run();
+            }
+        }
+    }
+}
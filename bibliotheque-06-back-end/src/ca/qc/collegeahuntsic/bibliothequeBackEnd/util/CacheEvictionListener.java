@@ -0,0 +1,166 @@
+// Fichier CacheEvictionListener.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListener;
+
+/**
+ * Écouteur ehcache qui compte, par région, les éléments évincés (région pleine) et expirés (TTL ou TTI atteint).<br />
+ * Ehcache 1.2 ne tient que les succès et les échecs dans ses statistiques : ces compteurs les complètent dans {@link CacheStatistiques}.
+ * L'écouteur est enregistré sur chaque région par {@link CacheEvictionListenerFactory} dans <code>ehcache.xml</code>.
+ *
+ * @author Gilles Bénichou
+ */
+public class CacheEvictionListener implements CacheEventListener {
+    private static final ConcurrentMap<String, AtomicLong> EVICTIONS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, AtomicLong> EXPIRATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Crée un écouteur d'évictions.
+     */
+    public CacheEvictionListener() {
+        super();
+    }
+
+    /**
+     * Retourne le nombre d'éléments évincés d'une région.
+     *
+     * @param region Le nom de la région
+     * @return Le nombre d'éléments évincés
+     */
+    public static long getEvictions(String region) {
+        return CacheEvictionListener.get(CacheEvictionListener.EVICTIONS,
+            region);
+    }
+
+    /**
+     * Retourne le nombre d'éléments expirés d'une région.
+     *
+     * @param region Le nom de la région
+     * @return Le nombre d'éléments expirés
+     */
+    public static long getExpirations(String region) {
+        return CacheEvictionListener.get(CacheEvictionListener.EXPIRATIONS,
+            region);
+    }
+
+    /**
+     * Remet à zéro les compteurs de toutes les régions.
+     */
+    public static void clear() {
+        CacheEvictionListener.EVICTIONS.clear();
+        CacheEvictionListener.EXPIRATIONS.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyElementEvicted(Ehcache cache,
+        Element element) {
+        CacheEvictionListener.increment(CacheEvictionListener.EVICTIONS,
+            cache.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyElementExpired(Ehcache cache,
+        Element element) {
+        CacheEvictionListener.increment(CacheEvictionListener.EXPIRATIONS,
+            cache.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyElementRemoved(Ehcache cache,
+        Element element) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyElementPut(Ehcache cache,
+        Element element) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyElementUpdated(Ehcache cache,
+        Element element) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void notifyRemoveAll(Ehcache cache) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose() {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        return super.clone();
+    }
+
+    /**
+     * Incrémente le compteur d'une région.
+     *
+     * @param counters Les compteurs par région
+     * @param region Le nom de la région
+     */
+    private static void increment(ConcurrentMap<String, AtomicLong> counters,
+        String region) {
+        AtomicLong counter = counters.get(region);
+        if(counter == null) {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(region,
+                newCounter);
+            if(counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Lit le compteur d'une région.
+     *
+     * @param counters Les compteurs par région
+     * @param region Le nom de la région
+     * @return La valeur du compteur ; <code>0</code> si la région n'a pas de compteur
+     */
+    private static long get(ConcurrentMap<String, AtomicLong> counters,
+        String region) {
+        final AtomicLong counter = counters.get(region);
+        return counter == null ? 0 : counter.get();
+    }
+}
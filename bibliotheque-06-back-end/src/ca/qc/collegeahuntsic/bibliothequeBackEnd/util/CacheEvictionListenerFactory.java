@@ -0,0 +1,31 @@
+// Fichier CacheEvictionListenerFactory.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.Properties;
+import net.sf.ehcache.event.CacheEventListener;
+import net.sf.ehcache.event.CacheEventListenerFactory;
+
+/**
+ * Fabrique de {@link CacheEvictionListener}, référencée par l'élément <code>cacheEventListenerFactory</code> de <code>ehcache.xml</code>.
+ *
+ * @author Gilles Bénichou
+ */
+public class CacheEvictionListenerFactory extends CacheEventListenerFactory {
+    /**
+     * Crée une fabrique d'écouteurs d'évictions.
+     */
+    public CacheEvictionListenerFactory() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheEventListener createCacheEventListener(Properties properties) {
+        return new CacheEvictionListener();
+    }
+}
@@ -0,0 +1,80 @@
+// Fichier CacheStatistiques.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.Arrays;
+import java.util.List;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Statistics;
+
+/**
+ * Statistiques des régions du cache de second niveau.<br />
+ * Pour chaque région de chaque {@link CacheManager} ouvert (celui d'Hibernate compris), le rapport donne les succès, les échecs, le taux de
+ * succès, le nombre d'éléments, et les évictions et expirations comptées par {@link CacheEvictionListener}.
+ *
+ * @author Gilles Bénichou
+ */
+public final class CacheStatistiques {
+    /**
+     * Constructeur privé : classe utilitaire.
+     */
+    private CacheStatistiques() {
+        super();
+    }
+
+    /**
+     * Construit le rapport des statistiques de toutes les régions, une ligne par région classée par nom.
+     *
+     * @return Le rapport des statistiques
+     */
+    public static String getRapport() {
+        final StringBuilder rapport = new StringBuilder();
+        final List<?> cacheManagers = CacheManager.ALL_CACHE_MANAGERS;
+        synchronized(cacheManagers) {
+            for(Object object : cacheManagers) {
+                final CacheManager cacheManager = (CacheManager) object;
+                final String[] cacheNames = cacheManager.getCacheNames();
+                Arrays.sort(cacheNames);
+                for(String cacheName : cacheNames) {
+                    final Ehcache cache = cacheManager.getEhcache(cacheName);
+                    if(cache != null) {
+                        CacheStatistiques.append(rapport,
+                            cache);
+                    }
+                }
+            }
+        }
+        return rapport.toString();
+    }
+
+    /**
+     * Ajoute au rapport la ligne d'une région.
+     *
+     * @param rapport Le rapport à compléter
+     * @param cache La région
+     */
+    private static void append(StringBuilder rapport,
+        Ehcache cache) {
+        final Statistics statistics = cache.getStatistics();
+        final long hits = statistics.getCacheHits();
+        final long misses = statistics.getCacheMisses();
+        final long requests = hits + misses;
+        rapport.append(cache.getName());
+        rapport.append(" : succès = ");
+        rapport.append(hits);
+        rapport.append(", échecs = ");
+        rapport.append(misses);
+        rapport.append(", taux de succès = ");
+        rapport.append(requests == 0 ? 0 : hits * 100 / requests);
+        rapport.append(" %, éléments = ");
+        rapport.append(statistics.getObjectCount());
+        rapport.append(", évictions = ");
+        rapport.append(CacheEvictionListener.getEvictions(cache.getName()));
+        rapport.append(", expirations = ");
+        rapport.append(CacheEvictionListener.getExpirations(cache.getName()));
+        rapport.append('\n');
+    }
+}
@@ -0,0 +1,33 @@
+// Fichier ConsoleParLots.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.Flushable;
+import org.apache.log4j.ConsoleAppender;
+
+/**
+ * {@link ConsoleAppender} qui peut être vidé de l'extérieur. Avec <code>ImmediateFlush</code> à <code>false</code>, les événements sont
+ * retenus dans le tampon de la console jusqu'à ce que {@link AppenderAsynchrone} le vide à la fin d'un lot.
+ *
+ * @author Gilles Bénichou
+ */
+public class ConsoleParLots extends ConsoleAppender implements Flushable {
+    /**
+     * Crée l'appender.
+     */
+    public ConsoleParLots() {
+        super();
+    }
+
+    /**
+     * Écrit sur la console les événements retenus dans le tampon.
+     */
+    @Override
+    public synchronized void flush() {
+        if(this.qw != null) {
+            this.qw.flush();
+        }
+    }
+}
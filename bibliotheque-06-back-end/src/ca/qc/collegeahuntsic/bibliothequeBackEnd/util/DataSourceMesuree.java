@@ -0,0 +1,696 @@
+// Fichier DataSourceMesuree.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import com.mchange.v2.c3p0.PooledDataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link DataSource} qui mesure l'usage du pool de connexions auquel il délègue.<br />
+ * Pour chaque demande de connexion, il mesure l'attente (dans un {@link Histogramme}) et compte les échecs, délais d'attente dépassés
+ * compris (voir la propriété <code>checkoutTimeout</code> de c3p0). Il suit aussi les connexions actives et les demandes en cours
+ * (connexions actives plus fils en attente), avec leurs pics. Les mesures sont exposées par JMX (voir {@link DataSourceMesureeMBean}) et
+ * peuvent être journalisées périodiquement (voir {@link #setPeriodeJournal(long)}).<br />
+ * En mode conseiller (voir {@link #setConseiller(boolean)}), le journal recommande aussi une taille de pool. Le minimum est le nombre
+ * moyen de connexions occupées depuis le démarrage, calculé comme la durée totale d'emprunt divisée par la durée écoulée. Le maximum est
+ * le pic de demandes simultanées, la taille qui aurait évité toute attente.<br />
+ * Il tient aussi le journal des requêtes SQL, à la place de <code>hibernate.show_sql</code> : une requête plus longue que
+ * {@link #setSeuilRequeteLente(long)} est journalisée en avertissement, et une requête sur {@link #setEchantillonnageRequetes(int)} est
+ * journalisée en information, quelle que soit sa durée. Les requêtes ne sont interceptées que si l'un des deux est activé.
+ *
+ * @author Gilles Bénichou
+ */
+public class DataSourceMesuree implements DataSource,
+    DataSourceMesureeMBean {
+    private static final Log LOGGER = LogFactory.getLog(DataSourceMesuree.class);
+
+    private static final long NANOSECONDES_PAR_MICROSECONDE = 1000;
+
+    private static final long NANOSECONDES_PAR_MILLISECONDE = 1000000;
+
+    private final DataSource dataSource;
+
+    private final Histogramme attentes;
+
+    private final AtomicInteger connexionsActives;
+
+    private final AtomicInteger picConnexionsActives;
+
+    private final AtomicInteger demandesEnCours;
+
+    private final AtomicInteger picDemandes;
+
+    private final AtomicLong emprunts;
+
+    private final AtomicLong echecs;
+
+    private final AtomicLong occupationTotale;
+
+    private final AtomicLong requetesExecutees;
+
+    private final AtomicLong requetesLentes;
+
+    private final long debut;
+
+    private boolean conseiller;
+
+    private volatile long seuilRequeteLente;
+
+    private volatile int echantillonnageRequetes;
+
+    private long periodeJournal;
+
+    private Timer timer;
+
+    /**
+     * Crée une source de données mesurée.
+     *
+     * @param dataSource La source de données du pool de connexions
+     */
+    public DataSourceMesuree(DataSource dataSource) {
+        super();
+        this.dataSource = dataSource;
+        this.attentes = new Histogramme();
+        this.connexionsActives = new AtomicInteger();
+        this.picConnexionsActives = new AtomicInteger();
+        this.demandesEnCours = new AtomicInteger();
+        this.picDemandes = new AtomicInteger();
+        this.emprunts = new AtomicLong();
+        this.echecs = new AtomicLong();
+        this.occupationTotale = new AtomicLong();
+        this.requetesExecutees = new AtomicLong();
+        this.requetesLentes = new AtomicLong();
+        this.debut = System.nanoTime();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.dataSource</code>.
+     *
+     * @return La variable d'instance <code>this.dataSource</code>
+     */
+    public DataSource getDataSource() {
+        return this.dataSource;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.conseiller</code>.
+     *
+     * @return La variable d'instance <code>this.conseiller</code>
+     */
+    public boolean isConseiller() {
+        return this.conseiller;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.conseiller</code>.
+     *
+     * @param conseiller <code>true</code> pour ajouter au journal la taille de pool recommandée
+     */
+    public void setConseiller(boolean conseiller) {
+        this.conseiller = conseiller;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.periodeJournal</code>.
+     *
+     * @return La variable d'instance <code>this.periodeJournal</code>
+     */
+    public long getPeriodeJournal() {
+        return this.periodeJournal;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.periodeJournal</code>. Démarre ou arrête la journalisation périodique du rapport.
+     *
+     * @param periodeJournal La période de journalisation, en millisecondes ; <code>0</code> pour ne pas journaliser
+     */
+    public synchronized void setPeriodeJournal(long periodeJournal) {
+        this.periodeJournal = periodeJournal;
+        if(this.timer != null) {
+            this.timer.cancel();
+            this.timer = null;
+        }
+        if(periodeJournal > 0) {
+            this.timer = new Timer("DataSourceMesuree",
+                true);
+            this.timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    journaliser();
+                }
+            },
+                periodeJournal,
+                periodeJournal);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSeuilRequeteLente() {
+        return this.seuilRequeteLente;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSeuilRequeteLente(long seuilRequeteLente) {
+        this.seuilRequeteLente = seuilRequeteLente;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEchantillonnageRequetes() {
+        return this.echantillonnageRequetes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEchantillonnageRequetes(int echantillonnageRequetes) {
+        this.echantillonnageRequetes = echantillonnageRequetes;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        final long debutAttente = demander();
+        try {
+            return emprunter(getDataSource().getConnection(),
+                debutAttente);
+        } catch(
+            SQLException
+            | RuntimeException exception) {
+            echouer(debutAttente);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection(String username,
+        String password) throws SQLException {
+        final long debutAttente = demander();
+        try {
+            return emprunter(getDataSource().getConnection(username,
+                password),
+                debutAttente);
+        } catch(
+            SQLException
+            | RuntimeException exception) {
+            echouer(debutAttente);
+            throw exception;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getDataSource().getLogWriter();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        getDataSource().setLogWriter(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        getDataSource().setLoginTimeout(seconds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getDataSource().getLoginTimeout();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("getParentLogger");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if(iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if(iface.isInstance(getDataSource())) {
+            return iface.cast(getDataSource());
+        }
+        throw new SQLException("La source de données n'implémente pas "
+            + iface.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this)
+            || iface.isInstance(getDataSource());
+    }
+
+    /**
+     * Arrête la journalisation et ferme le pool de connexions.
+     *
+     * @throws SQLException S'il y a une erreur à la fermeture du pool
+     */
+    public void close() throws SQLException {
+        setPeriodeJournal(0);
+        if(getDataSource() instanceof PooledDataSource) {
+            ((PooledDataSource) getDataSource()).close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getConnexionsActives() {
+        return this.connexionsActives.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getConnexionsLibres() {
+        int connexionsLibres = -1;
+        if(getDataSource() instanceof PooledDataSource) {
+            try {
+                connexionsLibres = ((PooledDataSource) getDataSource()).getNumIdleConnectionsDefaultUser();
+            } catch(SQLException sqlException) {
+                // Le pool ne fournit pas la mesure.
+            }
+        }
+        return connexionsLibres;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPicConnexionsActives() {
+        return this.picConnexionsActives.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEmprunts() {
+        return this.emprunts.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEchecs() {
+        return this.echecs.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAttenteMoyenne() {
+        return this.attentes.getMoyenne() / DataSourceMesuree.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAttente99() {
+        return this.attentes.getCentile(99) / DataSourceMesuree.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAttenteMaximale() {
+        return this.attentes.getMaximum() / DataSourceMesuree.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRequetesExecutees() {
+        return this.requetesExecutees.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRequetesLentes() {
+        return this.requetesLentes.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTailleMinimaleRecommandee() {
+        final long duree = Math.max(1,
+            System.nanoTime() - this.debut);
+        final long occupationMoyenne = (this.occupationTotale.get() + duree - 1) / duree;
+        return (int) Math.max(1,
+            occupationMoyenne);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTailleMaximaleRecommandee() {
+        return Math.max(getTailleMinimaleRecommandee(),
+            this.picDemandes.get());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRapport() {
+        String rapport = "Pool de connexions : actives = "
+            + getConnexionsActives()
+            + ", libres = "
+            + getConnexionsLibres()
+            + ", pic d'actives = "
+            + getPicConnexionsActives()
+            + ", emprunts = "
+            + getEmprunts()
+            + ", échecs = "
+            + getEchecs()
+            + ", attente : "
+            + this.attentes;
+        if(isJournalRequetes()) {
+            rapport += ", requêtes = "
+                + getRequetesExecutees()
+                + ", requêtes lentes = "
+                + getRequetesLentes();
+        }
+        if(isConseiller()) {
+            rapport += ", taille recommandée : min = "
+                + getTailleMinimaleRecommandee()
+                + ", max = "
+                + getTailleMaximaleRecommandee();
+        }
+        return rapport;
+    }
+
+    /**
+     * Journalise le rapport du pool.
+     */
+    void journaliser() {
+        if(DataSourceMesuree.LOGGER.isInfoEnabled()) {
+            DataSourceMesuree.LOGGER.info(getRapport());
+        }
+    }
+
+    /**
+     * Indique si les requêtes SQL doivent être interceptées pour le journal des requêtes.
+     *
+     * @return <code>true</code> si le seuil des requêtes lentes ou l'échantillonnage est activé ; <code>false</code> sinon
+     */
+    boolean isJournalRequetes() {
+        return this.seuilRequeteLente > 0
+            || this.echantillonnageRequetes > 0;
+    }
+
+    /**
+     * Compte une requête SQL exécutée et la journalise si elle est lente ou échantillonnée.
+     *
+     * @param sql Le texte SQL de la requête ; <code>null</code> s'il est inconnu
+     * @param duree La durée de l'exécution, en nanosecondes
+     */
+    void journaliserRequete(String sql,
+        long duree) {
+        final long numero = this.requetesExecutees.incrementAndGet();
+        final long seuil = this.seuilRequeteLente;
+        final int echantillonnage = this.echantillonnageRequetes;
+        if(seuil > 0
+            && duree >= seuil * DataSourceMesuree.NANOSECONDES_PAR_MILLISECONDE) {
+            this.requetesLentes.incrementAndGet();
+            DataSourceMesuree.LOGGER.warn("Requête lente ("
+                + duree / DataSourceMesuree.NANOSECONDES_PAR_MILLISECONDE
+                + " ms) : "
+                + sql);
+        } else if(echantillonnage > 0
+            && numero % echantillonnage == 0
+            && DataSourceMesuree.LOGGER.isInfoEnabled()) {
+            DataSourceMesuree.LOGGER.info("Requête ("
+                + duree / DataSourceMesuree.NANOSECONDES_PAR_MICROSECONDE
+                + " µs, une sur "
+                + echantillonnage
+                + ") : "
+                + sql);
+        }
+    }
+
+    /**
+     * Compte une demande de connexion.
+     *
+     * @return Le début de l'attente, en nanosecondes
+     */
+    private long demander() {
+        DataSourceMesuree.augmenter(this.demandesEnCours,
+            this.picDemandes);
+        return System.nanoTime();
+    }
+
+    /**
+     * Compte une demande de connexion qui a échoué.
+     *
+     * @param debutAttente Le début de l'attente, en nanosecondes
+     */
+    private void echouer(long debutAttente) {
+        this.attentes.ajouter(System.nanoTime() - debutAttente);
+        this.echecs.incrementAndGet();
+        this.demandesEnCours.decrementAndGet();
+    }
+
+    /**
+     * Compte une connexion obtenue et l'enveloppe pour compter sa fermeture.
+     *
+     * @param connection La connexion du pool
+     * @param debutAttente Le début de l'attente, en nanosecondes
+     * @return La connexion enveloppée
+     */
+    private Connection emprunter(Connection connection,
+        long debutAttente) {
+        final long debutEmprunt = System.nanoTime();
+        this.attentes.ajouter(debutEmprunt - debutAttente);
+        this.emprunts.incrementAndGet();
+        DataSourceMesuree.augmenter(this.connexionsActives,
+            this.picConnexionsActives);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new Emprunt(connection,
+                debutEmprunt));
+    }
+
+    /**
+     * Compte la fermeture d'une connexion empruntée.
+     *
+     * @param debutEmprunt Le début de l'emprunt, en nanosecondes
+     */
+    void rendre(long debutEmprunt) {
+        this.occupationTotale.addAndGet(System.nanoTime() - debutEmprunt);
+        this.connexionsActives.decrementAndGet();
+        this.demandesEnCours.decrementAndGet();
+    }
+
+    /**
+     * Incrémente un compteur et met à jour son pic.
+     *
+     * @param compteur Le compteur
+     * @param pic Le pic du compteur
+     */
+    private static void augmenter(AtomicInteger compteur,
+        AtomicInteger pic) {
+        final int valeur = compteur.incrementAndGet();
+        int picCourant = pic.get();
+        while(valeur > picCourant
+            && !pic.compareAndSet(picCourant,
+                valeur)) {
+            picCourant = pic.get();
+        }
+    }
+
+    /**
+     * Enveloppe d'une connexion empruntée : compte sa première fermeture et délègue tous les appels.
+     *
+     * @author Gilles Bénichou
+     */
+    private final class Emprunt implements InvocationHandler {
+        private static final String CLOSE = "close";
+
+        private final Connection connection;
+
+        private final long debutEmprunt;
+
+        private final AtomicBoolean rendue;
+
+        /**
+         * Crée l'enveloppe d'une connexion.
+         *
+         * @param connection La connexion du pool
+         * @param debutEmprunt Le début de l'emprunt, en nanosecondes
+         */
+        Emprunt(Connection connection,
+            long debutEmprunt) {
+            super();
+            this.connection = connection;
+            this.debutEmprunt = debutEmprunt;
+            this.rendue = new AtomicBoolean();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(Object proxy,
+            Method method,
+            Object[] args) throws Throwable {
+            if(Emprunt.CLOSE.equals(method.getName())
+                && method.getParameterTypes().length == 0
+                && this.rendue.compareAndSet(false,
+                    true)) {
+                rendre(this.debutEmprunt);
+            }
+            final Object resultat;
+            try {
+                resultat = method.invoke(this.connection,
+                    args);
+            } catch(InvocationTargetException invocationTargetException) {
+                throw invocationTargetException.getCause();
+            }
+            if(resultat instanceof Statement
+                && isJournalRequetes()) {
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[] {method.getReturnType()},
+                    new Execution((Statement) resultat,
+                        DataSourceMesuree.getSql(args)));
+            }
+            return resultat;
+        }
+    }
+
+    /**
+     * Enveloppe d'une requête : mesure chaque exécution pour le journal des requêtes et délègue tous les appels.
+     *
+     * @author Gilles Bénichou
+     */
+    private final class Execution implements InvocationHandler {
+        private static final String EXECUTE = "execute";
+
+        private final Statement statement;
+
+        private final String sql;
+
+        /**
+         * Crée l'enveloppe d'une requête.
+         *
+         * @param statement La requête
+         * @param sql Le texte SQL de la requête préparée ; <code>null</code> pour une requête simple
+         */
+        Execution(Statement statement,
+            String sql) {
+            super();
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(Object proxy,
+            Method method,
+            Object[] args) throws Throwable {
+            if(!method.getName().startsWith(Execution.EXECUTE)) {
+                try {
+                    return method.invoke(this.statement,
+                        args);
+                } catch(InvocationTargetException invocationTargetException) {
+                    throw invocationTargetException.getCause();
+                }
+            }
+            final long debutExecution = System.nanoTime();
+            try {
+                return method.invoke(this.statement,
+                    args);
+            } catch(InvocationTargetException invocationTargetException) {
+                throw invocationTargetException.getCause();
+            } finally {
+                final String sqlExecute = DataSourceMesuree.getSql(args);
+                journaliserRequete(sqlExecute == null ? this.sql : sqlExecute,
+                    System.nanoTime() - debutExecution);
+            }
+        }
+    }
+
+    /**
+     * Retourne le texte SQL passé en premier argument d'un appel JDBC.
+     *
+     * @param args Les arguments de l'appel
+     * @return Le texte SQL ; <code>null</code> si le premier argument n'en est pas un
+     */
+    static String getSql(Object[] args) {
+        return args != null
+            && args.length > 0
+            && args[0] instanceof String ? (String) args[0] : null;
+    }
+}
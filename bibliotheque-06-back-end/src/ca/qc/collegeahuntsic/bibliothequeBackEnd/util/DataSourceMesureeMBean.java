@@ -0,0 +1,133 @@
+// Fichier DataSourceMesureeMBean.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+/**
+ * Interface JMX de {@link DataSourceMesuree} : les mesures du pool de connexions, en lecture seule.
+ *
+ * @author Gilles Bénichou
+ */
+public interface DataSourceMesureeMBean {
+    /**
+     * Retourne le nombre de connexions empruntées et pas encore rendues.
+     *
+     * @return Le nombre de connexions actives
+     */
+    int getConnexionsActives();
+
+    /**
+     * Retourne le nombre de connexions ouvertes et libres dans le pool.
+     *
+     * @return Le nombre de connexions libres ; <code>-1</code> si le pool ne le fournit pas
+     */
+    int getConnexionsLibres();
+
+    /**
+     * Retourne le plus grand nombre de connexions actives en même temps depuis le démarrage.
+     *
+     * @return Le pic de connexions actives
+     */
+    int getPicConnexionsActives();
+
+    /**
+     * Retourne le nombre de connexions obtenues depuis le démarrage.
+     *
+     * @return Le nombre d'emprunts
+     */
+    long getEmprunts();
+
+    /**
+     * Retourne le nombre de demandes de connexion qui ont échoué, délai d'attente dépassé compris.
+     *
+     * @return Le nombre d'échecs
+     */
+    long getEchecs();
+
+    /**
+     * Retourne l'attente moyenne pour obtenir une connexion.
+     *
+     * @return L'attente moyenne, en microsecondes
+     */
+    long getAttenteMoyenne();
+
+    /**
+     * Retourne le 99<sup>e</sup> centile de l'attente pour obtenir une connexion.
+     *
+     * @return Le centile, en microsecondes
+     */
+    long getAttente99();
+
+    /**
+     * Retourne l'attente maximale pour obtenir une connexion.
+     *
+     * @return L'attente maximale, en microsecondes
+     */
+    long getAttenteMaximale();
+
+    /**
+     * Retourne le nombre de requêtes SQL exécutées depuis le démarrage. Seules les requêtes interceptées pour le journal des requêtes
+     * sont comptées.
+     *
+     * @return Le nombre de requêtes
+     */
+    long getRequetesExecutees();
+
+    /**
+     * Retourne le nombre de requêtes SQL qui ont dépassé le seuil des requêtes lentes.
+     *
+     * @return Le nombre de requêtes lentes
+     */
+    long getRequetesLentes();
+
+    /**
+     * Retourne la durée à partir de laquelle une requête SQL est journalisée comme lente.
+     *
+     * @return Le seuil, en millisecondes ; <code>0</code> si les requêtes lentes ne sont pas journalisées
+     */
+    long getSeuilRequeteLente();
+
+    /**
+     * Modifie la durée à partir de laquelle une requête SQL est journalisée comme lente. Le seuil ne s'applique qu'aux connexions
+     * empruntées ensuite si le journal des requêtes était désactivé.
+     *
+     * @param seuilRequeteLente Le seuil, en millisecondes ; <code>0</code> pour ne pas journaliser les requêtes lentes
+     */
+    void setSeuilRequeteLente(long seuilRequeteLente);
+
+    /**
+     * Retourne la fréquence d'échantillonnage du journal des requêtes.
+     *
+     * @return Le nombre de requêtes pour une requête journalisée ; <code>0</code> si aucune n'est échantillonnée
+     */
+    int getEchantillonnageRequetes();
+
+    /**
+     * Modifie la fréquence d'échantillonnage du journal des requêtes.
+     *
+     * @param echantillonnageRequetes Le nombre de requêtes pour une requête journalisée ; <code>0</code> pour n'en échantillonner aucune
+     */
+    void setEchantillonnageRequetes(int echantillonnageRequetes);
+
+    /**
+     * Retourne la taille minimale du pool recommandée d'après la concurrence observée.
+     *
+     * @return La taille minimale recommandée
+     */
+    int getTailleMinimaleRecommandee();
+
+    /**
+     * Retourne la taille maximale du pool recommandée d'après la concurrence observée.
+     *
+     * @return La taille maximale recommandée
+     */
+    int getTailleMaximaleRecommandee();
+
+    /**
+     * Construit le rapport des mesures du pool.
+     *
+     * @return Le rapport
+     */
+    String getRapport();
+}
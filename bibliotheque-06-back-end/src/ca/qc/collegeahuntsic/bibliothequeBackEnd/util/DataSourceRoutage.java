@@ -0,0 +1,187 @@
+// Fichier DataSourceRoutage.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * {@link DataSource} qui envoie les unités de travail en lecture seule sur une réplique de la base principale.<br />
+ * Un fil se déclare en lecture seule par {@link #setLectureSeule(boolean)} avant d'ouvrir sa session Hibernate : la connexion de la session
+ * est alors empruntée à la réplique, si elle est configurée, et à la base principale sinon. Les autres connexions viennent toujours de la
+ * base principale. La session doit être ouverte en {@link org.hibernate.FlushMode#MANUAL} : une réplique n'accepte pas d'écriture (voir
+ * {@link LectureSeuleInterceptor}).<br />
+ * La réplique peut être en retard sur la base principale : une unité de travail qui doit lire ses propres écritures ne doit pas se
+ * déclarer en lecture seule.
+ *
+ * @author Gilles Bénichou
+ */
+public class DataSourceRoutage implements DataSource {
+    private static final ThreadLocal<Boolean> LECTURE_SEULE = new ThreadLocal<>();
+
+    private final DataSource principale;
+
+    private DataSource replique;
+
+    /**
+     * Crée une source de données sans réplique.
+     *
+     * @param principale La source de données de la base principale
+     */
+    public DataSourceRoutage(DataSource principale) {
+        super();
+        this.principale = principale;
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.principale</code>.
+     *
+     * @return La variable d'instance <code>this.principale</code>
+     */
+    public DataSource getPrincipale() {
+        return this.principale;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.replique</code>.
+     *
+     * @return La variable d'instance <code>this.replique</code>
+     */
+    public DataSource getReplique() {
+        return this.replique;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.replique</code>.
+     *
+     * @param replique La source de données de la réplique ; <code>null</code> pour tout envoyer à la base principale
+     */
+    public void setReplique(DataSource replique) {
+        this.replique = replique;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Indique si le fil courant est dans une unité de travail en lecture seule.
+     *
+     * @return <code>true</code> si le fil est en lecture seule ; <code>false</code> sinon
+     */
+    public static boolean isLectureSeule() {
+        return Boolean.TRUE.equals(DataSourceRoutage.LECTURE_SEULE.get());
+    }
+
+    /**
+     * Déclare le fil courant en lecture seule, ou met fin à sa lecture seule. Le choix de la source de données n'est fait qu'à l'emprunt
+     * de la connexion : il doit précéder l'ouverture de la transaction.
+     *
+     * @param lectureSeule <code>true</code> pour une unité de travail en lecture seule ; <code>false</code> sinon
+     */
+    public static void setLectureSeule(boolean lectureSeule) {
+        if(lectureSeule) {
+            DataSourceRoutage.LECTURE_SEULE.set(Boolean.TRUE);
+        } else {
+            DataSourceRoutage.LECTURE_SEULE.remove();
+        }
+    }
+
+    /**
+     * Retourne la source de données du fil courant : la réplique s'il est en lecture seule et qu'elle est configurée, la base principale
+     * sinon.
+     *
+     * @return La source de données
+     */
+    DataSource getDataSource() {
+        final DataSource dataSourceReplique = getReplique();
+        return dataSourceReplique != null
+            && DataSourceRoutage.isLectureSeule() ? dataSourceReplique : getPrincipale();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection(String username,
+        String password) throws SQLException {
+        return getDataSource().getConnection(username,
+            password);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getPrincipale().getLogWriter();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        getPrincipale().setLogWriter(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        getPrincipale().setLoginTimeout(seconds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getPrincipale().getLoginTimeout();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("getParentLogger");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if(iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if(iface.isInstance(getPrincipale())) {
+            return iface.cast(getPrincipale());
+        }
+        throw new SQLException("La source de données n'implémente pas "
+            + iface.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this)
+            || iface.isInstance(getPrincipale());
+    }
+}
@@ -0,0 +1,124 @@
+// Fichier FiltreEchantillonnage.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Filtre log4j qui ne laisse passer qu'un événement sur <code>Frequence</code> d'un logger et de ses descendants, par exemple l'écho de
+ * chaque transaction lue.<br />
+ * Seuls les événements de niveau inférieur ou égal à <code>Niveau</code> (<code>INFO</code> par défaut) sont échantillonnés : les
+ * avertissements et les erreurs passent toujours. Le premier événement est gardé, puis un sur <code>Frequence</code>. Les événements des
+ * autres loggers ne sont pas touchés.
+ *
+ * @author Gilles Bénichou
+ */
+public class FiltreEchantillonnage extends Filter {
+    private final AtomicLong evenements;
+
+    private String logger;
+
+    private Level niveau;
+
+    private int frequence;
+
+    /**
+     * Crée un filtre qui laisse tout passer.
+     */
+    public FiltreEchantillonnage() {
+        super();
+        this.evenements = new AtomicLong();
+        this.niveau = Level.INFO;
+        this.frequence = 1;
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.logger</code>.
+     *
+     * @return La variable d'instance <code>this.logger</code>
+     */
+    public String getLogger() {
+        return this.logger;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.logger</code>.
+     *
+     * @param logger Le nom du logger échantillonné
+     */
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.niveau</code>.
+     *
+     * @return La variable d'instance <code>this.niveau</code>
+     */
+    public String getNiveau() {
+        return this.niveau.toString();
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.niveau</code>.
+     *
+     * @param niveau Le niveau le plus élevé échantillonné, par exemple <code>INFO</code>
+     */
+    public void setNiveau(String niveau) {
+        this.niveau = Level.toLevel(niveau,
+            Level.INFO);
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.frequence</code>.
+     *
+     * @return La variable d'instance <code>this.frequence</code>
+     */
+    public int getFrequence() {
+        return this.frequence;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.frequence</code>.
+     *
+     * @param frequence Le nombre d'événements pour un événement gardé ; <code>1</code> pour tout garder
+     */
+    public void setFrequence(int frequence) {
+        this.frequence = frequence;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int decide(LoggingEvent event) {
+        if(this.frequence <= 1
+            || this.logger == null
+            || event.getLevel().toInt() > this.niveau.toInt()
+            || !FiltreEchantillonnage.estDescendant(event.getLoggerName(),
+                this.logger)) {
+            return Filter.NEUTRAL;
+        }
+        return this.evenements.getAndIncrement() % this.frequence == 0 ? Filter.NEUTRAL : Filter.DENY;
+    }
+
+    /**
+     * Indique si un logger est le logger échantillonné ou l'un de ses descendants.
+     *
+     * @param nom Le nom du logger de l'événement
+     * @param parent Le nom du logger échantillonné
+     * @return <code>true</code> si le logger est échantillonné ; <code>false</code> sinon
+     */
+    private static boolean estDescendant(String nom,
+        String parent) {
+        return nom.startsWith(parent)
+            && (nom.length() == parent.length() || nom.charAt(parent.length()) == '.');
+    }
+}
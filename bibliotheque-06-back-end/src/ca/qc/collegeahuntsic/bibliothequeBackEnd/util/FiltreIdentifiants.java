@@ -0,0 +1,521 @@
+// Fichier FiltreIdentifiants.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Filtre de Bloom des IDs d'une table, qui évite d'aller à la base de données pour lire un ID qui n'existe pas.<br />
+ * Le filtre répond « absent » ou « peut-être présent » : un ID absent du filtre n'existe pas dans la table, et un ID peut-être présent est
+ * lu dans la base de données, qui donne la réponse exacte. Le filtre est construit au démarrage (méthode d'initialisation
+ * {@link #construire()}) par un parcours des seules clefs primaires de la table, puis tenu à jour par le DAO de la table : un ID est
+ * ajouté dès son insertion, et retiré après la validation de sa suppression. Les compteurs du filtre ont 4 bits, ce qui permet les
+ * retraits ; un compteur saturé n'est plus jamais décrémenté. Une insertion annulée ou une suppression jamais retirée laisse l'ID dans le
+ * filtre, ce qui ne coûte qu'un faux positif.<br />
+ * Le filtre suppose que l'application est seule à insérer dans la table : une ligne insérée par un autre programme après le démarrage
+ * serait déclarée absente. Les IDs sont des entiers stockés en {@link String} ; une clef qui n'est pas un entier n'est pas filtrée.<br />
+ * Ses mesures sont publiées par JMX (voir {@link FiltreIdentifiantsMBean}).
+ *
+ * @author Gilles Bénichou
+ */
+public class FiltreIdentifiants implements FiltreIdentifiantsMBean {
+    private static final Log LOGGER = LogFactory.getLog(FiltreIdentifiants.class);
+
+    private static final int CAPACITE_DEFAUT = 100000;
+
+    private static final double TAUX_CIBLE_DEFAUT = 0.01;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int BITS_COMPTEUR = 4;
+
+    private static final int COMPTEURS_PAR_LONG = Long.SIZE / FiltreIdentifiants.BITS_COMPTEUR;
+
+    private static final long COMPTEUR_MAXIMAL = (1L << FiltreIdentifiants.BITS_COMPTEUR) - 1;
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+
+    private static final long FNV_PREMIER = 0x100000001b3L;
+
+    private final Class<? extends DTO> dtoClass;
+
+    private SessionFactory sessionFactory;
+
+    private int capacite;
+
+    private double tauxCible;
+
+    private volatile AtomicLongArray compteurs;
+
+    private int nombreCompteurs;
+
+    private int nombreHachages;
+
+    private volatile boolean construit;
+
+    private final AtomicLong ajouts;
+
+    private final AtomicLong retraits;
+
+    private final AtomicLong recherches;
+
+    private final AtomicLong rejets;
+
+    private final AtomicLong fauxPositifs;
+
+    /**
+     * Crée le filtre des IDs d'une table, prévu pour 100 000 IDs et 1 % de faux positifs.
+     *
+     * @param dtoClass La classe de DTO de la table
+     */
+    public FiltreIdentifiants(Class<? extends DTO> dtoClass) {
+        super();
+        this.dtoClass = dtoClass;
+        this.ajouts = new AtomicLong();
+        this.retraits = new AtomicLong();
+        this.recherches = new AtomicLong();
+        this.rejets = new AtomicLong();
+        this.fauxPositifs = new AtomicLong();
+        setCapacite(FiltreIdentifiants.CAPACITE_DEFAUT);
+        setTauxCible(FiltreIdentifiants.TAUX_CIBLE_DEFAUT);
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.dtoClass</code>.
+     *
+     * @return La variable d'instance <code>this.dtoClass</code>
+     */
+    public Class<? extends DTO> getDtoClass() {
+        return this.dtoClass;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.sessionFactory</code>.
+     *
+     * @return La variable d'instance <code>this.sessionFactory</code>
+     */
+    public SessionFactory getSessionFactory() {
+        return this.sessionFactory;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.sessionFactory</code>.
+     *
+     * @param sessionFactory La fabrique de sessions utilisée pour parcourir la table
+     */
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.capacite</code>.
+     *
+     * @return La variable d'instance <code>this.capacite</code>
+     */
+    public int getCapacite() {
+        return this.capacite;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.capacite</code>. Prend effet à la construction ; le filtre est prévu pour au moins deux
+     * fois le nombre de lignes trouvées.
+     *
+     * @param capacite Le nombre d'IDs prévu
+     */
+    public void setCapacite(int capacite) {
+        this.capacite = capacite;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.tauxCible</code>.
+     *
+     * @return La variable d'instance <code>this.tauxCible</code>
+     */
+    public double getTauxCible() {
+        return this.tauxCible;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.tauxCible</code>. Prend effet à la construction.
+     *
+     * @param tauxCible Le taux de faux positifs visé à pleine capacité, entre 0 et 1 exclus
+     */
+    public void setTauxCible(double tauxCible) {
+        this.tauxCible = tauxCible;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Construit le filtre : dimensionne les compteurs d'après le nombre de lignes de la table, puis y ajoute chaque clef primaire, lue par
+     * une session sans état. Une erreur est journalisée et laisse le filtre non construit : toutes les lectures vont alors à la base de
+     * données.
+     */
+    public synchronized void construire() {
+        if(this.construit) {
+            return;
+        }
+        final long debut = System.nanoTime();
+        final String entityName = getDtoClass().getName();
+        final StatelessSession statelessSession = getSessionFactory().openStatelessSession();
+        try {
+            final String idPropertyName = getSessionFactory().getClassMetadata(getDtoClass()).getIdentifierPropertyName();
+            final Number lignes = (Number) statelessSession.createQuery("select count(*) from "
+                + entityName).uniqueResult();
+            dimensionner(Math.max(getCapacite(),
+                2 * lignes.intValue()));
+            final ScrollableResults scrollableResults = statelessSession.createQuery("select dto."
+                + idPropertyName
+                + " from "
+                + entityName
+                + " dto").setFetchSize(FiltreIdentifiants.FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while(scrollableResults.next()) {
+                    ajouter((Serializable) scrollableResults.get(0));
+                }
+            } finally {
+                scrollableResults.close();
+            }
+            this.construit = true;
+        } catch(HibernateException hibernateException) {
+            FiltreIdentifiants.LOGGER.warn("Impossible de construire le filtre des IDs de "
+                + getDtoClass().getSimpleName()
+                + " : toutes les lectures iront à la base de données",
+                hibernateException);
+            return;
+        } finally {
+            statelessSession.close();
+        }
+        if(FiltreIdentifiants.LOGGER.isInfoEnabled()) {
+            FiltreIdentifiants.LOGGER.info("Filtre des IDs de "
+                + getDtoClass().getSimpleName()
+                + " construit en "
+                + (System.nanoTime() - debut) / 1000000L
+                + " ms : "
+                + getRapport());
+        }
+    }
+
+    /**
+     * Ajoute un ID au filtre. Un ID qui n'est pas un entier est ignoré.
+     *
+     * @param primaryKey L'ID à ajouter
+     */
+    public void ajouter(Serializable primaryKey) {
+        final AtomicLongArray compteursCourants = this.compteurs;
+        final String cle = FiltreIdentifiants.normaliser(primaryKey);
+        if(compteursCourants == null
+            || cle == null) {
+            return;
+        }
+        final long hachage = FiltreIdentifiants.hacher(cle);
+        for(int i = 0; i < this.nombreHachages; i++) {
+            modifier(compteursCourants,
+                getCompteur(hachage,
+                    i),
+                1);
+        }
+        this.ajouts.incrementAndGet();
+    }
+
+    /**
+     * Retire un ID du filtre. L'ID doit avoir été ajouté et sa suppression doit être validée : un retrait de trop pourrait faire déclarer
+     * absent un autre ID.
+     *
+     * @param primaryKey L'ID à retirer
+     */
+    public void retirer(Serializable primaryKey) {
+        final AtomicLongArray compteursCourants = this.compteurs;
+        final String cle = FiltreIdentifiants.normaliser(primaryKey);
+        if(compteursCourants == null
+            || cle == null) {
+            return;
+        }
+        final long hachage = FiltreIdentifiants.hacher(cle);
+        for(int i = 0; i < this.nombreHachages; i++) {
+            modifier(compteursCourants,
+                getCompteur(hachage,
+                    i),
+                -1);
+        }
+        this.retraits.incrementAndGet();
+    }
+
+    /**
+     * Indique si un ID peut exister dans la table. La réponse <code>false</code> est exacte ; la réponse <code>true</code> doit être
+     * vérifiée dans la base de données.
+     *
+     * @param primaryKey L'ID à chercher
+     * @return <code>false</code> si l'ID n'existe pas ; <code>true</code> s'il peut exister, si le filtre n'est pas construit ou si l'ID
+     *         n'est pas un entier
+     */
+    public boolean contientPeutEtre(Serializable primaryKey) {
+        final String cle = FiltreIdentifiants.normaliser(primaryKey);
+        if(!this.construit
+            || cle == null) {
+            return true;
+        }
+        this.recherches.incrementAndGet();
+        final long hachage = FiltreIdentifiants.hacher(cle);
+        for(int i = 0; i < this.nombreHachages; i++) {
+            if(FiltreIdentifiants.lire(this.compteurs,
+                getCompteur(hachage,
+                    i)) == 0) {
+                this.rejets.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compte un faux positif : un ID que le filtre croyait présent n'a pas été trouvé dans la base de données.
+     *
+     * @param primaryKey L'ID cherché
+     */
+    public void signalerAbsent(Serializable primaryKey) {
+        if(this.construit
+            && FiltreIdentifiants.normaliser(primaryKey) != null) {
+            this.fauxPositifs.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConstruit() {
+        return this.construit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getIdentifiants() {
+        return this.ajouts.get() - this.retraits.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRecherches() {
+        return this.recherches.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRejets() {
+        return this.rejets.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFauxPositifs() {
+        return this.fauxPositifs.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTauxFauxPositifs() {
+        final long faux = getFauxPositifs();
+        final long absents = faux + getRejets();
+        return absents == 0 ? 0 : faux * 100.0 / absents;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTauxFauxPositifsEstime() {
+        final AtomicLongArray compteursCourants = this.compteurs;
+        if(compteursCourants == null) {
+            return 100;
+        }
+        long occupes = 0;
+        for(int i = 0; i < this.nombreCompteurs; i++) {
+            if(FiltreIdentifiants.lire(compteursCourants,
+                i) != 0) {
+                occupes++;
+            }
+        }
+        return Math.pow((double) occupes / this.nombreCompteurs,
+            this.nombreHachages) * 100;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoire() {
+        final AtomicLongArray compteursCourants = this.compteurs;
+        return compteursCourants == null ? 0 : (long) compteursCourants.length() * Long.SIZE / Byte.SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRapport() {
+        return getDtoClass().getSimpleName()
+            + " : IDs = "
+            + getIdentifiants()
+            + ", compteurs = "
+            + this.nombreCompteurs
+            + ", hachages = "
+            + this.nombreHachages
+            + ", mémoire = "
+            + getMemoire() / 1024
+            + " Kio, recherches = "
+            + getRecherches()
+            + ", rejets = "
+            + getRejets()
+            + ", faux positifs = "
+            + getFauxPositifs()
+            + String.format(" (%.2f %%, prévu %.2f %%)",
+                getTauxFauxPositifs(),
+                getTauxFauxPositifsEstime());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getRapport();
+    }
+
+    /**
+     * Dimensionne les compteurs pour un nombre d'IDs et le taux de faux positifs visé : <code>-n ln p / (ln 2)²</code> compteurs et
+     * <code>(m / n) ln 2</code> fonctions de hachage.
+     *
+     * @param nombreIdentifiants Le nombre d'IDs prévu
+     */
+    private void dimensionner(int nombreIdentifiants) {
+        final double n = Math.max(1,
+            nombreIdentifiants);
+        final double log2 = Math.log(2);
+        final long m = (long) Math.ceil(-n
+            * Math.log(getTauxCible())
+            / (log2 * log2));
+        this.nombreCompteurs = (int) Math.min(Integer.MAX_VALUE
+            - FiltreIdentifiants.COMPTEURS_PAR_LONG,
+            Math.max(FiltreIdentifiants.COMPTEURS_PAR_LONG,
+                m));
+        this.nombreHachages = (int) Math.max(1,
+            Math.round(this.nombreCompteurs
+                / n
+                * log2));
+        this.compteurs = new AtomicLongArray((this.nombreCompteurs + FiltreIdentifiants.COMPTEURS_PAR_LONG - 1)
+            / FiltreIdentifiants.COMPTEURS_PAR_LONG);
+    }
+
+    /**
+     * Retourne le compteur de la i<sup>e</sup> fonction de hachage, dérivée des deux moitiés du hachage de la clef.
+     *
+     * @param hachage Le hachage de la clef
+     * @param i Le rang de la fonction de hachage
+     * @return L'indice du compteur
+     */
+    private int getCompteur(long hachage,
+        int i) {
+        final int h1 = (int) hachage;
+        final int h2 = (int) (hachage >>> 32);
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % this.nombreCompteurs;
+    }
+
+    /**
+     * Ajoute un incrément à un compteur, sauf s'il est saturé ou s'il est nul et que l'incrément est négatif.
+     *
+     * @param compteursCourants Les compteurs
+     * @param compteur L'indice du compteur
+     * @param increment <code>1</code> ou <code>-1</code>
+     */
+    private static void modifier(AtomicLongArray compteursCourants,
+        int compteur,
+        int increment) {
+        final int indice = compteur / FiltreIdentifiants.COMPTEURS_PAR_LONG;
+        final int decalage = compteur % FiltreIdentifiants.COMPTEURS_PAR_LONG * FiltreIdentifiants.BITS_COMPTEUR;
+        while(true) {
+            final long mot = compteursCourants.get(indice);
+            final long valeur = mot >>> decalage & FiltreIdentifiants.COMPTEUR_MAXIMAL;
+            if(valeur == FiltreIdentifiants.COMPTEUR_MAXIMAL
+                || valeur == 0
+                    && increment < 0) {
+                return;
+            }
+            if(compteursCourants.compareAndSet(indice,
+                mot,
+                mot + ((long) increment << decalage))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lit un compteur.
+     *
+     * @param compteursCourants Les compteurs
+     * @param compteur L'indice du compteur
+     * @return La valeur du compteur
+     */
+    private static long lire(AtomicLongArray compteursCourants,
+        int compteur) {
+        return compteursCourants.get(compteur / FiltreIdentifiants.COMPTEURS_PAR_LONG) >>> compteur
+            % FiltreIdentifiants.COMPTEURS_PAR_LONG
+            * FiltreIdentifiants.BITS_COMPTEUR
+            & FiltreIdentifiants.COMPTEUR_MAXIMAL;
+    }
+
+    /**
+     * Retourne la forme canonique d'un ID : les colonnes d'ID sont des entiers, et la base de données trouve la ligne <code>12</code> pour
+     * la clef <code>012</code>.
+     *
+     * @param primaryKey L'ID
+     * @return La forme canonique de l'ID ; <code>null</code> si l'ID n'est pas un entier
+     */
+    private static String normaliser(Serializable primaryKey) {
+        if(primaryKey == null) {
+            return null;
+        }
+        final String cle = primaryKey.toString().trim();
+        if(!cle.matches("[+-]?\\d{1,18}")) {
+            return null;
+        }
+        return Long.toString(Long.parseLong(cle));
+    }
+
+    /**
+     * Calcule le hachage FNV-1a sur 64 bits d'une clef.
+     *
+     * @param cle La clef
+     * @return Le hachage
+     */
+    private static long hacher(String cle) {
+        long hachage = FiltreIdentifiants.FNV_BASE;
+        for(int i = 0; i < cle.length(); i++) {
+            hachage ^= cle.charAt(i);
+            hachage *= FiltreIdentifiants.FNV_PREMIER;
+        }
+        return hachage;
+    }
+}
@@ -0,0 +1,75 @@
+// Fichier FiltreIdentifiantsMBean.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+/**
+ * Interface JMX de {@link FiltreIdentifiants} : les mesures du filtre des IDs d'une table, en lecture seule.
+ *
+ * @author Gilles Bénichou
+ */
+public interface FiltreIdentifiantsMBean {
+    /**
+     * Indique si le filtre est construit. Tant qu'il ne l'est pas, toutes les lectures vont à la base de données.
+     *
+     * @return <code>true</code> si le filtre est construit ; <code>false</code> sinon
+     */
+    boolean isConstruit();
+
+    /**
+     * Retourne le nombre d'IDs ajoutés au filtre, moins le nombre d'IDs retirés.
+     *
+     * @return Le nombre d'IDs
+     */
+    long getIdentifiants();
+
+    /**
+     * Retourne le nombre de recherches auxquelles le filtre a répondu.
+     *
+     * @return Le nombre de recherches
+     */
+    long getRecherches();
+
+    /**
+     * Retourne le nombre de recherches d'un ID absent du filtre, donc terminées sans aller à la base de données.
+     *
+     * @return Le nombre de rejets
+     */
+    long getRejets();
+
+    /**
+     * Retourne le nombre de recherches d'un ID que le filtre croyait présent, mais que la base de données n'a pas trouvé.
+     *
+     * @return Le nombre de faux positifs
+     */
+    long getFauxPositifs();
+
+    /**
+     * Retourne le taux de faux positifs observé parmi les recherches d'un ID absent de la base de données.
+     *
+     * @return Le taux de faux positifs observé, en pour cent
+     */
+    double getTauxFauxPositifs();
+
+    /**
+     * Retourne le taux de faux positifs prévu d'après le remplissage des compteurs du filtre.
+     *
+     * @return Le taux de faux positifs prévu, en pour cent
+     */
+    double getTauxFauxPositifsEstime();
+
+    /**
+     * Retourne la mémoire occupée par les compteurs du filtre.
+     *
+     * @return La mémoire occupée, en octets
+     */
+    long getMemoire();
+
+    /**
+     * Construit le rapport des mesures du filtre.
+     *
+     * @return Le rapport
+     */
+    String getRapport();
+}
@@ -0,0 +1,183 @@
+// Fichier Histogramme.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de durées à classes logarithmiques, alimenté sans verrou par plusieurs fils d'exécution.<br />
+ * Comme un histogramme HDR, chaque puissance de deux de microsecondes est découpée en 8 classes égales : les durées de
+ * moins de 8 µs ont chacune leur classe, puis l'intervalle <code>[2<sup>e</sup>, 2<sup>e+1</sup>[</code> est découpé en 8 classes de
+ * <code>2<sup>e-3</sup></code> µs. Un centile est donc estimé à 12,5 % près, de la microseconde à plusieurs jours, avec un tableau fixe
+ * de compteurs.
+ *
+ * @author Gilles Bénichou
+ */
+public final class Histogramme {
+    private static final int BITS_SOUS_CLASSE = 3;
+
+    private static final int SOUS_CLASSES = 1 << Histogramme.BITS_SOUS_CLASSE;
+
+    private static final int NOMBRE_CLASSES = 40 * Histogramme.SOUS_CLASSES;
+
+    private static final long NANOSECONDES_PAR_MICROSECONDE = 1000;
+
+    private final AtomicLongArray classes;
+
+    private final AtomicLong nombre;
+
+    private final AtomicLong total;
+
+    private final AtomicLong maximum;
+
+    /**
+     * Crée un histogramme vide.
+     */
+    public Histogramme() {
+        super();
+        this.classes = new AtomicLongArray(Histogramme.NOMBRE_CLASSES);
+        this.nombre = new AtomicLong();
+        this.total = new AtomicLong();
+        this.maximum = new AtomicLong();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Retourne le nombre de durées ajoutées.
+     *
+     * @return Le nombre de durées
+     */
+    public long getNombre() {
+        return this.nombre.get();
+    }
+
+    /**
+     * Retourne la somme des durées, en nanosecondes.
+     *
+     * @return La durée totale
+     */
+    public long getTotal() {
+        return this.total.get();
+    }
+
+    /**
+     * Retourne la plus longue durée, en nanosecondes.
+     *
+     * @return La durée maximale
+     */
+    public long getMaximum() {
+        return this.maximum.get();
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Ajoute une durée.
+     *
+     * @param duree La durée, en nanosecondes
+     */
+    public void ajouter(long duree) {
+        final long microsecondes = Math.max(0,
+            duree) / Histogramme.NANOSECONDES_PAR_MICROSECONDE;
+        final int classe = Math.min(Histogramme.NOMBRE_CLASSES - 1,
+            Histogramme.getClasse(microsecondes));
+        this.classes.incrementAndGet(classe);
+        this.nombre.incrementAndGet();
+        this.total.addAndGet(duree);
+        long maximumCourant = this.maximum.get();
+        while(duree > maximumCourant
+            && !this.maximum.compareAndSet(maximumCourant,
+                duree)) {
+            maximumCourant = this.maximum.get();
+        }
+    }
+
+    /**
+     * Retourne la durée moyenne, en nanosecondes.
+     *
+     * @return La durée moyenne ; <code>0</code> si aucune durée n'a été ajoutée
+     */
+    public long getMoyenne() {
+        final long nombreDurees = getNombre();
+        return nombreDurees == 0 ? 0 : getTotal() / nombreDurees;
+    }
+
+    /**
+     * Estime un centile : la borne supérieure de la classe qui le contient.
+     *
+     * @param centile Le centile voulu, entre 0 et 100 (par exemple <code>99</code>)
+     * @return La durée estimée, en nanosecondes ; <code>0</code> si aucune durée n'a été ajoutée
+     */
+    public long getCentile(double centile) {
+        final long nombreDurees = getNombre();
+        if(nombreDurees == 0) {
+            return 0;
+        }
+        final long rang = (long) Math.ceil(nombreDurees
+            * Math.min(100,
+                Math.max(0,
+                    centile))
+            / 100);
+        long cumul = 0;
+        for(int classe = 0; classe < Histogramme.NOMBRE_CLASSES; classe++) {
+            cumul += this.classes.get(classe);
+            if(cumul >= rang) {
+                return Math.min(getMaximum(),
+                    Histogramme.getBorneSuperieure(classe) * Histogramme.NANOSECONDES_PAR_MICROSECONDE);
+            }
+        }
+        return getMaximum();
+    }
+
+    /**
+     * Retourne la classe d'une durée.
+     *
+     * @param microsecondes La durée, en microsecondes
+     * @return La classe de la durée
+     */
+    private static int getClasse(long microsecondes) {
+        if(microsecondes < Histogramme.SOUS_CLASSES) {
+            return (int) microsecondes;
+        }
+        final int exposant = 63 - Long.numberOfLeadingZeros(microsecondes);
+        final int sousClasse = (int) (microsecondes >>> (exposant - Histogramme.BITS_SOUS_CLASSE)) & (Histogramme.SOUS_CLASSES - 1);
+        return (exposant - Histogramme.BITS_SOUS_CLASSE + 1) * Histogramme.SOUS_CLASSES
+            + sousClasse;
+    }
+
+    /**
+     * Retourne la borne supérieure d'une classe : la première durée de la classe suivante.
+     *
+     * @param classe La classe
+     * @return La borne supérieure, en microsecondes
+     */
+    private static long getBorneSuperieure(int classe) {
+        if(classe < Histogramme.SOUS_CLASSES) {
+            return classe + 1;
+        }
+        final int exposant = classe / Histogramme.SOUS_CLASSES
+            + Histogramme.BITS_SOUS_CLASSE - 1;
+        final long largeur = 1L << (exposant - Histogramme.BITS_SOUS_CLASSE);
+        return (Histogramme.SOUS_CLASSES + classe % Histogramme.SOUS_CLASSES + 1) * largeur;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "n = "
+            + getNombre()
+            + ", moyenne = "
+            + getMoyenne() / Histogramme.NANOSECONDES_PAR_MICROSECONDE
+            + " µs, p50 = "
+            + getCentile(50) / Histogramme.NANOSECONDES_PAR_MICROSECONDE
+            + " µs, p99 = "
+            + getCentile(99) / Histogramme.NANOSECONDES_PAR_MICROSECONDE
+            + " µs, max = "
+            + getMaximum() / Histogramme.NANOSECONDES_PAR_MICROSECONDE
+            + " µs";
+    }
+}
@@ -0,0 +1,303 @@
+// Fichier IndexTexte.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire : associe chaque mot des textes indexés aux identifiants des documents qui le contiennent.<br />
+ * Les textes sont découpés sur tout ce qui n'est ni une lettre ni un chiffre, mis en minuscules et débarrassés de leurs accents
+ * (<code>Écume</code>, <code>ecume</code> et <code>ÉCUME</code> donnent le même mot). Une recherche retient les documents qui
+ * contiennent tous les mots demandés ; le dernier mot de la recherche est traité comme un préfixe, ce qui permet de chercher pendant la
+ * saisie.<br />
+ * Les lectures se font en parallèle, les écritures sous un verrou exclusif.
+ *
+ * @author Gilles Bénichou
+ */
+public final class IndexTexte {
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final int PETITE_LISTE = 4096;
+
+    private final NavigableMap<String, Set<String>> documentsParMot;
+
+    private final Map<String, String[]> motsParDocument;
+
+    private final ReadWriteLock verrou;
+
+    private volatile boolean construit;
+
+    /**
+     * Crée un index vide.
+     */
+    public IndexTexte() {
+        super();
+        this.documentsParMot = new TreeMap<>();
+        this.motsParDocument = new HashMap<>();
+        this.verrou = new ReentrantReadWriteLock();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.construit</code>.
+     *
+     * @return La variable d'instance <code>this.construit</code>
+     */
+    public boolean isConstruit() {
+        return this.construit;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.construit</code>.
+     *
+     * @param construit La valeur à utiliser pour la variable d'instance <code>this.construit</code>
+     */
+    public void setConstruit(boolean construit) {
+        this.construit = construit;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Indexe un document. Si le document était déjà indexé, ses anciens mots sont remplacés.
+     *
+     * @param id L'identifiant du document
+     * @param textes Les textes du document
+     */
+    public void index(String id,
+        String... textes) {
+        final Set<String> mots = new HashSet<>();
+        for(String texte : textes) {
+            mots.addAll(IndexTexte.tokenize(texte));
+        }
+        this.verrou.writeLock().lock();
+        try {
+            retirer(id);
+            for(String mot : mots) {
+                Set<String> documents = this.documentsParMot.get(mot);
+                if(documents == null) {
+                    documents = new HashSet<>();
+                    this.documentsParMot.put(mot,
+                        documents);
+                }
+                documents.add(id);
+            }
+            this.motsParDocument.put(id,
+                mots.toArray(new String[mots.size()]));
+        } finally {
+            this.verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un document de l'index. Ne fait rien si le document n'est pas indexé.
+     *
+     * @param id L'identifiant du document
+     */
+    public void remove(String id) {
+        this.verrou.writeLock().lock();
+        try {
+            retirer(id);
+        } finally {
+            this.verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vide l'index et le marque comme non construit.
+     */
+    public void clear() {
+        this.verrou.writeLock().lock();
+        try {
+            this.documentsParMot.clear();
+            this.motsParDocument.clear();
+            setConstruit(false);
+        } finally {
+            this.verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de documents indexés.
+     *
+     * @return Le nombre de documents indexés
+     */
+    public int size() {
+        this.verrou.readLock().lock();
+        try {
+            return this.motsParDocument.size();
+        } finally {
+            this.verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cherche les documents qui contiennent tous les mots de la recherche, le dernier mot pouvant n'être qu'un préfixe.<br />
+     * Si l'un des mots complets est rare, ses documents sont les seuls candidats ; sinon les documents des mots qui commencent par le
+     * préfixe sont parcourus jusqu'à en trouver <code>limit</code>. Le coût dépend de la rareté des mots cherchés et de <code>limit</code>,
+     * pas de la taille de l'index. Si la recherche ne contient aucun mot, une {@link List} vide est retournée.
+     *
+     * @param recherche Le texte cherché
+     * @param limit Le nombre maximal d'identifiants à retourner
+     * @return Les identifiants des documents trouvés ; une liste vide sinon
+     */
+    public List<String> search(String recherche,
+        int limit) {
+        final List<String> mots = IndexTexte.tokenize(recherche);
+        if(mots.isEmpty()
+            || limit < 1) {
+            return Collections.emptyList();
+        }
+        final List<String> motsComplets = mots.subList(0,
+            mots.size() - 1);
+        final String prefixe = mots.get(mots.size() - 1);
+        final Set<String> ids = new LinkedHashSet<>();
+        this.verrou.readLock().lock();
+        try {
+            final List<Set<String>> documentsDesMots = new ArrayList<>(motsComplets.size());
+            Set<String> candidats = null;
+            for(String mot : motsComplets) {
+                final Set<String> documents = this.documentsParMot.get(mot);
+                if(documents == null) {
+                    return Collections.emptyList();
+                }
+                documentsDesMots.add(documents);
+                if(candidats == null
+                    || documents.size() < candidats.size()) {
+                    candidats = documents;
+                }
+            }
+            if(candidats != null
+                && candidats.size() <= IndexTexte.PETITE_LISTE) {
+                for(String id : candidats) {
+                    if(IndexTexte.contientPrefixe(this.motsParDocument.get(id),
+                        prefixe)
+                        && IndexTexte.contientTout(documentsDesMots,
+                            id)) {
+                        ids.add(id);
+                        if(ids.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+                return new ArrayList<>(ids);
+            }
+            for(Set<String> documents : this.documentsParMot.subMap(prefixe,
+                true,
+                prefixe
+                    + Character.MAX_VALUE,
+                false).values()) {
+                for(String id : documents) {
+                    if(IndexTexte.contientTout(documentsDesMots,
+                        id)) {
+                        ids.add(id);
+                        if(ids.size() == limit) {
+                            return new ArrayList<>(ids);
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(ids);
+        } finally {
+            this.verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Découpe un texte en mots normalisés : sans accents, en minuscules, sans ponctuation. Les ligatures <code>œ</code> et
+     * <code>æ</code>, que la décomposition Unicode ne sépare pas, sont écrites en deux lettres.
+     *
+     * @param texte Le texte à découper
+     * @return Les mots du texte, dans l'ordre ; une liste vide si le texte est <code>null</code> ou ne contient aucun mot
+     */
+    public static List<String> tokenize(String texte) {
+        final List<String> mots = new ArrayList<>();
+        if(texte != null) {
+            String normalise = Normalizer.normalize(texte,
+                Normalizer.Form.NFD);
+            normalise = IndexTexte.DIACRITIQUES.matcher(normalise).replaceAll("");
+            normalise = normalise.toLowerCase(Locale.ROOT).replace("œ",
+                "oe").replace("æ",
+                "ae");
+            for(String mot : IndexTexte.SEPARATEURS.split(normalise)) {
+                if(!mot.isEmpty()) {
+                    mots.add(mot);
+                }
+            }
+        }
+        return mots;
+    }
+
+    /**
+     * Retire un document des listes de ses mots. Le verrou d'écriture doit être tenu.
+     *
+     * @param id L'identifiant du document
+     */
+    private void retirer(String id) {
+        final String[] mots = this.motsParDocument.remove(id);
+        if(mots != null) {
+            for(String mot : mots) {
+                final Set<String> documents = this.documentsParMot.get(mot);
+                if(documents != null) {
+                    documents.remove(id);
+                    if(documents.isEmpty()) {
+                        this.documentsParMot.remove(mot);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indique si l'un des mots d'un document commence par le préfixe.
+     *
+     * @param motsDuDocument Les mots du document
+     * @param prefixe Le préfixe cherché
+     * @return <code>true</code> si un mot commence par le préfixe ; <code>false</code> sinon
+     */
+    private static boolean contientPrefixe(String[] motsDuDocument,
+        String prefixe) {
+        if(motsDuDocument != null) {
+            for(String mot : motsDuDocument) {
+                if(mot.startsWith(prefixe)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si un document figure dans toutes les listes de documents.
+     *
+     * @param documentsDesMots Les listes de documents des mots complets cherchés
+     * @param id L'identifiant du document
+     * @return <code>true</code> si le document figure dans toutes les listes ; <code>false</code> sinon
+     */
+    private static boolean contientTout(List<Set<String>> documentsDesMots,
+        String id) {
+        for(Set<String> documents : documentsDesMots) {
+            if(!documents.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+// Fichier LectureSeuleInterceptor.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.Collection;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * Intercepteur qui allège les méthodes appelées dans une unité de travail en lecture seule (voir
+ * {@link DataSourceRoutage#setLectureSeule(boolean)}).<br />
+ * Il est ajouté en <code>postInterceptors</code> des proxys transactionnels, dans la transaction. Pendant l'appel, la session Hibernate
+ * passée en argument est en {@link FlushMode#MANUAL} : les requêtes ne vident plus la session et ne vérifient plus ses entités. Les DTOs
+ * retournés sont aussi passés en lecture seule dans la session : Hibernate abandonne leur copie d'origine et ne les vérifie plus au
+ * vidage.<br />
+ * C'est l'unité de travail qui décide, et non l'attribut <code>readOnly</code> de la méthode : dans une unité de travail d'écriture, la
+ * session et les DTOs lus ne sont pas touchés, puisqu'un DTO lu peut ensuite être mis à jour.
+ *
+ * @author Gilles Bénichou
+ */
+public class LectureSeuleInterceptor implements MethodInterceptor {
+    /**
+     * Crée l'intercepteur.
+     */
+    public LectureSeuleInterceptor() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if(!DataSourceRoutage.isLectureSeule()) {
+            return invocation.proceed();
+        }
+        final Session session = LectureSeuleInterceptor.getSession(invocation.getArguments());
+        if(session == null
+            || !session.isOpen()) {
+            return invocation.proceed();
+        }
+        final FlushMode flushMode = session.getFlushMode();
+        session.setFlushMode(FlushMode.MANUAL);
+        final Object resultat;
+        try {
+            resultat = invocation.proceed();
+        } finally {
+            session.setFlushMode(flushMode);
+        }
+        LectureSeuleInterceptor.setReadOnly(session,
+            resultat);
+        return resultat;
+    }
+
+    /**
+     * Retourne la session Hibernate passée en argument.
+     *
+     * @param arguments Les arguments de l'appel
+     * @return La session Hibernate ; <code>null</code> si l'appel n'en reçoit pas
+     */
+    private static Session getSession(Object[] arguments) {
+        for(Object argument : arguments) {
+            if(argument instanceof Session) {
+                return (Session) argument;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passe en lecture seule le résultat d'un appel : un DTO, ou chaque DTO d'une collection, que la session contient.
+     *
+     * @param session La session Hibernate
+     * @param resultat Le résultat de l'appel
+     */
+    private static void setReadOnly(Session session,
+        Object resultat) {
+        if(resultat instanceof Collection<?>) {
+            for(Object element : (Collection<?>) resultat) {
+                LectureSeuleInterceptor.setReadOnly(session,
+                    element);
+            }
+        } else if(resultat instanceof DTO
+            && session.contains(resultat)) {
+            session.setReadOnly(resultat,
+                true);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+// Fichier MesureMethode.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mesures d'une méthode : la durée de ses appels dans un {@link Histogramme}, et ses erreurs par type d'exception.<br />
+ * Les appels peuvent être ajoutés par plusieurs fils d'exécution à la fois, sans verrou.
+ *
+ * @author Gilles Bénichou
+ */
+public final class MesureMethode implements MesureMethodeMBean {
+    private static final long NANOSECONDES_PAR_MICROSECONDE = 1000;
+
+    private final String nom;
+
+    private final Histogramme durees;
+
+    private final AtomicLong erreurs;
+
+    private final ConcurrentMap<String, AtomicLong> erreursParType;
+
+    /**
+     * Crée une mesure vide.
+     *
+     * @param nom Le nom de la méthode, par exemple <code>IPretFacade.commencer</code>
+     */
+    public MesureMethode(String nom) {
+        super();
+        this.nom = nom;
+        this.durees = new Histogramme();
+        this.erreurs = new AtomicLong();
+        this.erreursParType = new ConcurrentSkipListMap<>();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.nom</code>.
+     *
+     * @return La variable d'instance <code>this.nom</code>
+     */
+    public String getNom() {
+        return this.nom;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Ajoute la durée d'un appel.
+     *
+     * @param duree La durée, en nanosecondes
+     */
+    public void ajouter(long duree) {
+        this.durees.ajouter(duree);
+    }
+
+    /**
+     * Compte un appel terminé par une exception. Sa durée doit aussi être ajoutée par {@link #ajouter(long)}.
+     *
+     * @param throwable L'exception
+     */
+    public void ajouterErreur(Throwable throwable) {
+        this.erreurs.incrementAndGet();
+        final String type = throwable.getClass().getSimpleName();
+        AtomicLong compteur = this.erreursParType.get(type);
+        if(compteur == null) {
+            final AtomicLong nouveauCompteur = new AtomicLong();
+            compteur = this.erreursParType.putIfAbsent(type,
+                nouveauCompteur);
+            if(compteur == null) {
+                compteur = nouveauCompteur;
+            }
+        }
+        compteur.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAppels() {
+        return this.durees.getNombre();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getErreurs() {
+        return this.erreurs.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getErreursParType() {
+        final StringBuilder erreursParTypes = new StringBuilder();
+        for(Map.Entry<String, AtomicLong> entry : this.erreursParType.entrySet()) {
+            if(erreursParTypes.length() > 0) {
+                erreursParTypes.append(", ");
+            }
+            erreursParTypes.append(entry.getKey());
+            erreursParTypes.append(" = ");
+            erreursParTypes.append(entry.getValue().get());
+        }
+        return erreursParTypes.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDureeMoyenne() {
+        return this.durees.getMoyenne() / MesureMethode.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDuree50() {
+        return this.durees.getCentile(50) / MesureMethode.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDuree99() {
+        return this.durees.getCentile(99) / MesureMethode.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDuree999() {
+        return this.durees.getCentile(99.9) / MesureMethode.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDureeMaximale() {
+        return this.durees.getMaximum() / MesureMethode.NANOSECONDES_PAR_MICROSECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRapport() {
+        String rapport = getNom()
+            + " : "
+            + this.durees
+            + ", p99,9 = "
+            + getDuree999()
+            + " µs";
+        if(getErreurs() > 0) {
+            rapport += ", erreurs = "
+                + getErreurs()
+                + " ("
+                + getErreursParType()
+                + ")";
+        }
+        return rapport;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getRapport();
+    }
+}
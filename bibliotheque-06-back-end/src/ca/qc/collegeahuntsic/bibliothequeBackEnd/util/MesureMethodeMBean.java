@@ -0,0 +1,75 @@
+// Fichier MesureMethodeMBean.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+/**
+ * Interface JMX de {@link MesureMethode} : les mesures d'une méthode de service ou de façade, en lecture seule.
+ *
+ * @author Gilles Bénichou
+ */
+public interface MesureMethodeMBean {
+    /**
+     * Retourne le nombre d'appels terminés depuis le démarrage, en erreur compris.
+     *
+     * @return Le nombre d'appels
+     */
+    long getAppels();
+
+    /**
+     * Retourne le nombre d'appels terminés par une exception.
+     *
+     * @return Le nombre d'erreurs
+     */
+    long getErreurs();
+
+    /**
+     * Retourne le nombre d'erreurs par type d'exception, par exemple <code>ExistingLoanException = 3</code>.
+     *
+     * @return Les erreurs par type, classées par nom
+     */
+    String getErreursParType();
+
+    /**
+     * Retourne la durée moyenne d'un appel.
+     *
+     * @return La durée moyenne, en microsecondes
+     */
+    long getDureeMoyenne();
+
+    /**
+     * Retourne la médiane de la durée d'un appel.
+     *
+     * @return La médiane, en microsecondes
+     */
+    long getDuree50();
+
+    /**
+     * Retourne le 99<sup>e</sup> centile de la durée d'un appel.
+     *
+     * @return Le centile, en microsecondes
+     */
+    long getDuree99();
+
+    /**
+     * Retourne le 99,9<sup>e</sup> centile de la durée d'un appel.
+     *
+     * @return Le centile, en microsecondes
+     */
+    long getDuree999();
+
+    /**
+     * Retourne la durée maximale d'un appel.
+     *
+     * @return La durée maximale, en microsecondes
+     */
+    long getDureeMaximale();
+
+    /**
+     * Construit le rapport des mesures de la méthode.
+     *
+     * @return Le rapport
+     */
+    String getRapport();
+}
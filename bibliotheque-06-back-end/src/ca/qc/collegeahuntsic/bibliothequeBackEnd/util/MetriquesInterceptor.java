@@ -0,0 +1,234 @@
+// Fichier MetriquesInterceptor.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Intercepteur qui mesure chaque méthode des beans qu'il intercepte : durée des appels, nombre d'appels et erreurs par type
+ * d'exception.<br />
+ * Il est ajouté en <code>preInterceptors</code> des proxys transactionnels, en dehors de la transaction : la durée mesurée comprend
+ * donc la validation. La mesure d'une méthode est créée à son premier appel et publiée sur le serveur MBean de la plateforme sous le
+ * nom <code>bibliotheque:type=Methode,interface=IPretFacade,name=commencer</code> (voir {@link MesureMethodeMBean}). Le rapport de
+ * toutes les méthodes appelées peut être journalisé périodiquement (voir {@link #setPeriodeJournal(long)}).<br />
+ * Un appel ne coûte que deux lectures de l'horloge, une recherche dans une table concurrente et quelques opérations atomiques.
+ *
+ * @author Gilles Bénichou
+ */
+public class MetriquesInterceptor implements MethodInterceptor {
+    private static final Log LOGGER = LogFactory.getLog(MetriquesInterceptor.class);
+
+    private static final String DOMAINE = "bibliotheque";
+
+    private final ConcurrentMap<Method, MesureMethode> mesures;
+
+    private final MBeanServer mbeanServer;
+
+    private final Map<ObjectName, MesureMethode> mbeans;
+
+    private long periodeJournal;
+
+    private Timer timer;
+
+    /**
+     * Crée un intercepteur qui publie ses mesures sur le serveur MBean de la plateforme.
+     */
+    public MetriquesInterceptor() {
+        super();
+        this.mesures = new ConcurrentHashMap<>();
+        this.mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        this.mbeans = new ConcurrentHashMap<>();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.periodeJournal</code>.
+     *
+     * @return La variable d'instance <code>this.periodeJournal</code>
+     */
+    public long getPeriodeJournal() {
+        return this.periodeJournal;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.periodeJournal</code>. Démarre ou arrête la journalisation périodique du rapport.
+     *
+     * @param periodeJournal La période de journalisation, en millisecondes ; <code>0</code> pour ne pas journaliser
+     */
+    public synchronized void setPeriodeJournal(long periodeJournal) {
+        this.periodeJournal = periodeJournal;
+        if(this.timer != null) {
+            this.timer.cancel();
+            this.timer = null;
+        }
+        if(periodeJournal > 0) {
+            this.timer = new Timer("MetriquesInterceptor",
+                true);
+            this.timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    journaliser();
+                }
+            },
+                periodeJournal,
+                periodeJournal);
+        }
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        final MesureMethode mesure = getMesure(invocation.getMethod());
+        final long debut = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch(Throwable throwable) {
+            mesure.ajouterErreur(throwable);
+            throw throwable;
+        } finally {
+            mesure.ajouter(System.nanoTime() - debut);
+        }
+    }
+
+    /**
+     * Construit le rapport des méthodes appelées, une ligne par méthode classée par nom.
+     *
+     * @return Le rapport
+     */
+    public String getRapport() {
+        final Map<String, MesureMethode> mesuresClassees = new TreeMap<>();
+        for(MesureMethode mesure : this.mesures.values()) {
+            if(mesure.getAppels() > 0) {
+                mesuresClassees.put(mesure.getNom(),
+                    mesure);
+            }
+        }
+        final StringBuilder rapport = new StringBuilder();
+        for(MesureMethode mesure : mesuresClassees.values()) {
+            rapport.append(mesure.getRapport());
+            rapport.append('\n');
+        }
+        return rapport.toString();
+    }
+
+    /**
+     * Arrête la journalisation et retire les mesures du serveur MBean.
+     */
+    public void close() {
+        setPeriodeJournal(0);
+        for(ObjectName objectName : this.mbeans.keySet()) {
+            try {
+                this.mbeanServer.unregisterMBean(objectName);
+            } catch(JMException jmException) {
+                MetriquesInterceptor.LOGGER.warn("Impossible de retirer "
+                    + objectName,
+                    jmException);
+            }
+        }
+        this.mbeans.clear();
+    }
+
+    /**
+     * Journalise le rapport des méthodes appelées.
+     */
+    void journaliser() {
+        if(MetriquesInterceptor.LOGGER.isInfoEnabled()) {
+            final String rapport = getRapport();
+            if(!rapport.isEmpty()) {
+                MetriquesInterceptor.LOGGER.info("Métriques des méthodes :\n"
+                    + rapport);
+            }
+        }
+    }
+
+    /**
+     * Retourne la mesure d'une méthode ; la crée et la publie au premier appel.
+     *
+     * @param method La méthode
+     * @return La mesure de la méthode
+     */
+    private MesureMethode getMesure(Method method) {
+        MesureMethode mesure = this.mesures.get(method);
+        if(mesure == null) {
+            final String nomMethode = MetriquesInterceptor.getNomMethode(method);
+            final MesureMethode nouvelleMesure = new MesureMethode(method.getDeclaringClass().getSimpleName()
+                + "."
+                + nomMethode);
+            mesure = this.mesures.putIfAbsent(method,
+                nouvelleMesure);
+            if(mesure == null) {
+                mesure = nouvelleMesure;
+                publier(method,
+                    nomMethode,
+                    mesure);
+            }
+        }
+        return mesure;
+    }
+
+    /**
+     * Publie la mesure d'une méthode sur le serveur MBean. Une erreur est journalisée sans interrompre l'appel.
+     *
+     * @param method La méthode
+     * @param nomMethode Le nom de la méthode, distinct pour chaque surcharge
+     * @param mesure La mesure de la méthode
+     */
+    private void publier(Method method,
+        String nomMethode,
+        MesureMethode mesure) {
+        try {
+            final ObjectName objectName = new ObjectName(MetriquesInterceptor.DOMAINE
+                + ":type=Methode,interface="
+                + method.getDeclaringClass().getSimpleName()
+                + ",name="
+                + nomMethode);
+            if(!this.mbeanServer.isRegistered(objectName)) {
+                this.mbeanServer.registerMBean(mesure,
+                    objectName);
+                this.mbeans.put(objectName,
+                    mesure);
+            }
+        } catch(JMException jmException) {
+            MetriquesInterceptor.LOGGER.warn("Impossible de publier la mesure de "
+                + mesure.getNom(),
+                jmException);
+        }
+    }
+
+    /**
+     * Retourne le nom d'une méthode, suivi de son nombre de paramètres si elle est surchargée (par exemple <code>search_3</code>).
+     *
+     * @param method La méthode
+     * @return Le nom de la méthode
+     */
+    private static String getNomMethode(Method method) {
+        int surcharges = 0;
+        for(Method autre : method.getDeclaringClass().getMethods()) {
+            if(autre.getName().equals(method.getName())) {
+                surcharges++;
+            }
+        }
+        return surcharges > 1 ? method.getName()
+            + "_"
+            + method.getParameterTypes().length : method.getName();
+    }
+}
@@ -0,0 +1,132 @@
+// Fichier PooledIdentifierGenerator.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.Serializable;
+import java.util.Properties;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.type.Type;
+
+/**
+ * Générateur d'identifiants par blocs pour les clefs primaires de type <code>string</code>.<br />
+ * Le générateur délègue à un {@link SequenceStyleGenerator} : une séquence est utilisée si le dialecte les supporte (Oracle), une table
+ * d'une seule colonne <code>next_val</code> sinon (MySQL). L'optimiseur (<code>pooled</code> par défaut) réserve
+ * <code>increment_size</code> valeurs à chaque accès à la base de données et les distribue ensuite en mémoire. Contrairement au générateur
+ * <code>identity</code>, la clef est donc connue avant l'insertion, ce qui permet à Hibernate de regrouper les insertions en lots JDBC.<br />
+ * <br />
+ * Les paramètres sont ceux de {@link SequenceStyleGenerator} (<code>sequence_name</code>, <code>initial_value</code>,
+ * <code>increment_size</code>, <code>optimizer</code>, <code>value_column</code> et <code>force_table_use</code>).
+ *
+ * @author Gilles Bénichou
+ */
+public class PooledIdentifierGenerator implements PersistentIdentifierGenerator,
+    Configurable {
+    /**
+     * Taille par défaut des blocs d'identifiants.
+     */
+    public static final int DEFAULT_INCREMENT_SIZE = 50;
+
+    /**
+     * Optimiseur par défaut.
+     */
+    public static final String DEFAULT_OPTIMIZER = "pooled";
+
+    private SequenceStyleGenerator sequenceStyleGenerator;
+
+    /**
+     * Crée un générateur d'identifiants par blocs.
+     */
+    public PooledIdentifierGenerator() {
+        super();
+        setSequenceStyleGenerator(new SequenceStyleGenerator());
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.sequenceStyleGenerator</code>.
+     *
+     * @return La variable d'instance <code>this.sequenceStyleGenerator</code>
+     */
+    private SequenceStyleGenerator getSequenceStyleGenerator() {
+        return this.sequenceStyleGenerator;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.sequenceStyleGenerator</code>.
+     *
+     * @param sequenceStyleGenerator La valeur à utiliser pour la variable d'instance <code>this.sequenceStyleGenerator</code>
+     */
+    private void setSequenceStyleGenerator(SequenceStyleGenerator sequenceStyleGenerator) {
+        this.sequenceStyleGenerator = sequenceStyleGenerator;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * {@inheritDoc}<br />
+     * <br />
+     * Les optimiseurs de Hibernate ne savent produire que des valeurs numériques : le générateur délégué est donc configuré avec le type
+     * <code>long</code> et la valeur est convertie en {@link String} à la génération.
+     */
+    @Override
+    public void configure(Type type,
+        Properties params,
+        Dialect dialect) throws MappingException {
+        final Properties delegateParams = new Properties();
+        delegateParams.putAll(params);
+        if(!delegateParams.containsKey(SequenceStyleGenerator.INCREMENT_PARAM)) {
+            delegateParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM,
+                Integer.toString(PooledIdentifierGenerator.DEFAULT_INCREMENT_SIZE));
+        }
+        if(!delegateParams.containsKey(SequenceStyleGenerator.OPT_PARAM)) {
+            delegateParams.setProperty(SequenceStyleGenerator.OPT_PARAM,
+                PooledIdentifierGenerator.DEFAULT_OPTIMIZER);
+        }
+        getSequenceStyleGenerator().configure(Hibernate.LONG,
+            delegateParams,
+            dialect);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Serializable generate(SessionImplementor session,
+        Object object) throws HibernateException {
+        final Serializable id = getSequenceStyleGenerator().generate(session,
+            object);
+        return id.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] sqlCreateStrings(Dialect dialect) throws HibernateException {
+        return getSequenceStyleGenerator().sqlCreateStrings(dialect);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] sqlDropStrings(Dialect dialect) throws HibernateException {
+        return getSequenceStyleGenerator().sqlDropStrings(dialect);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object generatorKey() {
+        return getSequenceStyleGenerator().generatorKey();
+    }
+}
@@ -0,0 +1,156 @@
+// Fichier ScriptSQL.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import javax.sql.DataSource;
+
+/**
+ * Exécute un script SQL du classpath sur une source de données, par exemple pour créer le schéma d'une base H2 en mémoire à partir du
+ * script de MySQL.<br />
+ * Le script est découpé en instructions sur les points-virgules ; les lignes qui commencent par <code>--</code> sont ignorées. Avant le
+ * découpage, chaque expression régulière de {@link #setRemplacements(Properties)} est remplacée dans tout le script : c'est ainsi qu'on
+ * retire la syntaxe qu'une autre base ne comprend pas, sans tenir une copie du script.
+ *
+ * @author Gilles Bénichou
+ */
+public class ScriptSQL {
+    private static final String COMMENTAIRE = "--";
+
+    private static final char FIN_INSTRUCTION = ';';
+
+    private final DataSource dataSource;
+
+    private final String script;
+
+    private Properties remplacements;
+
+    /**
+     * Crée l'exécution d'un script.
+     *
+     * @param dataSource La source de données sur laquelle exécuter le script
+     * @param script Le nom de la ressource du script dans le classpath, par exemple <code>MySQL.sql</code>
+     */
+    public ScriptSQL(DataSource dataSource,
+        String script) {
+        super();
+        this.dataSource = dataSource;
+        this.script = script;
+        this.remplacements = new Properties();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.remplacements</code>.
+     *
+     * @return La variable d'instance <code>this.remplacements</code>
+     */
+    public Properties getRemplacements() {
+        return this.remplacements;
+    }
+
+    /**
+     * Setter de la variable d'instance <code>this.remplacements</code>.
+     *
+     * @param remplacements Les remplacements à faire dans le script : chaque clé est une expression régulière, et sa valeur le texte qui la
+     *        remplace
+     */
+    public void setRemplacements(Properties remplacements) {
+        this.remplacements = remplacements == null ? new Properties() : remplacements;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Lit le script, fait ses remplacements et exécute ses instructions dans l'ordre, dans une seule connexion.
+     *
+     * @throws IOException Si le script ne peut être lu
+     * @throws SQLException Si une instruction échoue
+     */
+    public void executer() throws IOException,
+        SQLException {
+        String texte = lire();
+        for(Map.Entry<Object, Object> remplacement : this.remplacements.entrySet()) {
+            texte = texte.replaceAll((String) remplacement.getKey(),
+                (String) remplacement.getValue());
+        }
+        try(
+            Connection connection = this.dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+            final StringBuilder instruction = new StringBuilder();
+            for(String ligne : texte.split("\r?\n")) {
+                if(!ligne.trim().startsWith(ScriptSQL.COMMENTAIRE)) {
+                    instruction.append(ligne);
+                    instruction.append('\n');
+                }
+                if(ligne.trim().endsWith(String.valueOf(ScriptSQL.FIN_INSTRUCTION))) {
+                    ScriptSQL.executer(statement,
+                        instruction);
+                }
+            }
+            ScriptSQL.executer(statement,
+                instruction);
+            if(!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * Exécute l'instruction en cours, s'il y en a une, puis la vide.
+     *
+     * @param statement L'instruction JDBC à utiliser
+     * @param instruction Le texte de l'instruction, avec ou sans son point-virgule final
+     * @throws SQLException Si l'instruction échoue
+     */
+    private static void executer(Statement statement,
+        StringBuilder instruction) throws SQLException {
+        String sql = instruction.toString().trim();
+        instruction.setLength(0);
+        if(sql.length() > 0
+            && sql.charAt(sql.length() - 1) == ScriptSQL.FIN_INSTRUCTION) {
+            sql = sql.substring(0,
+                sql.length() - 1).trim();
+        }
+        if(sql.length() > 0) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Lit le script dans le classpath.
+     *
+     * @return Le texte du script
+     * @throws IOException Si le script n'existe pas ou ne peut être lu
+     */
+    private String lire() throws IOException {
+        final InputStream inputStream = ScriptSQL.class.getClassLoader().getResourceAsStream(this.script);
+        if(inputStream == null) {
+            throw new IOException("Le script "
+                + this.script
+                + " n'existe pas dans le classpath");
+        }
+        try(
+            Reader reader = new InputStreamReader(inputStream,
+                StandardCharsets.UTF_8)) {
+            final StringBuilder texte = new StringBuilder();
+            final char[] tampon = new char[4096];
+            for(int lus = reader.read(tampon); lus >= 0; lus = reader.read(tampon)) {
+                texte.append(tampon,
+                    0,
+                    lus);
+            }
+            return texte.toString();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+// Fichier StatistiquesHibernate.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBackEnd.util;
+
+import java.util.Arrays;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Rapport des statistiques d'une {@link SessionFactory} Hibernate.<br />
+ * Le rapport donne les totaux de la fabrique, puis, pour chaque entité, collection, requête et région du cache de second niveau utilisée,
+ * ses chargements, ses exécutions ou son taux de succès. Les statistiques ne sont collectées que si
+ * <code>hibernate.generate_statistics</code> vaut <code>true</code> ; elles sont aussi publiées par JMX (voir
+ * {@link org.hibernate.jmx.StatisticsService}).
+ *
+ * @author Gilles Bénichou
+ */
+public final class StatistiquesHibernate {
+    /**
+     * Constructeur privé : classe utilitaire.
+     */
+    private StatistiquesHibernate() {
+        super();
+    }
+
+    /**
+     * Construit le rapport des statistiques d'une fabrique de sessions.
+     *
+     * @param sessionFactory La fabrique de sessions
+     * @return Le rapport des statistiques
+     */
+    public static String getRapport(SessionFactory sessionFactory) {
+        final Statistics statistics = sessionFactory.getStatistics();
+        final StringBuilder rapport = new StringBuilder();
+        if(!statistics.isStatisticsEnabled()) {
+            rapport.append("Les statistiques d'Hibernate sont désactivées (hibernate.generate_statistics)\n");
+            return rapport.toString();
+        }
+        rapport.append("Sessions : ouvertes = ");
+        rapport.append(statistics.getSessionOpenCount());
+        rapport.append(", transactions = ");
+        rapport.append(statistics.getTransactionCount());
+        rapport.append(", flushs = ");
+        rapport.append(statistics.getFlushCount());
+        rapport.append(", connexions = ");
+        rapport.append(statistics.getConnectCount());
+        rapport.append(", requêtes préparées = ");
+        rapport.append(statistics.getPrepareStatementCount());
+        rapport.append(", échecs optimistes = ");
+        rapport.append(statistics.getOptimisticFailureCount());
+        rapport.append('\n');
+        rapport.append("Requêtes : exécutions = ");
+        rapport.append(statistics.getQueryExecutionCount());
+        rapport.append(", maximum = ");
+        rapport.append(statistics.getQueryExecutionMaxTime());
+        rapport.append(" ms (");
+        rapport.append(statistics.getQueryExecutionMaxTimeQueryString());
+        rapport.append("), cache : ");
+        StatistiquesHibernate.appendSucces(rapport,
+            statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount());
+        rapport.append('\n');
+        rapport.append("Cache de second niveau : ");
+        StatistiquesHibernate.appendSucces(rapport,
+            statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount());
+        rapport.append(", ajouts = ");
+        rapport.append(statistics.getSecondLevelCachePutCount());
+        rapport.append('\n');
+
+        final String[] entityNames = statistics.getEntityNames();
+        Arrays.sort(entityNames);
+        for(String entityName : entityNames) {
+            final EntityStatistics entityStatistics = statistics.getEntityStatistics(entityName);
+            rapport.append("Entité ");
+            rapport.append(entityName);
+            rapport.append(" : chargements = ");
+            rapport.append(entityStatistics.getLoadCount());
+            rapport.append(", lectures = ");
+            rapport.append(entityStatistics.getFetchCount());
+            rapport.append(", insertions = ");
+            rapport.append(entityStatistics.getInsertCount());
+            rapport.append(", mises à jour = ");
+            rapport.append(entityStatistics.getUpdateCount());
+            rapport.append(", suppressions = ");
+            rapport.append(entityStatistics.getDeleteCount());
+            rapport.append('\n');
+        }
+
+        final String[] roles = statistics.getCollectionRoleNames();
+        Arrays.sort(roles);
+        for(String role : roles) {
+            final CollectionStatistics collectionStatistics = statistics.getCollectionStatistics(role);
+            rapport.append("Collection ");
+            rapport.append(role);
+            rapport.append(" : chargements = ");
+            rapport.append(collectionStatistics.getLoadCount());
+            rapport.append(", lectures = ");
+            rapport.append(collectionStatistics.getFetchCount());
+            rapport.append(", recréations = ");
+            rapport.append(collectionStatistics.getRecreateCount());
+            rapport.append(", mises à jour = ");
+            rapport.append(collectionStatistics.getUpdateCount());
+            rapport.append('\n');
+        }
+
+        final String[] queries = statistics.getQueries();
+        Arrays.sort(queries);
+        for(String query : queries) {
+            final QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            rapport.append("Requête ");
+            rapport.append(query);
+            rapport.append(" : exécutions = ");
+            rapport.append(queryStatistics.getExecutionCount());
+            rapport.append(", lignes = ");
+            rapport.append(queryStatistics.getExecutionRowCount());
+            rapport.append(", moyenne = ");
+            rapport.append(queryStatistics.getExecutionAvgTime());
+            rapport.append(" ms, maximum = ");
+            rapport.append(queryStatistics.getExecutionMaxTime());
+            rapport.append(" ms, cache : ");
+            StatistiquesHibernate.appendSucces(rapport,
+                queryStatistics.getCacheHitCount(),
+                queryStatistics.getCacheMissCount());
+            rapport.append('\n');
+        }
+
+        final String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for(String regionName : regionNames) {
+            final SecondLevelCacheStatistics cacheStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+            rapport.append("Région ");
+            rapport.append(regionName);
+            rapport.append(" : ");
+            StatistiquesHibernate.appendSucces(rapport,
+                cacheStatistics.getHitCount(),
+                cacheStatistics.getMissCount());
+            rapport.append(", ajouts = ");
+            rapport.append(cacheStatistics.getPutCount());
+            rapport.append(", éléments = ");
+            rapport.append(cacheStatistics.getElementCountInMemory());
+            rapport.append('\n');
+        }
+        return rapport.toString();
+    }
+
+    /**
+     * Ajoute au rapport des succès, des échecs et le taux de succès.
+     *
+     * @param rapport Le rapport à compléter
+     * @param succes Le nombre de succès
+     * @param echecs Le nombre d'échecs
+     */
+    private static void appendSucces(StringBuilder rapport,
+        long succes,
+        long echecs) {
+        final long total = succes + echecs;
+        rapport.append("succès = ");
+        rapport.append(succes);
+        rapport.append(", échecs = ");
+        rapport.append(echecs);
+        rapport.append(", taux de succès = ");
+        rapport.append(total == 0 ? 0 : succes * 100 / total);
+        rapport.append(" %");
+    }
+}
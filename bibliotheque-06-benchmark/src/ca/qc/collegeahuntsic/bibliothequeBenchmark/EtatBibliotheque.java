@@ -0,0 +1,420 @@
+// Fichier EtatBibliotheque.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import java.sql.Timestamp;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.ILivreFacade;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IMembreFacade;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IPretFacade;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IReservationFacade;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Base de données d'un banc d'essai : le contexte Spring du back-end sur une base H2 en mémoire, dont le schéma est créé par le script de
+ * MySQL, et un jeu de données chargé par les facades.<br />
+ * Le jeu de données compte <code>nombreMembres</code> membres et <code>nombreLivres</code> livres. Les livres sont rangés en trois
+ * tranches :
+ * <ul>
+ * <li>de <code>0</code> à {@link #getNombreReserves()} exclus : prêtés et réservés par un autre membre ;</li>
+ * <li>de {@link #getNombreReserves()} à {@link #getNombrePrets()} exclus : prêtés, sans réservation ;</li>
+ * <li>de {@link #getNombrePrets()} à <code>nombreLivres</code> exclus : disponibles.</li>
+ * </ul>
+ * Le livre d'index <code>i</code> est prêté au membre d'index <code>i % nombreMembres</code> et réservé par le membre suivant. La moitié
+ * des livres sont prêtés, sans dépasser {@link #PRETS_PAR_MEMBRE} prêts par membre, et la moitié des livres prêtés sont réservés.<br />
+ * JMH crée une base par fourche : chaque banc d'essai part du même jeu de données.
+ *
+ * @author Gilles Bénichou
+ */
+@State(Scope.Benchmark)
+public class EtatBibliotheque {
+    /**
+     * Nombre maximal de prêts du jeu de données par membre. La limite de prêt des membres est de 10 : un membre peut encore emprunter
+     * pendant les bancs d'essai.
+     */
+    public static final int PRETS_PAR_MEMBRE = 5;
+
+    private static final String LIMITE_PRET = "10";
+
+    private static final int NOMBRE_AUTEURS = 100;
+
+    private static final int TAILLE_LOT = 500;
+
+    private static final String[] APPLICATION_CONTEXT_FILENAMES = new String[] {"applicationContext-dto-H2.xml",
+        "applicationContext-dao.xml",
+        "applicationContext-service.xml",
+        "applicationContext-facade.xml",
+        "benchmarkApplicationContext-H2.xml"};
+
+    /**
+     * Le nombre de membres du jeu de données ; au moins 2, pour que les livres prêtés puissent être réservés.
+     */
+    @Param({"100",
+        "1000"})
+    private int nombreMembres;
+
+    /**
+     * Le nombre de livres du jeu de données.
+     */
+    @Param({"1000",
+        "10000"})
+    private int nombreLivres;
+
+    private ClassPathXmlApplicationContext applicationContext;
+
+    private SessionFactory sessionFactory;
+
+    private ILivreFacade livreFacade;
+
+    private IMembreFacade membreFacade;
+
+    private IPretFacade pretFacade;
+
+    private IReservationFacade reservationFacade;
+
+    private String[] idMembres;
+
+    private String[] idLivres;
+
+    private String[] idPrets;
+
+    private int nombrePrets;
+
+    private int nombreReserves;
+
+    /**
+     * Un travail fait dans une transaction, par {@link EtatBibliotheque#executer(Travail)}.
+     *
+     * @param <T> Le type du résultat du travail
+     * @author Gilles Bénichou
+     */
+    public interface Travail<T> {
+        /**
+         * Fait le travail.
+         *
+         * @param session La session Hibernate de la transaction
+         * @return Le résultat du travail
+         * @throws Exception S'il y a une erreur ; la transaction est alors annulée
+         */
+        T executer(Session session) throws Exception;
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.livreFacade</code>.
+     *
+     * @return La variable d'instance <code>this.livreFacade</code>
+     */
+    public ILivreFacade getLivreFacade() {
+        return this.livreFacade;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.membreFacade</code>.
+     *
+     * @return La variable d'instance <code>this.membreFacade</code>
+     */
+    public IMembreFacade getMembreFacade() {
+        return this.membreFacade;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.pretFacade</code>.
+     *
+     * @return La variable d'instance <code>this.pretFacade</code>
+     */
+    public IPretFacade getPretFacade() {
+        return this.pretFacade;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.reservationFacade</code>.
+     *
+     * @return La variable d'instance <code>this.reservationFacade</code>
+     */
+    public IReservationFacade getReservationFacade() {
+        return this.reservationFacade;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreMembres</code>.
+     *
+     * @return La variable d'instance <code>this.nombreMembres</code>
+     */
+    public int getNombreMembres() {
+        return this.nombreMembres;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreLivres</code>.
+     *
+     * @return La variable d'instance <code>this.nombreLivres</code>
+     */
+    public int getNombreLivres() {
+        return this.nombreLivres;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombrePrets</code>.
+     *
+     * @return La variable d'instance <code>this.nombrePrets</code>
+     */
+    public int getNombrePrets() {
+        return this.nombrePrets;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreReserves</code>.
+     *
+     * @return La variable d'instance <code>this.nombreReserves</code>
+     */
+    public int getNombreReserves() {
+        return this.nombreReserves;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Retourne l'ID d'un membre du jeu de données.
+     *
+     * @param index L'index du membre
+     * @return L'ID du membre
+     */
+    public String getIdMembre(int index) {
+        return this.idMembres[index];
+    }
+
+    /**
+     * Retourne l'ID d'un livre du jeu de données.
+     *
+     * @param index L'index du livre
+     * @return L'ID du livre
+     */
+    public String getIdLivre(int index) {
+        return this.idLivres[index];
+    }
+
+    /**
+     * Retourne l'ID du prêt d'un livre prêté du jeu de données.
+     *
+     * @param index L'index du livre, inférieur à {@link #getNombrePrets()}
+     * @return L'ID du prêt
+     */
+    public String getIdPret(int index) {
+        return this.idPrets[index];
+    }
+
+    /**
+     * Retourne l'index de l'emprunteur d'un livre prêté du jeu de données.
+     *
+     * @param index L'index du livre
+     * @return L'index du membre
+     */
+    public int getEmprunteur(int index) {
+        return index % this.nombreMembres;
+    }
+
+    /**
+     * Retourne l'index du membre qui réserve un livre prêté du jeu de données : le membre qui suit l'emprunteur.
+     *
+     * @param index L'index du livre
+     * @return L'index du membre
+     */
+    public int getReservataire(int index) {
+        return (index + 1) % this.nombreMembres;
+    }
+
+    /**
+     * Charge le contexte Spring et le jeu de données.
+     *
+     * @throws Exception S'il y a une erreur
+     */
+    @Setup(Level.Trial)
+    public void charger() throws Exception {
+        if(this.nombreMembres < 2
+            || this.nombreLivres < 1) {
+            throw new IllegalArgumentException("Il faut au moins 2 membres et 1 livre");
+        }
+        this.applicationContext = new ClassPathXmlApplicationContext(EtatBibliotheque.APPLICATION_CONTEXT_FILENAMES);
+        this.sessionFactory = (SessionFactory) this.applicationContext.getBean("sessionFactory");
+        this.livreFacade = (ILivreFacade) this.applicationContext.getBean("livreFacade");
+        this.membreFacade = (IMembreFacade) this.applicationContext.getBean("membreFacade");
+        this.pretFacade = (IPretFacade) this.applicationContext.getBean("pretFacade");
+        this.reservationFacade = (IReservationFacade) this.applicationContext.getBean("reservationFacade");
+        this.nombrePrets = Math.min(this.nombreLivres / 2,
+            this.nombreMembres * EtatBibliotheque.PRETS_PAR_MEMBRE);
+        this.nombreReserves = this.nombrePrets / 2;
+        this.idMembres = new String[this.nombreMembres];
+        this.idLivres = new String[this.nombreLivres];
+        this.idPrets = new String[this.nombrePrets];
+        inscrireMembres();
+        acquerirLivres();
+        commencerPrets();
+        placerReservations();
+    }
+
+    /**
+     * Ferme le contexte Spring.
+     */
+    @TearDown(Level.Trial)
+    public void fermer() {
+        if(this.applicationContext != null) {
+            this.applicationContext.close();
+        }
+    }
+
+    /**
+     * Fait un travail dans une transaction, dans une nouvelle session : la transaction est validée si le travail réussit, annulée sinon.
+     *
+     * @param <T> Le type du résultat du travail
+     * @param travail Le travail à faire
+     * @return Le résultat du travail
+     * @throws Exception S'il y a une erreur
+     */
+    public <T> T executer(Travail<T> travail) throws Exception {
+        final Session session = this.sessionFactory.openSession();
+        try {
+            final Transaction transaction = session.beginTransaction();
+            boolean validee = false;
+            try {
+                final T resultat = travail.executer(session);
+                transaction.commit();
+                validee = true;
+                return resultat;
+            } finally {
+                if(!validee) {
+                    transaction.rollback();
+                }
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Inscrit les membres du jeu de données.
+     *
+     * @throws Exception S'il y a une erreur
+     */
+    private void inscrireMembres() throws Exception {
+        for(int debut = 0; debut < this.nombreMembres; debut += EtatBibliotheque.TAILLE_LOT) {
+            final int lot = debut;
+            executer(new Travail<Void>() {
+                @Override
+                public Void executer(Session session) throws Exception {
+                    for(int index = lot; index < Math.min(lot + EtatBibliotheque.TAILLE_LOT,
+                        EtatBibliotheque.this.nombreMembres); index++) {
+                        final MembreDTO membreDTO = new MembreDTO();
+                        membreDTO.setNom("M"
+                            + index);
+                        membreDTO.setTelephone(String.valueOf(5145550000L + index));
+                        membreDTO.setLimitePret(EtatBibliotheque.LIMITE_PRET);
+                        EtatBibliotheque.this.membreFacade.inscrire(session,
+                            membreDTO);
+                        EtatBibliotheque.this.idMembres[index] = membreDTO.getIdMembre();
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Acquiert les livres du jeu de données. Les titres sont uniques ; les auteurs se répètent, pour que les recherches par auteur
+     * trouvent plusieurs livres.
+     *
+     * @throws Exception S'il y a une erreur
+     */
+    private void acquerirLivres() throws Exception {
+        final Timestamp dateAcquisition = new Timestamp(System.currentTimeMillis());
+        for(int debut = 0; debut < this.nombreLivres; debut += EtatBibliotheque.TAILLE_LOT) {
+            final int lot = debut;
+            executer(new Travail<Void>() {
+                @Override
+                public Void executer(Session session) throws Exception {
+                    for(int index = lot; index < Math.min(lot + EtatBibliotheque.TAILLE_LOT,
+                        EtatBibliotheque.this.nombreLivres); index++) {
+                        final LivreDTO livreDTO = new LivreDTO();
+                        livreDTO.setTitre("Titre "
+                            + index);
+                        livreDTO.setAuteur("Auteur "
+                            + index % EtatBibliotheque.NOMBRE_AUTEURS);
+                        livreDTO.setDateAcquisition(dateAcquisition);
+                        EtatBibliotheque.this.livreFacade.acquerir(session,
+                            livreDTO);
+                        EtatBibliotheque.this.idLivres[index] = livreDTO.getIdLivre();
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Prête les livres des deux premières tranches.
+     *
+     * @throws Exception S'il y a une erreur
+     */
+    private void commencerPrets() throws Exception {
+        for(int debut = 0; debut < this.nombrePrets; debut += EtatBibliotheque.TAILLE_LOT) {
+            final int lot = debut;
+            executer(new Travail<Void>() {
+                @Override
+                public Void executer(Session session) throws Exception {
+                    for(int index = lot; index < Math.min(lot + EtatBibliotheque.TAILLE_LOT,
+                        EtatBibliotheque.this.nombrePrets); index++) {
+                        final PretDTO pretDTO = new PretDTO();
+                        pretDTO.setMembreDTO((MembreDTO) EtatBibliotheque.this.membreFacade.get(session,
+                            getIdMembre(getEmprunteur(index))));
+                        pretDTO.setLivreDTO((LivreDTO) EtatBibliotheque.this.livreFacade.get(session,
+                            getIdLivre(index)));
+                        EtatBibliotheque.this.pretFacade.commencer(session,
+                            pretDTO);
+                        EtatBibliotheque.this.idPrets[index] = pretDTO.getIdPret();
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Réserve les livres de la première tranche.
+     *
+     * @throws Exception S'il y a une erreur
+     */
+    private void placerReservations() throws Exception {
+        for(int debut = 0; debut < this.nombreReserves; debut += EtatBibliotheque.TAILLE_LOT) {
+            final int lot = debut;
+            executer(new Travail<Void>() {
+                @Override
+                public Void executer(Session session) throws Exception {
+                    for(int index = lot; index < Math.min(lot + EtatBibliotheque.TAILLE_LOT,
+                        EtatBibliotheque.this.nombreReserves); index++) {
+                        final ReservationDTO reservationDTO = new ReservationDTO();
+                        reservationDTO.setMembreDTO((MembreDTO) EtatBibliotheque.this.membreFacade.get(session,
+                            getIdMembre(getReservataire(index))));
+                        reservationDTO.setLivreDTO((LivreDTO) EtatBibliotheque.this.livreFacade.get(session,
+                            getIdLivre(index)));
+                        EtatBibliotheque.this.reservationFacade.placer(session,
+                            reservationDTO);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// Fichier FilBibliotheque.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Part du jeu de données d'un fil d'exécution d'un banc d'essai.<br />
+ * Les bancs d'essai qui écrivent parcourent une tranche de livres de {@link EtatBibliotheque} ; chaque fil n'en prend que les livres dont
+ * l'index de l'emprunteur est congru à son numéro modulo le nombre de fils. Deux fils ne se disputent donc ni un livre, ni un emprunteur,
+ * ni un réservataire (le membre qui suit l'emprunteur), et un conflit est une erreur du back-end, pas du banc d'essai.
+ *
+ * @author Gilles Bénichou
+ */
+@State(Scope.Thread)
+public class FilBibliotheque {
+    private int numero;
+
+    private int nombreFils;
+
+    private int nombreMembres;
+
+    private int curseur;
+
+    private Random random;
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.numero</code>.
+     *
+     * @return La variable d'instance <code>this.numero</code>
+     */
+    public int getNumero() {
+        return this.numero;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreFils</code>.
+     *
+     * @return La variable d'instance <code>this.nombreFils</code>
+     */
+    public int getNombreFils() {
+        return this.nombreFils;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Retient le numéro du fil et le nombre de fils du banc d'essai.
+     *
+     * @param etat La base de données
+     * @param threadParams Les paramètres du fil
+     */
+    @Setup(Level.Trial)
+    public void preparer(EtatBibliotheque etat,
+        ThreadParams threadParams) {
+        this.numero = threadParams.getThreadIndex();
+        this.nombreFils = threadParams.getThreadCount();
+        this.nombreMembres = etat.getNombreMembres();
+        this.curseur = 0;
+        this.random = new Random(this.numero);
+    }
+
+    /**
+     * Retourne l'index du prochain livre du fil dans une tranche, en recommençant au début de la tranche après le dernier.
+     *
+     * @param debut L'index du premier livre de la tranche
+     * @param fin L'index qui suit le dernier livre de la tranche
+     * @return L'index du livre
+     */
+    public int suivant(int debut,
+        int fin) {
+        final int nombre = fin
+            - debut;
+        for(int essai = 0; essai < nombre; essai++) {
+            final int index = debut
+                + this.curseur % nombre;
+            this.curseur = (this.curseur + 1) % nombre;
+            if(index % this.nombreMembres % this.nombreFils == this.numero) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("La tranche de livres "
+            + debut
+            + " à "
+            + fin
+            + " n'a pas de livre pour le fil "
+            + this.numero
+            + " sur "
+            + this.nombreFils);
+    }
+
+    /**
+     * Retourne un index au hasard, pour les bancs d'essai qui ne font que lire.
+     *
+     * @param nombre Le nombre d'index possibles
+     * @return Un index de <code>0</code> à <code>nombre</code> exclus
+     */
+    public int auHasard(int nombre) {
+        return this.random.nextInt(nombre);
+    }
+}
@@ -0,0 +1,53 @@
+// Fichier Lanceur.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance les bancs d'essai du back-end. Chaque banc d'essai mesure le débit, en opérations par milliseconde, et la distribution des
+ * durées, en percentiles ; le profileur du ramasse-miettes donne les octets alloués par opération (<code>gc.alloc.rate.norm</code>).<br />
+ * Les arguments sont ceux de JMH, par exemple <code>-f 1 -wi 1 -i 3 -t 4 -p nombreLivres=1000 PretBenchmark</code> ; sans expression
+ * régulière, tous les bancs d'essai du paquetage sont lancés, et sans <code>-prof</code>, le profileur du ramasse-miettes est ajouté.<br />
+ * Le classpath doit contenir <code>conf/spring</code>, <code>conf/log4j</code>, les jars de <code>lib</code> et les classes compilées avec
+ * le processeur d'annotations de JMH (<code>jmh-generator-annprocess</code>), qui génère la liste des bancs d'essai.
+ *
+ * @author Gilles Bénichou
+ */
+public final class Lanceur {
+    /**
+     * Constructeur privé : classe utilitaire.
+     */
+    private Lanceur() {
+        super();
+    }
+
+    /**
+     * Lance les bancs d'essai.
+     *
+     * @param arguments Les arguments de JMH
+     * @throws CommandLineOptionException Si les arguments sont invalides
+     * @throws RunnerException S'il y a une erreur pendant les bancs d'essai
+     */
+    public static void main(String[] arguments) throws CommandLineOptionException,
+        RunnerException {
+        final CommandLineOptions ligneDeCommande = new CommandLineOptions(arguments);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(ligneDeCommande);
+        if(ligneDeCommande.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if(ligneDeCommande.getIncludes().isEmpty()) {
+            options.include(Lanceur.class.getPackage().getName()
+                + "\\..*Benchmark");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+// Fichier LivreBenchmark.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.DTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bancs d'essai des lectures de la facade de livre, chacune dans sa transaction, sur des livres tirés au hasard.
+ *
+ * @author Gilles Bénichou
+ */
+@BenchmarkMode({Mode.Throughput,
+    Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3,
+    time = 5)
+@Measurement(iterations = 5,
+    time = 5)
+public class LivreBenchmark {
+    private static final int TAILLE_PAGE = 20;
+
+    /**
+     * Lit un livre par son ID.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return Le livre lu
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public LivreDTO get(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final String idLivre = etat.getIdLivre(fil.auHasard(etat.getNombreLivres()));
+        return etat.executer(new EtatBibliotheque.Travail<LivreDTO>() {
+            @Override
+            public LivreDTO executer(Session session) throws Exception {
+                return (LivreDTO) etat.getLivreFacade().get(session,
+                    idLivre);
+            }
+        });
+    }
+
+    /**
+     * Cherche les livres d'un auteur. Le dernier mot n'est que le début d'un mot : <code>Auteur 1</code> trouve aussi les auteurs 10 à 19.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return Les livres trouvés
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public List<LivreDTO> search(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final String recherche = "auteur "
+            + fil.auHasard(10);
+        return etat.executer(new EtatBibliotheque.Travail<List<LivreDTO>>() {
+            @Override
+            public List<LivreDTO> executer(Session session) throws Exception {
+                return etat.getLivreFacade().search(session,
+                    recherche);
+            }
+        });
+    }
+
+    /**
+     * Lit une page de livres, à partir d'un livre tiré au hasard.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return Les livres de la page
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public List<? extends DTO> getPage(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final String idLivre = etat.getIdLivre(fil.auHasard(etat.getNombreLivres()));
+        return etat.executer(new EtatBibliotheque.Travail<List<? extends DTO>>() {
+            @Override
+            public List<? extends DTO> executer(Session session) throws Exception {
+                return etat.getLivreFacade().getPage(session,
+                    idLivre,
+                    LivreBenchmark.TAILLE_PAGE);
+            }
+        });
+    }
+}
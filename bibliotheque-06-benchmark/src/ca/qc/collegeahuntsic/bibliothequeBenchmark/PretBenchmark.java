@@ -0,0 +1,98 @@
+// Fichier PretBenchmark.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bancs d'essai de la facade de prêt. Chaque opération laisse le jeu de données dans l'état où elle l'a trouvé : le débit ne dérive pas au
+ * fil des itérations.
+ *
+ * @author Gilles Bénichou
+ */
+@BenchmarkMode({Mode.Throughput,
+    Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3,
+    time = 5)
+@Measurement(iterations = 5,
+    time = 5)
+public class PretBenchmark {
+    /**
+     * Prête un livre disponible à son membre, puis le retourne : deux transactions, comme les commandes <code>preter</code> et
+     * <code>retourner</code>.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return Le prêt terminé
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public PretDTO commencerEtTerminer(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final int index = fil.suivant(etat.getNombrePrets(),
+            etat.getNombreLivres());
+        final String idPret = etat.executer(new EtatBibliotheque.Travail<String>() {
+            @Override
+            public String executer(Session session) throws Exception {
+                final PretDTO pretDTO = new PretDTO();
+                pretDTO.setMembreDTO((MembreDTO) etat.getMembreFacade().get(session,
+                    etat.getIdMembre(etat.getEmprunteur(index))));
+                pretDTO.setLivreDTO((LivreDTO) etat.getLivreFacade().get(session,
+                    etat.getIdLivre(index)));
+                etat.getPretFacade().commencer(session,
+                    pretDTO);
+                return pretDTO.getIdPret();
+            }
+        });
+        return etat.executer(new EtatBibliotheque.Travail<PretDTO>() {
+            @Override
+            public PretDTO executer(Session session) throws Exception {
+                final PretDTO pretDTO = (PretDTO) etat.getPretFacade().get(session,
+                    idPret);
+                etat.getPretFacade().terminer(session,
+                    pretDTO);
+                return pretDTO;
+            }
+        });
+    }
+
+    /**
+     * Renouvelle un prêt sans réservation : une transaction, comme la commande <code>renouveler</code>.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return Le prêt renouvelé
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public PretDTO renouveler(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final int index = fil.suivant(etat.getNombreReserves(),
+            etat.getNombrePrets());
+        return etat.executer(new EtatBibliotheque.Travail<PretDTO>() {
+            @Override
+            public PretDTO executer(Session session) throws Exception {
+                final PretDTO pretDTO = (PretDTO) etat.getPretFacade().get(session,
+                    etat.getIdPret(index));
+                etat.getPretFacade().renouveler(session,
+                    pretDTO);
+                return pretDTO;
+            }
+        });
+    }
+}
@@ -0,0 +1,183 @@
+// Fichier ReservationBenchmark.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Bancs d'essai de la facade de réservation. Chaque opération laisse le jeu de données dans l'état où elle l'a trouvé, aux rôles des
+ * membres près : le débit ne dérive pas au fil des itérations.
+ *
+ * @author Gilles Bénichou
+ */
+@BenchmarkMode({Mode.Throughput,
+    Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3,
+    time = 5)
+@Measurement(iterations = 5,
+    time = 5)
+public class ReservationBenchmark {
+    private static final String PRET_EN_COURS_REQUEST = "SELECT idPret "
+        + "FROM pret "
+        + "WHERE idLivrePrete = :idLivre";
+
+    /**
+     * Le livre qu'un fil fait passer d'un membre à l'autre par {@link ReservationBenchmark#placerEtUtiliser(EtatBibliotheque, Cycle)} :
+     * un livre prêté sans réservation, propre au fil. Le fil <code>n</code> prend le livre <code>2 n</code> de la tranche : ses deux
+     * membres ne servent à aucun autre fil.
+     *
+     * @author Gilles Bénichou
+     */
+    @State(Scope.Thread)
+    public static class Cycle {
+        private int index;
+
+        private int emprunteur;
+
+        private int reservataire;
+
+        private String idPret;
+
+        /**
+         * Choisit le livre du fil.
+         *
+         * @param etat La base de données
+         * @param threadParams Les paramètres du fil
+         */
+        @Setup(Level.Trial)
+        public void preparer(EtatBibliotheque etat,
+            ThreadParams threadParams) {
+            this.index = etat.getNombreReserves()
+                + 2
+                * threadParams.getThreadIndex();
+            if(this.index >= etat.getNombrePrets()
+                || 2 * threadParams.getThreadCount() > etat.getNombreMembres()) {
+                throw new IllegalStateException("Il n'y a pas assez de livres prêtés sans réservation ou de membres pour "
+                    + threadParams.getThreadCount()
+                    + " fils");
+            }
+            this.emprunteur = etat.getEmprunteur(this.index);
+            this.reservataire = etat.getReservataire(this.index);
+            this.idPret = etat.getIdPret(this.index);
+        }
+    }
+
+    /**
+     * Réserve un livre prêté, puis annule la réservation : deux transactions, comme les commandes <code>reserver</code> et
+     * <code>annuler</code>.
+     *
+     * @param etat La base de données
+     * @param fil La part du jeu de données du fil
+     * @return La réservation annulée
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public ReservationDTO placerEtAnnuler(final EtatBibliotheque etat,
+        FilBibliotheque fil) throws Exception {
+        final int index = fil.suivant(etat.getNombreReserves(),
+            etat.getNombrePrets());
+        final String idReservation = placer(etat,
+            index,
+            etat.getReservataire(index));
+        return etat.executer(new EtatBibliotheque.Travail<ReservationDTO>() {
+            @Override
+            public ReservationDTO executer(Session session) throws Exception {
+                final ReservationDTO reservationDTO = (ReservationDTO) etat.getReservationFacade().get(session,
+                    idReservation);
+                etat.getReservationFacade().annuler(session,
+                    reservationDTO);
+                return reservationDTO;
+            }
+        });
+    }
+
+    /**
+     * Fait passer le livre du fil de son emprunteur à un autre membre : le second membre le réserve, le premier le retourne, puis le
+     * second utilise sa réservation. Trois transactions, comme les commandes <code>reserver</code>, <code>retourner</code> et
+     * <code>utiliser</code> ; les deux membres échangent ensuite leurs rôles.
+     *
+     * @param etat La base de données
+     * @param cycle Le livre du fil
+     * @return L'ID du nouveau prêt
+     * @throws Exception S'il y a une erreur
+     */
+    @Benchmark
+    public String placerEtUtiliser(final EtatBibliotheque etat,
+        final Cycle cycle) throws Exception {
+        final String idReservation = placer(etat,
+            cycle.index,
+            cycle.reservataire);
+        etat.executer(new EtatBibliotheque.Travail<Void>() {
+            @Override
+            public Void executer(Session session) throws Exception {
+                etat.getPretFacade().terminer(session,
+                    (PretDTO) etat.getPretFacade().get(session,
+                        cycle.idPret));
+                return null;
+            }
+        });
+        cycle.idPret = etat.executer(new EtatBibliotheque.Travail<String>() {
+            @Override
+            public String executer(Session session) throws Exception {
+                etat.getReservationFacade().utiliser(session,
+                    (ReservationDTO) etat.getReservationFacade().get(session,
+                        idReservation));
+                // Le prêt créé par utiliser n'est pas retourné : on le retrouve par l'index unique des prêts en cours
+                return String.valueOf(session.createSQLQuery(ReservationBenchmark.PRET_EN_COURS_REQUEST).setString("idLivre",
+                    etat.getIdLivre(cycle.index)).uniqueResult());
+            }
+        });
+        final int emprunteur = cycle.emprunteur;
+        cycle.emprunteur = cycle.reservataire;
+        cycle.reservataire = emprunteur;
+        return cycle.idPret;
+    }
+
+    /**
+     * Réserve un livre prêté pour un membre, dans une transaction.
+     *
+     * @param etat La base de données
+     * @param index L'index du livre
+     * @param membre L'index du membre
+     * @return L'ID de la réservation
+     * @throws Exception S'il y a une erreur
+     */
+    private static String placer(final EtatBibliotheque etat,
+        final int index,
+        final int membre) throws Exception {
+        return etat.executer(new EtatBibliotheque.Travail<String>() {
+            @Override
+            public String executer(Session session) throws Exception {
+                final ReservationDTO reservationDTO = new ReservationDTO();
+                reservationDTO.setMembreDTO((MembreDTO) etat.getMembreFacade().get(session,
+                    etat.getIdMembre(membre)));
+                reservationDTO.setLivreDTO((LivreDTO) etat.getLivreFacade().get(session,
+                    etat.getIdLivre(index)));
+                etat.getReservationFacade().placer(session,
+                    reservationDTO);
+                return reservationDTO.getIdReservation();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+// Fichier package-info.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+/**
+ * Provides the JMH benchmarks of the bibliothèque back-end, run against an embedded H2 database.
+ *
+ * @author Gilles Bénichou
+ */
+
+package ca.qc.collegeahuntsic.bibliothequeBenchmark;
@@ -4,20 +4,26 @@
 
 package ca.qc.collegeahuntsic.bibliotheque;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.sql.Timestamp;
 import java.text.ParseException;
-import java.util.StringTokenizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import ca.qc.collegeahuntsic.bibliotheque.exception.BibliothequeException;
 import ca.qc.collegeahuntsic.bibliotheque.util.BibliothequeCreateur;
-import ca.qc.collegeahuntsic.bibliotheque.util.FormatteurDate;
+import ca.qc.collegeahuntsic.bibliotheque.util.Commande;
+import ca.qc.collegeahuntsic.bibliotheque.util.ExecuteurParallele;
+import ca.qc.collegeahuntsic.bibliotheque.util.LecteurTransactions;
+import ca.qc.collegeahuntsic.bibliotheque.util.Operation;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.LivreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.MembreDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.PretDTO;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.dto.ReservationDTO;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidCriterionValueException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidHibernateSessionException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dao.InvalidPrimaryKeyException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.exception.dto.InvalidDTOException;
@@ -37,11 +43,13 @@ import org.apache.commons.logging.LogFactory;
  * {@link Bibliotheque#afficherAide() afficherAide()}.<br /><br />
  *
  * Paramètres :<br />
- * 0- site du serveur SQL ("local", "distant" ou "postgres")<br />
- * 1- nom de la BD<br />
- * 2- user id pour établir une connexion avec le serveur SQL<br />
- * 3- mot de passe pour le user id<br />
- * 4- fichier de transaction<br /><br />
+ * 0- fichier de transaction<br />
+ * 1- nombre de transactions par validation (facultatif, 1 par défaut) ; chaque transaction d'un groupe est isolée par un point de
+ * sauvegarde<br />
+ * 2- délai maximal en millisecondes avant de valider un groupe de transactions (facultatif, aucun par défaut)<br />
+ * 3- nombre de fils d'exécution (facultatif, 1 par défaut) ; à partir de 2, les transactions qui ne touchent ni le même livre ni le même
+ * membre s'exécutent en parallèle, chacune validée séparément, et leurs messages sont affichés dans l'ordre du fichier<br />
+ * La base de données est choisie par la propriété système <code>bibliotheque.base</code> (voir {@link BibliothequeCreateur}).<br /><br />
  *
  * Pré-condition :<br />
  *   La base de données de la bibliothèque doit exister<br /><br />
@@ -52,10 +60,38 @@ import org.apache.commons.logging.LogFactory;
  * @author Gilles Bénichou
  */
 public final class Bibliotheque {
-    private static BibliothequeCreateur gestionnaireBibliotheque;
+    private static final ThreadLocal<List<Message>> JOURNAUX = new ThreadLocal<>();
+
+    private static final ThreadLocal<Commande> COMMANDES = new ThreadLocal<Commande>() {
+        @Override
+        protected Commande initialValue() {
+            return new Commande();
+        }
+    };
+
+    private static final String DOMAINE_LIVRE = "livre";
+
+    private static final String DOMAINE_MEMBRE = "membre";
+
+    private static final String DOMAINE_PRET = "pret";
+
+    private static final String DOMAINE_RESERVATION = "reservation";
+
+    private static final int MAXIMUM_TRANSACTIONS_EN_COURS = 10000;
+
+    private static final int MAXIMUM_TENTATIVES = 5;
+
+    private static final long DELAI_TENTATIVE = 10;
+
+    private static final AtomicInteger REPRISES = new AtomicInteger();
 
     private static final Log LOGGER = LogFactory.getLog(Bibliotheque.class);
 
+    private static final Log TRANSACTIONS = LogFactory.getLog(Bibliotheque.class.getName()
+        + ".transactions");
+
+    private static BibliothequeCreateur gestionnaire;
+
     /**
      * Constructeur privé pour empêcher toute instanciation.
      */
@@ -72,120 +108,487 @@ public final class Bibliotheque {
     public static void main(String[] arguments) throws Exception {
         // Validation du nombre de paramètres
         if(arguments.length < 1) {
-            Bibliotheque.LOGGER.info("Usage: java Bibliotheque <fichier-transactions>");
+            Bibliotheque.info("Usage: java Bibliotheque <fichier-transactions> [<taille-groupe> [<latence-maximale-ms> [<nombre-fils>]]]");
             return;
         }
 
         try {
             // Ouverture du fichier de transactions
-            final InputStream sourceTransaction = Bibliotheque.class.getResourceAsStream("/"
-                + arguments[0]);
             try(
-                BufferedReader reader = new BufferedReader(new InputStreamReader(sourceTransaction))) {
+                LecteurTransactions lecteur = LecteurTransactions.ouvrir(arguments[0])) {
 
-                Bibliotheque.gestionnaireBibliotheque = new BibliothequeCreateur();
-                Bibliotheque.traiterTransactions(reader);
+                final int nombreFils = arguments.length > 3 ? Integer.parseInt(arguments[3]) : 1;
+                Bibliotheque.gestionnaire = new BibliothequeCreateur(nombreFils);
+                if(arguments.length > 1) {
+                    Bibliotheque.getGestionnaire().setGroupe(Integer.parseInt(arguments[1]),
+                        arguments.length > 2 ? Long.parseLong(arguments[2]) : 0);
+                }
+                if(nombreFils > 1) {
+                    Bibliotheque.traiterTransactionsEnParallele(lecteur,
+                        nombreFils);
+                } else {
+                    Bibliotheque.traiterTransactions(lecteur);
+                }
             }
         } catch(IOException ioException) {
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.erreur(" **** "
                 + ioException.getMessage());
+        } catch(NumberFormatException numberFormatException) {
+            Bibliotheque.erreur(" **** Taille de groupe, latence ou nombre de fils invalide : "
+                + numberFormatException.getMessage());
         } catch(BibliothequeException bibliothequeException) {
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.erreur(" **** "
                 + bibliothequeException.getMessage());
         }
     }
 
     /**
-     * Traite le fichier de transactions.
+     * Traite le fichier de transactions, puis affiche le débit obtenu.
      *
-     * @param reader Le flux d'entrée à lire
+     * @param lecteur Le fichier de transactions à lire
      * @throws Exception Si une erreur survient
      */
-    private static void traiterTransactions(BufferedReader reader) throws Exception {
+    private static void traiterTransactions(LecteurTransactions lecteur) throws Exception {
         Bibliotheque.afficherAide();
-        Bibliotheque.LOGGER.info("\n\n\n");
-        String transaction = Bibliotheque.lireTransaction(reader);
-        while(!Bibliotheque.finTransaction(transaction)) {
-            // Découpage de la transaction en mots
-            final StringTokenizer tokenizer = new StringTokenizer(transaction,
-                " ");
-            if(tokenizer.hasMoreTokens()) {
-                Bibliotheque.executerTransaction(tokenizer);
+        Bibliotheque.info("\n\n\n");
+        final List<String> groupe = new ArrayList<>();
+        final Commande commande = Bibliotheque.COMMANDES.get();
+        final long debut = System.nanoTime();
+        int nombreTransactions = 0;
+        boolean lue = lecteur.lire(commande);
+        while(!Bibliotheque.finTransaction(lue,
+            commande)) {
+            Bibliotheque.afficherTransaction(commande);
+            Bibliotheque.traiterTransaction(commande,
+                groupe);
+            nombreTransactions++;
+            lue = lecteur.lire(commande);
+        }
+        Bibliotheque.afficherFin(lue,
+            commande);
+        Bibliotheque.terminerGroupe(groupe);
+        Bibliotheque.afficherDebit(nombreTransactions,
+            Bibliotheque.getGestionnaire().getValidationsTotales(),
+            Bibliotheque.getGestionnaire().getTailleGroupe(),
+            System.nanoTime() - debut);
+    }
+
+    /**
+     * Traite le fichier de transactions sur plusieurs fils, puis affiche le débit obtenu.<br />
+     * Les transactions qui touchent le même livre ou le même membre (voir {@link #getCles(Commande)}) s'exécutent dans l'ordre du fichier,
+     * les autres en parallèle. Les fils partagent le {@link BibliothequeCreateur}, qui donne à chacun sa propre session, et chaque
+     * transaction est validée séparément : une transaction n'est visible des suivantes qu'une fois validée. Les messages de chaque transaction sont retenus, puis
+     * affichés dans l'ordre du fichier.
+     *
+     * @param lecteur Le fichier de transactions à lire
+     * @param nombreFils Le nombre de fils d'exécution
+     * @throws Exception Si une erreur survient
+     */
+    private static void traiterTransactionsEnParallele(LecteurTransactions lecteur,
+        int nombreFils) throws Exception {
+        if(Bibliotheque.getGestionnaire().getTailleGroupe() > 1) {
+            Bibliotheque.info("Les transactions ne sont pas regroupées quand elles s'exécutent en parallèle");
+            Bibliotheque.getGestionnaire().setGroupe(1,
+                0);
+        }
+        Bibliotheque.afficherAide();
+        Bibliotheque.info("\n\n\n");
+        final ExecuteurParallele executeurParallele = new ExecuteurParallele(nombreFils);
+        final Deque<CommandeParallele> commandes = new ArrayDeque<>();
+        final Commande commandeLue = Bibliotheque.COMMANDES.get();
+        final long debut = System.nanoTime();
+        int nombreTransactions = 0;
+        boolean lue = lecteur.lire(commandeLue);
+        while(!Bibliotheque.finTransaction(lue,
+            commandeLue)) {
+            final CommandeParallele commande = new CommandeParallele(commandeLue.getTexte());
+            commande.setTache(executeurParallele.soumettre(Bibliotheque.getCles(commandeLue),
+                commande));
+            commandes.add(commande);
+            nombreTransactions++;
+            while(!commandes.isEmpty()
+                && (commandes.size() >= Bibliotheque.MAXIMUM_TRANSACTIONS_EN_COURS
+                    || commandes.peek().getTache().isTerminee())) {
+                commandes.poll().afficher();
             }
-            transaction = Bibliotheque.lireTransaction(reader);
+            lue = lecteur.lire(commandeLue);
+        }
+        while(!commandes.isEmpty()) {
+            commandes.poll().afficher();
         }
+        Bibliotheque.afficherFin(lue,
+            commandeLue);
+        executeurParallele.arreter();
+        Bibliotheque.afficherDebit(nombreTransactions,
+            Bibliotheque.getGestionnaire().getValidationsTotales(),
+            1,
+            System.nanoTime() - debut);
     }
 
     /**
-     * Lit une transaction.
+     * Calcule les clés d'une transaction pour {@link ExecuteurParallele} : le livre et le membre qu'elle touche. Une transaction qui crée un
+     * livre ou un membre couvre tout son domaine, puisque son ID n'est connu qu'à l'exécution. Une transaction qui désigne un prêt ou une
+     * réservation couvre les deux domaines, puisque le livre et le membre concernés ne sont connus qu'en lisant la base.<br />
+     * Une transaction qui crée un prêt ou une réservation couvre aussi tout le domaine <code>pret</code> ou <code>reservation</code> : les
+     * créations d'un même domaine s'exécutent dans l'ordre du fichier et tirent leurs IDs de la séquence dans cet ordre.
      *
-     * @param reader Le flux d'entrée à lire
-     * @return La transaction lue
-     * @throws IOException Si une erreur de lecture survient
+     * @param commande La transaction découpée
+     * @return Les clés de la transaction ; une liste vide si elle ne touche pas la base de données
      */
-    private static String lireTransaction(BufferedReader reader) throws IOException {
-        final String transaction = reader.readLine();
-        if(transaction != null) {
-            Bibliotheque.LOGGER.info("> "
-                + transaction);
+    private static List<String> getCles(Commande commande) {
+        final List<String> cles = new ArrayList<>();
+        switch(commande.getOperation()) {
+            case ACQUERIR:
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_LIVRE));
+                break;
+            case VENDRE:
+                cles.add(Bibliotheque.getCle(commande,
+                    0,
+                    Bibliotheque.DOMAINE_LIVRE));
+                break;
+            case PRETER:
+                cles.add(Bibliotheque.getCle(commande,
+                    0,
+                    Bibliotheque.DOMAINE_MEMBRE));
+                cles.add(Bibliotheque.getCle(commande,
+                    1,
+                    Bibliotheque.DOMAINE_LIVRE));
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_PRET));
+                break;
+            case RESERVER:
+                cles.add(Bibliotheque.getCle(commande,
+                    0,
+                    Bibliotheque.DOMAINE_MEMBRE));
+                cles.add(Bibliotheque.getCle(commande,
+                    1,
+                    Bibliotheque.DOMAINE_LIVRE));
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_RESERVATION));
+                break;
+            case INSCRIRE:
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_MEMBRE));
+                break;
+            case DESINSCRIRE:
+                cles.add(Bibliotheque.getCle(commande,
+                    0,
+                    Bibliotheque.DOMAINE_MEMBRE));
+                break;
+            case RECHERCHER:
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_LIVRE));
+                break;
+            case UTILISER:
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_LIVRE));
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_MEMBRE));
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_PRET));
+                break;
+            case RENOUVELER:
+            case RETOURNER:
+            case ANNULER:
+            case RECOMPTER:
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_LIVRE));
+                cles.add(ExecuteurParallele.cles(Bibliotheque.DOMAINE_MEMBRE));
+                break;
+            default:
+                break;
         }
-        return transaction;
+        return cles;
     }
 
     /**
-     * Décode et traite une transaction.
+     * Lit la clé d'un ID de la transaction.
      *
-     * @param tokenizer L'entrée à décoder
+     * @param commande La transaction découpée
+     * @param index L'index de l'argument qui contient l'ID
+     * @param domaine Le domaine de l'ID
+     * @return La clé de l'ID ; la clé de tout le domaine si l'ID manque
+     */
+    private static String getCle(Commande commande,
+        int index,
+        String domaine) {
+        return index < commande.getNombreArguments() ? ExecuteurParallele.cle(domaine,
+            commande.getArgument(index)) : ExecuteurParallele.cles(domaine);
+    }
+
+    /**
+     * Traite une transaction dans le groupe en cours. Si elle échoue, seule sa part de la transaction de base de données du groupe est
+     * annulée, jusqu'au point de sauvegarde posé à son début : les transactions déjà réussies du groupe gardent leurs écritures et leurs
+     * IDs. Les transactions réussies du groupe ne sont rejouées que si toute la transaction de base de données a été annulée.
+     *
+     * @param commande La transaction découpée
+     * @param groupe Les transactions réussies du groupe en cours ; elles ne sont retenues que si le groupe compte plusieurs transactions
+     * @throws BibliothequeException Si une erreur survient
+     */
+    private static void traiterTransaction(Commande commande,
+        List<String> groupe) throws BibliothequeException {
+        final int commandesDuGroupe = Bibliotheque.getGestionnaire().getCommandesDuGroupe();
+        final int validations = Bibliotheque.getGestionnaire().getValidations();
+        // Le texte est retenu avant l'exécution : la commande est réutilisée si le groupe doit être rejoué
+        final String transaction = Bibliotheque.getGestionnaire().getTailleGroupe() > 1 ? commande.getTexte() : null;
+        if(!commande.isVide()) {
+            Bibliotheque.executerTransaction(commande);
+        }
+        if(Bibliotheque.getGestionnaire().isCommandeEnCours()) {
+            // La transaction a échoué sans annuler sa transaction de base de données
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+        }
+        if(Bibliotheque.getGestionnaire().reprendreGroupe()) {
+            Bibliotheque.rejouerGroupe(groupe);
+        } else if(Bibliotheque.getGestionnaire().getCommandesDuGroupe() == 0
+            || transaction == null) {
+            groupe.clear();
+        } else if(Bibliotheque.getGestionnaire().getValidations() != validations) {
+            // Le groupe précédent a été validé au début de cette transaction
+            groupe.clear();
+            groupe.add(transaction);
+        } else if(Bibliotheque.getGestionnaire().getCommandesDuGroupe() > commandesDuGroupe) {
+            groupe.add(transaction);
+        }
+    }
+
+    /**
+     * Rejoue les transactions réussies d'un groupe dont toute la transaction de base de données a été annulée, parce que sa validation a
+     * échoué ou que la base n'avait plus le point de sauvegarde d'une transaction. Les transactions rejouées qui créent un livre, un
+     * membre, un prêt ou une réservation reçoivent de nouveaux IDs.
+     *
+     * @param groupe Les transactions réussies du groupe annulé ; la liste est remplie par les transactions rejouées
      * @throws BibliothequeException Si une erreur survient
      */
-    private static void executerTransaction(StringTokenizer tokenizer) {
+    private static void rejouerGroupe(List<String> groupe) throws BibliothequeException {
+        final List<String> transactionsARejouer = new ArrayList<>(groupe);
+        groupe.clear();
+        final Commande commandeARejouer = new Commande();
+        for(String transactionARejouer : transactionsARejouer) {
+            Bibliotheque.info("> (rejouée) "
+                + transactionARejouer);
+            commandeARejouer.analyser(transactionARejouer);
+            Bibliotheque.traiterTransaction(commandeARejouer,
+                groupe);
+        }
+    }
+
+    /**
+     * Valide le dernier groupe de transactions. Si la validation échoue, les transactions du groupe sont rejouées une fois, puis validées.
+     *
+     * @param groupe Les transactions réussies du groupe en cours
+     * @throws BibliothequeException Si la validation du groupe rejoué échoue
+     */
+    private static void terminerGroupe(List<String> groupe) throws BibliothequeException {
         try {
-            final String command = tokenizer.nextToken();
-
-            switch(command) {
-                case "aide":
-                    Bibliotheque.afficherAide();
-                    break;
-                case "acquerir":
-                    Bibliotheque.acquerir(tokenizer);
-                    break;
-                case "vendre":
-                    Bibliotheque.vendre(tokenizer);
-                    break;
-                case "preter":
-                    Bibliotheque.preter(tokenizer);
-                    break;
-                case "renouveler":
-                    Bibliotheque.renouveler(tokenizer);
-                    break;
-                case "retourner":
-                    Bibliotheque.retourner(tokenizer);
-                    break;
-                case "inscrire":
-                    Bibliotheque.inscrire(tokenizer);
-                    break;
-                case "desinscrire":
-                    Bibliotheque.desinscrire(tokenizer);
-                    break;
-                case "reserver":
-                    Bibliotheque.reserver(tokenizer);
-                    break;
-                case "utiliser":
-                    Bibliotheque.utiliser(tokenizer);
-                    break;
-                case "annuler":
-                    Bibliotheque.annuler(tokenizer);
-                    break;
-                case "--":
-                    break;
-                default:
-                    Bibliotheque.LOGGER.info("  Transactions non reconnue.  Essayer \"aide\"");
-                    break;
-            }
+            Bibliotheque.getGestionnaire().terminerGroupe();
         } catch(BibliothequeException bibliothequeException) {
-            Bibliotheque.LOGGER.error("** "
+            Bibliotheque.erreur("** "
                 + bibliothequeException.toString());
-            //Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
+        }
+        if(Bibliotheque.getGestionnaire().reprendreGroupe()) {
+            Bibliotheque.rejouerGroupe(groupe);
+            Bibliotheque.getGestionnaire().terminerGroupe();
+        }
+    }
+
+    /**
+     * Affiche le nombre de transactions traitées, le nombre de validations et le débit obtenu.
+     *
+     * @param nombreTransactions Le nombre de transactions traitées
+     * @param validations Le nombre de validations
+     * @param tailleGroupe Le nombre maximal de transactions par validation
+     * @param duree La durée du traitement, en nanosecondes
+     */
+    private static void afficherDebit(int nombreTransactions,
+        int validations,
+        int tailleGroupe,
+        long duree) {
+        final long millisecondes = Math.max(1,
+            duree / 1000000);
+        Bibliotheque.info(nombreTransactions
+            + " transaction(s) en "
+            + millisecondes
+            + " ms, "
+            + validations
+            + " validation(s) par groupes de "
+            + tailleGroupe
+            + " : "
+            + nombreTransactions * 1000L / millisecondes
+            + " transactions/s, "
+            + Bibliotheque.REPRISES.get()
+            + " reprise(s) après un conflit");
+        Bibliotheque.info(Bibliotheque.getGestionnaire().getStatistiques());
+    }
+
+    /**
+     * Affiche une transaction. Son texte n'est construit que si le message est affiché. L'écho passe par son propre logger,
+     * <code>Bibliotheque.transactions</code>, que <code>log4j.xml</code> échantillonne pendant les rejeux massifs.
+     *
+     * @param commande La transaction découpée
+     */
+    private static void afficherTransaction(Commande commande) {
+        if(Bibliotheque.TRANSACTIONS.isInfoEnabled()) {
+            final String message = "> "
+                + commande.getTexte();
+            final List<Message> journal = Bibliotheque.JOURNAUX.get();
+            if(journal == null) {
+                Bibliotheque.TRANSACTIONS.info(message);
+            } else {
+                journal.add(new Message(Bibliotheque.TRANSACTIONS,
+                    false,
+                    message));
+            }
+        }
+    }
+
+    /**
+     * Affiche la transaction qui a terminé le fichier, s'il y en a une.
+     *
+     * @param lue <code>true</code> si une transaction a été lue ; <code>false</code> à la fin du fichier
+     * @param commande La dernière transaction lue
+     */
+    private static void afficherFin(boolean lue,
+        Commande commande) {
+        if(lue) {
+            Bibliotheque.afficherTransaction(commande);
+        }
+    }
+
+    /**
+     * Retourne le {@link BibliothequeCreateur}, partagé par tous les fils.
+     *
+     * @return Le gestionnaire de la bibliothèque
+     */
+    private static BibliothequeCreateur getGestionnaire() {
+        return Bibliotheque.gestionnaire;
+    }
+
+    /**
+     * Affiche un message, ou le retient dans le journal de la transaction en cours si elle s'exécute en parallèle.
+     *
+     * @param message Le message
+     */
+    private static void info(String message) {
+        final List<Message> journal = Bibliotheque.JOURNAUX.get();
+        if(journal == null) {
+            Bibliotheque.LOGGER.info(message);
+        } else {
+            journal.add(new Message(Bibliotheque.LOGGER,
+                false,
+                message));
+        }
+    }
+
+    /**
+     * Affiche un message d'erreur, ou le retient dans le journal de la transaction en cours si elle s'exécute en parallèle.
+     *
+     * @param message Le message d'erreur
+     */
+    private static void erreur(String message) {
+        final List<Message> journal = Bibliotheque.JOURNAUX.get();
+        if(journal == null) {
+            Bibliotheque.LOGGER.error(message);
+        } else {
+            journal.add(new Message(Bibliotheque.LOGGER,
+                true,
+                message));
+        }
+    }
+
+    /**
+     * Traite une transaction. Si elle échoue sur un conflit avec une autre transaction (voir {@link BibliothequeCreateur#isConflit(Throwable)})
+     * et que son annulation n'a pas emporté le reste de son groupe, elle est recommencée jusqu'à {@value #MAXIMUM_TENTATIVES} fois, après
+     * une attente aléatoire dont le maximum double à chaque tentative : les fils en conflit ne se retrouvent pas à la même tentative.
+     *
+     * @param commande La transaction découpée
+     */
+    private static void executerTransaction(Commande commande) {
+        for(int tentative = 1; true; tentative++) {
+            try {
+                Bibliotheque.executerOperation(commande);
+                return;
+            } catch(BibliothequeException bibliothequeException) {
+                if(tentative >= Bibliotheque.MAXIMUM_TENTATIVES
+                    || !BibliothequeCreateur.isConflit(bibliothequeException)
+                    || Bibliotheque.getGestionnaire().isCommandeEnCours()
+                    || Bibliotheque.getGestionnaire().isGroupeAnnule()
+                    || !Bibliotheque.attendre(tentative)) {
+                    Bibliotheque.erreur("** "
+                        + bibliothequeException.toString());
+                    return;
+                }
+                Bibliotheque.REPRISES.incrementAndGet();
+                Bibliotheque.info("  Conflit avec une autre transaction, tentative "
+                    + (tentative + 1));
+                commande.recommencer();
+            }
+        }
+    }
+
+    /**
+     * Attend avant de recommencer une transaction en conflit, un délai aléatoire entre 0 et 10 ms fois 2 puissance (tentative - 1).
+     *
+     * @param tentative Le numéro de la tentative qui a échoué
+     * @return <code>true</code> si l'attente est terminée ; <code>false</code> si le fil a été interrompu
+     */
+    private static boolean attendre(int tentative) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong((Bibliotheque.DELAI_TENTATIVE << tentative - 1) + 1));
+            return true;
+        } catch(InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Traite une transaction selon son opération.
+     *
+     * @param commande La transaction découpée
+     * @throws BibliothequeException Si la transaction échoue
+     */
+    private static void executerOperation(Commande commande) throws BibliothequeException {
+        switch(commande.getOperation()) {
+            case AIDE:
+                Bibliotheque.afficherAide();
+                break;
+            case ACQUERIR:
+                Bibliotheque.acquerir(commande);
+                break;
+            case VENDRE:
+                Bibliotheque.vendre(commande);
+                break;
+            case PRETER:
+                Bibliotheque.preter(commande);
+                break;
+            case RENOUVELER:
+                Bibliotheque.renouveler(commande);
+                break;
+            case RETOURNER:
+                Bibliotheque.retourner(commande);
+                break;
+            case INSCRIRE:
+                Bibliotheque.inscrire(commande);
+                break;
+            case DESINSCRIRE:
+                Bibliotheque.desinscrire(commande);
+                break;
+            case RESERVER:
+                Bibliotheque.reserver(commande);
+                break;
+            case UTILISER:
+                Bibliotheque.utiliser(commande);
+                break;
+            case ANNULER:
+                Bibliotheque.annuler(commande);
+                break;
+            case RECHERCHER:
+                Bibliotheque.rechercher(commande);
+                break;
+            case STATISTIQUES:
+                Bibliotheque.afficherStatistiques();
+                break;
+            case RECOMPTER:
+                Bibliotheque.recompter();
+                break;
+            case COMMENTAIRE:
+                break;
+            default:
+                Bibliotheque.info("  Transactions non reconnue.  Essayer \"aide\"");
+                break;
         }
     }
 
@@ -193,48 +596,121 @@ public final class Bibliotheque {
      * Affiche le menu des transactions acceptées par le système.
      */
     private static void afficherAide() {
-        Bibliotheque.LOGGER.info("");
-        Bibliotheque.LOGGER.info("Chaque transaction comporte un nom et une liste d'arguments");
-        Bibliotheque.LOGGER.info("séparés par des espaces. La liste peut être vide.");
-        Bibliotheque.LOGGER.info(" Les dates sont en format yyyy-mm-dd.");
-        Bibliotheque.LOGGER.info("");
-        Bibliotheque.LOGGER.info("Les transactions sont :");
-        Bibliotheque.LOGGER.info("  aide");
-        Bibliotheque.LOGGER.info("  exit");
-        Bibliotheque.LOGGER.info("  acquerir <idLivre> <titre> <auteur> <dateAcquisition>");
-        Bibliotheque.LOGGER.info("  preter <idMembre> <idLivre>");
-        Bibliotheque.LOGGER.info("  renouveler <idLivre>");
-        Bibliotheque.LOGGER.info("  retourner <idLivre>");
-        Bibliotheque.LOGGER.info("  vendre <idLivre>");
-        Bibliotheque.LOGGER.info("  inscrire <idMembre> <nom> <telephone> <limitePret>");
-        Bibliotheque.LOGGER.info("  desinscrire <idMembre>");
-        Bibliotheque.LOGGER.info("  reserver <idReservation> <idMembre> <idLivre>");
-        Bibliotheque.LOGGER.info("  utiliser <idReservation>");
-        Bibliotheque.LOGGER.info("  annuler <idReservation>");
+        Bibliotheque.info("");
+        Bibliotheque.info("Chaque transaction comporte un nom et une liste d'arguments");
+        Bibliotheque.info("séparés par des espaces. La liste peut être vide.");
+        Bibliotheque.info(" Les dates sont en format yyyy-mm-dd.");
+        Bibliotheque.info("");
+        Bibliotheque.info("Les transactions sont :");
+        Bibliotheque.info("  aide");
+        Bibliotheque.info("  exit");
+        Bibliotheque.info("  acquerir <idLivre> <titre> <auteur> <dateAcquisition>");
+        Bibliotheque.info("  preter <idMembre> <idLivre>");
+        Bibliotheque.info("  renouveler <idLivre>");
+        Bibliotheque.info("  retourner <idLivre>");
+        Bibliotheque.info("  vendre <idLivre>");
+        Bibliotheque.info("  inscrire <idMembre> <nom> <telephone> <limitePret>");
+        Bibliotheque.info("  desinscrire <idMembre>");
+        Bibliotheque.info("  reserver <idReservation> <idMembre> <idLivre>");
+        Bibliotheque.info("  utiliser <idReservation>");
+        Bibliotheque.info("  annuler <idReservation>");
+        Bibliotheque.info("  rechercher <mots>");
+        Bibliotheque.info("  statistiques");
+        Bibliotheque.info("  recompter");
+    }
+
+    /**
+     * Affiche les mesures des sessions et des validations, puis les statistiques d'Hibernate.
+     */
+    private static void afficherStatistiques() {
+        Bibliotheque.info(Bibliotheque.getGestionnaire().getStatistiques());
+        Bibliotheque.info(Bibliotheque.getGestionnaire().getStatistiquesHibernate());
+    }
+
+    /**
+     * Transaction pour recompter les prêts en cours de tous les membres, par exemple après une importation de prêts.
+     *
+     * @throws BibliothequeException Si une erreur survient au cours du transactionnel
+     */
+    private static void recompter() throws BibliothequeException {
+        try {
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final int corriges = Bibliotheque.getGestionnaire().getMembreFacade().recompterPrets(Bibliotheque.getGestionnaire().getSession());
+            Bibliotheque.getGestionnaire().commitTransaction();
+            Bibliotheque.info(corriges
+                + " compteur(s) de prêts corrigé(s)");
+        } catch(
+            InvalidHibernateSessionException
+            | FacadeException exception) {
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
+                + exception.getMessage());
+            throw new BibliothequeException(exception);
+        }
+    }
+
+    /**
+     * Transaction pour chercher des livres par mots du titre et de l'auteur. Elle ne fait que lire : elle s'exécute en lecture seule,
+     * sur la réplique si elle est configurée.
+     *
+     * @param commande Données de la transaction
+     * @throws BibliothequeException Si une erreur survient au cours du transactionnel
+     */
+    private static void rechercher(Commande commande) throws BibliothequeException {
+        final StringBuilder recherche = new StringBuilder(Bibliotheque.readString(commande));
+        while(commande.hasArgument()) {
+            recherche.append(' ');
+            recherche.append(commande.lireArgument());
+        }
+        try {
+            Bibliotheque.getGestionnaire().beginTransactionLectureSeule();
+            final List<LivreDTO> livres = Bibliotheque.getGestionnaire().getLivreFacade().search(Bibliotheque.getGestionnaire().getSession(),
+                recherche.toString());
+            for(LivreDTO livreDTO : livres) {
+                Bibliotheque.info("  "
+                    + livreDTO.getIdLivre()
+                    + " "
+                    + livreDTO.getTitre()
+                    + " ("
+                    + livreDTO.getAuteur()
+                    + ")");
+            }
+            Bibliotheque.getGestionnaire().commitTransaction();
+            Bibliotheque.info(livres.size()
+                + " livre(s) trouvé(s)");
+        } catch(
+            InvalidHibernateSessionException
+            | InvalidCriterionValueException
+            | FacadeException exception) {
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
+                + exception.getMessage());
+            throw new BibliothequeException(exception);
+        }
     }
 
     /**
      * Transaction pour acquerir un livre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void acquerir(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void acquerir(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
+            Bibliotheque.getGestionnaire().beginTransaction();
             final LivreDTO livreDTO = new LivreDTO();
-            livreDTO.setTitre(Bibliotheque.readString(tokenizer));
-            livreDTO.setAuteur(Bibliotheque.readString(tokenizer));
-            livreDTO.setDateAcquisition(Bibliotheque.readDate(tokenizer));
-            Bibliotheque.gestionnaireBibliotheque.getLivreFacade().acquerir(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            livreDTO.setTitre(Bibliotheque.readString(commande));
+            livreDTO.setAuteur(Bibliotheque.readString(commande));
+            livreDTO.setDateAcquisition(Bibliotheque.readDate(commande));
+            Bibliotheque.getGestionnaire().getLivreFacade().acquerir(Bibliotheque.getGestionnaire().getSession(),
                 livreDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
             | FacadeException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -243,27 +719,32 @@ public final class Bibliotheque {
     /**
      * Transaction pour vendre un livre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void vendre(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void vendre(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idLivre = Bibliotheque.readString(tokenizer);
-            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.gestionnaireBibliotheque.getLivreFacade().get(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idLivre = Bibliotheque.readString(commande);
+            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.getGestionnaire().getLivreFacade().get(Bibliotheque.getGestionnaire().getSession(),
                 idLivre);
             if(livreDTO == null) {
                 throw new InvalidDTOException("Le livre d'ID "
                     + idLivre
                     + " n'existe pas");
             }
+            Bibliotheque.getGestionnaire().getLivreFacade().vendre(Bibliotheque.getGestionnaire().getSession(),
+                livreDTO);
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
+            | ExistingLoanException
+            | ExistingReservationException
             | FacadeException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -272,18 +753,18 @@ public final class Bibliotheque {
     /**
      * Transaction pour prêter un livre à un membre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void preter(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void preter(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idMembre = Bibliotheque.readString(tokenizer);
-            final String idLivre = Bibliotheque.readString(tokenizer);
-            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.gestionnaireBibliotheque.getMembreFacade().get(
-                Bibliotheque.gestionnaireBibliotheque.getSession(),
-                idLivre);
-            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.gestionnaireBibliotheque.getLivreFacade().get(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idMembre = Bibliotheque.readString(commande);
+            final String idLivre = Bibliotheque.readString(commande);
+            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.getGestionnaire().getMembreFacade().get(
+                Bibliotheque.getGestionnaire().getSession(),
+                idMembre);
+            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.getGestionnaire().getLivreFacade().get(Bibliotheque.getGestionnaire().getSession(),
                 idLivre);
             final PretDTO pretDTO = new PretDTO();
             if(membreDTO == null) {
@@ -298,9 +779,9 @@ public final class Bibliotheque {
             }
             pretDTO.setLivreDTO(livreDTO);
             pretDTO.setMembreDTO(membreDTO);
-            Bibliotheque.gestionnaireBibliotheque.getPretFacade().commencer(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getPretFacade().commencer(Bibliotheque.getGestionnaire().getSession(),
                 pretDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
@@ -309,8 +790,8 @@ public final class Bibliotheque {
             | ExistingReservationException
             | FacadeException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -319,23 +800,23 @@ public final class Bibliotheque {
     /**
      * Transaction pour renouveler le prêt d'un livre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void renouveler(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void renouveler(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idPret = Bibliotheque.readString(tokenizer);
-            final PretDTO pretDTO = (PretDTO) Bibliotheque.gestionnaireBibliotheque.getPretFacade().get(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idPret = Bibliotheque.readString(commande);
+            final PretDTO pretDTO = (PretDTO) Bibliotheque.getGestionnaire().getPretFacade().get(Bibliotheque.getGestionnaire().getSession(),
                 idPret);
             if(pretDTO == null) {
                 throw new InvalidDTOException("Le pret d'ID "
                     + idPret
                     + " n'existe pas");
             }
-            Bibliotheque.gestionnaireBibliotheque.getPretFacade().renouveler(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getPretFacade().renouveler(Bibliotheque.getGestionnaire().getSession(),
                 pretDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
@@ -343,8 +824,8 @@ public final class Bibliotheque {
             | FacadeException
             | MissingLoanException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -353,31 +834,31 @@ public final class Bibliotheque {
     /**
      * Transaction pour retourner un livre suite à un prêt.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void retourner(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void retourner(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idPret = Bibliotheque.readString(tokenizer);
-            final PretDTO pretDTO = (PretDTO) Bibliotheque.gestionnaireBibliotheque.getPretFacade().get(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idPret = Bibliotheque.readString(commande);
+            final PretDTO pretDTO = (PretDTO) Bibliotheque.getGestionnaire().getPretFacade().get(Bibliotheque.getGestionnaire().getSession(),
                 idPret);
             if(pretDTO == null) {
                 throw new InvalidDTOException("Le pret d'ID "
                     + idPret
                     + " n'existe pas");
             }
-            Bibliotheque.gestionnaireBibliotheque.getPretFacade().terminer(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getPretFacade().terminer(Bibliotheque.getGestionnaire().getSession(),
                 pretDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
             | FacadeException
             | MissingLoanException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -386,25 +867,25 @@ public final class Bibliotheque {
     /**
      * Transaction pour inscrire un membre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void inscrire(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void inscrire(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
+            Bibliotheque.getGestionnaire().beginTransaction();
             final MembreDTO membreDTO = new MembreDTO();
-            membreDTO.setNom(Bibliotheque.readString(tokenizer));
-            membreDTO.setTelephone(Bibliotheque.readString(tokenizer));
-            membreDTO.setLimitePret(Bibliotheque.readString(tokenizer));
-            Bibliotheque.gestionnaireBibliotheque.getMembreFacade().inscrire(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            membreDTO.setNom(Bibliotheque.readString(commande));
+            membreDTO.setTelephone(Bibliotheque.readString(commande));
+            membreDTO.setLimitePret(Bibliotheque.readString(commande));
+            Bibliotheque.getGestionnaire().getMembreFacade().inscrire(Bibliotheque.getGestionnaire().getSession(),
                 membreDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
             | FacadeException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -413,24 +894,24 @@ public final class Bibliotheque {
     /**
      * Transaction pour désinscrire un livre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void desinscrire(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void desinscrire(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idMembre = Bibliotheque.readString(tokenizer);
-            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.gestionnaireBibliotheque.getMembreFacade().get(
-                Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idMembre = Bibliotheque.readString(commande);
+            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.getGestionnaire().getMembreFacade().get(
+                Bibliotheque.getGestionnaire().getSession(),
                 idMembre);
             if(membreDTO == null) {
                 throw new InvalidDTOException("Le membre d'ID "
                     + idMembre
                     + " n'existe pas");
             }
-            Bibliotheque.gestionnaireBibliotheque.getMembreFacade().desinscrire(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getMembreFacade().desinscrire(Bibliotheque.getGestionnaire().getSession(),
                 membreDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidPrimaryKeyException
@@ -438,8 +919,8 @@ public final class Bibliotheque {
             | ExistingLoanException
             | ExistingReservationException
             | FacadeException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -448,20 +929,18 @@ public final class Bibliotheque {
     /**
      * Transaction pour réserver un livre.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void reserver(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void reserver(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            // Juste pour éviter deux dates de réservation strictement identiques
-            Thread.sleep(1);
-            final String idMembre = Bibliotheque.readString(tokenizer);
-            final String idLivre = Bibliotheque.readString(tokenizer);
-            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.gestionnaireBibliotheque.getMembreFacade().get(
-                Bibliotheque.gestionnaireBibliotheque.getSession(),
-                idLivre);
-            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.gestionnaireBibliotheque.getLivreFacade().get(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idMembre = Bibliotheque.readString(commande);
+            final String idLivre = Bibliotheque.readString(commande);
+            final MembreDTO membreDTO = (MembreDTO) Bibliotheque.getGestionnaire().getMembreFacade().get(
+                Bibliotheque.getGestionnaire().getSession(),
+                idMembre);
+            final LivreDTO livreDTO = (LivreDTO) Bibliotheque.getGestionnaire().getLivreFacade().get(Bibliotheque.getGestionnaire().getSession(),
                 idLivre);
             final ReservationDTO reservationDTO = new ReservationDTO();
             if(membreDTO == null) {
@@ -476,20 +955,19 @@ public final class Bibliotheque {
             }
             reservationDTO.setLivreDTO(livreDTO);
             reservationDTO.setMembreDTO(membreDTO);
-            Bibliotheque.gestionnaireBibliotheque.getReservationFacade().placer(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getReservationFacade().placer(Bibliotheque.getGestionnaire().getSession(),
                 reservationDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
-            InterruptedException
-            | InvalidHibernateSessionException
+            InvalidHibernateSessionException
             | InvalidDTOException
             | MissingLoanException
             | ExistingLoanException
             | ExistingReservationException
             | FacadeException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -498,24 +976,24 @@ public final class Bibliotheque {
     /**
      * Transaction pour utiliser une réservation.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void utiliser(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void utiliser(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idReservation = Bibliotheque.readString(tokenizer);
-            final ReservationDTO reservationDTO = (ReservationDTO) Bibliotheque.gestionnaireBibliotheque.getReservationFacade().get(
-                Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idReservation = Bibliotheque.readString(commande);
+            final ReservationDTO reservationDTO = (ReservationDTO) Bibliotheque.getGestionnaire().getReservationFacade().get(
+                Bibliotheque.getGestionnaire().getSession(),
                 idReservation);
             if(reservationDTO == null) {
                 throw new InvalidDTOException("La reservation d'ID "
                     + idReservation
                     + " n'existe pas");
             }
-            Bibliotheque.gestionnaireBibliotheque.getReservationFacade().utiliser(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getReservationFacade().utiliser(Bibliotheque.getGestionnaire().getSession(),
                 reservationDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
@@ -524,8 +1002,8 @@ public final class Bibliotheque {
             | InvalidLoanLimitException
             | FacadeException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -534,31 +1012,31 @@ public final class Bibliotheque {
     /**
      * Transaction pour annuler une réservation.
      *
-     * @param tokenizer Données de la transaction
+     * @param commande Données de la transaction
      * @throws BibliothequeException Si une erreur survient au cours du transactionnel
      */
-    private static void annuler(StringTokenizer tokenizer) throws BibliothequeException {
+    private static void annuler(Commande commande) throws BibliothequeException {
         try {
-            Bibliotheque.gestionnaireBibliotheque.beginTransaction();
-            final String idReservation = Bibliotheque.readString(tokenizer);
-            final ReservationDTO reservationDTO = (ReservationDTO) Bibliotheque.gestionnaireBibliotheque.getReservationFacade().get(
-                Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().beginTransaction();
+            final String idReservation = Bibliotheque.readString(commande);
+            final ReservationDTO reservationDTO = (ReservationDTO) Bibliotheque.getGestionnaire().getReservationFacade().get(
+                Bibliotheque.getGestionnaire().getSession(),
                 idReservation);
             if(reservationDTO == null) {
                 throw new InvalidDTOException("La reservation d'ID "
                     + idReservation
                     + " n'existe pas");
             }
-            Bibliotheque.gestionnaireBibliotheque.getReservationFacade().annuler(Bibliotheque.gestionnaireBibliotheque.getSession(),
+            Bibliotheque.getGestionnaire().getReservationFacade().annuler(Bibliotheque.getGestionnaire().getSession(),
                 reservationDTO);
-            Bibliotheque.gestionnaireBibliotheque.commitTransaction();
+            Bibliotheque.getGestionnaire().commitTransaction();
         } catch(
             InvalidHibernateSessionException
             | InvalidDTOException
             | FacadeException
             | InvalidPrimaryKeyException exception) {
-            Bibliotheque.gestionnaireBibliotheque.rollbackTransaction();
-            Bibliotheque.LOGGER.error(" **** "
+            Bibliotheque.getGestionnaire().rollbackTransaction();
+            Bibliotheque.erreur(" **** "
                 + exception.getMessage());
             throw new BibliothequeException(exception);
         }
@@ -567,34 +1045,27 @@ public final class Bibliotheque {
     /**
      * Vérifie si la fin du traitement des transactions est atteinte.
      *
-     * @param transaction La transaction à traiter
+     * @param lue <code>true</code> si une transaction a été lue ; <code>false</code> à la fin du fichier
+     * @param commande La transaction lue
      * @return <code>true</code> Si la fin du fichier est atteinte, <code>false</code> sinon
      */
-    private static boolean finTransaction(String transaction) {
-        boolean finDeFichier = transaction == null;
-        if(!finDeFichier) {
-            final StringTokenizer tokenizer = new StringTokenizer(transaction,
-                " ");
-            finDeFichier = !tokenizer.hasMoreTokens();
-            if(!finDeFichier) {
-                final String commande = tokenizer.nextToken();
-                finDeFichier = "exit".equals(commande);
-            }
-        }
-
-        return finDeFichier;
+    private static boolean finTransaction(boolean lue,
+        Commande commande) {
+        return !lue
+            || commande.isVide()
+            || commande.getOperation() == Operation.EXIT;
     }
 
     /**
      * Lit une chaîne de caractères de la transaction.
      *
-     * @param tokenizer La transaction à décoder
+     * @param commande La transaction à décoder
      * @return La chaîne de caractères lue
      * @throws BibliothequeException Si l'élément lu est manquant
      */
-    private static String readString(StringTokenizer tokenizer) throws BibliothequeException {
-        if(tokenizer.hasMoreElements()) {
-            return tokenizer.nextToken();
+    private static String readString(Commande commande) throws BibliothequeException {
+        if(commande.hasArgument()) {
+            return commande.lireArgument();
         }
         throw new BibliothequeException("Autre paramètre attendu");
     }
@@ -602,21 +1073,143 @@ public final class Bibliotheque {
     /**
      * Lit une date au format YYYY-MM-DD de la transaction.
      *
-     * @param tokenizer La transaction à décoder
+     * @param commande La transaction à décoder
      * @return La date lue
      * @throws BibliothequeException Si l'élément lu est manquant ou n'est pas une date correctement formatée
      */
-    private static Timestamp readDate(StringTokenizer tokenizer) throws BibliothequeException {
-        if(tokenizer.hasMoreElements()) {
-            final String token = tokenizer.nextToken();
+    private static Timestamp readDate(Commande commande) throws BibliothequeException {
+        if(commande.hasArgument()) {
             try {
-                return FormatteurDate.timestampValue(token);
+                return new Timestamp(commande.lireDate());
             } catch(ParseException parseException) {
                 throw new BibliothequeException("Date en format YYYY-MM-DD attendue à la place  de \""
-                    + token
+                    + parseException.getMessage()
                     + "\"");
             }
         }
         throw new BibliothequeException("Autre paramètre attendu");
     }
+
+    /**
+     * Un message retenu dans le journal d'une transaction exécutée en parallèle.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class Message {
+        private final Log logger;
+
+        private final boolean erreur;
+
+        private final String texte;
+
+        /**
+         * Crée un message.
+         *
+         * @param logger Le logger du message
+         * @param erreur <code>true</code> si c'est un message d'erreur
+         * @param texte Le texte du message
+         */
+        Message(Log logger,
+            boolean erreur,
+            String texte) {
+            super();
+            this.logger = logger;
+            this.erreur = erreur;
+            this.texte = texte;
+        }
+
+        /**
+         * Affiche le message.
+         */
+        void afficher() {
+            if(this.erreur) {
+                this.logger.error(this.texte);
+            } else {
+                this.logger.info(this.texte);
+            }
+        }
+    }
+
+    /**
+     * Une transaction exécutée en parallèle et son journal.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class CommandeParallele implements Runnable {
+        private final String transaction;
+
+        private final List<Message> journal;
+
+        private ExecuteurParallele.Tache tache;
+
+        /**
+         * Crée une transaction à exécuter en parallèle.
+         *
+         * @param transaction La transaction
+         */
+        CommandeParallele(String transaction) {
+            super();
+            this.transaction = transaction;
+            this.journal = new ArrayList<>();
+        }
+
+        // Region Getters and Setters
+        /**
+         * Getter de la variable d'instance <code>this.tache</code>.
+         *
+         * @return La variable d'instance <code>this.tache</code>
+         */
+        ExecuteurParallele.Tache getTache() {
+            return this.tache;
+        }
+
+        /**
+         * Setter de la variable d'instance <code>this.tache</code>.
+         *
+         * @param tache La valeur à utiliser pour la variable d'instance <code>this.tache</code>
+         */
+        void setTache(ExecuteurParallele.Tache tache) {
+            this.tache = tache;
+        }
+        // EndRegion Getters and Setters
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            Bibliotheque.JOURNAUX.set(this.journal);
+            try {
+                final Commande commande = Bibliotheque.COMMANDES.get();
+                commande.analyser(this.transaction);
+                Bibliotheque.afficherTransaction(commande);
+                if(!commande.isVide()) {
+                    Bibliotheque.executerTransaction(commande);
+                }
+                if(Bibliotheque.getGestionnaire().isCommandeEnCours()) {
+                    // La transaction a échoué sans annuler sa transaction de base de données
+                    Bibliotheque.getGestionnaire().rollbackTransaction();
+                }
+            } catch(
+                BibliothequeException
+                | RuntimeException exception) {
+                Bibliotheque.erreur(" **** "
+                    + exception.getMessage());
+            } finally {
+                Bibliotheque.JOURNAUX.remove();
+            }
+        }
+
+        /**
+         * Attend la fin de la transaction, puis affiche son journal.
+         *
+         * @throws InterruptedException Si le fil courant est interrompu pendant l'attente
+         */
+        void afficher() throws InterruptedException {
+            getTache().attendre();
+            for(Message message : this.journal) {
+                message.afficher();
+            }
+        }
+    }
 }
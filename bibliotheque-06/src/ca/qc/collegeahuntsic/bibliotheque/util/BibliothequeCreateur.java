@@ -4,28 +4,66 @@
 
 package ca.qc.collegeahuntsic.bibliotheque.util;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import ca.qc.collegeahuntsic.bibliotheque.exception.BibliothequeException;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.ILivreFacade;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IMembreFacade;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IPretFacade;
 import ca.qc.collegeahuntsic.bibliothequeBackEnd.facade.interfaces.IReservationFacade;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.ApresValidation;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.DataSourceRoutage;
+import ca.qc.collegeahuntsic.bibliothequeBackEnd.util.StatistiquesHibernate;
+import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
 import org.hibernate.Transaction;
+import org.hibernate.engine.CollectionKey;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.stat.SessionStatistics;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
 /**
- * Utilitaire de création des outils de la bibliothèque.
+ * Utilitaire de création des outils de la bibliothèque.<br />
+ * Une même instance peut servir plusieurs fils d'exécution à la fois : la session, la transaction et le groupe en cours appartiennent à
+ * l'unité de travail du fil courant, jamais partagée. Le nombre de sessions ouvertes en même temps est borné (voir
+ * {@link #BibliothequeCreateur(int)}) ; un fil qui en demande une de plus attend qu'une autre soit fermée. Les durées d'ouverture des
+ * sessions et de validation des transactions sont mesurées (voir {@link #getStatistiques()}).<br />
+ * Les transactions peuvent être regroupées (voir {@link #setGroupe(int, long)}) : une seule transaction de base de données valide alors
+ * plusieurs commandes. Chaque commande du groupe commence par un point de sauvegarde JDBC et est envoyée à la base à sa propre validation ;
+ * si elle échoue, la transaction revient à ce point de sauvegarde : les commandes déjà réussies du groupe gardent leurs écritures et les IDs
+ * qu'elles ont reçus. Si la validation du groupe échoue, ou si la base a annulé toute sa transaction (sur un interblocage, par exemple),
+ * {@link #reprendreGroupe()} indique que les commandes déjà réussies du groupe doivent être rejouées.<br />
+ * Une commande qui ne fait que lire commence par {@link #beginTransactionLectureSeule()} : hors d'un groupe en cours, sa session emprunte
+ * sa connexion à la réplique (voir {@link DataSourceRoutage}) et sa transaction est validée dès la fin de la commande.<br />
+ * La base de données est choisie par la propriété système <code>bibliotheque.base</code> : <code>MySQL</code> (par défaut),
+ * <code>Oracle</code>, ou <code>H2</code> pour une base en mémoire qui remplace MySQL localement, par exemple pour mesurer les
+ * performances sans serveur (le pilote H2 doit alors être dans le classpath).
  *
  * @author Gilles Bénichou
  */
 public class BibliothequeCreateur {
-    private static final String APPLICATION_CONTEXT_JDBC_FILENAME = "testApplicationContext-MySQL.xml";
+    private static final String BASE = System.getProperty("bibliotheque.base",
+        "MySQL");
 
-    private static final String APPLICATION_CONTEXT_DTO_FILENAME = "applicationContext-dto-MySQL.xml";
+    private static final String APPLICATION_CONTEXT_JDBC_FILENAME = "testApplicationContext-"
+        + BibliothequeCreateur.BASE
+        + ".xml";
+
+    private static final String APPLICATION_CONTEXT_DTO_FILENAME = "applicationContext-dto-"
+        + BibliothequeCreateur.BASE
+        + ".xml";
 
     private static final String APPLICATION_CONTEXT_DAO_FILENAME = "applicationContext-dao.xml";
 
@@ -52,13 +90,27 @@ public class BibliothequeCreateur {
         BibliothequeCreateur.APPLICATION_CONTEXT_FACADE_FILENAME,
         BibliothequeCreateur.APPLICATION_CONTEXT_FILENAME};
 
+    private static final int MAXIMUM_SESSIONS_PAR_DEFAUT = 16;
+
+    private static final long DELAI_SESSION = 30;
+
     private static final ApplicationContext APPLICATION_CONTEXT = new ClassPathXmlApplicationContext(BibliothequeCreateur.APPLICATION_CONTEXT_FILENAMES);
 
     private SessionFactory sessionFactory;
 
-    private Session session;
+    private final ThreadLocal<UniteDeTravail> unitesDeTravail;
+
+    private final Semaphore sessionsDisponibles;
+
+    private final AtomicInteger validationsTotales;
 
-    private Transaction transaction;
+    private final Mesure ouvertures;
+
+    private final Mesure validationsMesurees;
+
+    private volatile int tailleGroupe;
+
+    private volatile long latenceMaximale;
 
     private ILivreFacade livreFacade;
 
@@ -69,12 +121,38 @@ public class BibliothequeCreateur {
     private IReservationFacade reservationFacade;
 
     /**
-     * Crée le système transactionnel nécessaire à l'application bibliothèque.
+     * Crée le système transactionnel nécessaire à l'application bibliothèque, avec au plus
+     * {@value #MAXIMUM_SESSIONS_PAR_DEFAUT} sessions ouvertes en même temps.
      *
      * @throws BibliothequeException S'il y a une erreur avec la base de données
      */
     public BibliothequeCreateur() throws BibliothequeException {
+        this(BibliothequeCreateur.MAXIMUM_SESSIONS_PAR_DEFAUT);
+    }
+
+    /**
+     * Crée le système transactionnel nécessaire à l'application bibliothèque.
+     *
+     * @param maximumSessions Le nombre maximal de sessions ouvertes en même temps ; il ne devrait pas dépasser la taille du pool de
+     *        connexions
+     * @throws BibliothequeException S'il y a une erreur avec la base de données
+     */
+    public BibliothequeCreateur(int maximumSessions) throws BibliothequeException {
         super();
+        this.unitesDeTravail = new ThreadLocal<UniteDeTravail>() {
+            @Override
+            protected UniteDeTravail initialValue() {
+                return new UniteDeTravail();
+            }
+        };
+        this.sessionsDisponibles = new Semaphore(Math.max(1,
+            maximumSessions),
+            true);
+        this.validationsTotales = new AtomicInteger();
+        this.ouvertures = new Mesure("Ouverture de session");
+        this.validationsMesurees = new Mesure("Validation de transaction");
+        setGroupe(1,
+            0);
         try {
             setSessionFactory((SessionFactory) BibliothequeCreateur.APPLICATION_CONTEXT.getBean(BibliothequeCreateur.SESSION_FACTORY_NAME));
             setLivreFacade((ILivreFacade) BibliothequeCreateur.APPLICATION_CONTEXT.getBean(BibliothequeCreateur.LIVRE_FACADE_NAME));
@@ -106,39 +184,110 @@ public class BibliothequeCreateur {
     }
 
     /**
-     * Getter de la variable d'instance <code>this.session</code>.
+     * Retourne l'unité de travail du fil courant.
      *
-     * @return La variable d'instance <code>this.session</code>
+     * @return L'unité de travail du fil courant
      */
-    public Session getSession() {
-        return this.session;
+    private UniteDeTravail getUniteDeTravail() {
+        return this.unitesDeTravail.get();
     }
 
     /**
-     * Setter de la variable d'instance <code>this.session</code>.
+     * Retourne la session de l'unité de travail du fil courant.
      *
-     * @param session La valeur à utiliser pour la variable d'instance <code>this.session</code>
+     * @return La session ; <code>null</code> si aucune transaction n'est en cours dans ce fil
      */
-    private void setSession(Session session) {
-        this.session = session;
+    public Session getSession() {
+        return getUniteDeTravail().session;
     }
 
     /**
-     * Getter de la variable d'instance <code>this.transaction</code>.
+     * Retourne la transaction de l'unité de travail du fil courant.
      *
-     * @return La variable d'instance <code>this.transaction</code>
+     * @return La transaction ; <code>null</code> si aucune n'est en cours dans ce fil
      */
     private Transaction getTransaction() {
-        return this.transaction;
+        return getUniteDeTravail().transaction;
     }
 
     /**
-     * Setter de la variable d'instance <code>this.transaction</code>.
+     * Getter de la variable d'instance <code>this.tailleGroupe</code>.
      *
-     * @param transaction La valeur à utiliser pour la variable d'instance <code>this.transaction</code>
+     * @return La variable d'instance <code>this.tailleGroupe</code>
      */
-    private void setTransaction(Transaction transaction) {
-        this.transaction = transaction;
+    public int getTailleGroupe() {
+        return this.tailleGroupe;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.latenceMaximale</code>.
+     *
+     * @return La variable d'instance <code>this.latenceMaximale</code>
+     */
+    public long getLatenceMaximale() {
+        return this.latenceMaximale;
+    }
+
+    /**
+     * Configure le regroupement des transactions, pour tous les fils. Le groupe d'un fil est validé dès qu'il compte
+     * <code>tailleGroupe</code> commandes réussies ou que sa première commande a commencé depuis <code>latenceMaximale</code> millisecondes.
+     * Une taille de <code>1</code> valide chaque commande séparément.
+     *
+     * @param tailleGroupe Le nombre maximal de commandes par transaction
+     * @param latenceMaximale Le délai maximal, en millisecondes, avant de valider un groupe ; <code>0</code> pour aucun délai
+     */
+    public void setGroupe(int tailleGroupe,
+        long latenceMaximale) {
+        this.tailleGroupe = Math.max(1,
+            tailleGroupe);
+        this.latenceMaximale = Math.max(0,
+            latenceMaximale);
+    }
+
+    /**
+     * Retourne le nombre de commandes réussies du groupe en cours dans le fil courant.
+     *
+     * @return Le nombre de commandes réussies du groupe
+     */
+    public int getCommandesDuGroupe() {
+        return getUniteDeTravail().commandesDuGroupe;
+    }
+
+    /**
+     * Indique si une commande a commencé dans le fil courant sans être validée ni annulée.
+     *
+     * @return <code>true</code> si une commande est en cours ; <code>false</code> sinon
+     */
+    public boolean isCommandeEnCours() {
+        return getUniteDeTravail().commandeEnCours;
+    }
+
+    /**
+     * Indique si le dernier rollback ou la dernière validation ratée du fil courant a annulé des commandes déjà réussies du groupe, sans
+     * remettre l'indicateur à <code>false</code> (voir {@link #reprendreGroupe()}).
+     *
+     * @return <code>true</code> si des commandes du groupe doivent être rejouées ; <code>false</code> sinon
+     */
+    public boolean isGroupeAnnule() {
+        return getUniteDeTravail().groupeAnnule;
+    }
+
+    /**
+     * Retourne le nombre de transactions validées par le fil courant.
+     *
+     * @return Le nombre de validations du fil courant
+     */
+    public int getValidations() {
+        return getUniteDeTravail().validations;
+    }
+
+    /**
+     * Retourne le nombre de transactions validées par tous les fils.
+     *
+     * @return Le nombre total de validations
+     */
+    public int getValidationsTotales() {
+        return this.validationsTotales.get();
     }
 
     /**
@@ -215,71 +364,366 @@ public class BibliothequeCreateur {
     // EndRegion Getters and Setters
 
     /**
-     * Ouvre une session.
+     * Construit le rapport des durées d'ouverture des sessions et de validation des transactions.
+     *
+     * @return Le rapport des mesures
+     */
+    public String getStatistiques() {
+        return this.ouvertures
+            + "\n"
+            + this.validationsMesurees;
+    }
+
+    /**
+     * Construit le rapport des statistiques d'Hibernate : entités, collections, requêtes et cache de second niveau.
+     *
+     * @return Le rapport des statistiques
+     */
+    public String getStatistiquesHibernate() {
+        return StatistiquesHibernate.getRapport(getSessionFactory());
+    }
+
+    /**
+     * Ouvre la session de l'unité de travail du fil courant. Si le nombre maximal de sessions ouvertes est atteint, attend qu'une autre
+     * session soit fermée.
      *
      * @return La session Hibernate
-     * @throws BibliothequeException S'il y a une erreur
+     * @throws BibliothequeException S'il y a une erreur ou si aucune session ne se libère à temps
      */
     private Session openSession() throws BibliothequeException {
+        final long debut = System.nanoTime();
         try {
-            setSession(getSessionFactory().openSession());
+            if(!this.sessionsDisponibles.tryAcquire(BibliothequeCreateur.DELAI_SESSION,
+                TimeUnit.SECONDS)) {
+                throw new BibliothequeException("Aucune session n'est devenue disponible en "
+                    + BibliothequeCreateur.DELAI_SESSION
+                    + " secondes");
+            }
+        } catch(InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new BibliothequeException(interruptedException);
+        }
+        try {
+            getUniteDeTravail().session = getSessionFactory().openSession();
         } catch(HibernateException hibernateException) {
+            this.sessionsDisponibles.release();
             throw new BibliothequeException(hibernateException);
         }
+        this.ouvertures.ajouter(System.nanoTime() - debut);
         return getSession();
     }
 
     /**
-     * Ferme une session.
+     * Ferme la session de l'unité de travail du fil courant et met fin à la lecture seule du fil.
      *
      * @throws BibliothequeException S'il y a une erreur
      */
     private void closeSession() throws BibliothequeException {
-        try {
-            getSession().close();
-        } catch(HibernateException hibernateException) {
-            throw new BibliothequeException(hibernateException);
+        DataSourceRoutage.setLectureSeule(false);
+        final Session session = getSession();
+        if(session != null) {
+            getUniteDeTravail().session = null;
+            try {
+                session.close();
+            } catch(HibernateException hibernateException) {
+                throw new BibliothequeException(hibernateException);
+            } finally {
+                this.sessionsDisponibles.release();
+            }
         }
     }
 
     /**
-     * Démarre une transaction.
+     * Retourne la connexion JDBC de la session de l'unité de travail du fil courant.
+     *
+     * @return La connexion JDBC
+     */
+    private Connection getConnexion() {
+        return ((SessionImplementor) getSession()).getJDBCContext().connection();
+    }
+
+    /**
+     * Démarre une transaction, ou la commande suivante de la transaction du groupe en cours dans le fil courant. Si les transactions sont
+     * regroupées, la commande commence par un point de sauvegarde.
      *
      * @throws BibliothequeException S'il y a une erreur
      */
     public void beginTransaction() throws BibliothequeException {
-        try {
-            setTransaction(openSession().beginTransaction());
-        } catch(HibernateException hibernateException) {
-            throw new BibliothequeException(hibernateException);
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
+        if(uniteDeTravail.transaction != null
+            && isLatenceDepassee()) {
+            validerGroupe();
+        }
+        if(uniteDeTravail.transaction == null) {
+            try {
+                uniteDeTravail.transaction = openSession().beginTransaction();
+            } catch(HibernateException hibernateException) {
+                closeSession();
+                throw new BibliothequeException(hibernateException);
+            }
+            uniteDeTravail.commandesDuGroupe = 0;
+            uniteDeTravail.debutGroupe = System.nanoTime();
+        }
+        uniteDeTravail.commandeEnCours = true;
+        if(getTailleGroupe() > 1
+            && !DataSourceRoutage.isLectureSeule()) {
+            try {
+                uniteDeTravail.marque = ApresValidation.marquer(getSession());
+                uniteDeTravail.pointDeSauvegarde = getConnexion().setSavepoint();
+            } catch(
+                SQLException
+                | HibernateException exception) {
+                rollbackTransaction();
+                throw new BibliothequeException(exception);
+            }
         }
     }
 
     /**
-     * Commit une transaction.
+     * Démarre une transaction en lecture seule. Si un groupe est en cours dans le fil courant, la commande le rejoint et lit la base
+     * principale, qui contient les écritures du groupe. Sinon, le fil est déclaré en lecture seule jusqu'à la fermeture de la session :
+     * la connexion est empruntée à la réplique et la session ne se vide pas.
+     *
+     * @throws BibliothequeException S'il y a une erreur
+     */
+    public void beginTransactionLectureSeule() throws BibliothequeException {
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
+        if(uniteDeTravail.transaction != null
+            && isLatenceDepassee()) {
+            validerGroupe();
+        }
+        if(uniteDeTravail.transaction == null) {
+            DataSourceRoutage.setLectureSeule(true);
+            try {
+                beginTransaction();
+            } catch(BibliothequeException bibliothequeException) {
+                DataSourceRoutage.setLectureSeule(false);
+                throw bibliothequeException;
+            }
+            getSession().setFlushMode(FlushMode.MANUAL);
+        } else {
+            beginTransaction();
+        }
+    }
+
+    /**
+     * Commit une transaction. La commande est d'abord envoyée à la base ; si les transactions sont regroupées, la transaction n'est validée
+     * que si le groupe est complet ou si sa latence maximale est atteinte. Si l'envoi échoue, la commande est annulée (voir
+     * {@link #rollbackTransaction()}).
      *
      * @throws BibliothequeException S'il y a une erreur
      */
     public void commitTransaction() throws BibliothequeException {
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
         try {
-            getTransaction().commit();
-            closeSession();
+            getSession().flush();
         } catch(HibernateException hibernateException) {
+            rollbackTransaction();
             throw new BibliothequeException(hibernateException);
         }
+        uniteDeTravail.commandeEnCours = false;
+        // Le point de sauvegarde n'est pas libéré : tous les pilotes ne le permettent pas, et la validation du groupe le libère
+        uniteDeTravail.pointDeSauvegarde = null;
+        // La commande n'est comptée parmi les commandes réussies du groupe que si elle n'en déclenche pas la validation. Une transaction
+        // en lecture seule est validée tout de suite : les commandes suivantes ne doivent pas écrire sur la connexion de la réplique
+        if(DataSourceRoutage.isLectureSeule()
+            || uniteDeTravail.commandesDuGroupe + 1 >= getTailleGroupe()
+            || isLatenceDepassee()) {
+            validerGroupe();
+        } else {
+            uniteDeTravail.commandesDuGroupe++;
+            getSession().clear();
+        }
     }
 
     /**
-     * Rollback une transaction.
+     * Rollback une transaction. Si les transactions sont regroupées, seule la commande en cours est annulée, jusqu'à son point de
+     * sauvegarde, et le groupe continue. Si ce retour est impossible, toute la transaction du groupe est annulée et les commandes déjà
+     * réussies du groupe doivent être rejouées (voir {@link #reprendreGroupe()}).
      *
      * @throws BibliothequeException S'il y a une erreur
      */
     public void rollbackTransaction() throws BibliothequeException {
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
+        final Savepoint pointDeSauvegarde = uniteDeTravail.pointDeSauvegarde;
+        uniteDeTravail.pointDeSauvegarde = null;
+        if(uniteDeTravail.commandeEnCours
+            && pointDeSauvegarde != null
+            && annulerCommande(pointDeSauvegarde)) {
+            uniteDeTravail.commandeEnCours = false;
+            return;
+        }
+        uniteDeTravail.commandeEnCours = false;
+        uniteDeTravail.groupeAnnule = uniteDeTravail.groupeAnnule
+            || uniteDeTravail.commandesDuGroupe > 0;
+        uniteDeTravail.commandesDuGroupe = 0;
+        if(uniteDeTravail.transaction != null) {
+            try {
+                uniteDeTravail.transaction.rollback();
+            } catch(HibernateException hibernateException) {
+                throw new BibliothequeException(hibernateException);
+            } finally {
+                uniteDeTravail.transaction = null;
+                closeSession();
+            }
+        }
+    }
+
+    /**
+     * Valide la transaction du groupe en cours dans le fil courant, s'il y en a une.
+     *
+     * @throws BibliothequeException S'il y a une erreur
+     */
+    public void terminerGroupe() throws BibliothequeException {
+        if(getTransaction() != null) {
+            validerGroupe();
+        }
+    }
+
+    /**
+     * Indique si le dernier rollback ou la dernière validation ratée du fil courant a annulé des commandes déjà réussies du groupe, qui
+     * doivent alors être rejouées. L'indicateur est remis à <code>false</code>.
+     *
+     * @return <code>true</code> si des commandes du groupe doivent être rejouées ; <code>false</code> sinon
+     */
+    public boolean reprendreGroupe() {
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
+        final boolean reprendre = uniteDeTravail.groupeAnnule;
+        uniteDeTravail.groupeAnnule = false;
+        return reprendre;
+    }
+
+    /**
+     * Indique si une erreur vient d'un conflit avec une autre transaction : une ligne modifiée ou supprimée depuis sa lecture, détectée
+     * par sa colonne de version. La transaction peut alors être recommencée.
+     *
+     * @param throwable L'erreur
+     * @return <code>true</code> si l'erreur ou une de ses causes est un conflit ; <code>false</code> sinon
+     */
+    public static boolean isConflit(Throwable throwable) {
+        for(Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if(cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Valide la transaction du groupe du fil courant et ferme sa session. Si la validation échoue, la transaction est annulée et les
+     * commandes déjà réussies du groupe doivent être rejouées (voir {@link #reprendreGroupe()}).
+     *
+     * @throws BibliothequeException S'il y a une erreur
+     */
+    private void validerGroupe() throws BibliothequeException {
+        final UniteDeTravail uniteDeTravail = getUniteDeTravail();
+        final int commandesDuGroupe = uniteDeTravail.commandesDuGroupe;
+        uniteDeTravail.commandesDuGroupe = 0;
+        final long debut = System.nanoTime();
         try {
-            getTransaction().rollback();
-            closeSession();
+            uniteDeTravail.transaction.commit();
+            this.validationsMesurees.ajouter(System.nanoTime() - debut);
+            uniteDeTravail.validations++;
+            this.validationsTotales.incrementAndGet();
         } catch(HibernateException hibernateException) {
+            uniteDeTravail.groupeAnnule = commandesDuGroupe > 0;
+            uniteDeTravail.transaction.rollback();
             throw new BibliothequeException(hibernateException);
+        } finally {
+            uniteDeTravail.transaction = null;
+            closeSession();
+        }
+    }
+
+    /**
+     * Annule la commande en cours du groupe du fil courant en revenant à son point de sauvegarde. Les actions reportées par la commande
+     * sont traitées comme annulées (voir {@link ApresValidation#annulerDepuis(Session, int)}) et la session est vidée. Les entités et les
+     * collections que la commande a lues ou écrites sont retirées du cache de second niveau après la validation du groupe : Hibernate y
+     * placerait sinon les états que la commande avait envoyés à la base.
+     *
+     * @param pointDeSauvegarde Le point de sauvegarde posé au début de la commande
+     * @return <code>true</code> si la commande est annulée ; <code>false</code> si la base n'a plus le point de sauvegarde, parce qu'elle
+     *         a annulé toute la transaction
+     */
+    private boolean annulerCommande(Savepoint pointDeSauvegarde) {
+        final Session session = getSession();
+        try {
+            getConnexion().rollback(pointDeSauvegarde);
+        } catch(
+            SQLException
+            | HibernateException exception) {
+            return false;
+        }
+        ApresValidation.annulerDepuis(session,
+            getUniteDeTravail().marque);
+        final SessionStatistics statistiques = session.getStatistics();
+        final List<EntityKey> entites = new ArrayList<>();
+        for(Object entite : statistiques.getEntityKeys()) {
+            entites.add((EntityKey) entite);
+        }
+        final List<CollectionKey> collections = new ArrayList<>();
+        for(Object collection : statistiques.getCollectionKeys()) {
+            collections.add((CollectionKey) collection);
+        }
+        final SessionFactory sessionFactoryDuGroupe = getSessionFactory();
+        ApresValidation.executer(session,
+            new Runnable() {
+                @Override
+                public void run() {
+                    for(EntityKey entite : entites) {
+                        sessionFactoryDuGroupe.evictEntity(entite.getEntityName(),
+                            entite.getIdentifier());
+                    }
+                    for(CollectionKey collection : collections) {
+                        sessionFactoryDuGroupe.evictCollection(collection.getRole(),
+                            collection.getKey());
+                    }
+                }
+            });
+        session.clear();
+        return true;
+    }
+
+    /**
+     * Indique si la latence maximale du groupe en cours dans le fil courant est atteinte.
+     *
+     * @return <code>true</code> si le groupe doit être validé ; <code>false</code> sinon
+     */
+    private boolean isLatenceDepassee() {
+        return getLatenceMaximale() > 0
+            && (System.nanoTime() - getUniteDeTravail().debutGroupe) / 1000000 >= getLatenceMaximale();
+    }
+
+    /**
+     * L'unité de travail d'un fil : sa session, sa transaction et l'état de son groupe de commandes. Elle n'est lue et modifiée que par son
+     * fil.
+     *
+     * @author Gilles Bénichou
+     */
+    private static final class UniteDeTravail {
+        private Session session;
+
+        private Transaction transaction;
+
+        private Savepoint pointDeSauvegarde;
+
+        private int marque;
+
+        private int commandesDuGroupe;
+
+        private long debutGroupe;
+
+        private boolean commandeEnCours;
+
+        private boolean groupeAnnule;
+
+        private int validations;
+
+        /**
+         * Crée une unité de travail sans session.
+         */
+        UniteDeTravail() {
+            super();
         }
     }
 }
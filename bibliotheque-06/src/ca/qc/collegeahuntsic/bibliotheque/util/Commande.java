@@ -0,0 +1,290 @@
+// Fichier Commande.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * Une ligne du fichier de transactions découpée en mots, réutilisable d'une ligne à l'autre.<br />
+ * La commande ne copie pas la ligne : elle retient l'{@link Operation} du premier mot et la position des mots suivants (les arguments) dans
+ * les octets lus par {@link LecteurTransactions}. Un argument n'est converti en {@link String} que lorsqu'il est lu, et une date est lue
+ * directement des octets. Les mots sont séparés par des espaces ; au-delà de {@link #MAXIMUM_ARGUMENTS} arguments, les suivants sont
+ * ignorés.<br />
+ * Une commande n'est pas partagée entre fils d'exécution.
+ *
+ * @author Gilles Bénichou
+ */
+public final class Commande {
+    /**
+     * Le nombre maximal d'arguments retenus par ligne.
+     */
+    public static final int MAXIMUM_ARGUMENTS = 16;
+
+    private static final byte ESPACE = ' ';
+
+    private static final byte TIRET = '-';
+
+    private ByteBuffer buffer;
+
+    private int debut;
+
+    private int fin;
+
+    private Operation operation;
+
+    private final int[] debutsArguments;
+
+    private final int[] finsArguments;
+
+    private int nombreArguments;
+
+    private int argumentCourant;
+
+    private byte[] octets;
+
+    private final Calendar calendrier;
+
+    /**
+     * Crée une commande vide.
+     */
+    public Commande() {
+        super();
+        this.debutsArguments = new int[Commande.MAXIMUM_ARGUMENTS];
+        this.finsArguments = new int[Commande.MAXIMUM_ARGUMENTS];
+        this.octets = new byte[256];
+        this.calendrier = new GregorianCalendar();
+        this.calendrier.setLenient(false);
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.operation</code>.
+     *
+     * @return La variable d'instance <code>this.operation</code> ; <code>null</code> si la ligne ne contient aucun mot
+     */
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * Getter de la variable d'instance <code>this.nombreArguments</code>.
+     *
+     * @return La variable d'instance <code>this.nombreArguments</code>
+     */
+    public int getNombreArguments() {
+        return this.nombreArguments;
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Découpe une ligne. La lecture des arguments reprend au premier.
+     *
+     * @param octetsDeLaLigne Les octets qui contiennent la ligne
+     * @param debutDeLaLigne La position du premier octet de la ligne
+     * @param finDeLaLigne La position qui suit le dernier octet de la ligne, fin de ligne exclue
+     */
+    public void analyser(ByteBuffer octetsDeLaLigne,
+        int debutDeLaLigne,
+        int finDeLaLigne) {
+        this.buffer = octetsDeLaLigne;
+        this.debut = debutDeLaLigne;
+        this.fin = finDeLaLigne;
+        this.operation = null;
+        this.nombreArguments = 0;
+        this.argumentCourant = 0;
+        int position = debutDeLaLigne;
+        while(position < finDeLaLigne) {
+            while(position < finDeLaLigne
+                && octetsDeLaLigne.get(position) == Commande.ESPACE) {
+                position++;
+            }
+            final int debutDuMot = position;
+            while(position < finDeLaLigne
+                && octetsDeLaLigne.get(position) != Commande.ESPACE) {
+                position++;
+            }
+            if(position > debutDuMot) {
+                if(this.operation == null) {
+                    this.operation = Operation.rechercher(octetsDeLaLigne,
+                        debutDuMot,
+                        position);
+                } else if(this.nombreArguments < Commande.MAXIMUM_ARGUMENTS) {
+                    this.debutsArguments[this.nombreArguments] = debutDuMot;
+                    this.finsArguments[this.nombreArguments] = position;
+                    this.nombreArguments++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Découpe une ligne déjà convertie en {@link String}, par exemple une transaction à rejouer.
+     *
+     * @param ligne La ligne
+     */
+    public void analyser(String ligne) {
+        final byte[] octetsDeLaLigne = ligne.getBytes(StandardCharsets.UTF_8);
+        analyser(ByteBuffer.wrap(octetsDeLaLigne),
+            0,
+            octetsDeLaLigne.length);
+    }
+
+    /**
+     * Reprend la lecture des arguments au premier, par exemple pour exécuter la même transaction une nouvelle fois.
+     */
+    public void recommencer() {
+        this.argumentCourant = 0;
+    }
+
+    /**
+     * Indique si la ligne ne contient aucun mot.
+     *
+     * @return <code>true</code> si la ligne est vide ; <code>false</code> sinon
+     */
+    public boolean isVide() {
+        return this.operation == null;
+    }
+
+    /**
+     * Indique s'il reste un argument à lire.
+     *
+     * @return <code>true</code> s'il reste un argument ; <code>false</code> sinon
+     */
+    public boolean hasArgument() {
+        return this.argumentCourant < this.nombreArguments;
+    }
+
+    /**
+     * Lit l'argument suivant.
+     *
+     * @return L'argument
+     * @throws IndexOutOfBoundsException S'il ne reste aucun argument
+     */
+    public String lireArgument() {
+        return getArgument(this.argumentCourant++);
+    }
+
+    /**
+     * Lit l'argument suivant comme une date au format <code>yyyy-MM-dd</code>, sans le convertir en {@link String}.
+     *
+     * @return La date, en millisecondes depuis le 1er janvier 1970 dans le fuseau horaire par défaut
+     * @throws IndexOutOfBoundsException S'il ne reste aucun argument
+     * @throws ParseException Si l'argument n'est pas une date valide ; le message de l'exception est l'argument
+     */
+    public long lireDate() throws ParseException {
+        final int index = this.argumentCourant++;
+        if(index >= this.nombreArguments) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        final int debutDeLaDate = this.debutsArguments[index];
+        final int finDeLaDate = this.finsArguments[index];
+        int position = debutDeLaDate;
+        int annee = 0;
+        int mois = 0;
+        int jour = 0;
+        int champ = 0;
+        int chiffres = 0;
+        while(position < finDeLaDate) {
+            final byte octet = this.buffer.get(position);
+            if(octet >= '0'
+                && octet <= '9'
+                && chiffres < 4) {
+                final int chiffre = octet - '0';
+                if(champ == 0) {
+                    annee = annee * 10 + chiffre;
+                } else if(champ == 1) {
+                    mois = mois * 10 + chiffre;
+                } else {
+                    jour = jour * 10 + chiffre;
+                }
+                chiffres++;
+            } else if(octet == Commande.TIRET
+                && chiffres > 0
+                && champ < 2) {
+                champ++;
+                chiffres = 0;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if(position != finDeLaDate
+            || champ != 2
+            || chiffres == 0
+            || chiffres > 2) {
+            throw new ParseException(getArgument(index),
+                position - debutDeLaDate);
+        }
+        this.calendrier.clear();
+        this.calendrier.set(annee,
+            mois - 1,
+            jour);
+        try {
+            return this.calendrier.getTimeInMillis();
+        } catch(IllegalArgumentException illegalArgumentException) {
+            throw new ParseException(getArgument(index),
+                0);
+        }
+    }
+
+    /**
+     * Retourne un argument, sans changer l'argument suivant.
+     *
+     * @param index L'index de l'argument, à partir de 0
+     * @return L'argument
+     * @throws IndexOutOfBoundsException Si l'argument n'existe pas
+     */
+    public String getArgument(int index) {
+        if(index < 0
+            || index >= this.nombreArguments) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return decoder(this.debutsArguments[index],
+            this.finsArguments[index]);
+    }
+
+    /**
+     * Retourne le texte de la ligne.
+     *
+     * @return Le texte de la ligne
+     */
+    public String getTexte() {
+        return decoder(this.debut,
+            this.fin);
+    }
+
+    /**
+     * Convertit des octets UTF-8 de la ligne en {@link String}.
+     *
+     * @param debutDuTexte La position du premier octet
+     * @param finDuTexte La position qui suit le dernier octet
+     * @return Le texte
+     */
+    private String decoder(int debutDuTexte,
+        int finDuTexte) {
+        final int longueur = finDuTexte - debutDuTexte;
+        if(this.buffer.hasArray()) {
+            return new String(this.buffer.array(),
+                this.buffer.arrayOffset() + debutDuTexte,
+                longueur,
+                StandardCharsets.UTF_8);
+        }
+        if(longueur > this.octets.length) {
+            this.octets = new byte[Math.max(longueur,
+                this.octets.length * 2)];
+        }
+        for(int i = 0; i < longueur; i++) {
+            this.octets[i] = this.buffer.get(debutDuTexte + i);
+        }
+        return new String(this.octets,
+            0,
+            longueur,
+            StandardCharsets.UTF_8);
+    }
+}
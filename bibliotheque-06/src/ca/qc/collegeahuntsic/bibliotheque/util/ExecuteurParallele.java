@@ -0,0 +1,280 @@
+// Fichier ExecuteurParallele.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute des commandes sur plusieurs fils en respectant l'ordre de soumission des commandes qui partagent une clé.<br />
+ * Une clé a la forme <code>domaine:identifiant</code> (voir {@link #cle(String, String)}), par exemple <code>livre:12</code>. Deux commandes
+ * qui ont une clé en commun s'exécutent dans l'ordre de leur soumission ; les autres s'exécutent en parallèle. La clé
+ * <code>domaine:*</code> (voir {@link #cles(String)}) couvre tout le domaine : la commande attend toutes les commandes du domaine soumises
+ * avant elle, et toutes celles du domaine soumises après elle l'attendent.<br />
+ * Les soumissions doivent venir d'un seul fil.
+ *
+ * @author Gilles Bénichou
+ */
+public final class ExecuteurParallele {
+    private static final String SEPARATEUR = ":";
+
+    private static final String TOUS = "*";
+
+    private static final int PURGE = 1024;
+
+    private final ExecutorService executorService;
+
+    private final Map<String, Map<String, Tache>> dernieresTachesParDomaine;
+
+    private final Map<String, Tache> dernieresTachesGlobales;
+
+    private final Map<String, List<Tache>> tachesDepuisGlobale;
+
+    private final AtomicInteger tachesEnCours;
+
+    /**
+     * Crée un exécuteur.
+     *
+     * @param nombreFils Le nombre de fils d'exécution
+     */
+    public ExecuteurParallele(int nombreFils) {
+        super();
+        this.executorService = Executors.newFixedThreadPool(Math.max(1,
+            nombreFils));
+        this.dernieresTachesParDomaine = new HashMap<>();
+        this.dernieresTachesGlobales = new HashMap<>();
+        this.tachesDepuisGlobale = new HashMap<>();
+        this.tachesEnCours = new AtomicInteger();
+    }
+
+    /**
+     * Construit la clé d'un identifiant dans un domaine.
+     *
+     * @param domaine Le domaine, par exemple <code>livre</code>
+     * @param identifiant L'identifiant dans le domaine
+     * @return La clé
+     */
+    public static String cle(String domaine,
+        String identifiant) {
+        return domaine
+            + ExecuteurParallele.SEPARATEUR
+            + identifiant;
+    }
+
+    /**
+     * Construit la clé qui couvre tout un domaine.
+     *
+     * @param domaine Le domaine, par exemple <code>livre</code>
+     * @return La clé
+     */
+    public static String cles(String domaine) {
+        return ExecuteurParallele.cle(domaine,
+            ExecuteurParallele.TOUS);
+    }
+
+    /**
+     * Soumet une commande. Elle s'exécutera dès que les commandes soumises avant elle avec une clé commune seront terminées.
+     *
+     * @param cles Les clés de la commande ; aucune clé si la commande ne touche pas la base de données
+     * @param commande La commande
+     * @return La tâche de la commande
+     */
+    public Tache soumettre(Collection<String> cles,
+        Runnable commande) {
+        final Tache tache = new Tache(commande,
+            this);
+        this.tachesEnCours.incrementAndGet();
+        for(String cle : new LinkedHashSet<>(cles)) {
+            final int separateur = cle.indexOf(ExecuteurParallele.SEPARATEUR);
+            final String domaine = cle.substring(0,
+                separateur);
+            final String identifiant = cle.substring(separateur + 1);
+            Map<String, Tache> dernieresTaches = this.dernieresTachesParDomaine.get(domaine);
+            List<Tache> taches = this.tachesDepuisGlobale.get(domaine);
+            if(dernieresTaches == null) {
+                dernieresTaches = new HashMap<>();
+                this.dernieresTachesParDomaine.put(domaine,
+                    dernieresTaches);
+                taches = new ArrayList<>();
+                this.tachesDepuisGlobale.put(domaine,
+                    taches);
+            }
+            tache.dependreDe(this.dernieresTachesGlobales.get(domaine));
+            if(ExecuteurParallele.TOUS.equals(identifiant)) {
+                for(Tache autreTache : taches) {
+                    tache.dependreDe(autreTache);
+                }
+                taches.clear();
+                dernieresTaches.clear();
+                this.dernieresTachesGlobales.put(domaine,
+                    tache);
+            } else {
+                tache.dependreDe(dernieresTaches.put(identifiant,
+                    tache));
+                taches.add(tache);
+                if(taches.size() % ExecuteurParallele.PURGE == 0) {
+                    ExecuteurParallele.purger(taches);
+                }
+            }
+        }
+        tache.liberer();
+        return tache;
+    }
+
+    /**
+     * Attend la fin des commandes soumises et arrête les fils d'exécution.
+     *
+     * @throws InterruptedException Si le fil courant est interrompu pendant l'attente
+     */
+    public void arreter() throws InterruptedException {
+        synchronized(this.tachesEnCours) {
+            while(this.tachesEnCours.get() > 0) {
+                this.tachesEnCours.wait();
+            }
+        }
+        this.executorService.shutdown();
+        while(!this.executorService.awaitTermination(1,
+            TimeUnit.MINUTES)) {
+            // On attend la fin des commandes.
+        }
+    }
+
+    /**
+     * Compte la fin d'une tâche et réveille {@link #arreter()} quand il n'en reste plus.
+     */
+    private void terminer() {
+        if(this.tachesEnCours.decrementAndGet() == 0) {
+            synchronized(this.tachesEnCours) {
+                this.tachesEnCours.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Retire d'une liste les tâches terminées.
+     *
+     * @param taches Les tâches
+     */
+    private static void purger(List<Tache> taches) {
+        final Iterator<Tache> iterator = taches.iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next().isTerminee()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Une commande soumise et ses dépendances.
+     *
+     * @author Gilles Bénichou
+     */
+    public static final class Tache implements Runnable {
+        private Runnable commande;
+
+        private final ExecuteurParallele executeurParallele;
+
+        private final AtomicInteger dependances;
+
+        private final List<Tache> successeurs;
+
+        private final CountDownLatch fin;
+
+        private boolean terminee;
+
+        /**
+         * Crée une tâche. Elle compte une dépendance, levée par {@link #liberer()} à la fin de la soumission.
+         *
+         * @param commande La commande à exécuter
+         * @param executeurParallele L'exécuteur de la tâche
+         */
+        Tache(Runnable commande,
+            ExecuteurParallele executeurParallele) {
+            super();
+            this.commande = commande;
+            this.executeurParallele = executeurParallele;
+            this.dependances = new AtomicInteger(1);
+            this.successeurs = new ArrayList<>();
+            this.fin = new CountDownLatch(1);
+        }
+
+        /**
+         * Indique si la tâche est terminée.
+         *
+         * @return <code>true</code> si la tâche est terminée ; <code>false</code> sinon
+         */
+        public boolean isTerminee() {
+            return this.fin.getCount() == 0;
+        }
+
+        /**
+         * Attend la fin de la tâche.
+         *
+         * @throws InterruptedException Si le fil courant est interrompu pendant l'attente
+         */
+        public void attendre() throws InterruptedException {
+            this.fin.await();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            final List<Tache> aLiberer;
+            try {
+                this.commande.run();
+            } finally {
+                this.commande = null;
+                synchronized(this) {
+                    this.terminee = true;
+                    aLiberer = new ArrayList<>(this.successeurs);
+                    this.successeurs.clear();
+                }
+                this.fin.countDown();
+                for(Tache successeur : aLiberer) {
+                    successeur.liberer();
+                }
+                this.executeurParallele.terminer();
+            }
+        }
+
+        /**
+         * Fait attendre cette tâche jusqu'à la fin d'une autre, si celle-ci n'est pas déjà terminée.
+         *
+         * @param tache L'autre tâche ; <code>null</code> si aucune
+         */
+        void dependreDe(Tache tache) {
+            if(tache != null
+                && tache != this) {
+                synchronized(tache) {
+                    if(!tache.terminee) {
+                        this.dependances.incrementAndGet();
+                        tache.successeurs.add(this);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Lève une dépendance ; la tâche est lancée quand il n'en reste plus.
+         */
+        void liberer() {
+            if(this.dependances.decrementAndGet() == 0) {
+                this.executeurParallele.executorService.execute(this);
+            }
+        }
+    }
+}
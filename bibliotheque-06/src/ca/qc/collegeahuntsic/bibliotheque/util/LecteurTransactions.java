@@ -0,0 +1,183 @@
+// Fichier LecteurTransactions.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Lecteur d'un fichier de transactions, ligne par ligne, dans une {@link Commande} réutilisée.<br />
+ * Un fichier du système de fichiers est projeté en mémoire ({@link FileChannel#map(FileChannel.MapMode, long, long)}) et découpé
+ * directement dans la projection : aucune ligne n'est copiée ni convertie en {@link String}. Une ressource qui n'est pas un fichier, par
+ * exemple dans un JAR, est lue d'un bloc en mémoire. Le fichier est en UTF-8, avec des fins de ligne <code>\n</code> ou
+ * <code>\r\n</code>, et ne dépasse pas 2 Go.
+ *
+ * @author Gilles Bénichou
+ */
+public final class LecteurTransactions implements Closeable {
+    private static final byte FIN_DE_LIGNE = '\n';
+
+    private static final byte RETOUR_CHARIOT = '\r';
+
+    private static final byte[] MARQUE_UTF8 = {(byte) 0xEF,
+        (byte) 0xBB,
+        (byte) 0xBF};
+
+    private final ByteBuffer buffer;
+
+    private final Closeable source;
+
+    private int position;
+
+    /**
+     * Crée un lecteur.
+     *
+     * @param buffer Les octets du fichier
+     * @param source La source à fermer avec le lecteur ; <code>null</code> si aucune
+     */
+    private LecteurTransactions(ByteBuffer buffer,
+        Closeable source) {
+        super();
+        this.buffer = buffer;
+        this.source = source;
+        if(LecteurTransactions.commencePar(buffer,
+            LecteurTransactions.MARQUE_UTF8)) {
+            this.position = LecteurTransactions.MARQUE_UTF8.length;
+        }
+    }
+
+    /**
+     * Ouvre une ressource du classpath.
+     *
+     * @param ressource Le nom de la ressource, relatif à la racine du classpath
+     * @return Le lecteur de la ressource
+     * @throws IOException Si la ressource n'existe pas ou ne peut être lue
+     */
+    public static LecteurTransactions ouvrir(String ressource) throws IOException {
+        final URL url = LecteurTransactions.class.getResource("/"
+            + ressource);
+        if(url == null) {
+            throw new FileNotFoundException("Le fichier de transactions "
+                + ressource
+                + " n'existe pas");
+        }
+        if("file".equals(url.getProtocol())) {
+            try {
+                return LecteurTransactions.ouvrir(new File(url.toURI()));
+            } catch(URISyntaxException uriSyntaxException) {
+                throw new IOException(uriSyntaxException);
+            }
+        }
+        try(
+            InputStream inputStream = url.openStream()) {
+            final ByteArrayOutputStream octets = new ByteArrayOutputStream();
+            final byte[] bloc = new byte[8192];
+            int lus = inputStream.read(bloc);
+            while(lus != -1) {
+                octets.write(bloc,
+                    0,
+                    lus);
+                lus = inputStream.read(bloc);
+            }
+            return new LecteurTransactions(ByteBuffer.wrap(octets.toByteArray()),
+                null);
+        }
+    }
+
+    /**
+     * Ouvre un fichier en le projetant en mémoire.
+     *
+     * @param fichier Le fichier
+     * @return Le lecteur du fichier
+     * @throws IOException Si le fichier ne peut être ouvert ou dépasse 2 Go
+     */
+    public static LecteurTransactions ouvrir(File fichier) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(fichier,
+            "r");
+        try {
+            final FileChannel fileChannel = randomAccessFile.getChannel();
+            final long taille = fileChannel.size();
+            if(taille > Integer.MAX_VALUE) {
+                throw new IOException("Le fichier de transactions "
+                    + fichier
+                    + " dépasse 2 Go");
+            }
+            return new LecteurTransactions(fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                0,
+                taille),
+                randomAccessFile);
+        } catch(IOException ioException) {
+            randomAccessFile.close();
+            throw ioException;
+        }
+    }
+
+    /**
+     * Lit la ligne suivante dans une commande.
+     *
+     * @param commande La commande à remplir
+     * @return <code>true</code> si une ligne a été lue ; <code>false</code> à la fin du fichier
+     */
+    public boolean lire(Commande commande) {
+        final int limite = this.buffer.limit();
+        if(this.position >= limite) {
+            return false;
+        }
+        final int debut = this.position;
+        int fin = debut;
+        while(fin < limite
+            && this.buffer.get(fin) != LecteurTransactions.FIN_DE_LIGNE) {
+            fin++;
+        }
+        this.position = fin + 1;
+        if(fin > debut
+            && this.buffer.get(fin - 1) == LecteurTransactions.RETOUR_CHARIOT) {
+            fin--;
+        }
+        commande.analyser(this.buffer,
+            debut,
+            fin);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.source != null) {
+            this.source.close();
+        }
+    }
+
+    /**
+     * Indique si des octets commencent par un préfixe.
+     *
+     * @param buffer Les octets
+     * @param prefixe Le préfixe
+     * @return <code>true</code> si les octets commencent par le préfixe ; <code>false</code> sinon
+     */
+    private static boolean commencePar(ByteBuffer buffer,
+        byte[] prefixe) {
+        if(buffer.limit() < prefixe.length) {
+            return false;
+        }
+        for(int i = 0; i < prefixe.length; i++) {
+            if(buffer.get(i) != prefixe[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
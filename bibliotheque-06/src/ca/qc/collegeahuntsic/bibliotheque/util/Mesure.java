@@ -0,0 +1,115 @@
+// Fichier Mesure.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cumul des durées d'une opération : nombre d'appels, durée totale et durée maximale.<br />
+ * Les durées peuvent être ajoutées par plusieurs fils d'exécution à la fois, sans verrou.
+ *
+ * @author Gilles Bénichou
+ */
+public final class Mesure {
+    private final String nom;
+
+    private final AtomicLong nombre;
+
+    private final AtomicLong dureeTotale;
+
+    private final AtomicLong dureeMaximale;
+
+    /**
+     * Crée une mesure vide.
+     *
+     * @param nom Le nom de l'opération mesurée
+     */
+    public Mesure(String nom) {
+        super();
+        this.nom = nom;
+        this.nombre = new AtomicLong();
+        this.dureeTotale = new AtomicLong();
+        this.dureeMaximale = new AtomicLong();
+    }
+
+    // Region Getters and Setters
+    /**
+     * Getter de la variable d'instance <code>this.nom</code>.
+     *
+     * @return La variable d'instance <code>this.nom</code>
+     */
+    public String getNom() {
+        return this.nom;
+    }
+
+    /**
+     * Retourne le nombre de durées ajoutées.
+     *
+     * @return Le nombre de durées
+     */
+    public long getNombre() {
+        return this.nombre.get();
+    }
+
+    /**
+     * Retourne la somme des durées, en nanosecondes.
+     *
+     * @return La durée totale
+     */
+    public long getDureeTotale() {
+        return this.dureeTotale.get();
+    }
+
+    /**
+     * Retourne la plus longue durée, en nanosecondes.
+     *
+     * @return La durée maximale
+     */
+    public long getDureeMaximale() {
+        return this.dureeMaximale.get();
+    }
+    // EndRegion Getters and Setters
+
+    /**
+     * Ajoute la durée d'un appel.
+     *
+     * @param duree La durée, en nanosecondes
+     */
+    public void ajouter(long duree) {
+        this.nombre.incrementAndGet();
+        this.dureeTotale.addAndGet(duree);
+        long maximum = this.dureeMaximale.get();
+        while(duree > maximum
+            && !this.dureeMaximale.compareAndSet(maximum,
+                duree)) {
+            maximum = this.dureeMaximale.get();
+        }
+    }
+
+    /**
+     * Retourne la durée moyenne, en nanosecondes.
+     *
+     * @return La durée moyenne ; <code>0</code> si aucune durée n'a été ajoutée
+     */
+    public long getDureeMoyenne() {
+        final long nombreDurees = getNombre();
+        return nombreDurees == 0 ? 0 : getDureeTotale() / nombreDurees;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getNom()
+            + " : "
+            + getNombre()
+            + " fois, moyenne "
+            + getDureeMoyenne() / 1000
+            + " µs, maximum "
+            + getDureeMaximale() / 1000
+            + " µs";
+    }
+}
@@ -0,0 +1,202 @@
+// Fichier Operation.java
+// Auteur : Gilles Bénichou
+// Date de création : 2016-05-18
+
+package ca.qc.collegeahuntsic.bibliotheque.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Les opérations du fichier de transactions, reconnues par le premier mot d'une ligne.<br />
+ * Le mot est haché octet par octet, sans créer de {@link String}, puis cherché dans une table construite une fois au chargement de la classe :
+ * il n'est comparé qu'au mot-clé des opérations qui partagent son alvéole.
+ *
+ * @author Gilles Bénichou
+ */
+public enum Operation {
+    /**
+     * <code>aide</code>
+     */
+    AIDE("aide"),
+
+    /**
+     * <code>exit</code>
+     */
+    EXIT("exit"),
+
+    /**
+     * <code>acquerir &lt;titre&gt; &lt;auteur&gt; &lt;dateAcquisition&gt;</code>
+     */
+    ACQUERIR("acquerir"),
+
+    /**
+     * <code>vendre &lt;idLivre&gt;</code>
+     */
+    VENDRE("vendre"),
+
+    /**
+     * <code>preter &lt;idMembre&gt; &lt;idLivre&gt;</code>
+     */
+    PRETER("preter"),
+
+    /**
+     * <code>renouveler &lt;idPret&gt;</code>
+     */
+    RENOUVELER("renouveler"),
+
+    /**
+     * <code>retourner &lt;idPret&gt;</code>
+     */
+    RETOURNER("retourner"),
+
+    /**
+     * <code>inscrire &lt;nom&gt; &lt;telephone&gt; &lt;limitePret&gt;</code>
+     */
+    INSCRIRE("inscrire"),
+
+    /**
+     * <code>desinscrire &lt;idMembre&gt;</code>
+     */
+    DESINSCRIRE("desinscrire"),
+
+    /**
+     * <code>reserver &lt;idMembre&gt; &lt;idLivre&gt;</code>
+     */
+    RESERVER("reserver"),
+
+    /**
+     * <code>utiliser &lt;idReservation&gt;</code>
+     */
+    UTILISER("utiliser"),
+
+    /**
+     * <code>annuler &lt;idReservation&gt;</code>
+     */
+    ANNULER("annuler"),
+
+    /**
+     * <code>rechercher &lt;mots&gt;</code> : cherche les livres par mots du titre et de l'auteur, en lecture seule
+     */
+    RECHERCHER("rechercher"),
+
+    /**
+     * <code>statistiques</code>
+     */
+    STATISTIQUES("statistiques"),
+
+    /**
+     * <code>recompter</code> : recompte les prêts en cours de tous les membres
+     */
+    RECOMPTER("recompter"),
+
+    /**
+     * <code>--</code> : commentaire, ignoré
+     */
+    COMMENTAIRE("--"),
+
+    /**
+     * Premier mot qui ne correspond à aucune opération
+     */
+    INCONNUE(null);
+
+    /**
+     * Nombre d'alvéoles de {@link #TABLE} : une puissance de deux, au moins le double du nombre d'opérations.
+     */
+    private static final int TAILLE_TABLE = 64;
+
+    private static final Operation[] TABLE = new Operation[Operation.TAILLE_TABLE];
+
+    static {
+        for(Operation operation : Operation.values()) {
+            if(operation.motCle.length > 0) {
+                int alveole = Operation.hacher(ByteBuffer.wrap(operation.motCle),
+                    0,
+                    operation.motCle.length);
+                while(Operation.TABLE[alveole] != null) {
+                    alveole = (alveole + 1) & (Operation.TAILLE_TABLE - 1);
+                }
+                Operation.TABLE[alveole] = operation;
+            }
+        }
+    }
+
+    private final byte[] motCle;
+
+    /**
+     * Crée une opération.
+     *
+     * @param motCle Le mot-clé de l'opération ; <code>null</code> si aucun
+     */
+    Operation(String motCle) {
+        this.motCle = motCle == null ? new byte[0] : motCle.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reconnaît l'opération d'un mot.
+     *
+     * @param buffer Les octets qui contiennent le mot
+     * @param debut La position du premier octet du mot
+     * @param fin La position qui suit le dernier octet du mot
+     * @return L'opération du mot ; {@link #INCONNUE} si le mot n'est le mot-clé d'aucune opération
+     */
+    public static Operation rechercher(ByteBuffer buffer,
+        int debut,
+        int fin) {
+        int alveole = Operation.hacher(buffer,
+            debut,
+            fin);
+        Operation operation = Operation.TABLE[alveole];
+        while(operation != null) {
+            if(operation.correspond(buffer,
+                debut,
+                fin)) {
+                return operation;
+            }
+            alveole = (alveole + 1) & (Operation.TAILLE_TABLE - 1);
+            operation = Operation.TABLE[alveole];
+        }
+        return Operation.INCONNUE;
+    }
+
+    /**
+     * Calcule l'alvéole de {@link #TABLE} d'un mot.
+     *
+     * @param buffer Les octets qui contiennent le mot
+     * @param debut La position du premier octet du mot
+     * @param fin La position qui suit le dernier octet du mot
+     * @return L'alvéole du mot
+     */
+    private static int hacher(ByteBuffer buffer,
+        int debut,
+        int fin) {
+        int hache = fin - debut;
+        for(int i = debut; i < fin; i++) {
+            hache = 31 * hache + buffer.get(i);
+        }
+        return (hache ^ (hache >>> 16)) & (Operation.TAILLE_TABLE - 1);
+    }
+
+    /**
+     * Indique si un mot est le mot-clé de l'opération.
+     *
+     * @param buffer Les octets qui contiennent le mot
+     * @param debut La position du premier octet du mot
+     * @param fin La position qui suit le dernier octet du mot
+     * @return <code>true</code> si le mot est le mot-clé ; <code>false</code> sinon
+     */
+    private boolean correspond(ByteBuffer buffer,
+        int debut,
+        int fin) {
+        if(this.motCle.length == 0
+            || this.motCle.length != fin - debut) {
+            return false;
+        }
+        for(int i = 0; i < this.motCle.length; i++) {
+            if(buffer.get(debut + i) != this.motCle[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}